@@ -0,0 +1,117 @@
+/* MIT - License
+
+Copyright (c) 2012 - this year, Nils Schmidt
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE
+FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE. */
+package org.nschmidt.ldparteditor.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Locale;
+
+import org.nschmidt.ldparteditor.data.DatFile;
+import org.nschmidt.ldparteditor.workbench.PrimitiveCache;
+import org.nschmidt.ldparteditor.workbench.UserSettingState;
+import org.nschmidt.ldparteditor.workbench.WorkbenchManager;
+
+/**
+ * Provides the input data of the benchmarks. The benchmarks run without the
+ * windows of the application and without OpenGL, so only the default settings
+ * are loaded.
+ *
+ * @author nils
+ *
+ */
+public enum BenchmarkData {
+    INSTANCE;
+
+    private static boolean initialised = false;
+
+    /**
+     * Loads the default settings (instead of the settings from the config
+     * file)
+     */
+    public static synchronized void init() {
+        if (!initialised) {
+            WorkbenchManager.setUserSettingState(new UserSettingState());
+            WorkbenchManager.setPrimitiveCache(new PrimitiveCache());
+            initialised = true;
+        }
+    }
+
+    /**
+     * @param name
+     *            the name of a file from the "testcases" folder
+     * @return the file. The root folder of the project is read from the
+     *         system property "ldpe.root".
+     */
+    public static File getSample(String name) {
+        return new File(System.getProperty("ldpe.root", "."), "testcases" + File.separator + name); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+    }
+
+    /**
+     * Writes a curved surface with {@code size * size} quads (or twice as
+     * many triangles) to a temporary file
+     *
+     * @param size
+     *            the number of quads per row
+     * @param triangulated
+     *            {@code true} if every quad should be split into two
+     *            triangles
+     * @return the file (it will be deleted on exit)
+     */
+    public static File createMesh(int size, boolean triangulated) throws IOException {
+        final File file = File.createTempFile("ldpe_benchmark", ".dat"); //$NON-NLS-1$ //$NON-NLS-2$
+        file.deleteOnExit();
+        try (Writer w = new OutputStreamWriter(Files.newOutputStream(file.toPath()), StandardCharsets.UTF_8)) {
+            w.write("0 Benchmark Mesh\r\n"); //$NON-NLS-1$
+            w.write("0 Name: " + file.getName() + "\r\n"); //$NON-NLS-1$ //$NON-NLS-2$
+            w.write("0 BFC CERTIFY CCW\r\n"); //$NON-NLS-1$
+            for (int i = 0; i < size; i++) {
+                for (int j = 0; j < size; j++) {
+                    final String v1 = vertex(i, j);
+                    final String v2 = vertex(i + 1, j);
+                    final String v3 = vertex(i + 1, j + 1);
+                    final String v4 = vertex(i, j + 1);
+                    if (triangulated) {
+                        w.write("3 16 " + v1 + " " + v2 + " " + v3 + "\r\n"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+                        w.write("3 16 " + v3 + " " + v4 + " " + v1 + "\r\n"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+                    } else {
+                        w.write("4 16 " + v1 + " " + v2 + " " + v3 + " " + v4 + "\r\n"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+                    }
+                }
+            }
+        }
+        return file;
+    }
+
+    /**
+     * Reads and parses a file like the editor does when the file is opened
+     */
+    public static DatFile parse(File file) {
+        init();
+        final DatFile df = new DatFile(file.getAbsolutePath());
+        df.parseForData(false);
+        return df;
+    }
+
+    private static String vertex(int i, int j) {
+        // Every tenth row is a sharp edge, the rest is smooth
+        final double y = (i % 10 == 0 ? 4.0 : 0.0) + 2.0 * Math.sin(i / 4.0) * Math.cos(j / 4.0);
+        return String.format(Locale.ENGLISH, "%.4f %.4f %.4f", i * 10.0, y, j * 10.0); //$NON-NLS-1$
+    }
+}
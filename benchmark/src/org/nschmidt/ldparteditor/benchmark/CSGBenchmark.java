@@ -0,0 +1,178 @@
+/* MIT - License
+
+Copyright (c) 2012 - this year, Nils Schmidt
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE
+FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE. */
+package org.nschmidt.ldparteditor.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.lwjgl.util.vector.Matrix4f;
+import org.lwjgl.util.vector.Vector3f;
+import org.nschmidt.csg.CSG;
+import org.nschmidt.csg.CSGCache;
+import org.nschmidt.csg.CSGCube;
+import org.nschmidt.csg.CSGCylinder;
+import org.nschmidt.csg.CSGSphere;
+import org.nschmidt.ldparteditor.data.DatFile;
+import org.nschmidt.ldparteditor.data.GColour;
+import org.nschmidt.ldparteditor.data.GDataCSG;
+import org.nschmidt.ldparteditor.enums.View;
+import org.nschmidt.ldparteditor.text.DatParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the boolean operations of the CSG solids and the recalculation of
+ * a CSG expression tree after a single primitive was moved (with and without
+ * the {@link CSGCache}). The expression tree is parsed from "0 !LPE CSG_..."
+ * lines and calculated by {@link GDataCSG}, like the 3D editor does.
+ *
+ * @author nils
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class CSGBenchmark {
+
+    /** The number of cylinders in the expression tree (a power of two) */
+    private static final int LEAF_COUNT = 8;
+
+    @State(Scope.Benchmark)
+    public static class SolidState {
+
+        /** The number of slices of the sphere and the cylinders */
+        @Param({ "16", "32" })
+        public int quality;
+
+        private DatFile datFile;
+        private GColour colour;
+        private CSG sphere;
+        private CSG cylinder;
+        private CSG cube;
+        /** The CSG lines of a cube minus the union of the cylinders */
+        private final List<GDataCSG> data = new ArrayList<GDataCSG>();
+        private int moveCount = 0;
+
+        @Setup
+        public void setup() {
+            BenchmarkData.init();
+            datFile = new DatFile("csg_benchmark.dat"); //$NON-NLS-1$
+            colour = View.getLDConfigColour(16);
+            sphere = new CSGSphere(quality, quality / 2).toCSG(datFile, colour).transformed(scale(12f));
+            cylinder = new CSGCylinder(6.0, 30.0, quality).toCSG(datFile, colour).transformed(translation(0f, -15f, 0f));
+            cube = new CSGCube(20.0, 20.0, 20.0).toCSG(datFile, colour);
+            CSGCache.clear();
+            GDataCSG.fullReset(datFile);
+            data.clear();
+            data.add(parse("0 !LPE CSG_QUALITY " + quality)); //$NON-NLS-1$
+            data.add(parse("0 !LPE CSG_CUBOID cube 16 0 0 0 10 0 0 0 10 0 0 0 10")); //$NON-NLS-1$
+            for (int i = 0; i < LEAF_COUNT; i++) {
+                data.add(parse(cylinder(i, 0f)));
+            }
+            // Balanced union tree
+            String prefix = "c"; //$NON-NLS-1$
+            int level = 0;
+            for (int count = LEAF_COUNT; count > 1; count /= 2) {
+                for (int i = 0; i < count / 2; i++) {
+                    data.add(parse("0 !LPE CSG_UNION " + prefix + 2 * i + " " + prefix + (2 * i + 1) + " u" + level + "_" + i)); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+                }
+                prefix = "u" + level + "_"; //$NON-NLS-1$ //$NON-NLS-2$
+                level++;
+            }
+            data.add(parse("0 !LPE CSG_DIFFERENCE cube " + prefix + "0 result")); //$NON-NLS-1$ //$NON-NLS-2$
+            data.add(parse("0 !LPE CSG_COMPILE result")); //$NON-NLS-1$
+        }
+
+        private GDataCSG parse(String line) {
+            return (GDataCSG) DatParser.parseLine(line, 1, 0, colour.getR(), colour.getG(), colour.getB(), 1.1f, View.DUMMY_REFERENCE, View.ID, View.ACCURATE_ID, datFile, false,
+                    new HashSet<String>(), false).get(0).getGraphicalData();
+        }
+    }
+
+    @Benchmark
+    public CSG union(SolidState s) {
+        return s.sphere.union(s.cylinder);
+    }
+
+    @Benchmark
+    public CSG difference(SolidState s) {
+        return s.cube.difference(s.sphere).difference(s.cylinder);
+    }
+
+    @Benchmark
+    public Collection<CSG> recompile(SolidState s) {
+        CSGCache.clear(s.datFile);
+        return recompileTree(s);
+    }
+
+    @Benchmark
+    public Collection<CSG> recompileCached(SolidState s) {
+        return recompileTree(s);
+    }
+
+    /**
+     * Calculates a cube minus the union of eight cylinders. The first cylinder
+     * is moved a little bit on every call, like a primitive which is dragged
+     * in the 3D editor (its line is parsed again).
+     */
+    private static Collection<CSG> recompileTree(SolidState s) {
+        s.moveCount++;
+        // The first line is the quality, the second one is the cube
+        s.data.set(2, s.parse(cylinder(0, s.moveCount * .001f)));
+        GDataCSG.resetCSG(s.datFile, false);
+        for (GDataCSG gd : s.data) {
+            gd.drawAndParse(null, s.datFile, false);
+        }
+        GDataCSG.finishCacheCleanup(s.datFile);
+        return GDataCSG.getCSGs(s.datFile);
+    }
+
+    /**
+     * @return the line of a cylinder with a radius of 6 and a height of 30
+     */
+    private static String cylinder(int i, float offset) {
+        return String.format(Locale.ENGLISH, "0 !LPE CSG_CYLINDER c%d 16 %.4f -15 0 6 0 0 0 30 0 0 0 6", i, -14f + 4f * i + offset); //$NON-NLS-1$
+    }
+
+    private static Matrix4f translation(float x, float y, float z) {
+        final Matrix4f result = new Matrix4f();
+        Matrix4f.setIdentity(result);
+        result.translate(new Vector3f(x, y, z));
+        return result;
+    }
+
+    private static Matrix4f scale(float factor) {
+        final Matrix4f result = new Matrix4f();
+        Matrix4f.setIdentity(result);
+        result.scale(new Vector3f(factor, factor, factor));
+        return result;
+    }
+}
@@ -0,0 +1,131 @@
+/* MIT - License
+
+Copyright (c) 2012 - this year, Nils Schmidt
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE
+FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE. */
+package org.nschmidt.ldparteditor.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.nschmidt.ldparteditor.data.DatFile;
+import org.nschmidt.ldparteditor.data.GColour;
+import org.nschmidt.ldparteditor.data.ParsingResult;
+import org.nschmidt.ldparteditor.enums.View;
+import org.nschmidt.ldparteditor.text.DatParser;
+import org.nschmidt.ldparteditor.text.TokenizedLine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the parser with single lines and with whole files. The lines of a
+ * whole file are tokenized in parallel, so the gain of the first phase can be
+ * seen by comparing a run with a run restricted to one core (e.g. with
+ * {@code -jvmArgsAppend -XX:ActiveProcessorCount=1}).
+ *
+ * @author nils
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ParserBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class LineState {
+
+        /** A line of every type */
+        @Param({
+            "0 // Comment", //$NON-NLS-1$
+            "0 BFC INVERTNEXT", //$NON-NLS-1$
+            "2 24 -10 0 -10 10 0 -10", //$NON-NLS-1$
+            "3 16 -10 0 -10 10 0 -10 10 0 10", //$NON-NLS-1$
+            "4 16 -10 0 -10 10 0 -10 10 0 10 -10 0 10", //$NON-NLS-1$
+            "5 24 -10 0 -10 10 0 -10 10 0 10 -10 0 10" //$NON-NLS-1$
+        })
+        public String line;
+
+        private DatFile datFile;
+        private GColour col16;
+
+        @Setup
+        public void setup() {
+            BenchmarkData.init();
+            datFile = new DatFile("parser_benchmark.dat"); //$NON-NLS-1$
+            col16 = View.getLDConfigColour(16);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class FileState {
+
+        /**
+         * A sample file from the "testcases" folder, "mesh" for a generated
+         * file or "largemesh" for a generated file with 100000 lines
+         */
+        @Param({ "61071s04.dat", "ccw.dat", "nocertify.dat", "mesh", "largemesh" }) //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+        public String sample;
+
+        private File file;
+        private String[] lines;
+
+        @Setup
+        public void setup() throws IOException {
+            switch (sample) {
+            case "mesh": //$NON-NLS-1$
+                file = BenchmarkData.createMesh(64, false);
+                break;
+            case "largemesh": //$NON-NLS-1$
+                file = BenchmarkData.createMesh(316, false);
+                break;
+            default:
+                file = BenchmarkData.getSample(sample);
+                break;
+            }
+            final List<String> allLines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+            lines = allLines.toArray(new String[allLines.size()]);
+        }
+    }
+
+    @Benchmark
+    public ArrayList<ParsingResult> parseLine(LineState s) {
+        return DatParser.parseLine(s.line, 1, 0, s.col16.getR(), s.col16.getG(), s.col16.getB(), 1.1f, View.DUMMY_REFERENCE, View.ID, View.ACCURATE_ID, s.datFile, false, new HashSet<String>(), false);
+    }
+
+    @Benchmark
+    public DatFile parseFile(FileState s) {
+        return BenchmarkData.parse(s.file);
+    }
+
+    @Benchmark
+    public TokenizedLine[] tokenizeFile(FileState s) {
+        return TokenizedLine.tokenize(s.lines);
+    }
+}
@@ -0,0 +1,164 @@
+/* MIT - License
+
+Copyright (c) 2012 - this year, Nils Schmidt
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE
+FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE. */
+package org.nschmidt.ldparteditor.benchmark;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.nschmidt.ldparteditor.opengl.GL33Helper;
+import org.nschmidt.ldparteditor.opengl.VertexBufferPatch;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the upload of rebuilt vertex data as a whole and as a
+ * {@link VertexBufferPatch}. A direct buffer replaces the OpenGL buffer, so
+ * the benchmark measures the creation of the patch and the copied data (like
+ * {@link GL33Helper#uploadPatch(int, VertexBufferPatch)}), but not the driver.
+ * The patch saves the upload if the rebuilt data has not changed.
+ * <br>
+ * The setup applies the patches (and a merged patch) to a buffer with the old
+ * data and fails if the result differs from the new data.
+ *
+ * @author nils
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class VertexBufferPatchBenchmark {
+
+    /** The number of floats per vertex (position, normal and colour) */
+    private static final int VERTEX_SIZE = 10;
+
+    @State(Scope.Benchmark)
+    public static class UploadState {
+
+        /** The number of vertices */
+        @Param({ "30000", "300000" })
+        public int vertexCount;
+
+        /**
+         * The changed vertices: none, a block of selected vertices, every
+         * 50th vertex or all vertices
+         */
+        @Param({ "none", "block", "scattered", "all" })
+        public String change;
+
+        private float[] oldData;
+        private float[] newData;
+        private FloatBuffer buffer;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            final Random rnd = new Random(12345L);
+            oldData = new float[vertexCount * VERTEX_SIZE];
+            for (int i = 0; i < oldData.length; i++) {
+                oldData[i] = rnd.nextFloat();
+            }
+            // The half-way data is used to check the merge of two patches
+            final float[] halfData = oldData.clone();
+            newData = oldData.clone();
+            switch (change) {
+            case "none": //$NON-NLS-1$
+                break;
+            case "block": //$NON-NLS-1$
+                colourise(halfData, vertexCount / 3, vertexCount / 3 + 150, 1);
+                colourise(newData, vertexCount / 3, vertexCount / 3 + 300, 1);
+                break;
+            case "scattered": //$NON-NLS-1$
+                colourise(halfData, 0, vertexCount / 2, 50);
+                colourise(newData, 0, vertexCount, 50);
+                break;
+            default:
+                colourise(halfData, 0, vertexCount / 2, 1);
+                colourise(newData, 0, vertexCount, 1);
+                break;
+            }
+            buffer = ByteBuffer.allocateDirect(oldData.length * 4).order(ByteOrder.nativeOrder()).asFloatBuffer();
+            check(VertexBufferPatch.create(oldData, newData), "patch"); //$NON-NLS-1$
+            check(VertexBufferPatch.create(oldData, halfData).merge(VertexBufferPatch.create(halfData, newData)), "merged patch"); //$NON-NLS-1$
+        }
+
+        private void check(VertexBufferPatch patch, String name) {
+            buffer.clear();
+            buffer.put(oldData);
+            upload(patch, buffer);
+            final float[] result = new float[newData.length];
+            buffer.clear();
+            buffer.get(result);
+            if (!Arrays.equals(result, newData)) {
+                throw new IllegalStateException("The " + name + " does not restore the new data."); //$NON-NLS-1$ //$NON-NLS-2$
+            }
+            if (patch.getChangedSize() > newData.length) {
+                throw new IllegalStateException("The " + name + " changes more than the whole buffer."); //$NON-NLS-1$ //$NON-NLS-2$
+            }
+            if (patch.hasChanges() == Arrays.equals(oldData, newData)) {
+                throw new IllegalStateException("The " + name + " does not detect the changes."); //$NON-NLS-1$ //$NON-NLS-2$
+            }
+        }
+
+        private static void colourise(float[] data, int from, int to, int step) {
+            for (int v = from; v < to; v += step) {
+                final int pos = v * VERTEX_SIZE;
+                data[pos + 6] = 1f;
+                data[pos + 7] = 0f;
+                data[pos + 8] = 0f;
+                data[pos + 9] = 1f;
+            }
+        }
+    }
+
+    @Benchmark
+    public FloatBuffer fullUpload(UploadState s) {
+        s.buffer.clear();
+        s.buffer.put(s.newData);
+        return s.buffer;
+    }
+
+    @Benchmark
+    public FloatBuffer patchUpload(UploadState s) {
+        upload(VertexBufferPatch.create(s.oldData, s.newData), s.buffer);
+        return s.buffer;
+    }
+
+    /**
+     * Copies the data of the patch like
+     * {@link GL33Helper#uploadPatch(int, VertexBufferPatch)}
+     */
+    private static void upload(VertexBufferPatch patch, FloatBuffer buffer) {
+        if (patch.hasChanges()) {
+            buffer.clear();
+            buffer.put(patch.getData());
+        }
+    }
+}
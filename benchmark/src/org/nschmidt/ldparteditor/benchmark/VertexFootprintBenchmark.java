@@ -0,0 +1,117 @@
+/* MIT - License
+
+Copyright (c) 2012 - this year, Nils Schmidt
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE
+FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE. */
+package org.nschmidt.ldparteditor.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import org.nschmidt.ldparteditor.data.DatFile;
+import org.nschmidt.ldparteditor.data.Vertex;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the heap which is used by a parsed file and by the {@link Vertex}
+ * objects of its vertex manager (without their {@link BigDecimal}s). The
+ * values are reported as secondary results ("parsedFileBytes", "vertexBytes"
+ * and "vertexCount") of every run.
+ * <br>
+ * The used heap is measured after a garbage collection, so the results are
+ * only approximations. Every run uses a new fork with the same heap size to
+ * keep them comparable.
+ *
+ * @author nils
+ *
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = { "-Xms1g", "-Xmx1g" }) //$NON-NLS-1$ //$NON-NLS-2$
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class VertexFootprintBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class FileState {
+
+        /**
+         * A sample file from the "testcases" folder (the reference part) or
+         * "largemesh" for a generated file with 100000 quads
+         */
+        @Param({ "61071s04.dat", "largemesh" }) //$NON-NLS-1$ //$NON-NLS-2$
+        public String sample;
+
+        private File file;
+
+        @Setup(Level.Trial)
+        public void setup() throws IOException {
+            if ("largemesh".equals(sample)) { //$NON-NLS-1$
+                file = BenchmarkData.createMesh(316, false);
+            } else {
+                file = BenchmarkData.getSample(sample);
+            }
+            BenchmarkData.init();
+        }
+    }
+
+    /** The measured heap of the last run */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+        public long parsedFileBytes;
+        public long vertexBytes;
+        public long vertexCount;
+    }
+
+    @Benchmark
+    public Object footprint(FileState s, Footprint f) {
+        final long before = usedHeap();
+        final DatFile df = BenchmarkData.parse(s.file);
+        final long parsed = usedHeap();
+        // Copies of the vertices which share the BigDecimals show the size of the vertex objects alone
+        final Vertex[] copies = df.getVertexManager().getVertices().toArray(new Vertex[0]);
+        for (int i = 0; i < copies.length; i++) {
+            final Vertex v = copies[i];
+            copies[i] = new Vertex(v.X, v.Y, v.Z);
+        }
+        final long copied = usedHeap();
+        f.parsedFileBytes = parsed - before;
+        f.vertexBytes = copied - parsed;
+        f.vertexCount = copies.length;
+        // The results must stay reachable until the heap was measured
+        return new Object[] { df, copies };
+    }
+
+    private static long usedHeap() {
+        final Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return rt.totalMemory() - rt.freeMemory();
+    }
+}
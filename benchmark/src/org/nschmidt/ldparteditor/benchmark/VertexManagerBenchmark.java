@@ -0,0 +1,104 @@
+/* MIT - License
+
+Copyright (c) 2012 - this year, Nils Schmidt
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE
+FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE. */
+package org.nschmidt.ldparteditor.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.nschmidt.ldparteditor.data.DatFile;
+import org.nschmidt.ldparteditor.data.GData;
+import org.nschmidt.ldparteditor.data.VertexManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures adding, selecting and deleting the data of a generated mesh
+ *
+ * @author nils
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class VertexManagerBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class MeshState {
+
+        /** The number of quads per row */
+        @Param({ "32", "128" })
+        public int size;
+
+        File file;
+        DatFile datFile;
+        VertexManager vm;
+
+        @Setup(Level.Trial)
+        public void setup() throws IOException {
+            file = BenchmarkData.createMesh(size, false);
+            datFile = BenchmarkData.parse(file);
+            vm = datFile.getVertexManager();
+        }
+    }
+
+    /** A freshly parsed mesh with a selection for every invocation */
+    @State(Scope.Thread)
+    public static class SelectedMeshState {
+
+        VertexManager vm;
+
+        @Setup(Level.Invocation)
+        public void setup(MeshState mesh) {
+            vm = BenchmarkData.parse(mesh.file).getVertexManager();
+            vm.selectAll(null, true);
+        }
+    }
+
+    @Benchmark
+    public VertexManager add(MeshState s) {
+        s.vm.clear();
+        GData data = s.datFile.getDrawChainStart();
+        while ((data = data.getNext()) != null) {
+            s.vm.add(data);
+        }
+        return s.vm;
+    }
+
+    @Benchmark
+    public VertexManager selectAll(MeshState s) {
+        s.vm.selectAll(null, true);
+        return s.vm;
+    }
+
+    @Benchmark
+    public VertexManager delete(SelectedMeshState s) {
+        s.vm.delete(false, false);
+        return s.vm;
+    }
+}
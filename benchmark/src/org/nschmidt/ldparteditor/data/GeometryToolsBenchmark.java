@@ -0,0 +1,161 @@
+/* MIT - License
+
+Copyright (c) 2012 - this year, Nils Schmidt
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE
+FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE. */
+package org.nschmidt.ldparteditor.data;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.nschmidt.ldparteditor.benchmark.BenchmarkData;
+import org.nschmidt.ldparteditor.helpers.composite3d.Edger2Settings;
+import org.nschmidt.ldparteditor.helpers.composite3d.IntersectorSettings;
+import org.nschmidt.ldparteditor.helpers.composite3d.RectifierSettings;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the Edger2, the Rectifier, the Unificator and the Intersector with a
+ * generated mesh. The benchmark is part of the data package, since the steps
+ * of these tools are not public.
+ * <br>
+ * The Edger2 is measured without its last step (adding the new lines), because
+ * this step needs the colours of the 3D editor. The Unificator and the
+ * Intersector are measured without their progress dialogs and without the
+ * changes of the data.
+ *
+ * @author nils
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class GeometryToolsBenchmark {
+
+    /** Greater than the distance of the grid points, so that the groups are not trivial */
+    private static final BigDecimal UNIFY_THRESHOLD = new BigDecimal("12"); //$NON-NLS-1$
+
+    @State(Scope.Benchmark)
+    public static class MeshState {
+
+        /** The number of quads per row */
+        @Param({ "32", "128" })
+        public int size;
+
+        private File triangleFile;
+        private VertexManager vm;
+        /** The triangle mesh, cut by a plane of quads */
+        private VertexManager cutMesh;
+        private ArrayList<GData> planeQuads;
+        private ArrayList<GData> meshTriangles;
+
+        @Setup(Level.Trial)
+        public void setup() throws IOException {
+            vm = BenchmarkData.parse(BenchmarkData.createMesh(size, false)).getVertexManager();
+            triangleFile = BenchmarkData.createMesh(size, true);
+            cutMesh = BenchmarkData.parse(createCutMesh(size)).getVertexManager();
+            planeQuads = new ArrayList<GData>(cutMesh.quads.keySet());
+            meshTriangles = new ArrayList<GData>(cutMesh.triangles.keySet());
+            if (planeQuads.isEmpty() || meshTriangles.isEmpty()) {
+                throw new IllegalStateException("The cut mesh was not parsed."); //$NON-NLS-1$
+            }
+        }
+    }
+
+    /** A freshly parsed triangle mesh for every invocation (the Rectifier changes the data) */
+    @State(Scope.Thread)
+    public static class TriangleMeshState {
+
+        private VertexManager vm;
+
+        @Setup(Level.Invocation)
+        public void setup(MeshState mesh) {
+            vm = BenchmarkData.parse(mesh.triangleFile).getVertexManager();
+        }
+    }
+
+    @Benchmark
+    public HashMap<AccurateEdge, int[]> edger2(MeshState s) {
+        final TreeMap<Vertex, Vertex> snap = new TreeMap<Vertex, Vertex>();
+        final TreeMap<Vertex, TreeSet<Vertex>> snapToOriginal = new TreeMap<Vertex, TreeSet<Vertex>>();
+        s.vm.snapVertices(new Edger2Settings().getEqualDistance(), snap, snapToOriginal);
+        return s.vm.countEdges(snap, new HashSet<AccurateEdge>(), false);
+    }
+
+    @Benchmark
+    public int[] rectifier(TriangleMeshState s) {
+        return s.vm.rectify(new RectifierSettings(), false, false);
+    }
+
+    /** The VertexGrid pass of the Unificator (snapping on the file vertices) */
+    @Benchmark
+    public TreeMap<Vertex, Vertex> unificator(MeshState s) {
+        final TreeSet<Vertex> fileVertices = new TreeSet<Vertex>();
+        final TreeSet<Vertex> subfileVertices = new TreeSet<Vertex>();
+        s.vm.sortOutVertices(s.vm.getVertices(), fileVertices, subfileVertices);
+        return s.vm.unifyVertices(fileVertices, subfileVertices, UNIFY_THRESHOLD, 0);
+    }
+
+    @Benchmark
+    public ArrayList<IntersectionInfoWithColour> intersector(MeshState s) {
+        final HashSet<GData> intersectingObjects = new HashSet<GData>();
+        return s.cutMesh.calculateIntersections(s.planeQuads, s.meshTriangles, new IntersectorSettings(), Collections.synchronizedSet(intersectingObjects), new NullProgressMonitor());
+    }
+
+    /**
+     * Writes the triangulated mesh and a plane of quads at half height, which
+     * cuts the mesh
+     */
+    private static File createCutMesh(int size) throws IOException {
+        final File file = BenchmarkData.createMesh(size, true);
+        try (Writer w = new OutputStreamWriter(Files.newOutputStream(file.toPath(), StandardOpenOption.APPEND), StandardCharsets.UTF_8)) {
+            final int quadSize = Math.max(1, size / 8);
+            for (int i = 0; i < size; i += quadSize) {
+                for (int j = 0; j < size; j += quadSize) {
+                    final int i2 = Math.min(size, i + quadSize);
+                    final int j2 = Math.min(size, j + quadSize);
+                    w.write(String.format(Locale.ENGLISH, "4 4 %1$d 1 %2$d %3$d 1 %2$d %3$d 1 %4$d %1$d 1 %4$d\r\n", i * 10, j * 10, i2 * 10, j2 * 10)); //$NON-NLS-1$
+                }
+            }
+        }
+        return file;
+    }
+}
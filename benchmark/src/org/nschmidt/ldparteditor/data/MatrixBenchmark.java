@@ -0,0 +1,89 @@
+/* MIT - License
+
+Copyright (c) 2012 - this year, Nils Schmidt
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE
+FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE. */
+package org.nschmidt.ldparteditor.data;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the transformation of 50000 vertices with the compact matrix (the
+ * default) and with {@link BigDecimal} arithmetic only. The benchmark is part
+ * of the data package, since the {@link BigDecimal} transformation is not
+ * public.
+ * <br>
+ * The setup runs the {@link MatrixCheck} and fails if the compact matrix can
+ * not transform every point or if its results are different.
+ *
+ * @author nils
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class MatrixBenchmark {
+
+    private static final int VERTEX_COUNT = 50000;
+
+    @State(Scope.Benchmark)
+    public static class TransformationState {
+
+        /** The type of the matrix */
+        @Param({ "translation", "mirror", "rotation" })
+        public String type;
+
+        private Matrix matrix;
+        private BigDecimal[] coordinates;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            matrix = MatrixCheck.createMatrix(type);
+            coordinates = MatrixCheck.createCoordinates(VERTEX_COUNT);
+            MatrixCheck.check(matrix, coordinates);
+        }
+    }
+
+    @Benchmark
+    public void transform(TransformationState s, Blackhole bh) {
+        final BigDecimal[] c = s.coordinates;
+        for (int i = 0; i < c.length; i += 3) {
+            bh.consume(s.matrix.transform(c[i], c[i + 1], c[i + 2]));
+        }
+    }
+
+    @Benchmark
+    public void transformExact(TransformationState s, Blackhole bh) {
+        final BigDecimal[] c = s.coordinates;
+        for (int i = 0; i < c.length; i += 3) {
+            bh.consume(s.matrix.transformExact(c[i], c[i + 1], c[i + 2]));
+        }
+    }
+}
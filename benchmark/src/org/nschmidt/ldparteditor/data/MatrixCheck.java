@@ -0,0 +1,137 @@
+/* MIT - License
+
+Copyright (c) 2012 - this year, Nils Schmidt
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE
+FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE. */
+package org.nschmidt.ldparteditor.data;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+/**
+ * Checks the compact matrix without a benchmark harness or a display. It is
+ * started with {@link #main(String[])} and used by the setup of the
+ * {@link MatrixBenchmark}.
+ * <br>
+ * For a translation, a mirror and a rotation it checks that
+ * <ul>
+ * <li>the compact matrix transforms every point (no fallback to the
+ * {@link BigDecimal} calculation)</li>
+ * <li>the result has the same value and scale as the {@link BigDecimal}
+ * calculation with the rounded matrix</li>
+ * <li>the transformation with the inverse matrix returns the original
+ * point</li>
+ * </ul>
+ *
+ * @author nils
+ *
+ */
+public final class MatrixCheck {
+
+    /** The types of the checked matrices */
+    static final String[] TYPES = new String[] { "translation", "mirror", "rotation" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+
+    /** The maximum difference of a round trip */
+    private static final BigDecimal EPSILON = new BigDecimal("1E-6"); //$NON-NLS-1$
+
+    private MatrixCheck() {
+    }
+
+    public static void main(String[] args) {
+        final BigDecimal[] coordinates = createCoordinates(50000);
+        for (String type : TYPES) {
+            check(createMatrix(type), coordinates);
+            System.out.println(type + ": OK"); //$NON-NLS-1$
+        }
+    }
+
+    static Matrix createMatrix(String type) {
+        final BigDecimal o = BigDecimal.ZERO;
+        final BigDecimal l = BigDecimal.ONE;
+        final BigDecimal x = new BigDecimal("12.5"); //$NON-NLS-1$
+        final BigDecimal y = new BigDecimal("-8"); //$NON-NLS-1$
+        final BigDecimal z = new BigDecimal("0.375"); //$NON-NLS-1$
+        switch (type) {
+        case "translation": //$NON-NLS-1$
+            return new Matrix(l, o, o, o, o, l, o, o, o, o, l, o, x, y, z, l);
+        case "mirror": //$NON-NLS-1$
+            return new Matrix(l.negate(), o, o, o, o, l, o, o, o, o, new BigDecimal("-2.5"), o, x, y, z, l); //$NON-NLS-1$
+        case "rotation": //$NON-NLS-1$
+            // The same kind of entries as the rotations of the 3D editor
+            final BigDecimal c = new BigDecimal(Math.cos(Math.PI / 7.0));
+            final BigDecimal s = new BigDecimal(Math.sin(Math.PI / 7.0));
+            return new Matrix(c, s, o, o, s.negate(), c, o, o, o, o, l, o, x, y, z, l);
+        default:
+            throw new IllegalArgumentException(type);
+        }
+    }
+
+    /** LDraw coordinates (up to 1000 LDU) with up to three decimal places */
+    static BigDecimal[] createCoordinates(int vertexCount) {
+        final Random rnd = new Random(12345L);
+        final BigDecimal[] coordinates = new BigDecimal[vertexCount * 3];
+        for (int i = 0; i < coordinates.length; i++) {
+            final int decimalPlaces = rnd.nextInt(4);
+            final int limit = 1000 * (int) Math.pow(10, decimalPlaces);
+            coordinates[i] = BigDecimal.valueOf(rnd.nextInt(2 * limit + 1) - limit, decimalPlaces);
+        }
+        return coordinates;
+    }
+
+    /**
+     * @throws IllegalStateException
+     *             if a check fails
+     */
+    static void check(Matrix matrix, BigDecimal[] coordinates) {
+        final BigDecimal[][] entries = getEntries(matrix);
+        final BigDecimal[][] roundedEntries = new BigDecimal[4][4];
+        for (int column = 0; column < 4; column++) {
+            for (int row = 0; row < 4; row++) {
+                roundedEntries[column][row] = CompactMatrix.round(entries[column][row]);
+            }
+        }
+        final Matrix rounded = new Matrix(roundedEntries);
+        final Matrix inverse = matrix.invert();
+        final CompactMatrix compact = CompactMatrix.create(entries);
+        if (compact == null) {
+            throw new IllegalStateException("No compact matrix."); //$NON-NLS-1$
+        }
+        for (int i = 0; i < coordinates.length; i += 3) {
+            final BigDecimal[] c = compact.transform(coordinates[i], coordinates[i + 1], coordinates[i + 2]);
+            if (c == null) {
+                throw new IllegalStateException("The compact matrix can not transform the point " + i / 3); //$NON-NLS-1$
+            }
+            final BigDecimal[] a = matrix.transform(coordinates[i], coordinates[i + 1], coordinates[i + 2]);
+            final BigDecimal[] b = rounded.transformExact(coordinates[i], coordinates[i + 1], coordinates[i + 2]);
+            for (int j = 0; j < 4; j++) {
+                if (!a[j].equals(b[j]) || !c[j].equals(b[j])) {
+                    throw new IllegalStateException("Different results: " + a[j] + " / " + c[j] + " / " + b[j]); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+                }
+            }
+            final BigDecimal[] back = inverse.transform(a[0], a[1], a[2]);
+            for (int j = 0; j < 3; j++) {
+                if (back[j].subtract(coordinates[i + j]).abs().compareTo(EPSILON) > 0) {
+                    throw new IllegalStateException("The round trip failed: " + back[j] + " / " + coordinates[i + j]); //$NON-NLS-1$ //$NON-NLS-2$
+                }
+            }
+        }
+    }
+
+    private static BigDecimal[][] getEntries(Matrix m) {
+        return new BigDecimal[][] {
+            { m.M00, m.M01, m.M02, m.M03 },
+            { m.M10, m.M11, m.M12, m.M13 },
+            { m.M20, m.M21, m.M22, m.M23 },
+            { m.M30, m.M31, m.M32, m.M33 } };
+    }
+}
@@ -0,0 +1,248 @@
+/* MIT - License
+
+Copyright (c) 2012 - this year, Nils Schmidt
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE
+FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE. */
+package org.nschmidt.ldparteditor.text;
+
+import java.awt.Font;
+import java.awt.Shape;
+import java.awt.font.FontRenderContext;
+import java.awt.font.GlyphVector;
+import java.awt.geom.PathIterator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.nschmidt.delaunay.ConstrainedTriangulation;
+import org.nschmidt.delaunay.Pnt;
+import org.nschmidt.delaunay.Triangle;
+import org.nschmidt.delaunay.Triangulation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the triangulation of the glyphs of a fixed text with the
+ * {@link ConstrainedTriangulation} of the text triangulator and with the
+ * previous Bowyer-Watson {@link Triangulation}, which classified its triangles
+ * with {@link Shape#contains(double, double)}. The previous implementation
+ * stopped after 4000 triangles. This limit is not applied here. The benchmark
+ * is part of the text package, since the triangulation of an outline is not
+ * public.
+ * <br>
+ * The setup checks that the triangles of the constrained triangulation cover
+ * the rectangle around every glyph and that the triangles inside the glyph
+ * have the area of the glyph. It fails if this is not the case.
+ *
+ * @author nils
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class TriangulatorBenchmark {
+
+    /** The defaults of the TXT2DAT dialog */
+    private static final double FLATNESS = 0.1;
+    private static final double INTERPOLATE_FLATNESS = 0.5;
+
+    @State(Scope.Benchmark)
+    public static class TextState {
+
+        /** The triangulated text */
+        @Param({ "LDraw", "0123456789", "&%@Wgq" }) //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        public String text;
+
+        /** The font size in points */
+        @Param({ "12", "24" })
+        public int size;
+
+        private Shape[] glyphs;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            // A logical font is available on every platform
+            final Font font = new Font(Font.SERIF, Font.PLAIN, size);
+            final GlyphVector vector = font.createGlyphVector(new FontRenderContext(null, false, false), text);
+            glyphs = new Shape[vector.getNumGlyphs()];
+            for (int i = 0; i < glyphs.length; i++) {
+                glyphs[i] = vector.getGlyphOutline(i);
+                check(glyphs[i]);
+            }
+        }
+
+        private static void check(Shape glyph) {
+            double insideArea = 0.0;
+            double totalArea = 0.0;
+            for (double[] t : TextTriangulator.triangulateOutline(glyph, FLATNESS, INTERPOLATE_FLATNESS)) {
+                final double area = Math.abs((t[2] - t[0]) * (t[5] - t[1]) - (t[4] - t[0]) * (t[3] - t[1])) / 2.0;
+                totalArea += area;
+                if (t[6] > 0.0) {
+                    insideArea += area;
+                }
+            }
+            final double w = glyph.getBounds2D().getWidth();
+            final double h = glyph.getBounds2D().getHeight();
+            if (w * h > 0.0 && Math.abs(totalArea - w * h) > 1e-6 * w * h) {
+                throw new IllegalStateException("The triangles do not cover the glyph rectangle: " + totalArea + " / " + w * h); //$NON-NLS-1$ //$NON-NLS-2$
+            }
+            final double glyphArea = getArea(glyph);
+            if (Math.abs(insideArea - glyphArea) > 1e-6 * w * h) {
+                throw new IllegalStateException("The triangles do not cover the glyph: " + insideArea + " / " + glyphArea); //$NON-NLS-1$ //$NON-NLS-2$
+            }
+        }
+
+        /**
+         * @return the area of the flattened glyph (the sum of the signed
+         *         areas of its contours)
+         */
+        private static double getArea(Shape glyph) {
+            final PathIterator it = glyph.getPathIterator(null, FLATNESS);
+            final double[] args = new double[6];
+            double area = 0.0;
+            double x = 0, y = 0, startX = 0, startY = 0;
+            while (!it.isDone()) {
+                final double px = x;
+                final double py = y;
+                switch (it.currentSegment(args)) {
+                case PathIterator.SEG_MOVETO:
+                    x = startX = args[0];
+                    y = startY = args[1];
+                    break;
+                case PathIterator.SEG_LINETO:
+                    x = args[0];
+                    y = args[1];
+                    area += px * y - x * py;
+                    break;
+                case PathIterator.SEG_CLOSE:
+                    x = startX;
+                    y = startY;
+                    area += px * y - x * py;
+                    break;
+                default:
+                    break;
+                }
+                it.next();
+            }
+            return Math.abs(area) / 2.0;
+        }
+    }
+
+    @Benchmark
+    public int constrainedTriangulation(TextState s) {
+        int result = 0;
+        for (Shape glyph : s.glyphs) {
+            for (double[] triangle : TextTriangulator.triangulateOutline(glyph, FLATNESS, INTERPOLATE_FLATNESS)) {
+                if (triangle[6] > 0.0) {
+                    result++;
+                }
+            }
+        }
+        return result;
+    }
+
+    @Benchmark
+    public int delaunayTriangulation(TextState s) {
+        int result = 0;
+        for (Shape glyph : s.glyphs) {
+            result += triangulateWithDelaunay(glyph);
+        }
+        return result;
+    }
+
+    /**
+     * The triangulation of the previous text triangulator (without the
+     * creation of the triangle data)
+     *
+     * @return the number of triangles inside the glyph
+     */
+    private static int triangulateWithDelaunay(Shape shape) {
+        final PathIterator shapePathIterator = shape.getPathIterator(null, FLATNESS);
+        final List<Pnt> places = new ArrayList<Pnt>();
+        double x = 0, y = 0;
+        double minX = Double.MAX_VALUE;
+        double minY = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE;
+        double maxY = -Double.MAX_VALUE;
+        final double[] args = new double[6];
+        while (!shapePathIterator.isDone()) {
+            final double px = x;
+            final double py = y;
+            final int type = shapePathIterator.currentSegment(args);
+            if (type == PathIterator.SEG_MOVETO) {
+                x = args[0];
+                y = args[1];
+            } else if (type == PathIterator.SEG_LINETO) {
+                x = args[0];
+                y = args[1];
+                if (px != x || py != y) {
+                    places.add(new Pnt(px, py));
+                    final double length = Math.sqrt((x - px) * (x - px) + (y - py) * (y - py));
+                    final double num = length / INTERPOLATE_FLATNESS;
+                    if (num > 1) {
+                        double cx = px;
+                        double cy = py;
+                        double ll = length - (num - Math.floor(num)) / 2.0;
+                        while (ll > INTERPOLATE_FLATNESS) {
+                            places.add(new Pnt(cx, cy));
+                            cx = cx + (x - px) / num;
+                            cy = cy + (y - py) / num;
+                            ll = ll - INTERPOLATE_FLATNESS;
+                        }
+                    }
+                    places.add(new Pnt(x, y));
+                    minX = Math.min(minX, Math.min(px, x));
+                    minY = Math.min(minY, Math.min(py, y));
+                    maxX = Math.max(maxX, Math.max(px, x));
+                    maxY = Math.max(maxY, Math.max(py, y));
+                }
+            }
+            shapePathIterator.next();
+        }
+        if (places.isEmpty()) {
+            return 0;
+        }
+        final double TRISIZE = 100000d;
+        final Triangle tri = new Triangle(new Pnt(-TRISIZE / 2.0, TRISIZE), new Pnt(+TRISIZE / 2.0, TRISIZE), new Pnt(0, -TRISIZE));
+        final Triangulation triangulation = new Triangulation(tri);
+        triangulation.delaunayPlace(new Pnt(minX, minY));
+        triangulation.delaunayPlace(new Pnt(maxX, minY));
+        triangulation.delaunayPlace(new Pnt(maxX, maxY));
+        triangulation.delaunayPlace(new Pnt(minX, maxY));
+        for (Pnt place : places) {
+            triangulation.delaunayPlace(place);
+        }
+        int result = 0;
+        for (Triangle triangle : triangulation) {
+            final Pnt p1 = triangle.get(0);
+            final Pnt p2 = triangle.get(1);
+            final Pnt p3 = triangle.get(2);
+            if (shape.contains((p1.coord(0) + p2.coord(0) + p3.coord(0)) / 3.0, (p1.coord(1) + p2.coord(1) + p3.coord(1)) / 3.0)) {
+                result++;
+            }
+        }
+        return result;
+    }
+}
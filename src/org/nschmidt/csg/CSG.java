@@ -35,12 +35,8 @@ package org.nschmidt.csg;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
-import java.util.Random;
 import java.util.Stack;
 import java.util.TreeMap;
 import java.util.concurrent.CompletableFuture;
@@ -56,7 +52,9 @@ import org.nschmidt.ldparteditor.data.GColour;
 import org.nschmidt.ldparteditor.data.GData1;
 import org.nschmidt.ldparteditor.data.GData3;
 import org.nschmidt.ldparteditor.enums.View;
+import org.nschmidt.ldparteditor.helpers.Metrics;
 import org.nschmidt.ldparteditor.helpers.composite3d.GuiStatusManager;
+import org.nschmidt.ldparteditor.helpers.composite3d.ViewIdleManager;
 import org.nschmidt.ldparteditor.logger.NLogger;
 
 /**
@@ -114,7 +112,14 @@ import org.nschmidt.ldparteditor.logger.NLogger;
  */
 public class CSG {
 
+    private static final Metrics.Timer unionTimer = Metrics.timer("csg.union"); //$NON-NLS-1$
+    private static final Metrics.Timer differenceTimer = Metrics.timer("csg.difference"); //$NON-NLS-1$
+    private static final Metrics.Timer intersectionTimer = Metrics.timer("csg.intersect"); //$NON-NLS-1$
+    /** The time to convert a solid into LDraw triangles */
+    private static final Metrics.Timer compileTimer = Metrics.timer("csg.compile"); //$NON-NLS-1$
+
     TreeMap<GData3, IdAndPlane> result = new TreeMap<>();
+    private volatile boolean compiled = false;
 
     private List<Polygon> polygons;
     private Bounds bounds = null;
@@ -219,6 +224,7 @@ public class CSG {
      */
     public CSG union(CSG csg) {
 
+        final long start = unionTimer.start();
         final List<Polygon> thisPolys = this.clone().polygons;
         final List<Polygon> otherPolys = csg.clone().polygons;
         final Bounds thisBounds = this.getBounds();
@@ -270,6 +276,7 @@ public class CSG {
             }
 
             final List<Polygon> resultPolys = a.allPolygons(nonIntersectingPolys);
+            unionTimer.stop(start);
             return CSG.fromPolygons(resultPolys);
         } catch (ExecutionException | InterruptedException e) {
             // Exceptions sollten (tm) schon im "join" geworfen worden sein.
@@ -307,6 +314,7 @@ public class CSG {
      */
     public CSG difference(CSG csg) {
 
+        final long start = differenceTimer.start();
         final List<Polygon> thisPolys = this.clone().polygons;
         final List<Polygon> otherPolys = csg.clone().polygons;
         final Bounds thisBounds = this.getBounds();
@@ -362,6 +370,7 @@ public class CSG {
         a.invert();
 
         final List<Polygon> resultPolys = a.allPolygons(nonIntersectingPolys);
+        differenceTimer.stop(start);
         return CSG.fromPolygons(resultPolys);
     }
 
@@ -395,6 +404,7 @@ public class CSG {
      */
     public CSG intersect(CSG csg) {
 
+        final long start = intersectionTimer.start();
         CompletableFuture<Node> f1 = CompletableFuture.supplyAsync(() -> new Node(this.clone().polygons));
         CompletableFuture<Node> f2 = CompletableFuture.supplyAsync(() -> new Node(csg.clone().polygons));
         CompletableFuture.allOf(f1, f2).join();
@@ -428,7 +438,9 @@ public class CSG {
         }
 
         a.invert();
-        return CSG.fromPolygons(a.allPolygons(new ArrayList<>()));
+        final List<Polygon> resultPolys = a.allPolygons(new ArrayList<>());
+        intersectionTimer.stop(start);
+        return CSG.fromPolygons(resultPolys);
     }
 
     /**
@@ -445,15 +457,27 @@ public class CSG {
     }
 
     public GData1 compile() {
+        final long start = compileTimer.start();
         Matrix4f id = new Matrix4f();
         Matrix4f.setIdentity(id);
         GColour col = View.getLDConfigColour(16);
         GData1 g1 = new GData1(-1, col.getR(), col.getG(), col.getB(), 1f, id, View.ACCURATE_ID, new ArrayList<String>(), null, null, 1, false, id, View.ACCURATE_ID, null, View.DUMMY_REFERENCE, true, false,
                 new HashSet<String>(), View.DUMMY_REFERENCE);
         this.result = toLDrawTriangles(g1);
+        optimizer = null;
+        optimizedResult = null;
+        compiled = true;
+        compileTimer.stop(start);
         return g1;
     }
 
+    /**
+     * @return {@code true} if {@link #compile()} was called on this solid
+     */
+    public boolean isCompiled() {
+        return compiled;
+    }
+
     public void draw(Composite3D c3d, DatFile df) {
         for (GData3 tri : getResult(df).keySet()) {
             tri.drawGL20(c3d);
@@ -466,122 +490,41 @@ public class CSG {
         }
     }
 
-    private volatile boolean shouldOptimize = true;
     private volatile TreeMap<GData3, IdAndPlane> optimizedResult = null;
-    private volatile TreeMap<GData3, IdAndPlane> optimizedTriangles = new TreeMap<>();
-    private final Random rnd = new Random(12345678L);
+    private volatile CSGOptimizer optimizer = null;
+    private volatile boolean optimizing = false;
+    private volatile long timeOfLastAccess = 0L;
+    /** Runs one optimization after the other */
     public static ExecutorService executorService = Executors.newSingleThreadExecutor();
 
     public static volatile long timeOfLastOptimization = -1;
     public static volatile double globalOptimizationRate = 100.0;
 
-    public volatile double optimizationTries = 1.0;
-    public volatile double optimizationSuccess = 1.0;
-    public volatile double failureStrike = 0;
-    private volatile int tjunctionPause = 0;
-    private volatile int flipPause = 0;
-
-    private final Map<GData3, Map<GData3, Boolean>> flipCache = new HashMap<>();
-
     public TreeMap<GData3, IdAndPlane> getResult(DatFile df) {
 
-        if (optimizedTriangles.isEmpty() && df != null && df.isOptimizingCSG()) {
-            optimizedTriangles = new TreeMap<>();
-            optimizedTriangles.putAll(result);
-        }
-
-        if (shouldOptimize && df != null && df.isOptimizingCSG()) {
-            final Composite3D lastC3d = DatFile.getLastHoveredComposite();
-            if (lastC3d != null) {
-                Display.getDefault().asyncExec(() -> {GuiStatusManager.updateStatus(lastC3d);});
+        timeOfLastAccess = System.currentTimeMillis();
+        if (!optimizing && df != null && df.isOptimizingCSG() && (optimizer == null || !optimizer.isFinished())) {
+            if (optimizer == null) {
+                optimizer = new CSGOptimizer(result);
             }
-
-            shouldOptimize = false;
+            final CSGOptimizer opt = optimizer;
+            optimizing = true;
             executorService.execute(() -> {
-
-                TreeMap<GData3, IdAndPlane> optimization = new TreeMap<>();
-                if (optimizedResult != null) {
-                    optimization.putAll(optimizedResult);
-                } else {
-                    optimization.putAll(optimizedTriangles);
-                }
-
-                // Optimize for each plane
-                Map<Plane, List<GData3>> trianglesPerPlane = new TreeMap<>();
-                List<GData3> obsoleteTriangles = new ArrayList<>();
-                for (Entry<GData3, IdAndPlane> entry : optimization.entrySet()) {
-                    IdAndPlane id = entry.getValue();
-                    if (id == null) {
-                        obsoleteTriangles.add(entry.getKey());
-                        continue;
-                    }
-                    final Plane p = id.plane;
-                    List<GData3> triangles = trianglesPerPlane.get(p);
-                    if (triangles == null) {
-                        triangles = new ArrayList<>();
-                        triangles.add(entry.getKey());
-                        trianglesPerPlane.put(p, triangles);
-                    } else {
-                        triangles.add(entry.getKey());
-                    }
-                }
-                for (GData3 g : obsoleteTriangles) {
-                    optimization.remove(g);
-                }
-
-                int action = rnd.nextInt(3);
-                boolean foundOptimization = false;
-
-                if (action == 0 || action == 2) {
-                    if (tjunctionPause > 0) {
-                        tjunctionPause--;
-                        action = 2;
-                    } else {
-                        foundOptimization = CSGOptimizerTJunction.optimize(rnd, trianglesPerPlane, optimization);
-                        if (!foundOptimization) {
-                            tjunctionPause = 1000;
+                try {
+                    // The optimization pauses when the solid is not drawn any more
+                    opt.run(() -> !df.isOptimizingCSG() || System.currentTimeMillis() - timeOfLastAccess > 2000L, optimization -> {
+                        optimizedResult = optimization;
+                        globalOptimizationRate = opt.getProgress() * 100.0;
+                        timeOfLastOptimization = System.currentTimeMillis();
+                        final Composite3D lastC3d = DatFile.getLastHoveredComposite();
+                        if (lastC3d != null) {
+                            Display.getDefault().asyncExec(() -> {GuiStatusManager.updateStatus(lastC3d);});
                         }
-                    }
+                        ViewIdleManager.requestFrames();
+                    });
+                } finally {
+                    optimizing = false;
                 }
-
-                if (action == 1) {
-                    if (flipPause > 0) {
-                        flipPause--;
-                        action = 2;
-                    } else {
-                        foundOptimization = CSGOptimizerFlipTriangle.optimize(rnd, trianglesPerPlane, optimization, flipCache);
-                        if (!foundOptimization) {
-                            flipPause = 1000;
-                        }
-                    }
-                }
-
-                if (action == 2 && tjunctionPause > 0) {
-                    foundOptimization = CSGOptimizerEdgeCollapse.optimize(rnd, trianglesPerPlane, optimization);
-                    if (!foundOptimization) {
-                        flipPause = 0;
-                    }
-                }
-
-                if (foundOptimization) {
-                    optimizationSuccess++;
-                    failureStrike = 0;
-                } else if (optimizationSuccess > 0) {
-                    optimizationSuccess--;
-                    if (failureStrike < 100) {
-                        failureStrike++;
-                    }
-                }
-                optimizationTries++;
-
-                final double rate = Math.max(1.0 - optimizationSuccess / optimizationTries, failureStrike / 100.0) * 100.0;
-                if (rate < 99.0 && failureStrike < 100) {
-                    globalOptimizationRate = rate;
-                    timeOfLastOptimization = System.currentTimeMillis();
-                }
-
-                optimizedResult = optimization;
-                shouldOptimize = true;
             });
         }
 
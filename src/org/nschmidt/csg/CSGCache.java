@@ -0,0 +1,328 @@
+/* MIT - License
+
+Copyright (c) 2012 - this year, Nils Schmidt
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE
+FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE. */
+package org.nschmidt.csg;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+import org.lwjgl.util.vector.Matrix4f;
+import org.nschmidt.ldparteditor.data.DatFile;
+import org.nschmidt.ldparteditor.data.GColour;
+import org.nschmidt.ldparteditor.data.GColourIndex;
+import org.nschmidt.ldparteditor.helpers.Metrics;
+
+/**
+ * Caches the solids of a CSG expression tree by their content. The key of a
+ * primitive is calculated from its polygons (the primitive type, the
+ * transformation, the quality and the colour) and the key of an operation is
+ * calculated from the keys of its operands. When a single primitive of the
+ * tree was changed, only the operations on the path from this primitive to
+ * the root have a new key and have to be calculated again.
+ * <br>
+ * The least recently used solids are removed when the estimated size of the
+ * cache exceeds its maximum size.
+ *
+ * @author nils
+ *
+ */
+public enum CSGCache {
+    INSTANCE;
+
+    /** The default maximum size of the cache in bytes */
+    public static final long DEFAULT_MAX_SIZE = 64L * 1024L * 1024L;
+
+    private static final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<Key, Entry>(64, .75f, true);
+    private static long size = 0L;
+    private static long maxSize = DEFAULT_MAX_SIZE;
+
+    private static final Metrics.Counter hitCounter = Metrics.counter("csg.cache.hit"); //$NON-NLS-1$
+    private static final Metrics.Counter missCounter = Metrics.counter("csg.cache.miss"); //$NON-NLS-1$
+
+    /**
+     * The content based key of a solid (a 128 bit hash)
+     */
+    public static final class Key {
+
+        private final long h1;
+        private final long h2;
+
+        private Key(long h1, long h2) {
+            this.h1 = h1;
+            this.h2 = h2;
+        }
+
+        @Override
+        public int hashCode() {
+            return (int) (h1 ^ h1 >>> 32);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj)
+                return true;
+            if (!(obj instanceof Key))
+                return false;
+            final Key other = (Key) obj;
+            return h1 == other.h1 && h2 == other.h2;
+        }
+    }
+
+    private static final class Entry {
+        private final CSG csg;
+        private final DatFile df;
+        private final long size;
+
+        private Entry(CSG csg, DatFile df, long size) {
+            this.csg = csg;
+            this.df = df;
+            this.size = size;
+        }
+    }
+
+    /**
+     * Builds the key of a primitive solid from its content. The IDs of the
+     * polygons are not part of the key.
+     *
+     * @param name
+     *            the name of the solid in the CSG expression
+     * @param csg
+     *            the transformed primitive
+     * @return the key
+     */
+    public static Key getPrimitiveKey(String name, CSG csg) {
+        final Hash hash = new Hash(1);
+        hash.add(name);
+        for (Polygon p : csg.getPolygons()) {
+            hash.add(p.vertices.size());
+            for (VectorCSGd v : p.vertices) {
+                hash.add(v.x);
+                hash.add(v.y);
+                hash.add(v.z);
+            }
+            final GColourIndex ci = p.getColour();
+            hash.add(ci == null ? null : ci.getColour());
+        }
+        return hash.toKey();
+    }
+
+    /**
+     * Builds the key of a union, difference or intersection
+     *
+     * @param type
+     *            the type of the operation (e.g. {@link CSG#UNION})
+     * @param a
+     *            the key of the first operand
+     * @param b
+     *            the key of the second operand
+     * @return the key
+     */
+    public static Key getOperationKey(byte type, Key a, Key b) {
+        final Hash hash = new Hash(2);
+        hash.add(type);
+        hash.add(a);
+        hash.add(b);
+        // The result depends on the tolerance of the plane classification
+        hash.add(Plane.EPSILON);
+        return hash.toKey();
+    }
+
+    /**
+     * Builds the key of a transformed and coloured solid
+     *
+     * @param a
+     *            the key of the solid
+     * @param matrix
+     *            the transformation
+     * @param colour
+     *            the colour
+     * @param id
+     *            the ID of the polygons
+     * @return the key
+     */
+    public static Key getTransformationKey(Key a, Matrix4f matrix, GColour colour, int id) {
+        final Hash hash = new Hash(3);
+        hash.add(a);
+        hash.add(matrix.m00); hash.add(matrix.m01); hash.add(matrix.m02); hash.add(matrix.m03);
+        hash.add(matrix.m10); hash.add(matrix.m11); hash.add(matrix.m12); hash.add(matrix.m13);
+        hash.add(matrix.m20); hash.add(matrix.m21); hash.add(matrix.m22); hash.add(matrix.m23);
+        hash.add(matrix.m30); hash.add(matrix.m31); hash.add(matrix.m32); hash.add(matrix.m33);
+        hash.add(colour);
+        hash.add(id);
+        return hash.toKey();
+    }
+
+    /**
+     * @return the cached solid or {@code null} if the key is not cached (or
+     *         {@code null})
+     */
+    public static synchronized CSG get(Key key, DatFile df) {
+        if (key == null) {
+            return null;
+        }
+        final Entry entry = entries.get(key);
+        if (entry == null || entry.df != df) {
+            missCounter.increment();
+            return null;
+        }
+        hitCounter.increment();
+        return entry.csg;
+    }
+
+    /**
+     * Adds a solid to the cache. The solid must not be modified afterwards.
+     */
+    public static synchronized void put(Key key, DatFile df, CSG csg) {
+        if (key == null || csg == null) {
+            return;
+        }
+        final Entry entry = new Entry(csg, df, estimateSize(csg));
+        final Entry oldEntry = entries.put(key, entry);
+        if (oldEntry != null) {
+            size -= oldEntry.size;
+        }
+        size += entry.size;
+        evict();
+    }
+
+    /**
+     * Removes all solids of a file from the cache
+     */
+    public static synchronized void clear(DatFile df) {
+        for (Iterator<Entry> it = entries.values().iterator(); it.hasNext();) {
+            final Entry entry = it.next();
+            if (entry.df == df) {
+                size -= entry.size;
+                it.remove();
+            }
+        }
+    }
+
+    public static synchronized void clear() {
+        entries.clear();
+        size = 0L;
+    }
+
+    /**
+     * Sets the maximum size of the cache. The least recently used solids are
+     * removed if the cache is larger.
+     *
+     * @param bytes
+     *            the maximum size in bytes
+     */
+    public static synchronized void setMaxSize(long bytes) {
+        maxSize = Math.max(0L, bytes);
+        evict();
+    }
+
+    public static synchronized long getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * @return the estimated size of the cache in bytes
+     */
+    public static synchronized long getSize() {
+        return size;
+    }
+
+    public static long getHitCount() {
+        return hitCounter.get();
+    }
+
+    public static long getMissCount() {
+        return missCounter.get();
+    }
+
+    private static void evict() {
+        for (Iterator<Entry> it = entries.values().iterator(); size > maxSize && it.hasNext();) {
+            size -= it.next().size;
+            it.remove();
+        }
+    }
+
+    private static long estimateSize(CSG csg) {
+        long result = 64L;
+        for (Polygon p : csg.getPolygons()) {
+            // Polygon, plane, colour and vertex list + the vertices
+            result += 160L + 40L * p.vertices.size();
+        }
+        return result;
+    }
+
+    /**
+     * Two independent 64 bit hashes
+     */
+    private static final class Hash {
+
+        private long h1;
+        private long h2;
+
+        private Hash(long seed) {
+            h1 = 0xCBF29CE484222325L ^ seed;
+            h2 = 0x9E3779B97F4A7C15L * (seed + 1L);
+        }
+
+        private void add(long value) {
+            h1 = (h1 ^ value) * 0x100000001B3L;
+            h2 = Long.rotateLeft(h2 + value * 0xC2B2AE3D27D4EB4FL, 31) * 0x9E3779B97F4A7C15L;
+        }
+
+        private void add(double value) {
+            add(Double.doubleToLongBits(value));
+        }
+
+        private void add(float value) {
+            add(Float.floatToIntBits(value));
+        }
+
+        private void add(Key key) {
+            add(key.h1);
+            add(key.h2);
+        }
+
+        private void add(String s) {
+            add(s.length());
+            for (int i = 0; i < s.length(); i++) {
+                add(s.charAt(i));
+            }
+        }
+
+        private void add(GColour c) {
+            if (c == null) {
+                add(-1L);
+            } else {
+                add(c.getColourNumber());
+                add(c.getR());
+                add(c.getG());
+                add(c.getB());
+                add(c.getA());
+            }
+        }
+
+        private Key toKey() {
+            return new Key(mix(h1), mix(h2));
+        }
+
+        private static long mix(long h) {
+            h ^= h >>> 33;
+            h *= 0xFF51AFD7ED558CCDL;
+            h ^= h >>> 33;
+            h *= 0xC4CEB9FE1A85EC53L;
+            h ^= h >>> 33;
+            return h;
+        }
+    }
+}
@@ -0,0 +1,279 @@
+/* MIT - License
+
+Copyright (c) 2012 - this year, Nils Schmidt
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE
+FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE. */
+package org.nschmidt.csg;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+import org.nschmidt.ldparteditor.data.GData3;
+import org.nschmidt.ldparteditor.helpers.Metrics;
+import org.nschmidt.ldparteditor.logger.NLogger;
+
+/**
+ * Optimizes the triangles of a compiled CSG solid (T-junctions, flips and edge
+ * collapses). The optimizations only change the triangles of one plane, so
+ * the planes are optimized independently and in parallel. Every plane has its
+ * own sequence of random numbers (derived from a fixed seed, the index of the
+ * plane and the round) and its triangles are processed in the order of their
+ * coordinates. Therefore the result does not depend on the number of threads
+ * or the timing.
+ * <br>
+ * A plane is settled when no optimization was found for it. The optimization
+ * stops when all planes are settled or when the time budget or the quality
+ * budget is reached.
+ *
+ * @author nils
+ *
+ */
+public final class CSGOptimizer {
+
+    /** The seed of the random numbers */
+    private static final long SEED = 12345678L;
+    /** The maximum number of optimizations of a single plane in one round */
+    private static final int STEPS_PER_ROUND = 16;
+    /** The minimum interval between two intermediate results (in milliseconds) */
+    private static final long PUBLISH_INTERVAL = 100L;
+    private static final int THREAD_COUNT = Math.max(1, Runtime.getRuntime().availableProcessors());
+
+    /** The maximum time for the optimization of a solid (in milliseconds) */
+    public static volatile long timeBudget = 10000L;
+    /**
+     * The optimization stops when this share of the planes is settled (from
+     * {@code 0.0} to {@code 1.0})
+     */
+    public static volatile double qualityBudget = 1.0;
+
+    /** The time of a round (over all unsettled planes) */
+    private static final Metrics.Timer roundTimer = Metrics.timer("csg.optimizer.round"); //$NON-NLS-1$
+    /** The number of planes which were optimized in a round */
+    private static final Metrics.Histogram planeHistogram = Metrics.histogram("csg.optimizer.planes"); //$NON-NLS-1$
+
+    private static final ExecutorService pool = Executors.newFixedThreadPool(THREAD_COUNT, r -> {
+        final Thread t = new Thread(r, "CSGOptimizer"); //$NON-NLS-1$
+        t.setDaemon(true);
+        return t;
+    });
+
+    /** Orders the triangles by their coordinates (and not by their ID) */
+    private static final Comparator<GData3> GEOMETRY_ORDER = (a, b) -> {
+        int c;
+        if ((c = Float.compare(a.x1, b.x1)) != 0) return c;
+        if ((c = Float.compare(a.y1, b.y1)) != 0) return c;
+        if ((c = Float.compare(a.z1, b.z1)) != 0) return c;
+        if ((c = Float.compare(a.x2, b.x2)) != 0) return c;
+        if ((c = Float.compare(a.y2, b.y2)) != 0) return c;
+        if ((c = Float.compare(a.z2, b.z2)) != 0) return c;
+        if ((c = Float.compare(a.x3, b.x3)) != 0) return c;
+        if ((c = Float.compare(a.y3, b.y3)) != 0) return c;
+        if ((c = Float.compare(a.z3, b.z3)) != 0) return c;
+        return Integer.compare(a.colourNumber, b.colourNumber);
+    };
+
+    private final List<PlaneState> planes = new ArrayList<>();
+    private int round = 0;
+    private int settledCount = 0;
+    private long elapsedTime = 0L;
+    private volatile boolean finished = false;
+
+    /**
+     * @param triangles
+     *            the triangles of the compiled solid
+     */
+    CSGOptimizer(Map<GData3, IdAndPlane> triangles) {
+        final Map<Plane, TreeMap<GData3, IdAndPlane>> trianglesPerPlane = new TreeMap<>();
+        for (Entry<GData3, IdAndPlane> entry : triangles.entrySet()) {
+            final IdAndPlane id = entry.getValue();
+            if (id == null) {
+                // Obsolete triangle
+                continue;
+            }
+            TreeMap<GData3, IdAndPlane> planeTriangles = trianglesPerPlane.get(id.plane);
+            if (planeTriangles == null) {
+                planeTriangles = new TreeMap<>();
+                trianglesPerPlane.put(id.plane, planeTriangles);
+            }
+            planeTriangles.put(entry.getKey(), id);
+        }
+        int index = 0;
+        for (Entry<Plane, TreeMap<GData3, IdAndPlane>> entry : trianglesPerPlane.entrySet()) {
+            planes.add(new PlaneState(entry.getKey(), entry.getValue(), index));
+            index++;
+        }
+        finished = planes.isEmpty();
+    }
+
+    /**
+     * Optimizes the planes round by round. This method must not be called by
+     * more than one thread at the same time.
+     *
+     * @param cancel
+     *            the optimization is interrupted when this condition is
+     *            {@code true}. It can be continued with the next call.
+     * @param listener
+     *            receives the intermediate results (and the final result)
+     */
+    void run(BooleanSupplier cancel, Consumer<TreeMap<GData3, IdAndPlane>> listener) {
+        if (finished) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        long lastPublish = start;
+        while (!finished && !cancel.getAsBoolean()) {
+            optimizeRound();
+            final long now = System.currentTimeMillis();
+            elapsedTime += now - start;
+            start = now;
+            finished = settledCount == planes.size() || getProgress() >= qualityBudget || elapsedTime >= timeBudget;
+            if (finished || now - lastPublish >= PUBLISH_INTERVAL) {
+                lastPublish = now;
+                listener.accept(getTriangles());
+            }
+        }
+        if (finished) {
+            NLogger.debug(CSGOptimizer.class, "CSG optimization: {0} of {1} planes settled after {2} rounds in {3}ms", settledCount, planes.size(), round, elapsedTime); //$NON-NLS-1$
+        }
+    }
+
+    /**
+     * @return the share of the settled planes (from {@code 0.0} to
+     *         {@code 1.0})
+     */
+    public double getProgress() {
+        return planes.isEmpty() ? 1.0 : (double) settledCount / planes.size();
+    }
+
+    /**
+     * @return {@code true} if the optimization has converged or reached its
+     *         budget
+     */
+    public boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * @return {@code true} if all planes are settled
+     */
+    public boolean isConverged() {
+        return settledCount == planes.size();
+    }
+
+    private void optimizeRound() {
+        final List<PlaneState> unsettled = new ArrayList<>();
+        for (PlaneState ps : planes) {
+            if (!ps.settled) {
+                unsettled.add(ps);
+            }
+        }
+        final long start = roundTimer.start();
+        planeHistogram.record(unsettled.size());
+        final int r = round;
+        round++;
+        // Many small chunks, because the planes differ a lot in size
+        final int chunkSize = Math.max(1, unsettled.size() / (THREAD_COUNT * 4));
+        final List<Callable<Void>> tasks = new ArrayList<>();
+        for (int i = 0; i < unsettled.size(); i += chunkSize) {
+            final List<PlaneState> chunk = unsettled.subList(i, Math.min(unsettled.size(), i + chunkSize));
+            tasks.add(() -> {
+                for (PlaneState ps : chunk) {
+                    ps.optimize(r);
+                }
+                return null;
+            });
+        }
+        try {
+            if (tasks.size() == 1) {
+                tasks.get(0).call();
+            } else {
+                for (Future<Void> future : pool.invokeAll(tasks)) {
+                    future.get();
+                }
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            finished = true;
+        } catch (ExecutionException ee) {
+            NLogger.error(CSGOptimizer.class, ee.getCause());
+            finished = true;
+        } catch (Exception e) {
+            NLogger.error(CSGOptimizer.class, e);
+            finished = true;
+        }
+        int count = 0;
+        for (PlaneState ps : planes) {
+            if (ps.settled) {
+                count++;
+            }
+        }
+        settledCount = count;
+        roundTimer.stop(start);
+    }
+
+    private TreeMap<GData3, IdAndPlane> getTriangles() {
+        final TreeMap<GData3, IdAndPlane> result = new TreeMap<>();
+        for (PlaneState ps : planes) {
+            result.putAll(ps.triangles);
+        }
+        return result;
+    }
+
+    /**
+     * The triangles of one plane. Only one thread at a time works on a plane.
+     */
+    private static final class PlaneState {
+
+        private final Plane plane;
+        private final long seed;
+        private final TreeMap<GData3, IdAndPlane> triangles;
+        private final Map<GData3, Map<GData3, Boolean>> flipCache = new HashMap<>();
+        private volatile boolean settled = false;
+
+        private PlaneState(Plane plane, TreeMap<GData3, IdAndPlane> triangles, int index) {
+            this.plane = plane;
+            this.triangles = triangles;
+            this.seed = SEED + index * 0x9E3779B97F4A7C15L;
+        }
+
+        private void optimize(int round) {
+            final Random rnd = new Random(seed ^ round * 0xC2B2AE3D27D4EB4FL);
+            for (int i = 0; i < STEPS_PER_ROUND; i++) {
+                final List<GData3> sortedTriangles = new ArrayList<>(triangles.keySet());
+                Collections.sort(sortedTriangles, GEOMETRY_ORDER);
+                final Map<Plane, List<GData3>> trianglesPerPlane = Collections.singletonMap(plane, sortedTriangles);
+                // T-junctions first, since the edge collapse needs a mesh without T-junctions
+                if (!CSGOptimizerTJunction.optimize(rnd, trianglesPerPlane, triangles)
+                        && !CSGOptimizerFlipTriangle.optimize(rnd, trianglesPerPlane, triangles, flipCache)
+                        && !CSGOptimizerEdgeCollapse.optimize(rnd, trianglesPerPlane, triangles)) {
+                    settled = true;
+                    return;
+                }
+            }
+        }
+    }
+}
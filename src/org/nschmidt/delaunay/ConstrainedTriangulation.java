@@ -0,0 +1,874 @@
+/* MIT - License
+
+Copyright (c) 2012 - this year, Nils Schmidt
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE
+FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE. */
+package org.nschmidt.delaunay;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * A 2D constrained Delaunay triangulation. All data is stored in primitive
+ * arrays (no objects per point or triangle).
+ * <br>
+ * The points are inserted one after another (Lawson flips, the containing
+ * triangle is found by walking from the last triangle). Afterwards the
+ * segments are inserted by flipping the edges which cross them. Crossing
+ * segments are split at their intersection.
+ * <br>
+ * Every segment has a winding number. The winding numbers of the triangles
+ * are calculated by a flood fill from the outside, which adds (or subtracts)
+ * the winding number of a segment when it is crossed. Therefore holes and
+ * overlapping outlines need no special treatment.
+ *
+ * @author nils
+ *
+ */
+public final class ConstrainedTriangulation {
+
+    /** The maximum number of flips for the insertion of one segment (per triangle) */
+    private static final int MAX_FLIPS_PER_TRIANGLE = 8;
+
+    private double[] xs = new double[64];
+    private double[] ys = new double[64];
+    private int pointCount = 0;
+    private final HashMap<Point, Integer> pointIndex = new HashMap<Point, Integer>();
+
+    private int[] segments = new int[64];
+    private int segmentCount = 0;
+
+    /** The vertices of the triangles (counter-clockwise) */
+    private int[] vertices = new int[0];
+    /** The neighbour across the edge from vertex {@code i} to vertex {@code i + 1} (or {@code -1}) */
+    private int[] neighbours = new int[0];
+    private boolean[] constrained = new boolean[0];
+    private int triangleCount = 0;
+    /** An adjacent triangle for each point */
+    private int[] pointTriangle = new int[0];
+    /** Edge (smaller index, larger index) -> winding number in this direction */
+    private final HashMap<Long, Integer> windings = new HashMap<Long, Integer>();
+
+    /** The point which replaces an input point (for almost identical points) */
+    private int[] merged = new int[0];
+    private int superVertex;
+    private int lastTriangle = 0;
+    private double epsilon;
+    private boolean complete = true;
+    private boolean triangulated = false;
+
+    private int[] resultTriangles = new int[0];
+    private int[] resultWindings = new int[0];
+
+    /**
+     * Adds a point. Points with the same coordinates are merged.
+     *
+     * @return the index of the point
+     */
+    public int addPoint(double x, double y) {
+        if (triangulated) {
+            throw new IllegalStateException();
+        }
+        final Point p = new Point(x, y);
+        final Integer index = pointIndex.get(p);
+        if (index != null) {
+            return index;
+        }
+        ensurePointCapacity(pointCount + 1);
+        xs[pointCount] = x;
+        ys[pointCount] = y;
+        pointIndex.put(p, pointCount);
+        return pointCount++;
+    }
+
+    /**
+     * Adds a segment which will be an edge of the triangulation. Segments
+     * with identical start and end points are ignored.
+     *
+     * @param from
+     *            the index of the start point
+     * @param to
+     *            the index of the end point
+     * @param winding
+     *            the winding number of the segment. The winding number of the
+     *            area on the left side of the segment is larger by this value
+     *            than the winding number of the area on the right side.
+     */
+    public void addSegment(int from, int to, int winding) {
+        if (triangulated) {
+            throw new IllegalStateException();
+        }
+        if (from == to) {
+            return;
+        }
+        if (segments.length < (segmentCount + 1) * 3) {
+            segments = Arrays.copyOf(segments, segments.length * 2);
+        }
+        segments[segmentCount * 3] = from;
+        segments[segmentCount * 3 + 1] = to;
+        segments[segmentCount * 3 + 2] = winding;
+        segmentCount++;
+    }
+
+    /**
+     * Triangulates the points and segments. All segments must be inside the
+     * convex hull of the points.
+     *
+     * @return {@code false} if a segment could not be inserted (the winding
+     *         numbers are not reliable in this case)
+     */
+    public boolean triangulate() {
+        if (triangulated) {
+            return complete;
+        }
+        triangulated = true;
+        if (pointCount < 3) {
+            return complete;
+        }
+        final int inputCount = pointCount;
+        createSuperTriangle();
+        merged = new int[inputCount];
+        for (int i = 0; i < inputCount; i++) {
+            merged[i] = i;
+            insertPoint(i);
+        }
+        for (int i = 0; i < segmentCount; i++) {
+            if (!insertSegment(merged[segments[i * 3]], merged[segments[i * 3 + 1]], segments[i * 3 + 2], 0)) {
+                complete = false;
+            }
+        }
+        collectTriangles();
+        return complete;
+    }
+
+    public double getX(int point) {
+        return xs[point];
+    }
+
+    public double getY(int point) {
+        return ys[point];
+    }
+
+    /**
+     * @return the point indices of the triangles (three per triangle, counter-clockwise).
+     *         Only the triangles inside the convex hull of the points are returned.
+     */
+    public int[] getTriangles() {
+        return resultTriangles;
+    }
+
+    /**
+     * @return the winding number of each triangle from {@link #getTriangles()}
+     */
+    public int[] getWindings() {
+        return resultWindings;
+    }
+
+    private void createSuperTriangle() {
+        double minX = Double.MAX_VALUE;
+        double minY = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE;
+        double maxY = -Double.MAX_VALUE;
+        for (int i = 0; i < pointCount; i++) {
+            minX = Math.min(minX, xs[i]);
+            minY = Math.min(minY, ys[i]);
+            maxX = Math.max(maxX, xs[i]);
+            maxY = Math.max(maxY, ys[i]);
+        }
+        final double size = Math.max(Math.max(maxX - minX, maxY - minY), 1e-9);
+        final double midX = (minX + maxX) / 2.0;
+        final double midY = (minY + maxY) / 2.0;
+        epsilon = size * size * 1e-12;
+
+        superVertex = pointCount;
+        ensurePointCapacity(pointCount + 3);
+        xs[pointCount] = midX - 20.0 * size;
+        ys[pointCount] = midY - 10.0 * size;
+        pointCount++;
+        xs[pointCount] = midX + 20.0 * size;
+        ys[pointCount] = midY - 10.0 * size;
+        pointCount++;
+        xs[pointCount] = midX;
+        ys[pointCount] = midY + 20.0 * size;
+        pointCount++;
+
+        // Euler: 2n - 2 - k triangles for n points
+        final int capacity = 2 * pointCount + 2 * segmentCount + 16;
+        vertices = new int[capacity * 3];
+        neighbours = new int[capacity * 3];
+        constrained = new boolean[capacity * 3];
+        pointTriangle = new int[xs.length];
+        final int t = newTriangle();
+        setTriangle(t, superVertex, superVertex + 1, superVertex + 2);
+        neighbours[0] = -1;
+        neighbours[1] = -1;
+        neighbours[2] = -1;
+    }
+
+    private void insertPoint(int p) {
+        final double px = xs[p];
+        final double py = ys[p];
+        int t = lastTriangle;
+        int edge = -1;
+        int steps = 0;
+        final int maxSteps = triangleCount * 2 + 8;
+        walk: while (true) {
+            edge = -1;
+            // Rotate the first edge, so that the walk can not cycle
+            final int start = steps % 3;
+            for (int j = 0; j < 3; j++) {
+                final int e = (start + j) % 3;
+                final int a = vertices[t * 3 + e];
+                final int b = vertices[t * 3 + (e + 1) % 3];
+                final double o = orient(xs[a], ys[a], xs[b], ys[b], px, py);
+                if (o < -epsilon) {
+                    final int n = neighbours[t * 3 + e];
+                    if (n != -1 && steps++ < maxSteps) {
+                        t = n;
+                        continue walk;
+                    }
+                } else if (o <= epsilon) {
+                    edge = e;
+                }
+            }
+            break;
+        }
+        if (steps >= maxSteps) {
+            t = locateBruteForce(px, py);
+            edge = -1;
+        }
+        if (edge != -1) {
+            final int a = vertices[t * 3 + edge];
+            final int b = vertices[t * 3 + (edge + 1) % 3];
+            if (isNear(p, a) || isNear(p, b)) {
+                // Merge almost identical points
+                merged[p] = isNear(p, a) ? a : b;
+                return;
+            }
+            splitEdge(t, edge, p);
+        } else {
+            splitTriangle(t, p);
+        }
+    }
+
+    private int locateBruteForce(double px, double py) {
+        int best = 0;
+        double bestValue = -Double.MAX_VALUE;
+        for (int t = 0; t < triangleCount; t++) {
+            double min = Double.MAX_VALUE;
+            for (int e = 0; e < 3; e++) {
+                final int a = vertices[t * 3 + e];
+                final int b = vertices[t * 3 + (e + 1) % 3];
+                min = Math.min(min, orient(xs[a], ys[a], xs[b], ys[b], px, py));
+            }
+            if (min > bestValue) {
+                bestValue = min;
+                best = t;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Splits the triangle (a, b, c) into (a, b, p), (b, c, p) and (c, a, p)
+     */
+    private void splitTriangle(int t, int p) {
+        final int a = vertices[t * 3];
+        final int b = vertices[t * 3 + 1];
+        final int c = vertices[t * 3 + 2];
+        final int nab = neighbours[t * 3];
+        final int nbc = neighbours[t * 3 + 1];
+        final int nca = neighbours[t * 3 + 2];
+        final boolean cab = constrained[t * 3];
+        final boolean cbc = constrained[t * 3 + 1];
+        final boolean cca = constrained[t * 3 + 2];
+        final int t1 = newTriangle();
+        final int t2 = newTriangle();
+
+        setTriangle(t, a, b, p);
+        setEdge(t, 0, nab, cab);
+        setEdge(t, 1, t1, false);
+        setEdge(t, 2, t2, false);
+
+        setTriangle(t1, b, c, p);
+        setEdge(t1, 0, nbc, cbc);
+        setEdge(t1, 1, t2, false);
+        setEdge(t1, 2, t, false);
+        replaceNeighbour(nbc, t, t1);
+
+        setTriangle(t2, c, a, p);
+        setEdge(t2, 0, nca, cca);
+        setEdge(t2, 1, t, false);
+        setEdge(t2, 2, t1, false);
+        replaceNeighbour(nca, t, t2);
+
+        lastTriangle = t;
+        legalize(t * 3, t1 * 3, t2 * 3);
+    }
+
+    /**
+     * Splits the edge from a to b of the triangle (a, b, c) and the opposite
+     * triangle (b, a, d) at the point p
+     */
+    private void splitEdge(int t, int e, int p) {
+        final int a = vertices[t * 3 + e];
+        final int b = vertices[t * 3 + (e + 1) % 3];
+        final int c = vertices[t * 3 + (e + 2) % 3];
+        final int nbc = neighbours[t * 3 + (e + 1) % 3];
+        final int nca = neighbours[t * 3 + (e + 2) % 3];
+        final boolean cbc = constrained[t * 3 + (e + 1) % 3];
+        final boolean cca = constrained[t * 3 + (e + 2) % 3];
+        final boolean cab = constrained[t * 3 + e];
+        final int u = neighbours[t * 3 + e];
+
+        final int t2 = newTriangle();
+        setTriangle(t, a, p, c);
+        setTriangle(t2, p, b, c);
+
+        if (u == -1) {
+            setEdge(t, 0, -1, cab);
+            setEdge(t2, 0, -1, cab);
+        } else {
+            final int f = edgeIndex(u, b, a);
+            final int d = vertices[u * 3 + (f + 2) % 3];
+            final int nad = neighbours[u * 3 + (f + 1) % 3];
+            final int ndb = neighbours[u * 3 + (f + 2) % 3];
+            final boolean cad = constrained[u * 3 + (f + 1) % 3];
+            final boolean cdb = constrained[u * 3 + (f + 2) % 3];
+            final int u2 = newTriangle();
+            setTriangle(u, b, p, d);
+            setTriangle(u2, p, a, d);
+
+            setEdge(t, 0, u2, cab);
+            setEdge(t2, 0, u, cab);
+
+            setEdge(u, 0, t2, cab);
+            setEdge(u, 1, u2, false);
+            setEdge(u, 2, ndb, cdb);
+
+            setEdge(u2, 0, t, cab);
+            setEdge(u2, 1, nad, cad);
+            setEdge(u2, 2, u, false);
+            replaceNeighbour(nad, u, u2);
+        }
+        setEdge(t, 1, t2, false);
+        setEdge(t, 2, nca, cca);
+        setEdge(t2, 1, nbc, cbc);
+        setEdge(t2, 2, t, false);
+        replaceNeighbour(nbc, t, t2);
+
+        if (cab) {
+            final int winding = getWinding(a, b);
+            windings.remove(edgeKey(a, b));
+            setWinding(a, p, winding);
+            setWinding(p, b, winding);
+        }
+
+        lastTriangle = t;
+        if (u == -1) {
+            legalize(t * 3 + 2, t2 * 3 + 1);
+        } else {
+            final int u2 = neighbours[u * 3 + 1];
+            legalize(t * 3 + 2, t2 * 3 + 1, u * 3 + 2, u2 * 3 + 1);
+        }
+    }
+
+    /**
+     * Restores the Delaunay property by flipping edges (the edges are given as
+     * triangle * 3 + edge and are opposite to the new point)
+     */
+    private void legalize(int... edges) {
+        final ArrayDeque<Integer> stack = new ArrayDeque<Integer>();
+        for (int e : edges) {
+            stack.push(e);
+        }
+        int flips = 0;
+        final int maxFlips = triangleCount * MAX_FLIPS_PER_TRIANGLE + 64;
+        while (!stack.isEmpty() && flips < maxFlips) {
+            final int te = stack.pop();
+            final int t = te / 3;
+            final int e = te % 3;
+            if (constrained[te]) {
+                continue;
+            }
+            final int u = neighbours[te];
+            if (u == -1) {
+                continue;
+            }
+            final int a = vertices[t * 3 + e];
+            final int b = vertices[t * 3 + (e + 1) % 3];
+            final int c = vertices[t * 3 + (e + 2) % 3];
+            final int f = edgeIndex(u, b, a);
+            final int d = vertices[u * 3 + (f + 2) % 3];
+            if (inCircle(a, b, c, d)) {
+                flip(t, e);
+                flips++;
+                // t is now (c, a, d) and u is (d, b, c)
+                stack.push(t * 3 + 1);
+                stack.push(u * 3);
+            }
+        }
+    }
+
+    /**
+     * Flips the edge from a to b of the triangle t = (a, b, c) and the
+     * opposite triangle u = (b, a, d). Afterwards t is (c, a, d) and u is (d,
+     * b, c).
+     */
+    private void flip(int t, int e) {
+        final int u = neighbours[t * 3 + e];
+        final int a = vertices[t * 3 + e];
+        final int b = vertices[t * 3 + (e + 1) % 3];
+        final int c = vertices[t * 3 + (e + 2) % 3];
+        final int f = edgeIndex(u, b, a);
+        final int d = vertices[u * 3 + (f + 2) % 3];
+
+        final int nbc = neighbours[t * 3 + (e + 1) % 3];
+        final int nca = neighbours[t * 3 + (e + 2) % 3];
+        final int nad = neighbours[u * 3 + (f + 1) % 3];
+        final int ndb = neighbours[u * 3 + (f + 2) % 3];
+        final boolean cbc = constrained[t * 3 + (e + 1) % 3];
+        final boolean cca = constrained[t * 3 + (e + 2) % 3];
+        final boolean cad = constrained[u * 3 + (f + 1) % 3];
+        final boolean cdb = constrained[u * 3 + (f + 2) % 3];
+
+        setTriangle(t, c, a, d);
+        setEdge(t, 0, nca, cca);
+        setEdge(t, 1, nad, cad);
+        setEdge(t, 2, u, false);
+        replaceNeighbour(nad, u, t);
+
+        setTriangle(u, d, b, c);
+        setEdge(u, 0, ndb, cdb);
+        setEdge(u, 1, nbc, cbc);
+        setEdge(u, 2, t, false);
+        replaceNeighbour(nbc, t, u);
+    }
+
+    /**
+     * Inserts a segment by flipping all edges which cross it
+     *
+     * @return {@code false} if the segment could not be inserted
+     */
+    private boolean insertSegment(int a, int b, int winding, int depth) {
+        if (a == b) {
+            return true;
+        }
+        if (depth > 64) {
+            return false;
+        }
+        // Search the triangle around a which is crossed by the segment
+        final int startTriangle = pointTriangle[a];
+        int t = startTriangle;
+        int c = -1, d = -1;
+        int rotations = 0;
+        while (true) {
+            final int i = vertexIndex(t, a);
+            if (i == -1 || rotations++ > triangleCount) {
+                return false;
+            }
+            final int v1 = vertices[t * 3 + (i + 1) % 3];
+            final int v2 = vertices[t * 3 + (i + 2) % 3];
+            if (v1 == b || v2 == b) {
+                // The edge exists already
+                constrain(a, b, winding);
+                return true;
+            }
+            final double o1 = orient(a, b, v1);
+            if (Math.abs(o1) <= epsilon && isBetween(a, b, v1)) {
+                return insertSegment(a, v1, winding, depth + 1) & insertSegment(v1, b, winding, depth + 1);
+            }
+            final double o2 = orient(a, b, v2);
+            if (o1 < -epsilon && o2 > epsilon) {
+                c = v1;
+                d = v2;
+                break;
+            }
+            // Rotate counter-clockwise around a (across the edge from v2 to a)
+            t = neighbours[t * 3 + (i + 2) % 3];
+            if (t == -1 || t == startTriangle) {
+                return false;
+            }
+        }
+
+        // Walk along the segment and collect the crossed edges
+        final ArrayList<int[]> crossed = new ArrayList<int[]>();
+        while (true) {
+            final int e = edgeIndex(t, c, d);
+            if (constrained[t * 3 + e]) {
+                // Split both segments at their intersection
+                final int p = intersect(a, b, c, d);
+                if (p == -1) {
+                    return false;
+                }
+                splitEdge(t, e, p);
+                return insertSegment(a, p, winding, depth + 1) & insertSegment(p, b, winding, depth + 1);
+            }
+            crossed.add(new int[] { c, d });
+            final int n = neighbours[t * 3 + e];
+            if (n == -1) {
+                return false;
+            }
+            final int w = vertices[n * 3 + (edgeIndex(n, d, c) + 2) % 3];
+            if (w == b) {
+                break;
+            }
+            final double o = orient(a, b, w);
+            if (Math.abs(o) <= epsilon) {
+                // The segment runs through another point
+                return insertSegment(a, w, winding, depth + 1) & insertSegment(w, b, winding, depth + 1);
+            } else if (o < 0.0) {
+                c = w;
+            } else {
+                d = w;
+            }
+            t = n;
+            if (crossed.size() > triangleCount) {
+                return false;
+            }
+        }
+
+        // Flip the crossed edges until none of them crosses the segment
+        final ArrayDeque<int[]> queue = new ArrayDeque<int[]>(crossed);
+        final ArrayList<int[]> newEdges = new ArrayList<int[]>();
+        int iterations = 0;
+        final int maxIterations = (crossed.size() + 1) * triangleCount * MAX_FLIPS_PER_TRIANGLE;
+        while (!queue.isEmpty()) {
+            if (iterations++ > maxIterations) {
+                return false;
+            }
+            final int[] edge = queue.poll();
+            final int te = findEdge(edge[0], edge[1]);
+            if (te == -1) {
+                return false;
+            }
+            final int t1 = te / 3;
+            final int e1 = te % 3;
+            final int u = neighbours[te];
+            final int x = vertices[t1 * 3 + (e1 + 2) % 3];
+            final int y = vertices[u * 3 + (edgeIndex(u, edge[1], edge[0]) + 2) % 3];
+            // The quadrilateral must be convex
+            if (orient(x, y, edge[0]) * orient(x, y, edge[1]) >= 0.0) {
+                queue.add(edge);
+                continue;
+            }
+            flip(t1, e1);
+            if (x != a && x != b && y != a && y != b && orient(a, b, x) * orient(a, b, y) < 0.0) {
+                queue.add(new int[] { x, y });
+            } else {
+                newEdges.add(new int[] { x, y });
+            }
+        }
+        constrain(a, b, winding);
+
+        // Restore the Delaunay property for the new edges
+        boolean flipped = true;
+        int rounds = 0;
+        while (flipped && rounds++ < MAX_FLIPS_PER_TRIANGLE) {
+            flipped = false;
+            for (int[] edge : newEdges) {
+                if (edge[0] == a && edge[1] == b || edge[0] == b && edge[1] == a) {
+                    continue;
+                }
+                final int te = findEdge(edge[0], edge[1]);
+                if (te == -1 || constrained[te]) {
+                    continue;
+                }
+                final int t1 = te / 3;
+                final int e1 = te % 3;
+                final int u = neighbours[te];
+                final int x = vertices[t1 * 3 + (e1 + 2) % 3];
+                final int y = vertices[u * 3 + (edgeIndex(u, edge[1], edge[0]) + 2) % 3];
+                if (inCircle(edge[0], edge[1], x, y)) {
+                    flip(t1, e1);
+                    edge[0] = x;
+                    edge[1] = y;
+                    flipped = true;
+                }
+            }
+        }
+        return true;
+    }
+
+    private void constrain(int a, int b, int winding) {
+        final int te = findEdge(a, b);
+        if (te == -1) {
+            return;
+        }
+        final int u = neighbours[te];
+        constrained[te] = true;
+        if (u != -1) {
+            constrained[u * 3 + edgeIndex(u, b, a)] = true;
+        }
+        setWinding(a, b, getWinding(a, b) + winding);
+    }
+
+    /**
+     * Adds the intersection point of the segments (a, b) and (c, d)
+     *
+     * @return the index of the new point or {@code -1}
+     */
+    private int intersect(int a, int b, int c, int d) {
+        final double rx = xs[b] - xs[a];
+        final double ry = ys[b] - ys[a];
+        final double sx = xs[d] - xs[c];
+        final double sy = ys[d] - ys[c];
+        final double denominator = rx * sy - ry * sx;
+        if (denominator == 0.0) {
+            return -1;
+        }
+        final double u = ((xs[c] - xs[a]) * ry - (ys[c] - ys[a]) * rx) / denominator;
+        if (u <= 0.0 || u >= 1.0) {
+            return -1;
+        }
+        ensurePointCapacity(pointCount + 1);
+        xs[pointCount] = xs[c] + u * sx;
+        ys[pointCount] = ys[c] + u * sy;
+        return pointCount++;
+    }
+
+    /**
+     * Assigns the winding numbers by a flood fill from the outside and stores
+     * all triangles which do not belong to the super triangle
+     */
+    private void collectTriangles() {
+        final int[] triangleWindings = new int[triangleCount];
+        final boolean[] visited = new boolean[triangleCount];
+        final ArrayDeque<Integer> queue = new ArrayDeque<Integer>();
+        for (int t = 0; t < triangleCount; t++) {
+            if (isSuperTriangle(t)) {
+                visited[t] = true;
+                queue.add(t);
+            }
+        }
+        while (!queue.isEmpty()) {
+            final int t = queue.poll();
+            for (int e = 0; e < 3; e++) {
+                final int n = neighbours[t * 3 + e];
+                if (n == -1 || visited[n]) {
+                    continue;
+                }
+                visited[n] = true;
+                int w = triangleWindings[t];
+                if (constrained[t * 3 + e]) {
+                    // t is on the left side of the edge
+                    w -= getWinding(vertices[t * 3 + e], vertices[t * 3 + (e + 1) % 3]);
+                }
+                triangleWindings[n] = w;
+                queue.add(n);
+            }
+        }
+        int count = 0;
+        for (int t = 0; t < triangleCount; t++) {
+            if (!isSuperTriangle(t)) {
+                count++;
+            }
+        }
+        resultTriangles = new int[count * 3];
+        resultWindings = new int[count];
+        int i = 0;
+        for (int t = 0; t < triangleCount; t++) {
+            if (!isSuperTriangle(t)) {
+                System.arraycopy(vertices, t * 3, resultTriangles, i * 3, 3);
+                resultWindings[i] = triangleWindings[t];
+                i++;
+            }
+        }
+    }
+
+    private boolean isSuperTriangle(int t) {
+        return vertices[t * 3] >= superVertex && vertices[t * 3] < superVertex + 3
+                || vertices[t * 3 + 1] >= superVertex && vertices[t * 3 + 1] < superVertex + 3
+                || vertices[t * 3 + 2] >= superVertex && vertices[t * 3 + 2] < superVertex + 3;
+    }
+
+    /**
+     * @return triangle * 3 + edge of the edge from a to b or {@code -1}
+     */
+    private int findEdge(int a, int b) {
+        final int start = pointTriangle[a];
+        int t = start;
+        do {
+            final int i = vertexIndex(t, a);
+            if (i == -1) {
+                break;
+            }
+            if (vertices[t * 3 + (i + 1) % 3] == b) {
+                return t * 3 + i;
+            }
+            t = neighbours[t * 3 + (i + 2) % 3];
+        } while (t != -1 && t != start);
+        // Fallback for points on the border
+        for (t = 0; t < triangleCount; t++) {
+            final int i = vertexIndex(t, a);
+            if (i != -1 && vertices[t * 3 + (i + 1) % 3] == b) {
+                return t * 3 + i;
+            }
+        }
+        return -1;
+    }
+
+    private int vertexIndex(int t, int v) {
+        if (vertices[t * 3] == v) return 0;
+        if (vertices[t * 3 + 1] == v) return 1;
+        if (vertices[t * 3 + 2] == v) return 2;
+        return -1;
+    }
+
+    private int edgeIndex(int t, int a, int b) {
+        for (int e = 0; e < 3; e++) {
+            if (vertices[t * 3 + e] == a && vertices[t * 3 + (e + 1) % 3] == b) {
+                return e;
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    private int newTriangle() {
+        if (triangleCount * 3 == vertices.length) {
+            final int length = vertices.length * 2;
+            vertices = Arrays.copyOf(vertices, length);
+            neighbours = Arrays.copyOf(neighbours, length);
+            constrained = Arrays.copyOf(constrained, length);
+        }
+        return triangleCount++;
+    }
+
+    private void setTriangle(int t, int a, int b, int c) {
+        vertices[t * 3] = a;
+        vertices[t * 3 + 1] = b;
+        vertices[t * 3 + 2] = c;
+        if (pointTriangle.length < pointCount) {
+            pointTriangle = Arrays.copyOf(pointTriangle, xs.length);
+        }
+        pointTriangle[a] = t;
+        pointTriangle[b] = t;
+        pointTriangle[c] = t;
+    }
+
+    private void setEdge(int t, int e, int neighbour, boolean isConstrained) {
+        neighbours[t * 3 + e] = neighbour;
+        constrained[t * 3 + e] = isConstrained;
+    }
+
+    private void replaceNeighbour(int t, int oldNeighbour, int newNeighbour) {
+        if (t == -1) {
+            return;
+        }
+        for (int e = 0; e < 3; e++) {
+            if (neighbours[t * 3 + e] == oldNeighbour) {
+                neighbours[t * 3 + e] = newNeighbour;
+                return;
+            }
+        }
+    }
+
+    private int getWinding(int a, int b) {
+        final Integer w = windings.get(edgeKey(a, b));
+        if (w == null) {
+            return 0;
+        }
+        return a < b ? w : -w;
+    }
+
+    private void setWinding(int a, int b, int winding) {
+        windings.put(edgeKey(a, b), a < b ? winding : -winding);
+    }
+
+    private static Long edgeKey(int a, int b) {
+        return a < b ? (long) a << 32 | b : (long) b << 32 | a;
+    }
+
+    private boolean isNear(int p, int q) {
+        final double dx = xs[p] - xs[q];
+        final double dy = ys[p] - ys[q];
+        return dx * dx + dy * dy <= epsilon;
+    }
+
+    /**
+     * @return {@code true} if p is between a and b (p has to be on the line)
+     */
+    private boolean isBetween(int a, int b, int p) {
+        final double dx = xs[b] - xs[a];
+        final double dy = ys[b] - ys[a];
+        final double dot = (xs[p] - xs[a]) * dx + (ys[p] - ys[a]) * dy;
+        return dot > 0.0 && dot < dx * dx + dy * dy;
+    }
+
+    private double orient(int a, int b, int c) {
+        return orient(xs[a], ys[a], xs[b], ys[b], xs[c], ys[c]);
+    }
+
+    /**
+     * @return a positive value if c is on the left side of the line from a to
+     *         b
+     */
+    private static double orient(double ax, double ay, double bx, double by, double cx, double cy) {
+        return (bx - ax) * (cy - ay) - (by - ay) * (cx - ax);
+    }
+
+    /**
+     * @return {@code true} if d is inside the circumcircle of the
+     *         counter-clockwise triangle (a, b, c)
+     */
+    private boolean inCircle(int a, int b, int c, int d) {
+        final double adx = xs[a] - xs[d];
+        final double ady = ys[a] - ys[d];
+        final double bdx = xs[b] - xs[d];
+        final double bdy = ys[b] - ys[d];
+        final double cdx = xs[c] - xs[d];
+        final double cdy = ys[c] - ys[d];
+        final double ad = adx * adx + ady * ady;
+        final double bd = bdx * bdx + bdy * bdy;
+        final double cd = cdx * cdx + cdy * cdy;
+        final double det = adx * (bdy * cd - bd * cdy) - ady * (bdx * cd - bd * cdx) + ad * (bdx * cdy - bdy * cdx);
+        return det > epsilon * epsilon;
+    }
+
+    private void ensurePointCapacity(int capacity) {
+        if (xs.length < capacity) {
+            final int length = Math.max(capacity, xs.length * 2);
+            xs = Arrays.copyOf(xs, length);
+            ys = Arrays.copyOf(ys, length);
+        }
+        if (pointTriangle.length > 0 && pointTriangle.length < capacity) {
+            pointTriangle = Arrays.copyOf(pointTriangle, xs.length);
+        }
+    }
+
+    private static final class Point {
+        private final double x;
+        private final double y;
+
+        private Point(double x, double y) {
+            this.x = x;
+            this.y = y;
+        }
+
+        @Override
+        public int hashCode() {
+            final long bits = Double.doubleToLongBits(x) * 31L + Double.doubleToLongBits(y);
+            return (int) (bits ^ bits >>> 32);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Point))
+                return false;
+            final Point other = (Point) obj;
+            return Double.compare(x, other.x) == 0 && Double.compare(y, other.y) == 0;
+        }
+    }
+}
@@ -52,6 +52,7 @@ import org.eclipse.swt.opengl.GLData;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Event;
+import org.eclipse.swt.widgets.Listener;
 import org.eclipse.swt.widgets.Menu;
 import org.eclipse.swt.widgets.MenuItem;
 import org.eclipse.swt.widgets.MessageBox;
@@ -314,6 +315,7 @@ public class Composite3D extends ScalableComposite {
 
         Editor3DWindow.renders.remove(openGL);
         Editor3DWindow.canvasList.remove(canvas);
+        ViewIdleManager.unregister(this);
         this.menu.dispose();
         setLockableDatFileReference(df);
     }
@@ -397,6 +399,7 @@ public class Composite3D extends ScalableComposite {
 
         Editor3DWindow.renders.add(openGL);
         Editor3DWindow.canvasList.add(canvas);
+        ViewIdleManager.register(this);
 
         this.setBackgroundMode(SWT.INHERIT_FORCE);
 
@@ -1106,6 +1109,12 @@ public class Composite3D extends ScalableComposite {
             VertexWindow.placeVertexWindow();
         });
 
+        // Every input (e.g. hovering) and every exposure needs a new frame
+        final Listener frameRequest = event -> ViewIdleManager.requestFrame(getComposite3D());
+        for (int eventType : new int[] { SWT.Paint, SWT.Resize, SWT.MouseDown, SWT.MouseMove, SWT.MouseUp, SWT.MouseEnter, SWT.MouseExit, SWT.FocusIn, SWT.FocusOut }) {
+            canvas.addListener(eventType, frameRequest);
+        }
+
         canvas.addListener(SWT.MouseDown, event -> mouse.mouseDown(event));
         canvas.addListener(SWT.MouseMove, event -> mouse.mouseMove(event));
         canvas.addListener(SWT.MouseUp, event -> mouse.mouseUp(event));
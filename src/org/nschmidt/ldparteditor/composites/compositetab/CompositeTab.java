@@ -737,7 +737,16 @@ public class CompositeTab extends CompositeTabDesign {
 
                 ViewIdleManager.pause[0].compareAndSet(false, true);
 
-                final String text = compositeText[0].getText();
+                final int off = event.start + event.length;
+                final String insertedText = event.length == 0 ? "" : compositeText[0].getText(event.start, off - 1); //$NON-NLS-1$
+                final int replacedLength = event.replacedText.length();
+                if (vm.isModified() || dat.getTextLength() - replacedLength + event.length != compositeText[0].getCharCount()) {
+                    // The text of the file does not match the text before this change
+                    dat.setText(compositeText[0].getText());
+                } else {
+                    // Only the changed part is copied (the cost does not depend on the file size)
+                    dat.replaceText(event.start, replacedLength, insertedText);
+                }
 
                 int new_line_count = compositeText[0].getLineCount();
                 if (old_line_count != new_line_count) {
@@ -758,7 +767,7 @@ public class CompositeTab extends CompositeTabDesign {
                     }
                 }
 
-                if (text.equals(dat.getOriginalText()) && dat.getOldName().equals(dat.getNewName())) {
+                if (dat.isTextUnchanged() && dat.getOldName().equals(dat.getNewName())) {
                     if (!dat.isVirtual()) state.getTab().setText(state.filename);
                     // Do not remove virtual files from the unsaved file list
                     // (they are virtual, because they were not saved at all!)
@@ -773,9 +782,6 @@ public class CompositeTab extends CompositeTabDesign {
                         Editor3DWindow.getWindow().updateTree_unsavedEntries();
                     }
                 }
-                dat.setText(text);
-                final int off = event.start + event.length;
-                final String insertedText = event.length == 0 ? "" : compositeText[0].getText(event.start, off - 1); //$NON-NLS-1$
 
                 if (!state.isSync()) {
                     boolean doRedraw = !vm.getSelectedData().isEmpty();
@@ -93,6 +93,7 @@ import org.nschmidt.ldparteditor.state.KeyStateManager;
 import org.nschmidt.ldparteditor.text.LDParsingException;
 import org.nschmidt.ldparteditor.text.StringHelper;
 import org.nschmidt.ldparteditor.text.UTF8BufferedReader;
+import org.nschmidt.ldparteditor.workbench.PrimitiveCache;
 import org.nschmidt.ldparteditor.workbench.WorkbenchManager;
 
 public class CompositePrimitive extends Composite {
@@ -920,10 +921,8 @@ public class CompositePrimitive extends Composite {
                                 final String path = f.getAbsolutePath();
                                 PGTimestamp new_ts = new PGTimestamp(path, f.lastModified());
                                 PGTimestamp ts = hotMap.get(new_ts);
-                                ArrayList<String> filedata;
-                                if (ts != null && ts.isHot() && fileCache.containsKey(ts)) {
-                                    filedata = fileCache.get(ts);
-                                    fileCacheHits.add(ts);
+                                ArrayList<String> filedata = getCachedLines(ts, path, f.lastModified());
+                                if (filedata != null) {
                                     final int s = filedata.size();
                                     Primitive newPrimitive = new Primitive();
                                     ArrayList<PGData> data = new ArrayList<PGData>();
@@ -1047,6 +1046,10 @@ public class CompositePrimitive extends Composite {
                         fileCache.remove(t);
                     }
                     fileCacheHits.clear();
+                    final PrimitiveCache primitiveCache = WorkbenchManager.getPrimitiveCache();
+                    if (primitiveCache != null) {
+                        primitiveCache.discardUnusedEntries();
+                    }
                 }
 
                 // Set category titles
@@ -1260,6 +1263,20 @@ public class CompositePrimitive extends Composite {
         }
     }
 
+    /**
+     * @return the cached lines of a primitive file or {@code null} if the file
+     *         is not cached or was modified
+     */
+    private static ArrayList<String> getCachedLines(PGTimestamp ts, String path, long lastModified) {
+        if (ts != null && ts.isHot() && fileCache.containsKey(ts)) {
+            fileCacheHits.add(ts);
+            return fileCache.get(ts);
+        }
+        // The lines from the cache file are not kept in memory
+        final PrimitiveCache primitiveCache = WorkbenchManager.getPrimitiveCache();
+        return primitiveCache == null ? null : primitiveCache.getLines(path, lastModified);
+    }
+
     private static PGData parse_Reference(String[] data_segments, int depth, Matrix4f productMatrix, Set<String> alreadyParsed, HashMap<PGTimestamp, PGTimestamp> hotMap) {
         if (data_segments.length < 15) {
             return null;
@@ -1367,10 +1384,8 @@ public class CompositePrimitive extends Composite {
                 absoluteFilename = fileToOpen.getAbsolutePath();
                 PGTimestamp new_ts = new PGTimestamp(absoluteFilename, fileToOpen.lastModified());
                 PGTimestamp ts = hotMap.get(new_ts);
-                if (ts != null && ts.isHot() && fileCache.containsKey(ts)) {
-                    lines = fileCache.get(ts);
-                    fileCacheHits.add(ts);
-                } else {
+                lines = getCachedLines(ts, absoluteFilename, fileToOpen.lastModified());
+                if (lines == null) {
                     lines = new ArrayList<String>();
                     if (ts != null) {
                         fileCache.remove(ts);
@@ -0,0 +1,165 @@
+/* MIT - License
+
+Copyright (c) 2012 - this year, Nils Schmidt
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE
+FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE. */
+package org.nschmidt.ldparteditor.data;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * A matrix whose entries are decimals with a small unscaled value (a
+ * {@code long} and a scale, like {@link BigDecimal}). This is the case for
+ * translations, mirrors and most matrices of LDraw files. It transforms a
+ * point without {@link BigDecimal} arithmetic as long as the unscaled values
+ * of the products and sums fit into a {@code long}.
+ * <br>
+ * Such results have less than 19 digits, so they are not rounded by
+ * {@link Matrix#transform(BigDecimal, BigDecimal, BigDecimal)} either. The
+ * result has the same value and the same scale as the result of the
+ * {@link BigDecimal} calculation. The caller has to use the
+ * {@link BigDecimal} calculation when the result is {@code null}.
+ * <br>
+ * The entries of rotation matrices (sine and cosine) have much more decimal
+ * places. These entries are rounded to {@link #MAX_SCALE} decimal places (see
+ * {@link #round(BigDecimal)}), so the result is the result of the
+ * {@link BigDecimal} calculation with the rounded matrix.
+ *
+ * @author nils
+ *
+ */
+final class CompactMatrix {
+
+    /**
+     * The maximum number of decimal places of an entry. The rounding error of
+     * an entry is less than {@code 5E-13}, which is far below the precision
+     * of LDraw files.
+     */
+    static final int MAX_SCALE = 12;
+
+    private static final long[] POWERS_OF_TEN = new long[19];
+
+    static {
+        long p = 1L;
+        for (int i = 0; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = p;
+            p *= 10L;
+        }
+    }
+
+    /** The unscaled values (column major, like {@code Matrix.M}) */
+    private final long[] unscaled = new long[16];
+    private final int[] scale = new int[16];
+
+    private CompactMatrix() {
+    }
+
+    /**
+     * @param M
+     *            the entries of the matrix ({@code M[column][row]})
+     * @return the compact matrix or {@code null} if an entry is too large
+     */
+    static CompactMatrix create(BigDecimal[][] M) {
+        final CompactMatrix result = new CompactMatrix();
+        for (int column = 0; column < 4; column++) {
+            for (int row = 0; row < 4; row++) {
+                if (M[column][row] == null) {
+                    return null;
+                }
+                final BigDecimal value = round(M[column][row]);
+                final long u = unscaledValue(value);
+                if (u == Long.MIN_VALUE) {
+                    return null;
+                }
+                result.unscaled[column * 4 + row] = u;
+                result.scale[column * 4 + row] = value.scale();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Rounds an entry with more than {@link #MAX_SCALE} decimal places (e.g.
+     * the sine and cosine of a rotation) to {@link #MAX_SCALE} decimal places.
+     * The other entries are not changed.
+     */
+    static BigDecimal round(BigDecimal value) {
+        return value.scale() > MAX_SCALE ? value.setScale(MAX_SCALE, RoundingMode.HALF_UP) : value;
+    }
+
+    /**
+     * @return the unscaled value or {@code Long.MIN_VALUE} if it has more than
+     *         18 digits. The value is read without a {@code BigInteger}.
+     */
+    private static long unscaledValue(BigDecimal value) {
+        if (value.precision() > 18) {
+            return Long.MIN_VALUE;
+        }
+        final int s = value.scale();
+        // The point is moved to the end (scale 0), so the long value is the unscaled value
+        return s == 0 ? value.longValue() : value.movePointRight(s).longValue();
+    }
+
+    /**
+     * Transforms a point
+     *
+     * @return the transformed point (x, y, z, w) or {@code null} if the
+     *         result does not fit into a {@code long}
+     */
+    BigDecimal[] transform(BigDecimal X, BigDecimal Y, BigDecimal Z) {
+        final long x = unscaledValue(X);
+        final long y = unscaledValue(Y);
+        final long z = unscaledValue(Z);
+        if (x == Long.MIN_VALUE || y == Long.MIN_VALUE || z == Long.MIN_VALUE) {
+            return null;
+        }
+        final int sx = X.scale();
+        final int sy = Y.scale();
+        final int sz = Z.scale();
+        final BigDecimal[] result = new BigDecimal[4];
+        try {
+            for (int row = 0; row < 4; row++) {
+                // The products
+                final long p1 = Math.multiplyExact(unscaled[row], x);
+                final long p2 = Math.multiplyExact(unscaled[4 + row], y);
+                final long p3 = Math.multiplyExact(unscaled[8 + row], z);
+                final long p4 = unscaled[12 + row];
+                final int s1 = scale[row] + sx;
+                final int s2 = scale[4 + row] + sy;
+                final int s3 = scale[8 + row] + sz;
+                final int s4 = scale[12 + row];
+                // The sum has the largest scale of the summands
+                final int s = Math.max(Math.max(s1, s2), Math.max(s3, s4));
+                long sum = rescale(p1, s - s1);
+                sum = Math.addExact(sum, rescale(p2, s - s2));
+                sum = Math.addExact(sum, rescale(p3, s - s3));
+                sum = Math.addExact(sum, rescale(p4, s - s4));
+                result[row] = BigDecimal.valueOf(sum, s);
+            }
+        } catch (ArithmeticException ae) {
+            return null;
+        }
+        return result;
+    }
+
+    private static long rescale(long value, int digits) {
+        if (digits >= POWERS_OF_TEN.length) {
+            if (value == 0L) {
+                return 0L;
+            }
+            throw new ArithmeticException();
+        }
+        return Math.multiplyExact(value, POWERS_OF_TEN[digits]);
+    }
+}
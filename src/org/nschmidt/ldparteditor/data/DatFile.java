@@ -54,6 +54,7 @@ import org.nschmidt.ldparteditor.helpers.math.HashBiMap;
 import org.nschmidt.ldparteditor.helpers.math.ThreadsafeTreeMap;
 import org.nschmidt.ldparteditor.i18n.I18n;
 import org.nschmidt.ldparteditor.logger.NLogger;
+import org.nschmidt.ldparteditor.opengl.OpenGLRenderer20;
 import org.nschmidt.ldparteditor.project.Project;
 import org.nschmidt.ldparteditor.resources.ResourceManager;
 import org.nschmidt.ldparteditor.shells.editor3d.Editor3DWindow;
@@ -61,6 +62,8 @@ import org.nschmidt.ldparteditor.shells.editortext.EditorTextWindow;
 import org.nschmidt.ldparteditor.text.DatParser;
 import org.nschmidt.ldparteditor.text.LDParsingException;
 import org.nschmidt.ldparteditor.text.StringHelper;
+import org.nschmidt.ldparteditor.text.TextDocument;
+import org.nschmidt.ldparteditor.text.TokenizedLine;
 import org.nschmidt.ldparteditor.text.UTF8BufferedReader;
 import org.nschmidt.ldparteditor.text.UTF8PrintWriter;
 import org.nschmidt.ldparteditor.widgets.TreeItem;
@@ -115,7 +118,7 @@ public final class DatFile {
     private String description;
     private String oldName;
     private String newName;
-    private String text = ""; //$NON-NLS-1$
+    private final TextDocument textDocument = new TextDocument();
     private String originalText = ""; //$NON-NLS-1$
 
     private Date lastSavedOpened = new Date();
@@ -174,6 +177,7 @@ public final class DatFile {
 
 
         GDataCSG.resetCSG(this, c3d.getManipulator().isModified());
+        OpenGLRenderer20.BATCH.clear();
 
         GData data2draw = drawChainAnchor;
         int renderMode = c3d.getRenderMode();
@@ -282,6 +286,7 @@ public final class DatFile {
         default:
             break;
         }
+        OpenGLRenderer20.BATCH.flush();
 
         GDataCSG.finishCacheCleanup(c3d.getLockableDatFileReference());
 
@@ -365,7 +370,7 @@ public final class DatFile {
                     vertices.setModified(false, true);
                 } else {
                     sb.append(data2draw.toString());
-                    text = sb.toString();
+                    textDocument.setText(sb.toString());
                 }
             }
             final GData descriptionline = drawChainAnchor.getNext();
@@ -378,7 +383,7 @@ public final class DatFile {
         } else {
             parseForData(false);
         }
-        return text;
+        return textDocument.toString();
     }
 
     public String getOriginalText() {
@@ -395,6 +400,45 @@ public final class DatFile {
      *            the text content of this dat file to set
      */
     public void setText(String text) {
+        updateDescription();
+        textDocument.setText(text);
+    }
+
+    /**
+     * Applies a change of the text editor to the text content of this dat
+     * file. The whole text is not copied.
+     *
+     * @param start
+     *            the offset of the replaced text
+     * @param replacedLength
+     *            the length of the replaced text
+     * @param insertedText
+     *            the new text
+     * @throws IndexOutOfBoundsException
+     *             if the range is not within the text
+     */
+    public void replaceText(int start, int replacedLength, String insertedText) {
+        updateDescription();
+        textDocument.replace(start, replacedLength, insertedText);
+    }
+
+    /**
+     * @return the length of the text content of this dat file (without
+     *         rebuilding the text from the data)
+     */
+    public int getTextLength() {
+        return textDocument.length();
+    }
+
+    /**
+     * @return {@code true} if the text content is equal to the text which was
+     *         opened or saved last time (only the edited parts are compared)
+     */
+    public boolean isTextUnchanged() {
+        return textDocument.contentEquals(originalText);
+    }
+
+    private void updateDescription() {
         final GData descriptionline = drawChainAnchor.getNext();
         if (descriptionline != null) {
             String descr = descriptionline.toString();
@@ -402,7 +446,6 @@ public final class DatFile {
                 descr = descr.substring(2);
             description = " - " + descr; //$NON-NLS-1$
         }
-        this.text = text;
     }
 
     /**
@@ -583,9 +626,8 @@ public final class DatFile {
         ArrayList<ParsingResult> results;
         final GColour col16 = View.getLDConfigColour(16);
 
-        // Clear the cache..
-        GData.parsedLines.clear();
-        GData.CACHE_parsedFilesSource.clear();
+        // Refresh the cache..
+        SubfileCache.beginParse();
         GData.CACHE_warningsAndErrors.clear();
 
         String line;
@@ -762,7 +804,7 @@ public final class DatFile {
      */
     public void parseForError(StyledText compositeText, int startOffset_pos, int endOffset_pos, int length, String insertedText, String replacedText, TreeItem hints, TreeItem warnings, TreeItem errors, TreeItem duplicates, Label problemCount, boolean unselectBgPicture) {
 
-        if (compositeText.getText().isEmpty()) {
+        if (compositeText.getCharCount() == 0) {
             duplicate.pushDuplicateCheck(drawChainAnchor);
             updateDuplicatesErrors(compositeText, duplicates);
             datHeader.pushDatHeaderCheck(drawChainAnchor, compositeText, hints, warnings, errors, duplicates, problemCount);
@@ -795,9 +837,8 @@ public final class DatFile {
         ArrayList<ParsingResult> results;
         final GColour col16 = View.getLDConfigColour(16);
 
-        // Clear the cache..
-        GData.parsedLines.clear();
-        GData.CACHE_parsedFilesSource.clear();
+        // Refresh the cache..
+        SubfileCache.beginParse();
 
         String line;
         for (int lineNumber = startLine; lineNumber < endLine + 1; lineNumber++) {
@@ -1082,9 +1123,8 @@ public final class DatFile {
 
         final GColour col16 = View.getLDConfigColour(16);
 
-        // Clear the cache..
-        GData.parsedLines.clear();
-        GData.CACHE_parsedFilesSource.clear();
+        // Refresh the cache..
+        SubfileCache.beginParse();
         GData.CACHE_warningsAndErrors.clear();
 
 
@@ -1173,7 +1213,7 @@ public final class DatFile {
 
         String[] lines;
         if (Project.getUnsavedFiles().contains(this) ) {
-            lines = pattern.split(text, -1);
+            lines = pattern.split(textDocument.toString(), -1);
             if (lines.length == 0) {
                 lines = new String[]{""}; //$NON-NLS-1$
             }
@@ -1215,27 +1255,30 @@ public final class DatFile {
             lines = lines2.toArray(new String[lines2.size()]);
             setLastSavedOpened(new Date());
             originalText = sb.toString();
-            text = originalText;
+            textDocument.setText(originalText);
         }
 
+        // 1st phase: Split the lines and parse their coordinates in parallel
+        final TokenizedLine[] tokens = TokenizedLine.tokenize(lines);
+
         GData anchorData = drawChainAnchor;
         GData targetData = null;
 
         ArrayList<ParsingResult> results;
         final GColour col16 = View.getLDConfigColour(16);
 
-        // Clear the cache..
-        GData.parsedLines.clear();
-        GData.CACHE_parsedFilesSource.clear();
+        // Refresh the cache..
+        SubfileCache.beginParse();
         drawPerLine.clear();
         vertices.clear(); // The vertex structure needs a re-build
 
+        // 2nd phase: Build the data chain and the vertices in the order of the lines
         GData gdata;
         int lineNumber = 1;
         for (String line : lines) {
 
             if (isNotBlank(line)) {
-                results = DatParser.parseLine(line, lineNumber, 0, col16.getR(), col16.getG(), col16.getB(), 1.1f, View.DUMMY_REFERENCE, View.ID, View.ACCURATE_ID, this, false, alreadyParsed, false);
+                results = DatParser.parseLine(line, tokens[lineNumber - 1], lineNumber, 0, col16.getR(), col16.getG(), col16.getB(), 1.1f, View.DUMMY_REFERENCE, View.ID, View.ACCURATE_ID, this, false, alreadyParsed, false);
 
                 gdata = results.get(0).getGraphicalData();
                 if (gdata == null) {
@@ -1546,7 +1589,7 @@ public final class DatFile {
         duplicate.deleteDuplicateInfo();
         datHeader.deleteHeaderHints();
         GDataCSG.fullReset(this);
-        text = ""; //$NON-NLS-1$
+        textDocument.setText(""); //$NON-NLS-1$
         vertices.setModified(false, true);
         vertices.clear();
         Set<Integer> lineNumbers = drawPerLine.keySet();
@@ -1594,7 +1637,7 @@ public final class DatFile {
             return true;
         }
 
-        text = getText();
+        final String text = getText();
 
         boolean deleteFirst = oldName.equals(newName);
 
@@ -1667,7 +1710,7 @@ public final class DatFile {
     }
 
     public boolean saveForced() {
-        text = getText();
+        final String text = getText();
         UTF8PrintWriter r = null;
         try {
             File newFile = new File(newName);
@@ -1714,7 +1757,7 @@ public final class DatFile {
     }
 
     public boolean saveAs(String newName) {
-        text = getText();
+        final String text = getText();
         UTF8PrintWriter r = null;
         try {
             File newFile = new File(newName);
@@ -1898,7 +1941,7 @@ public final class DatFile {
     }
 
     public String getTextDirect() {
-        return text;
+        return textDocument.toString();
     }
 
     public boolean hasNoBackgroundPictures() {
@@ -15,15 +15,12 @@ FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TOR
 ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE. */
 package org.nschmidt.ldparteditor.data;
 
-import java.io.FileNotFoundException;
-import java.io.UnsupportedEncodingException;
+import java.io.File;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
 
 import org.nschmidt.ldparteditor.logger.NLogger;
 import org.nschmidt.ldparteditor.shells.editor3d.Editor3DWindow;
-import org.nschmidt.ldparteditor.text.LDParsingException;
-import org.nschmidt.ldparteditor.text.UTF8BufferedReader;
 import org.nschmidt.ldparteditor.widgets.TreeItem;
 
 public enum DescriptionManager {
@@ -45,29 +42,7 @@ public enum DescriptionManager {
                             if (newEntry != null) {
                                 DatFile df = (DatFile) newEntry.getData();
                                 NLogger.debug(getClass(), "Register description for {0}", df.getOldName()); //$NON-NLS-1$
-                                UTF8BufferedReader reader = null;
-                                final StringBuilder titleSb = new StringBuilder();
-                                try {
-                                    reader = new UTF8BufferedReader(df.getOldName());
-                                    String title = reader.readLine();
-                                    if (title != null) {
-                                        title = title.trim();
-                                        if (title.length() > 0) {
-                                            titleSb.append(" -"); //$NON-NLS-1$
-                                            titleSb.append(title.substring(1));
-                                        }
-                                    }
-                                } catch (LDParsingException e) {
-                                } catch (FileNotFoundException e) {
-                                } catch (UnsupportedEncodingException e) {
-                                } finally {
-                                    try {
-                                        if (reader != null)
-                                            reader.close();
-                                    } catch (LDParsingException e1) {
-                                    }
-                                }
-                                String d = titleSb.toString();
+                                String d = LibraryHeaderIndex.getHeader(new File(df.getOldName())).getDescription();
                                 newEntry.setText(df.getShortName() + d);
                                 df.setDescription(d);
                             } else {
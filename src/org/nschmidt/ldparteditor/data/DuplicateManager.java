@@ -15,9 +15,13 @@ FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TOR
 ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE. */
 package org.nschmidt.ldparteditor.data;
 
+import java.math.BigDecimal;
 import java.text.MessageFormat;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -26,13 +30,36 @@ import org.lwjgl.util.vector.Vector3f;
 import org.lwjgl.util.vector.Vector4f;
 import org.nschmidt.ldparteditor.enums.MyLanguage;
 import org.nschmidt.ldparteditor.enums.Threshold;
+import org.nschmidt.ldparteditor.helpers.Metrics;
 import org.nschmidt.ldparteditor.helpers.math.MathHelper;
 import org.nschmidt.ldparteditor.i18n.I18n;
 import org.nschmidt.ldparteditor.logger.NLogger;
 import org.nschmidt.ldparteditor.shells.editor3d.Editor3DWindow;
 
+/**
+ * Detects duplicated lines of a file in a background thread. Every line gets a
+ * key from its canonical geometry (the colour is ignored):
+ * <ul>
+ * <li>lines and condlines: the end points in ascending order</li>
+ * <li>triangles and quads: the smallest rotation of the vertices (the winding
+ * is kept)</li>
+ * <li>references: the transformation, the file name and a preceding
+ * {@code INVERTNEXT}</li>
+ * </ul>
+ * The keys and the lines with the same key are kept between two checks. A
+ * check only computes the keys of new lines and updates the lines with a key
+ * which was added or removed, so the check does not parse every line again.
+ * Meta commands are duplicates when they repeat the previous meta command.
+ *
+ * @author nils
+ *
+ */
 public class DuplicateManager {
 
+    private static final Metrics.Timer checkTimer = Metrics.timer("duplicates.check"); //$NON-NLS-1$
+    /** The number of lines which needed a new key */
+    private static final Metrics.Counter newLineCounter = Metrics.counter("duplicates.lines.new"); //$NON-NLS-1$
+
     private DatFile df;
 
     private boolean hasNoThread = true;
@@ -41,6 +68,18 @@ public class DuplicateManager {
 
     private volatile Queue<GData> workQueue = new ConcurrentLinkedQueue<GData>();
 
+    // The following fields are only accessed by the worker thread
+
+    /** The state of the lines from the last check */
+    private final IdentityHashMap<GData, LineInfo> lineInfos = new IdentityHashMap<GData, LineInfo>();
+    /** Key -> lines with this key */
+    private final HashMap<Key, ArrayList<LineInfo>> linesPerKey = new HashMap<Key, ArrayList<LineInfo>>();
+    /** The keys of more than one line */
+    private final HashSet<Key> duplicatedKeys = new HashSet<Key>();
+    /** The lines with an entry in {@link GData#CACHE_duplicates} */
+    private final HashSet<LineInfo> reportedLines = new HashSet<LineInfo>();
+    private int generation = 0;
+
     public DuplicateManager(DatFile df) {
         this.df = df;
     }
@@ -55,525 +94,18 @@ public class DuplicateManager {
 
                     while (isRunning.get() && Editor3DWindow.getAlive().get()) {
                         try {
-                            GData newEntry = workQueue.poll();
+                            // Only the latest state of the file has to be checked
+                            GData newEntry = null;
+                            GData entry;
+                            while ((entry = workQueue.poll()) != null) {
+                                newEntry = entry;
+                            }
                             if (newEntry != null) {
                                 NLogger.debug(getClass(), "Started duplicate check..."); //$NON-NLS-1$
-
-                                final HashSet<GData> allKeys = new HashSet<GData>();
-                                String lastCommentLine = null;
-                                final HashMap<String, Integer> lines = new HashMap<String, Integer>();
-
-                                allKeys.addAll(GData.CACHE_duplicates.keySet());
-                                GData gd = newEntry;
-                                int lineNumber = 1;
-                                while ((gd = gd.next) != null) {
-                                    boolean[] registered = new boolean[]{false};
-                                    int type = gd.type();
-                                    String trimmedLine = gd.toString().trim();
-                                    String[] data_segments = trimmedLine.split("\\s+"); //$NON-NLS-1$
-
-                                    // Remove double spaces (essential for complex types)
-                                    String normalizedLine;
-                                    if (type > 6 || type < 2) {
-                                        StringBuilder normalized = new StringBuilder();
-                                        int i = 0;
-                                        for (String string : data_segments) {
-                                            if (i != 1) {
-                                                normalized.append(string);
-                                                normalized.append(" "); //$NON-NLS-1$
-                                            }
-                                            i++;
-                                        }
-                                        normalizedLine = normalized.toString().trim();
-                                    } else {
-                                        normalizedLine = trimmedLine;
-                                    }
-
-                                    switch (type) {
-                                    case 0:
-                                        break;
-                                    case 1:
-
-                                        GData invertNextData = gd.getBefore();
-                                        normalizedLine = normalizedLine + ((GData1) gd).shortName;
-                                        // Check if a INVERTNEXT is present
-                                        while (invertNextData != null && invertNextData.type() != 1 && (invertNextData.type() != 6 || ((GDataBFC) invertNextData).type != BFC.INVERTNEXT)) {
-                                            invertNextData = invertNextData.getBefore();
-                                        }
-                                        if (invertNextData != null && invertNextData.type() == 6) {
-                                            normalizedLine = "IV" + normalizedLine; //$NON-NLS-1$
-                                            if (lines.containsKey(normalizedLine)) {
-                                                lastCommentLine = "0 BFC INVERTNEXT"; //$NON-NLS-1$
-                                                registerDuplicate(gd, lines.get(normalizedLine), registered);
-                                            } else {
-                                                lastCommentLine = null;
-                                                lines.put(normalizedLine, lineNumber);
-                                            }
-                                        } else {
-                                            normalizedLine = "NIV" + normalizedLine; //$NON-NLS-1$
-                                            if (lines.containsKey(normalizedLine)) {
-                                                registerDuplicate(gd, lines.get(normalizedLine), registered);
-                                            } else {
-                                                lastCommentLine = null;
-                                                lines.put(normalizedLine, lineNumber);
-                                            }
-                                        }
-                                        break;
-                                    case 2:
-                                    {
-                                        if (!((GData2) gd).isLine) {
-                                            break;
-                                        }
-                                        if (lines.containsKey(normalizedLine)) {
-                                            registerDuplicate(gd, lines.get(normalizedLine), registered);
-                                        } else {
-                                            lines.put(normalizedLine, lineNumber);
-                                            StringBuilder normalized1 = new StringBuilder();
-
-                                            normalized1.append(data_segments[0]);
-                                            normalized1.append(" "); //$NON-NLS-1$
-                                            // normalized1.append(data_segments[1]);
-                                            // normalized1.append(" "); //$NON-NLS-1$
-
-                                            normalized1.append(data_segments[2]);
-                                            normalized1.append(" "); //$NON-NLS-1$
-                                            normalized1.append(data_segments[3]);
-                                            normalized1.append(" "); //$NON-NLS-1$
-                                            normalized1.append(data_segments[4]);
-                                            normalized1.append(" "); //$NON-NLS-1$
-
-                                            normalized1.append(data_segments[5]);
-                                            normalized1.append(" "); //$NON-NLS-1$
-                                            normalized1.append(data_segments[6]);
-                                            normalized1.append(" "); //$NON-NLS-1$
-                                            normalized1.append(data_segments[7]);
-
-                                            String normalizedLine1 = normalized1.toString().trim();
-
-                                            if (lines.containsKey(normalizedLine1)) {
-                                                registerDuplicate(gd, lines.get(normalizedLine1), registered);
-                                            } else {
-                                                lines.put(normalizedLine1, lineNumber);
-                                                lastCommentLine = null;
-
-                                                StringBuilder normalized2 = new StringBuilder();
-                                                normalized2.append(data_segments[0]);
-                                                normalized2.append(" "); //$NON-NLS-1$
-                                                // normalized2.append(data_segments[1]);
-                                                // normalized2.append(" "); //$NON-NLS-1$
-
-                                                normalized2.append(data_segments[5]);
-                                                normalized2.append(" "); //$NON-NLS-1$
-                                                normalized2.append(data_segments[6]);
-                                                normalized2.append(" "); //$NON-NLS-1$
-                                                normalized2.append(data_segments[7]);
-                                                normalized2.append(" "); //$NON-NLS-1$
-
-                                                normalized2.append(data_segments[2]);
-                                                normalized2.append(" "); //$NON-NLS-1$
-                                                normalized2.append(data_segments[3]);
-                                                normalized2.append(" "); //$NON-NLS-1$
-                                                normalized2.append(data_segments[4]);
-
-                                                String normalizedLine2 = normalized2.toString().trim();
-
-                                                if (lines.containsKey(normalizedLine2)) {
-                                                    registerDuplicate(gd, lines.get(normalizedLine2), registered);
-                                                } else {
-                                                    lines.put(normalizedLine2, lineNumber);
-                                                    lastCommentLine = null;
-                                                }
-                                            }
-                                        }
-                                    }
-                                    break;
-                                    case 3:
-                                    {
-                                        if (!((GData3) gd).isTriangle) {
-                                            break;
-                                        }
-                                        if (lines.containsKey(normalizedLine)) {
-                                            registerDuplicate(gd, lines.get(normalizedLine), registered);
-                                        } else {
-                                            lines.put(normalizedLine, lineNumber);
-                                            StringBuilder normalized1 = new StringBuilder();
-
-                                            normalized1.append(data_segments[0]);
-                                            normalized1.append(" "); //$NON-NLS-1$
-                                            // normalized1.append(data_segments[1]);
-                                            // normalized1.append(" "); //$NON-NLS-1$
-
-                                            normalized1.append(data_segments[2]);
-                                            normalized1.append(" "); //$NON-NLS-1$
-                                            normalized1.append(data_segments[3]);
-                                            normalized1.append(" "); //$NON-NLS-1$
-                                            normalized1.append(data_segments[4]);
-                                            normalized1.append(" "); //$NON-NLS-1$
-
-                                            normalized1.append(data_segments[5]);
-                                            normalized1.append(" "); //$NON-NLS-1$
-                                            normalized1.append(data_segments[6]);
-                                            normalized1.append(" "); //$NON-NLS-1$
-                                            normalized1.append(data_segments[7]);
-                                            normalized1.append(" "); //$NON-NLS-1$
-
-                                            normalized1.append(data_segments[8]);
-                                            normalized1.append(" "); //$NON-NLS-1$
-                                            normalized1.append(data_segments[9]);
-                                            normalized1.append(" "); //$NON-NLS-1$
-                                            normalized1.append(data_segments[10]);
-
-                                            String normalizedLine1 = normalized1.toString().trim();
-
-                                            if (lines.containsKey(normalizedLine1)) {
-                                                registerDuplicate(gd, lines.get(normalizedLine1), registered);
-                                            } else {
-                                                lines.put(normalizedLine1, lineNumber);
-                                                StringBuilder normalized2 = new StringBuilder();
-
-                                                normalized2.append(data_segments[0]);
-                                                normalized2.append(" "); //$NON-NLS-1$
-                                                // normalized2.append(data_segments[1]);
-                                                // normalized2.append(" "); //$NON-NLS-1$
-
-                                                normalized2.append(data_segments[8]);
-                                                normalized2.append(" "); //$NON-NLS-1$
-                                                normalized2.append(data_segments[9]);
-                                                normalized2.append(" "); //$NON-NLS-1$
-                                                normalized2.append(data_segments[10]);
-                                                normalized2.append(" "); //$NON-NLS-1$
-
-                                                normalized2.append(data_segments[2]);
-                                                normalized2.append(" "); //$NON-NLS-1$
-                                                normalized2.append(data_segments[3]);
-                                                normalized2.append(" "); //$NON-NLS-1$
-                                                normalized2.append(data_segments[4]);
-                                                normalized2.append(" "); //$NON-NLS-1$
-
-                                                normalized2.append(data_segments[5]);
-                                                normalized2.append(" "); //$NON-NLS-1$
-                                                normalized2.append(data_segments[6]);
-                                                normalized2.append(" "); //$NON-NLS-1$
-                                                normalized2.append(data_segments[7]);
-
-                                                String normalizedLine2 = normalized2.toString().trim();
-
-                                                if (lines.containsKey(normalizedLine2)) {
-                                                    registerDuplicate(gd, lines.get(normalizedLine2), registered);
-                                                } else {
-                                                    lines.put(normalizedLine2, lineNumber);
-                                                    StringBuilder normalized3 = new StringBuilder();
-
-                                                    normalized3.append(data_segments[0]);
-                                                    normalized3.append(" "); //$NON-NLS-1$
-                                                    // normalized3.append(data_segments[1]);
-                                                    // normalized3.append(" "); //$NON-NLS-1$
-
-                                                    normalized3.append(data_segments[5]);
-                                                    normalized3.append(" "); //$NON-NLS-1$
-                                                    normalized3.append(data_segments[6]);
-                                                    normalized3.append(" "); //$NON-NLS-1$
-                                                    normalized3.append(data_segments[7]);
-                                                    normalized3.append(" "); //$NON-NLS-1$
-
-                                                    normalized3.append(data_segments[8]);
-                                                    normalized3.append(" "); //$NON-NLS-1$
-                                                    normalized3.append(data_segments[9]);
-                                                    normalized3.append(" "); //$NON-NLS-1$
-                                                    normalized3.append(data_segments[10]);
-                                                    normalized3.append(" "); //$NON-NLS-1$
-
-                                                    normalized3.append(data_segments[2]);
-                                                    normalized3.append(" "); //$NON-NLS-1$
-                                                    normalized3.append(data_segments[3]);
-                                                    normalized3.append(" "); //$NON-NLS-1$
-                                                    normalized3.append(data_segments[4]);
-
-                                                    String normalizedLine3 = normalized3.toString().trim();
-                                                    if (lines.containsKey(normalizedLine3)) {
-                                                        registerDuplicate(gd, lines.get(normalizedLine3), registered);
-                                                    } else {
-                                                        lines.put(normalizedLine3, lineNumber);
-                                                        lastCommentLine = null;
-                                                    }
-                                                }
-                                            }
-                                        }
-                                    }
-                                    break;
-                                    case 4:
-                                    {
-                                        if (lines.containsKey(normalizedLine)) {
-                                            registerDuplicate(gd, lineNumber, registered);
-                                        } else {
-                                            lines.put(normalizedLine, lineNumber);
-                                            StringBuilder normalized1 = new StringBuilder();
-
-                                            normalized1.append(data_segments[0]);
-                                            normalized1.append(" "); //$NON-NLS-1$
-                                            // normalized1.append(data_segments[1]);
-                                            // normalized1.append(" "); //$NON-NLS-1$
-
-                                            normalized1.append(data_segments[2]);
-                                            normalized1.append(" "); //$NON-NLS-1$
-                                            normalized1.append(data_segments[3]);
-                                            normalized1.append(" "); //$NON-NLS-1$
-                                            normalized1.append(data_segments[4]);
-                                            normalized1.append(" "); //$NON-NLS-1$
-
-                                            normalized1.append(data_segments[5]);
-                                            normalized1.append(" "); //$NON-NLS-1$
-                                            normalized1.append(data_segments[6]);
-                                            normalized1.append(" "); //$NON-NLS-1$
-                                            normalized1.append(data_segments[7]);
-                                            normalized1.append(" "); //$NON-NLS-1$
-
-                                            normalized1.append(data_segments[8]);
-                                            normalized1.append(" "); //$NON-NLS-1$
-                                            normalized1.append(data_segments[9]);
-                                            normalized1.append(" "); //$NON-NLS-1$
-                                            normalized1.append(data_segments[10]);
-                                            normalized1.append(" "); //$NON-NLS-1$
-
-                                            normalized1.append(data_segments[11]);
-                                            normalized1.append(" "); //$NON-NLS-1$
-                                            normalized1.append(data_segments[12]);
-                                            normalized1.append(" "); //$NON-NLS-1$
-                                            normalized1.append(data_segments[13]);
-
-                                            String normalizedLine1 = normalized1.toString().trim();
-
-                                            if (lines.containsKey(normalizedLine1)) {
-                                                registerDuplicate(gd, lines.get(normalizedLine1), registered);
-                                            } else {
-                                                lines.put(normalizedLine1, lineNumber);
-                                                StringBuilder normalized2 = new StringBuilder();
-
-                                                normalized2.append(data_segments[0]);
-                                                normalized2.append(" "); //$NON-NLS-1$
-                                                // normalized2.append(data_segments[1]);
-                                                // normalized2.append(" "); //$NON-NLS-1$
-
-                                                normalized2.append(data_segments[11]);
-                                                normalized2.append(" "); //$NON-NLS-1$
-                                                normalized2.append(data_segments[12]);
-                                                normalized2.append(" "); //$NON-NLS-1$
-                                                normalized2.append(data_segments[13]);
-                                                normalized2.append(" "); //$NON-NLS-1$
-
-                                                normalized2.append(data_segments[2]);
-                                                normalized2.append(" "); //$NON-NLS-1$
-                                                normalized2.append(data_segments[3]);
-                                                normalized2.append(" "); //$NON-NLS-1$
-                                                normalized2.append(data_segments[4]);
-                                                normalized2.append(" "); //$NON-NLS-1$
-
-                                                normalized2.append(data_segments[5]);
-                                                normalized2.append(" "); //$NON-NLS-1$
-                                                normalized2.append(data_segments[6]);
-                                                normalized2.append(" "); //$NON-NLS-1$
-                                                normalized2.append(data_segments[7]);
-                                                normalized2.append(" "); //$NON-NLS-1$
-
-                                                normalized2.append(data_segments[8]);
-                                                normalized2.append(" "); //$NON-NLS-1$
-                                                normalized2.append(data_segments[9]);
-                                                normalized2.append(" "); //$NON-NLS-1$
-                                                normalized2.append(data_segments[10]);
-
-                                                String normalizedLine2 = normalized2.toString().trim();
-
-                                                if (lines.containsKey(normalizedLine2)) {
-                                                    registerDuplicate(gd, lines.get(normalizedLine2), registered);
-                                                } else {
-                                                    lines.put(normalizedLine2, lineNumber);
-                                                    StringBuilder normalized3 = new StringBuilder();
-
-                                                    normalized3.append(data_segments[0]);
-                                                    normalized3.append(" "); //$NON-NLS-1$
-                                                    // normalized3.append(data_segments[1]);
-                                                    // normalized3.append(" "); //$NON-NLS-1$
-
-                                                    normalized3.append(data_segments[8]);
-                                                    normalized3.append(" "); //$NON-NLS-1$
-                                                    normalized3.append(data_segments[9]);
-                                                    normalized3.append(" "); //$NON-NLS-1$
-                                                    normalized3.append(data_segments[10]);
-                                                    normalized3.append(" "); //$NON-NLS-1$
-
-                                                    normalized3.append(data_segments[11]);
-                                                    normalized3.append(" "); //$NON-NLS-1$
-                                                    normalized3.append(data_segments[12]);
-                                                    normalized3.append(" "); //$NON-NLS-1$
-                                                    normalized3.append(data_segments[13]);
-                                                    normalized3.append(" "); //$NON-NLS-1$
-
-                                                    normalized3.append(data_segments[2]);
-                                                    normalized3.append(" "); //$NON-NLS-1$
-                                                    normalized3.append(data_segments[3]);
-                                                    normalized3.append(" "); //$NON-NLS-1$
-                                                    normalized3.append(data_segments[4]);
-                                                    normalized3.append(" "); //$NON-NLS-1$
-
-                                                    normalized3.append(data_segments[5]);
-                                                    normalized3.append(" "); //$NON-NLS-1$
-                                                    normalized3.append(data_segments[6]);
-                                                    normalized3.append(" "); //$NON-NLS-1$
-                                                    normalized3.append(data_segments[7]);
-
-                                                    String normalizedLine3 = normalized3.toString().trim();
-                                                    if (lines.containsKey(normalizedLine3)) {
-                                                        registerDuplicate(gd, lines.get(normalizedLine3), registered);
-                                                    } else {
-                                                        lines.put(normalizedLine3, lineNumber);
-                                                        StringBuilder normalized4 = new StringBuilder();
-
-                                                        normalized4.append(data_segments[0]);
-                                                        normalized4.append(" "); //$NON-NLS-1$
-                                                        // normalized4.append(data_segments[1]);
-                                                        // normalized4.append(" "); //$NON-NLS-1$
-
-                                                        normalized4.append(data_segments[5]);
-                                                        normalized4.append(" "); //$NON-NLS-1$
-                                                        normalized4.append(data_segments[6]);
-                                                        normalized4.append(" "); //$NON-NLS-1$
-                                                        normalized4.append(data_segments[7]);
-                                                        normalized4.append(" "); //$NON-NLS-1$
-
-                                                        normalized4.append(data_segments[8]);
-                                                        normalized4.append(" "); //$NON-NLS-1$
-                                                        normalized4.append(data_segments[9]);
-                                                        normalized4.append(" "); //$NON-NLS-1$
-                                                        normalized4.append(data_segments[10]);
-                                                        normalized4.append(" "); //$NON-NLS-1$
-
-                                                        normalized4.append(data_segments[11]);
-                                                        normalized4.append(" "); //$NON-NLS-1$
-                                                        normalized4.append(data_segments[12]);
-                                                        normalized4.append(" "); //$NON-NLS-1$
-                                                        normalized4.append(data_segments[13]);
-                                                        normalized4.append(" "); //$NON-NLS-1$
-
-                                                        normalized4.append(data_segments[2]);
-                                                        normalized4.append(" "); //$NON-NLS-1$
-                                                        normalized4.append(data_segments[3]);
-                                                        normalized4.append(" "); //$NON-NLS-1$
-                                                        normalized4.append(data_segments[4]);
-
-                                                        String normalizedLine4 = normalized4.toString().trim();
-                                                        if (lines.containsKey(normalizedLine4)) {
-                                                            registerDuplicate(gd, lines.get(normalizedLine4), registered);
-                                                        } else {
-                                                            lines.put(normalizedLine4, lineNumber);
-                                                            lastCommentLine = null;
-                                                        }
-                                                    }
-                                                }
-                                            }
-                                        }
-                                    }
-                                    break;
-                                    case 5:
-                                    {
-                                        GData5 gd5 = (GData5) gd;
-
-                                        Vector4f p1 = MathHelper.getNearestPointToLine(gd5.x1, gd5.y1, gd5.z1, gd5.x2, gd5.y2, gd5.z2, gd5.x3, gd5.y3, gd5.z3);
-                                        Vector4f p2 = MathHelper.getNearestPointToLine(gd5.x1, gd5.y1, gd5.z1, gd5.x2, gd5.y2, gd5.z2, gd5.x4, gd5.y4, gd5.z4);
-
-                                        Vector3f pa1 = Vector3f.sub(new Vector3f(gd5.x3, gd5.y3, gd5.z3), new Vector3f(p1.x, p1.y, p1.z), null);
-                                        Vector3f pa2 = Vector3f.sub(new Vector3f(gd5.x4, gd5.y4, gd5.z4), new Vector3f(p2.x, p2.y, p2.z), null);
-
-                                        float a = (float) (Vector3f.angle(pa1, pa2) / Math.PI * 180.0);
-
-
-                                        if (a > Threshold.condline_angle_maximum) {
-                                            registerInvisibleCondline(gd, lineNumber, registered);
-                                        } else {
-                                            StringBuilder normalized3 = new StringBuilder();
-
-                                            normalized3.append(data_segments[0]);
-                                            normalized3.append(" "); //$NON-NLS-1$
-                                            // normalized3.append(data_segments[1]);
-                                            // normalized3.append(" "); //$NON-NLS-1$
-
-                                            normalized3.append(data_segments[2]);
-                                            normalized3.append(" "); //$NON-NLS-1$
-                                            normalized3.append(data_segments[3]);
-                                            normalized3.append(" "); //$NON-NLS-1$
-                                            normalized3.append(data_segments[4]);
-                                            normalized3.append(" "); //$NON-NLS-1$
-
-                                            normalized3.append(data_segments[5]);
-                                            normalized3.append(" "); //$NON-NLS-1$
-                                            normalized3.append(data_segments[6]);
-                                            normalized3.append(" "); //$NON-NLS-1$
-                                            normalized3.append(data_segments[7]);
-                                            normalized3.append(" "); //$NON-NLS-1$
-
-                                            String normalizedLine3 = normalized3.toString().trim();
-
-                                            if (lines.containsKey(normalizedLine3)) {
-                                                registerDuplicate(gd, lines.get(normalizedLine3), registered);
-                                            } else {
-                                                lines.put(normalizedLine3, lineNumber);
-                                                StringBuilder normalized2 = new StringBuilder();
-
-                                                normalized2.append(data_segments[0]);
-                                                normalized2.append(" "); //$NON-NLS-1$
-                                                // normalized2.append(data_segments[1]);
-                                                // normalized2.append(" "); //$NON-NLS-1$
-
-                                                normalized2.append(data_segments[5]);
-                                                normalized2.append(" "); //$NON-NLS-1$
-                                                normalized2.append(data_segments[6]);
-                                                normalized2.append(" "); //$NON-NLS-1$
-                                                normalized2.append(data_segments[7]);
-                                                normalized2.append(" "); //$NON-NLS-1$
-
-                                                normalized2.append(data_segments[2]);
-                                                normalized2.append(" "); //$NON-NLS-1$
-                                                normalized2.append(data_segments[3]);
-                                                normalized2.append(" "); //$NON-NLS-1$
-                                                normalized2.append(data_segments[4]);
-                                                normalized2.append(" "); //$NON-NLS-1$
-
-                                                String normalizedLine2 = normalized2.toString().trim();
-
-                                                if (lines.containsKey(normalizedLine2)) {
-                                                    registerDuplicate(gd, lines.get(normalizedLine2), registered);
-                                                } else {
-                                                    lines.put(normalizedLine2, lineNumber);
-                                                    lastCommentLine = null;
-                                                }
-                                            }
-                                        }
-                                    }
-                                    break;
-                                    default:
-                                        if (!trimmedLine.isEmpty()) {
-                                            if (lastCommentLine != null && lastCommentLine.equals(normalizedLine)) {
-                                                registerDuplicate(gd, lineNumber - 1, registered);
-                                            } else {
-                                                lastCommentLine = normalizedLine;
-                                            }
-                                        }
-                                        break;
-                                    }
-                                    if (registered[0]) {
-                                        allKeys.remove(gd);
-                                    }
-                                    lineNumber += 1;
-                                }
-
-                                for (GData gd2 : allKeys) {
-                                    GData.CACHE_duplicates.remove(gd2);
-                                }
-
+                                checkDuplicates(newEntry);
                             }
                             if (workQueue.isEmpty()) Thread.sleep(100);
                         } catch (InterruptedException e) {
-                            // We want to know what can go wrong here
-                            // because it SHOULD be avoided!!
 
                             NLogger.error(getClass(), "The DuplicateManager cycle was interruped [InterruptedException]! :("); //$NON-NLS-1$
                             NLogger.error(getClass(), e);
@@ -583,20 +115,6 @@ public class DuplicateManager {
                         }
                     }
                 }
-
-                private void registerDuplicate(GData gd, int lineNumber, boolean[] registered) {
-                    registered[0] = true;
-                    Object[] messageArguments = {lineNumber};
-                    MessageFormat formatter = new MessageFormat(""); //$NON-NLS-1$
-                    formatter.setLocale(MyLanguage.LOCALE);
-                    formatter.applyPattern(I18n.DATPARSER_DuplicatedLines);
-                    GData.CACHE_duplicates.put(gd, new ParsingResult(formatter.format(messageArguments), "[E01] " + I18n.DATPARSER_LogicError, ResultType.ERROR)); //$NON-NLS-1$
-                }
-
-                private void registerInvisibleCondline(GData gd, int lineNumber, boolean[] registered) {
-                    registered[0] = true;
-                    GData.CACHE_duplicates.put(gd, new ParsingResult(I18n.DATPARSER_InvisibleLine, "[E01] " + I18n.DATPARSER_LogicError, ResultType.ERROR)); //$NON-NLS-1$
-                }
             });
             worker.start();
         }
@@ -615,4 +133,363 @@ public class DuplicateManager {
     public void setDatFile(DatFile df) {
         this.df = df;
     }
+
+    private void checkDuplicates(GData anchor) {
+        final long start = checkTimer.start();
+        final int gen = ++generation;
+        final HashSet<Key> changedKeys = new HashSet<Key>();
+        String lastMetaLine = null;
+        boolean invertNext = false;
+        int lineNumber = 1;
+        int newLineCount = 0;
+        GData gd = anchor;
+        while ((gd = gd.next) != null) {
+            LineInfo info = lineInfos.get(gd);
+            final boolean isNew = info == null;
+            if (isNew) {
+                info = new LineInfo(gd);
+                lineInfos.put(gd, info);
+                newLineCount++;
+            }
+            info.generation = gen;
+            info.lineNumber = lineNumber;
+
+            final int type = gd.type();
+            if (isNew && !info.isInvisibleCondline || type == 1 && info.key.invertNext != invertNext) {
+                final Key key = Key.create(gd, invertNext);
+                if (key != null) {
+                    setKey(info, key, changedKeys);
+                }
+            }
+            if (type == 1) {
+                invertNext = false;
+            } else if (type == 6 && ((GDataBFC) gd).type == BFC.INVERTNEXT) {
+                invertNext = true;
+            }
+
+            if (info.isInvisibleCondline) {
+                report(info, I18n.DATPARSER_InvisibleLine, -1);
+            } else if (info.key != null) {
+                lastMetaLine = null;
+            } else if (info.metaLine != null) {
+                if (info.metaLine.equals(lastMetaLine)) {
+                    report(info, I18n.DATPARSER_DuplicatedLines, lineNumber - 1);
+                } else {
+                    unreport(info);
+                    lastMetaLine = info.metaLine;
+                }
+            }
+            lineNumber++;
+        }
+
+        // Remove the deleted lines
+        if (lineInfos.size() > lineNumber - 1) {
+            for (Iterator<LineInfo> it = lineInfos.values().iterator(); it.hasNext();) {
+                final LineInfo info = it.next();
+                if (info.generation != gen) {
+                    it.remove();
+                    setKey(info, null, changedKeys);
+                    unreport(info);
+                }
+            }
+        }
+
+        // The line numbers of the other duplicates could have changed, too
+        changedKeys.addAll(duplicatedKeys);
+        for (Key key : changedKeys) {
+            updateDuplicates(key);
+        }
+
+        // Restore the entries which were removed from the cache in the meantime
+        for (LineInfo info : reportedLines) {
+            if (GData.CACHE_duplicates.get(info.gd) != info.result) {
+                GData.CACHE_duplicates.put(info.gd, info.result);
+            }
+        }
+        newLineCounter.add(newLineCount);
+        checkTimer.stop(start);
+        NLogger.debug(getClass(), "Duplicate check: {0} lines, {1} new, {2} keys updated.", lineNumber - 1, newLineCount, changedKeys.size()); //$NON-NLS-1$
+    }
+
+    /**
+     * Reports every line of a key as a duplicate, except the first line
+     */
+    private void updateDuplicates(Key key) {
+        final ArrayList<LineInfo> lines = linesPerKey.get(key);
+        if (lines == null) {
+            duplicatedKeys.remove(key);
+            return;
+        }
+        LineInfo first = lines.get(0);
+        for (LineInfo info : lines) {
+            if (info.lineNumber < first.lineNumber) {
+                first = info;
+            }
+        }
+        for (LineInfo info : lines) {
+            if (info == first) {
+                unreport(info);
+            } else {
+                report(info, I18n.DATPARSER_DuplicatedLines, first.lineNumber);
+            }
+        }
+        if (lines.size() > 1) {
+            duplicatedKeys.add(key);
+        } else {
+            duplicatedKeys.remove(key);
+        }
+    }
+
+    private void setKey(LineInfo info, Key key, HashSet<Key> changedKeys) {
+        if (info.key != null) {
+            final ArrayList<LineInfo> lines = linesPerKey.get(info.key);
+            if (lines != null) {
+                for (int i = 0; i < lines.size(); i++) {
+                    if (lines.get(i) == info) {
+                        lines.remove(i);
+                        break;
+                    }
+                }
+                if (lines.isEmpty()) {
+                    linesPerKey.remove(info.key);
+                }
+            }
+            changedKeys.add(info.key);
+        }
+        info.key = key;
+        if (key != null) {
+            ArrayList<LineInfo> lines = linesPerKey.get(key);
+            if (lines == null) {
+                lines = new ArrayList<LineInfo>(2);
+                linesPerKey.put(key, lines);
+            }
+            lines.add(info);
+            changedKeys.add(key);
+        }
+    }
+
+    private void report(LineInfo info, String pattern, int lineNumber) {
+        if (info.result != null && info.resultPattern == pattern && info.resultLineNumber == lineNumber) {
+            return;
+        }
+        final ParsingResult result;
+        if (lineNumber == -1) {
+            result = new ParsingResult(pattern, "[E01] " + I18n.DATPARSER_LogicError, ResultType.ERROR); //$NON-NLS-1$
+        } else {
+            Object[] messageArguments = {lineNumber};
+            MessageFormat formatter = new MessageFormat(""); //$NON-NLS-1$
+            formatter.setLocale(MyLanguage.LOCALE);
+            formatter.applyPattern(pattern);
+            result = new ParsingResult(formatter.format(messageArguments), "[E01] " + I18n.DATPARSER_LogicError, ResultType.ERROR); //$NON-NLS-1$
+        }
+        info.result = result;
+        info.resultPattern = pattern;
+        info.resultLineNumber = lineNumber;
+        reportedLines.add(info);
+        GData.CACHE_duplicates.put(info.gd, result);
+    }
+
+    private void unreport(LineInfo info) {
+        if (info.result != null) {
+            if (GData.CACHE_duplicates.get(info.gd) == info.result) {
+                GData.CACHE_duplicates.remove(info.gd);
+            }
+            info.result = null;
+            info.resultPattern = null;
+            reportedLines.remove(info);
+        }
+    }
+
+    /**
+     * The state of a line from the last check
+     */
+    private static final class LineInfo {
+
+        private final GData gd;
+        /** The normalized text of a meta command or {@code null} */
+        private final String metaLine;
+        private final boolean isInvisibleCondline;
+
+        private Key key = null;
+        private int lineNumber;
+        private int generation;
+
+        private ParsingResult result = null;
+        private String resultPattern = null;
+        private int resultLineNumber;
+
+        private LineInfo(GData gd) {
+            this.gd = gd;
+            final int type = gd.type();
+            if (type == 6) {
+                metaLine = gd.toString().trim();
+            } else if (type > 6) {
+                // Remove double spaces (essential for complex types)
+                StringBuilder normalized = new StringBuilder();
+                int i = 0;
+                for (String string : gd.toString().trim().split("\\s+")) { //$NON-NLS-1$
+                    if (i != 1) {
+                        normalized.append(string);
+                        normalized.append(" "); //$NON-NLS-1$
+                    }
+                    i++;
+                }
+                metaLine = normalized.toString().trim();
+            } else {
+                metaLine = null;
+            }
+            isInvisibleCondline = type == 5 && isInvisible((GData5) gd);
+        }
+
+        private static boolean isInvisible(GData5 gd5) {
+            Vector4f p1 = MathHelper.getNearestPointToLine(gd5.x1, gd5.y1, gd5.z1, gd5.x2, gd5.y2, gd5.z2, gd5.x3, gd5.y3, gd5.z3);
+            Vector4f p2 = MathHelper.getNearestPointToLine(gd5.x1, gd5.y1, gd5.z1, gd5.x2, gd5.y2, gd5.z2, gd5.x4, gd5.y4, gd5.z4);
+
+            Vector3f pa1 = Vector3f.sub(new Vector3f(gd5.x3, gd5.y3, gd5.z3), new Vector3f(p1.x, p1.y, p1.z), null);
+            Vector3f pa2 = Vector3f.sub(new Vector3f(gd5.x4, gd5.y4, gd5.z4), new Vector3f(p2.x, p2.y, p2.z), null);
+
+            float a = (float) (Vector3f.angle(pa1, pa2) / Math.PI * 180.0);
+            return a > Threshold.condline_angle_maximum;
+        }
+    }
+
+    /**
+     * The canonical geometry of a line. Numbers are equal if they have the
+     * same value (e.g. {@code 1} and {@code 1.0}).
+     */
+    private static final class Key {
+
+        private final int type;
+        private final boolean invertNext;
+        private final BigDecimal[] values;
+        private final String name;
+        private final int hash;
+
+        private Key(int type, boolean invertNext, BigDecimal[] values, String name) {
+            this.type = type;
+            this.invertNext = invertNext;
+            this.values = values;
+            this.name = name;
+            int h = 31 * type + (invertNext ? 1 : 0);
+            for (BigDecimal value : values) {
+                h = 31 * h + Double.hashCode(value.doubleValue());
+            }
+            if (name != null) {
+                h = 31 * h + name.hashCode();
+            }
+            this.hash = h;
+        }
+
+        /**
+         * @return the key of the line or {@code null} if the line can't be a
+         *         geometric duplicate
+         */
+        private static Key create(GData gd, boolean invertNext) {
+            switch (gd.type()) {
+            case 1:
+            {
+                final GData1 gd1 = (GData1) gd;
+                final Matrix m = gd1.accurateLocalMatrix;
+                return new Key(1, invertNext, new BigDecimal[]{m.M30, m.M31, m.M32, m.M00, m.M10, m.M20, m.M01, m.M11, m.M21, m.M02, m.M12, m.M22}, gd1.shortName);
+            }
+            case 2:
+            {
+                final GData2 gd2 = (GData2) gd;
+                if (!gd2.isLine) {
+                    return null;
+                }
+                return new Key(2, false, canonical(new BigDecimal[][]{{gd2.X1, gd2.Y1, gd2.Z1}, {gd2.X2, gd2.Y2, gd2.Z2}}, true), null);
+            }
+            case 3:
+            {
+                final GData3 gd3 = (GData3) gd;
+                if (!gd3.isTriangle) {
+                    return null;
+                }
+                return new Key(3, false, canonical(new BigDecimal[][]{{gd3.X1, gd3.Y1, gd3.Z1}, {gd3.X2, gd3.Y2, gd3.Z2}, {gd3.X3, gd3.Y3, gd3.Z3}}, false), null);
+            }
+            case 4:
+            {
+                final GData4 gd4 = (GData4) gd;
+                return new Key(4, false, canonical(new BigDecimal[][]{{gd4.X1, gd4.Y1, gd4.Z1}, {gd4.X2, gd4.Y2, gd4.Z2}, {gd4.X3, gd4.Y3, gd4.Z3}, {gd4.X4, gd4.Y4, gd4.Z4}}, false), null);
+            }
+            case 5:
+            {
+                final GData5 gd5 = (GData5) gd;
+                // Only the end points are compared
+                return new Key(5, false, canonical(new BigDecimal[][]{{gd5.X1, gd5.Y1, gd5.Z1}, {gd5.X2, gd5.Y2, gd5.Z2}}, true), null);
+            }
+            default:
+                return null;
+            }
+        }
+
+        /**
+         * Returns the vertices in a unique order. All rotations of the
+         * vertices (and all permutations, if the order is irrelevant) have the
+         * same result.
+         */
+        private static BigDecimal[] canonical(BigDecimal[][] vertices, boolean orderIsIrrelevant) {
+            final int count = vertices.length;
+            int bestStart = 0;
+            boolean bestReversed = false;
+            for (int start = 0; start < count; start++) {
+                if (compareRotation(vertices, start, false, bestStart, bestReversed) < 0) {
+                    bestStart = start;
+                    bestReversed = false;
+                }
+                if (orderIsIrrelevant && compareRotation(vertices, start, true, bestStart, bestReversed) < 0) {
+                    bestStart = start;
+                    bestReversed = true;
+                }
+            }
+            final BigDecimal[] result = new BigDecimal[count * 3];
+            for (int i = 0; i < count; i++) {
+                System.arraycopy(vertices[index(count, bestStart, bestReversed, i)], 0, result, i * 3, 3);
+            }
+            return result;
+        }
+
+        private static int compareRotation(BigDecimal[][] vertices, int start1, boolean reversed1, int start2, boolean reversed2) {
+            final int count = vertices.length;
+            for (int i = 0; i < count; i++) {
+                final BigDecimal[] v1 = vertices[index(count, start1, reversed1, i)];
+                final BigDecimal[] v2 = vertices[index(count, start2, reversed2, i)];
+                for (int j = 0; j < 3; j++) {
+                    final int c = v1[j].compareTo(v2[j]);
+                    if (c != 0) {
+                        return c;
+                    }
+                }
+            }
+            return 0;
+        }
+
+        private static int index(int count, int start, boolean reversed, int i) {
+            return reversed ? (start - i + count) % count : (start + i) % count;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj)
+                return true;
+            if (!(obj instanceof Key))
+                return false;
+            final Key other = (Key) obj;
+            if (hash != other.hash || type != other.type || invertNext != other.invertNext || values.length != other.values.length)
+                return false;
+            if (name == null ? other.name != null : !name.equals(other.name))
+                return false;
+            for (int i = 0; i < values.length; i++) {
+                if (values[i].compareTo(other.values[i]) != 0)
+                    return false;
+            }
+            return true;
+        }
+    }
 }
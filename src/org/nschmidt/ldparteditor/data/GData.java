@@ -66,10 +66,6 @@ public abstract class GData implements IGData, Comparable<GData> {
     // Cleared before viewport change
     public static final HashMap<GData1, Matrix4f> CACHE_viewByProjection = new HashMap<GData1, Matrix4f>(1000);
 
-    // Cleared before parse
-    public static final HashMap<String, ArrayList<String>> CACHE_parsedFilesSource = new HashMap<String, ArrayList<String>>(1000);
-    public static final HashMap<String, GData> parsedLines = new HashMap<String, GData>(1000);
-
     public static final HashMap<GData, ArrayList<ParsingResult>> CACHE_warningsAndErrors = new HashMap<GData, ArrayList<ParsingResult>>(1000); // Cleared
     public static final ThreadsafeHashMap<GData, ParsingResult> CACHE_duplicates = new ThreadsafeHashMap<GData, ParsingResult>(1000); // Cleared
 
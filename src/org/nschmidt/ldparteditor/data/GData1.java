@@ -43,6 +43,7 @@ import org.nschmidt.ldparteditor.helpers.math.ThreadsafeTreeMap;
 import org.nschmidt.ldparteditor.helpers.math.Vector3d;
 import org.nschmidt.ldparteditor.i18n.I18n;
 import org.nschmidt.ldparteditor.logger.NLogger;
+import org.nschmidt.ldparteditor.opengl.OpenGLRenderer20;
 import org.nschmidt.ldparteditor.text.DatParser;
 import org.nschmidt.ldparteditor.text.TexMapParser;
 
@@ -151,12 +152,11 @@ public final class GData1 extends GData {
 
             matrix.position(0);
 
-            if (!GData.CACHE_parsedFilesSource.containsKey(name)) {
-                GData.CACHE_parsedFilesSource.put(name, lines);
-            }
+            // The parsed lines of this subfile from previous references (can be null)
+            final HashMap<String, GData> parsedLines = SubfileCache.getParsedLines(name);
 
             StringBuilder keyBuilder = new StringBuilder();
-            keyBuilder.append(name);
+            keyBuilder.append(SubfileCache.getResolutionContext(datFile));
             keyBuilder.append(r);
             keyBuilder.append(g);
             keyBuilder.append(b);
@@ -174,8 +174,18 @@ public final class GData1 extends GData {
                     keyBuilder2.append(colourNumber);
                     String key3 = keyBuilder2.toString();
 
-                    if (GData.parsedLines.containsKey(key3)) {
-                        GData gdata = GData.parsedLines.get(key3);
+                    GData cachedData = parsedLines != null ? parsedLines.get(key3) : null;
+                    ArrayList<String> cachedSubfileLines = null;
+                    if (cachedData != null && cachedData.type() == 1) {
+                        cachedSubfileLines = SubfileCache.getLines(((GData1) cachedData).name);
+                        if (cachedSubfileLines == null) {
+                            // The subfile has changed and has to be parsed again
+                            cachedData = null;
+                        }
+                    }
+
+                    if (cachedData != null) {
+                        GData gdata = cachedData;
                         final GData res_gdata;
                         switch (gdata.type()) {
                         case 0:
@@ -185,7 +195,7 @@ public final class GData1 extends GData {
                             GData1 gd1 = (GData1) gdata;
                             alreadyParsed.add(gd1.shortName);
                             GData1 newGdata1 = new GData1(gd1.colourNumber, gd1.r, gd1.g, gd1.b, gd1.a, new Matrix4f(gd1.localMatrix), gd1.accurateLocalMatrix,
-                                    GData.CACHE_parsedFilesSource.get(gd1.name), gd1.name, gd1.shortName, depth, gd1.negativeDeterminant, Matrix4f.mul(this.productMatrix, gd1.localMatrix, null),
+                                    cachedSubfileLines, gd1.name, gd1.shortName, depth, gd1.negativeDeterminant, Matrix4f.mul(this.productMatrix, gd1.localMatrix, null),
                                     Matrix.mul(this.accurateProductMatrix, gd1.accurateLocalMatrix), datFile, this.firstRef, false, errorCheckOnly, alreadyParsed, this);
                             alreadyParsed.remove(gd1.shortName);
                             if (newGdata1.boundingBoxMin.x != Float.MAX_VALUE) {
@@ -251,7 +261,9 @@ public final class GData1 extends GData {
                     } else {
                         GData gdata = DatParser.parseLine(line, 0, depth, r, g, b, a, this, pMatrix, accurateProductMatrix, datFile, errorCheckOnly, alreadyParsed, false).get(0).getGraphicalData();
                         if (gdata != null) {
-                            GData.parsedLines.put(key3, gdata);
+                            if (parsedLines != null) {
+                                parsedLines.put(key3, gdata);
+                            }
                             if (gdata.type() == 1) {
                                 GData1 newGdata1 = (GData1) gdata;
                                 if (newGdata1.boundingBoxMin.x != Float.MAX_VALUE) {
@@ -477,6 +489,7 @@ public final class GData1 extends GData {
                     || boundingBox.contains(0, bounds.height) || bounds.contains(boundingBox.x, boundingBox.y) || bounds.contains(boundingBox.x, boundingBox.y + boundingBox.height)
                     || bounds.contains(boundingBox.x + boundingBox.width, boundingBox.y) || bounds.contains(boundingBox.x + boundingBox.width, boundingBox.y + boundingBox.height)) {
 
+                OpenGLRenderer20.BATCH.flush();
                 GL11.glPushMatrix();
                 GL11.glMultMatrixf(matrix);
 
@@ -500,6 +513,7 @@ public final class GData1 extends GData {
                         GData.accumClip = 0;
                 }
 
+                OpenGLRenderer20.BATCH.flush();
                 GL11.glPopMatrix();
 
             }
@@ -562,6 +576,7 @@ public final class GData1 extends GData {
                     || boundingBox.contains(0, bounds.height) || bounds.contains(boundingBox.x, boundingBox.y) || bounds.contains(boundingBox.x, boundingBox.y + boundingBox.height)
                     || bounds.contains(boundingBox.x + boundingBox.width, boundingBox.y) || bounds.contains(boundingBox.x + boundingBox.width, boundingBox.y + boundingBox.height)) {
 
+                OpenGLRenderer20.BATCH.flush();
                 GL11.glPushMatrix();
                 GL11.glMultMatrixf(matrix);
 
@@ -585,6 +600,7 @@ public final class GData1 extends GData {
                         GData.accumClip = 0;
                 }
 
+                OpenGLRenderer20.BATCH.flush();
                 GL11.glPopMatrix();
 
             }
@@ -686,6 +702,7 @@ public final class GData1 extends GData {
                 //                GL11.glPopMatrix();
 
 
+                OpenGLRenderer20.BATCH.flush();
                 GL11.glPushMatrix();
                 GL11.glMultMatrixf(matrix);
 
@@ -718,6 +735,7 @@ public final class GData1 extends GData {
                         GData.accumClip = 0;
                 }
 
+                OpenGLRenderer20.BATCH.flush();
                 GL11.glPopMatrix();
 
             }
@@ -787,6 +805,7 @@ public final class GData1 extends GData {
                     || boundingBox.contains(0, bounds.height) || bounds.contains(boundingBox.x, boundingBox.y) || bounds.contains(boundingBox.x, boundingBox.y + boundingBox.height)
                     || bounds.contains(boundingBox.x + boundingBox.width, boundingBox.y) || bounds.contains(boundingBox.x + boundingBox.width, boundingBox.y + boundingBox.height)) {
 
+                OpenGLRenderer20.BATCH.flush();
                 GL11.glPushMatrix();
                 GL11.glMultMatrixf(matrix);
 
@@ -810,6 +829,7 @@ public final class GData1 extends GData {
                         GData.accumClip = 0;
                 }
 
+                OpenGLRenderer20.BATCH.flush();
                 GL11.glPopMatrix();
 
             }
@@ -882,6 +902,7 @@ public final class GData1 extends GData {
                     || boundingBox.contains(0, bounds.height) || bounds.contains(boundingBox.x, boundingBox.y) || bounds.contains(boundingBox.x, boundingBox.y + boundingBox.height)
                     || bounds.contains(boundingBox.x + boundingBox.width, boundingBox.y) || bounds.contains(boundingBox.x + boundingBox.width, boundingBox.y + boundingBox.height)) {
 
+                OpenGLRenderer20.BATCH.flush();
                 GL11.glPushMatrix();
                 GL11.glMultMatrixf(matrix);
 
@@ -914,6 +935,7 @@ public final class GData1 extends GData {
                         GData.accumClip = 0;
                 }
 
+                OpenGLRenderer20.BATCH.flush();
                 GL11.glPopMatrix();
 
             }
@@ -985,6 +1007,7 @@ public final class GData1 extends GData {
                     || boundingBox.contains(0, bounds.height) || bounds.contains(boundingBox.x, boundingBox.y) || bounds.contains(boundingBox.x, boundingBox.y + boundingBox.height)
                     || bounds.contains(boundingBox.x + boundingBox.width, boundingBox.y) || bounds.contains(boundingBox.x + boundingBox.width, boundingBox.y + boundingBox.height)) {
 
+                OpenGLRenderer20.BATCH.flush();
                 GL11.glPushMatrix();
                 GL11.glMultMatrixf(matrix);
 
@@ -1017,6 +1040,7 @@ public final class GData1 extends GData {
                         GData.accumClip = 0;
                 }
 
+                OpenGLRenderer20.BATCH.flush();
                 GL11.glPopMatrix();
 
             }
@@ -1190,6 +1214,7 @@ public final class GData1 extends GData {
                     || boundingBox.contains(0, bounds.height) || bounds.contains(boundingBox.x, boundingBox.y) || bounds.contains(boundingBox.x, boundingBox.y + boundingBox.height)
                     || bounds.contains(boundingBox.x + boundingBox.width, boundingBox.y) || bounds.contains(boundingBox.x + boundingBox.width, boundingBox.y + boundingBox.height)) {
 
+                OpenGLRenderer20.BATCH.flush();
                 GL11.glPushMatrix();
                 GL11.glMultMatrixf(matrix);
 
@@ -1237,6 +1262,7 @@ public final class GData1 extends GData {
                         GData.accumClip = 0;
                 }
 
+                OpenGLRenderer20.BATCH.flush();
                 GL11.glPopMatrix();
 
             }
@@ -1302,6 +1328,7 @@ public final class GData1 extends GData {
                     || boundingBox.contains(0, bounds.height) || bounds.contains(boundingBox.x, boundingBox.y) || bounds.contains(boundingBox.x, boundingBox.y + boundingBox.height)
                     || bounds.contains(boundingBox.x + boundingBox.width, boundingBox.y) || bounds.contains(boundingBox.x + boundingBox.width, boundingBox.y + boundingBox.height)) {
 
+                OpenGLRenderer20.BATCH.flush();
                 GL11.glPushMatrix();
                 GL11.glMultMatrixf(matrix);
 
@@ -1325,6 +1352,7 @@ public final class GData1 extends GData {
                         GData.accumClip = 0;
                 }
 
+                OpenGLRenderer20.BATCH.flush();
                 GL11.glPopMatrix();
 
             }
@@ -1387,6 +1415,7 @@ public final class GData1 extends GData {
                     || boundingBox.contains(0, bounds.height) || bounds.contains(boundingBox.x, boundingBox.y) || bounds.contains(boundingBox.x, boundingBox.y + boundingBox.height)
                     || bounds.contains(boundingBox.x + boundingBox.width, boundingBox.y) || bounds.contains(boundingBox.x + boundingBox.width, boundingBox.y + boundingBox.height)) {
 
+                OpenGLRenderer20.BATCH.flush();
                 GL11.glPushMatrix();
                 GL11.glMultMatrixf(matrix);
 
@@ -1410,6 +1439,7 @@ public final class GData1 extends GData {
                         GData.accumClip = 0;
                 }
 
+                OpenGLRenderer20.BATCH.flush();
                 GL11.glPopMatrix();
 
             }
@@ -1535,18 +1565,14 @@ public final class GData1 extends GData {
         } else {
             colourBuilder.append(this.colourNumber);
         }
-        // Clear the cache..
-        GData.parsedLines.clear();
-        GData.CACHE_parsedFilesSource.clear();
+        // Refresh the cache..
+        SubfileCache.beginParse();
         untransformedSubfile = (GData1) DatParser
                 .parseLine("1 " + colourBuilder.toString() + " 0 0 0 1 0 0 0 1 0 0 0 1 " + this.shortName , 0, 0, col16.getR(), col16.getG(), col16.getB(), 1f, View.DUMMY_REFERENCE, View.ID, View.ACCURATE_ID, df, false, //$NON-NLS-1$ //$NON-NLS-2$
                         new HashSet<String>(), false).get(0).getGraphicalData();
         if (untransformedSubfile == null) {
             return getNiceString();
         }
-        // Clear the cache..
-        GData.parsedLines.clear();
-        GData.CACHE_parsedFilesSource.clear();
         boolean plainOnX = untransformedSubfile.boundingBoxMin.x - untransformedSubfile.boundingBoxMax.x == 0f;
         boolean plainOnY = untransformedSubfile.boundingBoxMin.y - untransformedSubfile.boundingBoxMax.y == 0f;
         boolean plainOnZ = untransformedSubfile.boundingBoxMin.z - untransformedSubfile.boundingBoxMax.z == 0f;
@@ -2326,6 +2352,7 @@ public final class GData1 extends GData {
     }
 
     private static void drawStudLogo1_GL20() {
+        OpenGLRenderer20.BATCH.flush();
         final float Y = -4.04f;
         GL11.glLineWidth(2f);
         GL11.glColor4f(0f, 0f, 0f, 1f);
@@ -2512,6 +2539,7 @@ public final class GData1 extends GData {
     }
 
     private static void drawStudLogo2_GL20() {
+        OpenGLRenderer20.BATCH.flush();
         final float Y = -0.04f;
         GL11.glLineWidth(2f);
         GL11.glColor4f(0f, 0f, 0f, 1f);
@@ -31,6 +31,7 @@ import org.nschmidt.ldparteditor.enums.GL20Primitives;
 import org.nschmidt.ldparteditor.enums.ManipulatorScope;
 import org.nschmidt.ldparteditor.enums.MyLanguage;
 import org.nschmidt.ldparteditor.enums.View;
+import org.nschmidt.ldparteditor.enums.ViewText;
 import org.nschmidt.ldparteditor.helpers.math.MathHelper;
 import org.nschmidt.ldparteditor.helpers.math.ThreadsafeHashMap;
 import org.nschmidt.ldparteditor.helpers.math.ThreadsafeTreeMap;
@@ -224,6 +225,7 @@ public final class GData2 extends GData {
 
     @Override
     public void drawGL20(Composite3D c3d) {
+        OpenGLRenderer20.BATCH.flush();
         if (!visible) {
             if (c3d.isLightOn() && (next == null || next.type() != 2 && next.type() != 5))
                 GL11.glEnable(GL11.GL_LIGHTING);
@@ -333,6 +335,7 @@ public final class GData2 extends GData {
 
     @Override
     public void drawGL20_RandomColours(Composite3D c3d) {
+        OpenGLRenderer20.BATCH.flush();
         if (!visible) {
             return;
         }
@@ -474,6 +477,7 @@ public final class GData2 extends GData {
 
     @Override
     public void drawGL20_BFC_Textured(Composite3D c3d) {
+        OpenGLRenderer20.BATCH.flush();
         // done :)
         if (GData.globalDrawObjects) {
             final OpenGLRenderer20 r = (OpenGLRenderer20) c3d.getRenderer();
@@ -745,19 +749,19 @@ public final class GData2 extends GData {
         final float oy2 = .03f * zoom;
         final float oy3 = .045f * zoom;
         final float ox1 = -.045f * zoom;
-        for (PGData3 tri : View.S) {
+        for (PGData3 tri : ViewText.S) {
             tri.drawText(lineOrigin.x, lineOrigin.y, lineOrigin.z + 100000f, zoom);
         }
-        for (PGData3 tri : View.DA) {
+        for (PGData3 tri : ViewText.DA) {
             tri.drawText(textOrigin.x, textOrigin.y, textOrigin.z + 100000f, zoom);
         }
-        for (PGData3 tri : View.DX) {
+        for (PGData3 tri : ViewText.DX) {
             tri.drawText(textOrigin.x, textOrigin.y + oy1, textOrigin.z + 100000f, zoom);
         }
-        for (PGData3 tri : View.DY) {
+        for (PGData3 tri : ViewText.DY) {
             tri.drawText(textOrigin.x, textOrigin.y + oy2, textOrigin.z + 100000f, zoom);
         }
-        for (PGData3 tri : View.DZ) {
+        for (PGData3 tri : ViewText.DZ) {
             tri.drawText(textOrigin.x, textOrigin.y + oy3, textOrigin.z + 100000f, zoom);
         }
         drawNumber(dA_s, textOrigin.x + ox1, textOrigin.y, textOrigin.z, zoom);
@@ -777,43 +781,43 @@ public final class GData2 extends GData {
             final char c = number.charAt(i);
             switch (c) {
             case '0':
-                tris = View.D0;
+                tris = ViewText.D0;
                 break;
             case '1':
-                tris = View.D1;
+                tris = ViewText.D1;
                 break;
             case '2':
-                tris = View.D2;
+                tris = ViewText.D2;
                 break;
             case '3':
-                tris = View.D3;
+                tris = ViewText.D3;
                 break;
             case '4':
-                tris = View.D4;
+                tris = ViewText.D4;
                 break;
             case '5':
-                tris = View.D5;
+                tris = ViewText.D5;
                 break;
             case '6':
-                tris = View.D6;
+                tris = ViewText.D6;
                 break;
             case '7':
-                tris = View.D7;
+                tris = ViewText.D7;
                 break;
             case '8':
-                tris = View.D8;
+                tris = ViewText.D8;
                 break;
             case '9':
-                tris = View.D9;
+                tris = ViewText.D9;
                 break;
             case '.':
-                tris = View.Dd;
+                tris = ViewText.Dd;
                 break;
             case ',':
-                tris = View.Dc;
+                tris = ViewText.Dc;
                 break;
             case '-':
-                tris = View.DM;
+                tris = ViewText.DM;
                 break;
             default:
                 break;
@@ -833,43 +837,43 @@ public final class GData2 extends GData {
             final char c = number.charAt(i);
             switch (c) {
             case '0':
-                tris = View.D0;
+                tris = ViewText.D0;
                 break;
             case '1':
-                tris = View.D1;
+                tris = ViewText.D1;
                 break;
             case '2':
-                tris = View.D2;
+                tris = ViewText.D2;
                 break;
             case '3':
-                tris = View.D3;
+                tris = ViewText.D3;
                 break;
             case '4':
-                tris = View.D4;
+                tris = ViewText.D4;
                 break;
             case '5':
-                tris = View.D5;
+                tris = ViewText.D5;
                 break;
             case '6':
-                tris = View.D6;
+                tris = ViewText.D6;
                 break;
             case '7':
-                tris = View.D7;
+                tris = ViewText.D7;
                 break;
             case '8':
-                tris = View.D8;
+                tris = ViewText.D8;
                 break;
             case '9':
-                tris = View.D9;
+                tris = ViewText.D9;
                 break;
             case '.':
-                tris = View.Dd;
+                tris = ViewText.Dd;
                 break;
             case ',':
-                tris = View.Dc;
+                tris = ViewText.Dc;
                 break;
             case '-':
-                tris = View.DM;
+                tris = ViewText.DM;
                 break;
             default:
                 break;
@@ -933,19 +937,19 @@ public final class GData2 extends GData {
         final float oy2 = .03f * zoom;
         final float oy3 = .045f * zoom;
         final float ox1 = -.045f * zoom;
-        for (PGData3 tri : View.S) {
+        for (PGData3 tri : ViewText.S) {
             tri.drawTextGL33_VAO(lineOrigin.x, lineOrigin.y, lineOrigin.z + 100000f, zoom);
         }
-        for (PGData3 tri : View.DA) {
+        for (PGData3 tri : ViewText.DA) {
             tri.drawTextGL33_VAO(textOrigin.x, textOrigin.y, textOrigin.z + 100000f, zoom);
         }
-        for (PGData3 tri : View.DX) {
+        for (PGData3 tri : ViewText.DX) {
             tri.drawTextGL33_VAO(textOrigin.x, textOrigin.y + oy1, textOrigin.z + 100000f, zoom);
         }
-        for (PGData3 tri : View.DY) {
+        for (PGData3 tri : ViewText.DY) {
             tri.drawTextGL33_VAO(textOrigin.x, textOrigin.y + oy2, textOrigin.z + 100000f, zoom);
         }
-        for (PGData3 tri : View.DZ) {
+        for (PGData3 tri : ViewText.DZ) {
             tri.drawTextGL33_VAO(textOrigin.x, textOrigin.y + oy3, textOrigin.z + 100000f, zoom);
         }
         drawNumberGL33(dA_s, textOrigin.x + ox1, textOrigin.y, textOrigin.z, zoom);
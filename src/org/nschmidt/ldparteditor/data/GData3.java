@@ -29,6 +29,7 @@ import org.nschmidt.ldparteditor.composites.Composite3D;
 import org.nschmidt.ldparteditor.enums.MyLanguage;
 import org.nschmidt.ldparteditor.enums.Threshold;
 import org.nschmidt.ldparteditor.enums.View;
+import org.nschmidt.ldparteditor.enums.ViewText;
 import org.nschmidt.ldparteditor.helpers.math.MathHelper;
 import org.nschmidt.ldparteditor.helpers.math.ThreadsafeHashMap;
 import org.nschmidt.ldparteditor.helpers.math.ThreadsafeTreeMap;
@@ -36,6 +37,7 @@ import org.nschmidt.ldparteditor.helpers.math.Vector3d;
 import org.nschmidt.ldparteditor.opengl.GL33Helper;
 import org.nschmidt.ldparteditor.opengl.GLShader;
 import org.nschmidt.ldparteditor.opengl.OpenGLRenderer20;
+import org.nschmidt.ldparteditor.opengl.VertexBatch;
 
 /**
  * @author nils
@@ -269,6 +271,7 @@ public final class GData3 extends GData {
 
     @Override
     public void drawGL20(Composite3D c3d) {
+        final VertexBatch batch = OpenGLRenderer20.BATCH;
         if (!visible)
             return;
         if (a < 1f && c3d.isDrawingSolidMaterials() || !c3d.isDrawingSolidMaterials() && a == 1f)
@@ -277,33 +280,34 @@ public final class GData3 extends GData {
             drawProtractor_GL20(false, c3d, X1, Y1, Z1, X2, Y2, Z2, X3, Y3, Z3);
             return;
         }
-        GL11.glBegin(GL11.GL_TRIANGLES);
+        batch.begin(GL11.GL_TRIANGLES);
         if (GData.globalNegativeDeterminant) {
-            GL11.glColor4f(r, g, b, a);
-            GL11.glNormal3f(xn, yn, zn);
-            GL11.glVertex3f(x1, y1, z1);
-            GL11.glVertex3f(x3, y3, z3);
-            GL11.glVertex3f(x2, y2, z2);
-            GL11.glNormal3f(-xn, -yn, -zn);
-            GL11.glVertex3f(x1, y1, z1);
-            GL11.glVertex3f(x2, y2, z2);
-            GL11.glVertex3f(x3, y3, z3);
+            batch.colour(r, g, b, a);
+            batch.normal(xn, yn, zn);
+            batch.vertex(x1, y1, z1);
+            batch.vertex(x3, y3, z3);
+            batch.vertex(x2, y2, z2);
+            batch.normal(-xn, -yn, -zn);
+            batch.vertex(x1, y1, z1);
+            batch.vertex(x2, y2, z2);
+            batch.vertex(x3, y3, z3);
         } else {
-            GL11.glColor4f(r, g, b, a);
-            GL11.glNormal3f(xn, yn, zn);
-            GL11.glVertex3f(x1, y1, z1);
-            GL11.glVertex3f(x2, y2, z2);
-            GL11.glVertex3f(x3, y3, z3);
-            GL11.glNormal3f(-xn, -yn, -zn);
-            GL11.glVertex3f(x1, y1, z1);
-            GL11.glVertex3f(x3, y3, z3);
-            GL11.glVertex3f(x2, y2, z2);
+            batch.colour(r, g, b, a);
+            batch.normal(xn, yn, zn);
+            batch.vertex(x1, y1, z1);
+            batch.vertex(x2, y2, z2);
+            batch.vertex(x3, y3, z3);
+            batch.normal(-xn, -yn, -zn);
+            batch.vertex(x1, y1, z1);
+            batch.vertex(x3, y3, z3);
+            batch.vertex(x2, y2, z2);
         }
-        GL11.glEnd();
+        batch.end();
     }
 
     @Override
     public void drawGL20_RandomColours(Composite3D c3d) {
+        final VertexBatch batch = OpenGLRenderer20.BATCH;
         if (!visible)
             return;
         if (a < 1f && c3d.isDrawingSolidMaterials() || !c3d.isDrawingSolidMaterials() && a == 1f)
@@ -315,33 +319,34 @@ public final class GData3 extends GData {
         final float r = MathHelper.randomFloat(ID, 0);
         final float g = MathHelper.randomFloat(ID, 1);
         final float b = MathHelper.randomFloat(ID, 2);
-        GL11.glBegin(GL11.GL_TRIANGLES);
+        batch.begin(GL11.GL_TRIANGLES);
         if (GData.globalNegativeDeterminant) {
-            GL11.glColor4f(r, g, b, a);
-            GL11.glNormal3f(xn, yn, zn);
-            GL11.glVertex3f(x1, y1, z1);
-            GL11.glVertex3f(x3, y3, z3);
-            GL11.glVertex3f(x2, y2, z2);
-            GL11.glNormal3f(-xn, -yn, -zn);
-            GL11.glVertex3f(x1, y1, z1);
-            GL11.glVertex3f(x2, y2, z2);
-            GL11.glVertex3f(x3, y3, z3);
+            batch.colour(r, g, b, a);
+            batch.normal(xn, yn, zn);
+            batch.vertex(x1, y1, z1);
+            batch.vertex(x3, y3, z3);
+            batch.vertex(x2, y2, z2);
+            batch.normal(-xn, -yn, -zn);
+            batch.vertex(x1, y1, z1);
+            batch.vertex(x2, y2, z2);
+            batch.vertex(x3, y3, z3);
         } else {
-            GL11.glColor4f(r, g, b, a);
-            GL11.glNormal3f(xn, yn, zn);
-            GL11.glVertex3f(x1, y1, z1);
-            GL11.glVertex3f(x2, y2, z2);
-            GL11.glVertex3f(x3, y3, z3);
-            GL11.glNormal3f(-xn, -yn, -zn);
-            GL11.glVertex3f(x1, y1, z1);
-            GL11.glVertex3f(x3, y3, z3);
-            GL11.glVertex3f(x2, y2, z2);
+            batch.colour(r, g, b, a);
+            batch.normal(xn, yn, zn);
+            batch.vertex(x1, y1, z1);
+            batch.vertex(x2, y2, z2);
+            batch.vertex(x3, y3, z3);
+            batch.normal(-xn, -yn, -zn);
+            batch.vertex(x1, y1, z1);
+            batch.vertex(x3, y3, z3);
+            batch.vertex(x2, y2, z2);
         }
-        GL11.glEnd();
+        batch.end();
     }
 
     @Override
     public void drawGL20_BFC(Composite3D c3d) {
+        final VertexBatch batch = OpenGLRenderer20.BATCH;
         if (!visible)
             return;
         if (a < 1f && c3d.isDrawingSolidMaterials() || !c3d.isDrawingSolidMaterials() && a == 1f)
@@ -350,193 +355,195 @@ public final class GData3 extends GData {
             drawProtractor_GL20(false, c3d, X1, Y1, Z1, X2, Y2, Z2, X3, Y3, Z3);
             return;
         }
-        GL11.glBegin(GL11.GL_TRIANGLES);
+        batch.begin(GL11.GL_TRIANGLES);
         switch (GData.localWinding) {
         case BFC.CCW:
             if (GData.globalNegativeDeterminant) {
                 if (GData.globalInvertNext) {
-                    GL11.glColor4f(View.BFC_front_Colour_r[0], View.BFC_front_Colour_g[0], View.BFC_front_Colour_b[0], a);
-                    GL11.glNormal3f(xn, yn, zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x3, y3, z3);
-                    GL11.glVertex3f(x2, y2, z2);
-                    GL11.glColor4f(View.BFC_back__Colour_r[0], View.BFC_back__Colour_g[0], View.BFC_back__Colour_b[0], a);
-                    GL11.glNormal3f(-xn, -yn, -zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x2, y2, z2);
-                    GL11.glVertex3f(x3, y3, z3);
+                    batch.colour(View.BFC_front_Colour_r[0], View.BFC_front_Colour_g[0], View.BFC_front_Colour_b[0], a);
+                    batch.normal(xn, yn, zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x3, y3, z3);
+                    batch.vertex(x2, y2, z2);
+                    batch.colour(View.BFC_back__Colour_r[0], View.BFC_back__Colour_g[0], View.BFC_back__Colour_b[0], a);
+                    batch.normal(-xn, -yn, -zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x2, y2, z2);
+                    batch.vertex(x3, y3, z3);
                 } else {
-                    GL11.glColor4f(View.BFC_front_Colour_r[0], View.BFC_front_Colour_g[0], View.BFC_front_Colour_b[0], a);
-                    GL11.glNormal3f(-xn, -yn, -zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x2, y2, z2);
-                    GL11.glVertex3f(x3, y3, z3);
-                    GL11.glColor4f(View.BFC_back__Colour_r[0], View.BFC_back__Colour_g[0], View.BFC_back__Colour_b[0], a);
-                    GL11.glNormal3f(xn, yn, zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x3, y3, z3);
-                    GL11.glVertex3f(x2, y2, z2);
+                    batch.colour(View.BFC_front_Colour_r[0], View.BFC_front_Colour_g[0], View.BFC_front_Colour_b[0], a);
+                    batch.normal(-xn, -yn, -zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x2, y2, z2);
+                    batch.vertex(x3, y3, z3);
+                    batch.colour(View.BFC_back__Colour_r[0], View.BFC_back__Colour_g[0], View.BFC_back__Colour_b[0], a);
+                    batch.normal(xn, yn, zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x3, y3, z3);
+                    batch.vertex(x2, y2, z2);
                 }
             } else {
                 if (GData.globalInvertNext) {
-                    GL11.glColor4f(View.BFC_front_Colour_r[0], View.BFC_front_Colour_g[0], View.BFC_front_Colour_b[0], a);
-                    GL11.glNormal3f(xn, yn, zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x2, y2, z2);
-                    GL11.glVertex3f(x3, y3, z3);
-                    GL11.glColor4f(View.BFC_back__Colour_r[0], View.BFC_back__Colour_g[0], View.BFC_back__Colour_b[0], a);
-                    GL11.glNormal3f(-xn, -yn, -zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x3, y3, z3);
-                    GL11.glVertex3f(x2, y2, z2);
+                    batch.colour(View.BFC_front_Colour_r[0], View.BFC_front_Colour_g[0], View.BFC_front_Colour_b[0], a);
+                    batch.normal(xn, yn, zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x2, y2, z2);
+                    batch.vertex(x3, y3, z3);
+                    batch.colour(View.BFC_back__Colour_r[0], View.BFC_back__Colour_g[0], View.BFC_back__Colour_b[0], a);
+                    batch.normal(-xn, -yn, -zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x3, y3, z3);
+                    batch.vertex(x2, y2, z2);
                 } else {
-                    GL11.glColor4f(View.BFC_front_Colour_r[0], View.BFC_front_Colour_g[0], View.BFC_front_Colour_b[0], a);
-                    GL11.glNormal3f(-xn, -yn, -zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x3, y3, z3);
-                    GL11.glVertex3f(x2, y2, z2);
-                    GL11.glColor4f(View.BFC_back__Colour_r[0], View.BFC_back__Colour_g[0], View.BFC_back__Colour_b[0], a);
-                    GL11.glNormal3f(xn, yn, zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x2, y2, z2);
-                    GL11.glVertex3f(x3, y3, z3);
+                    batch.colour(View.BFC_front_Colour_r[0], View.BFC_front_Colour_g[0], View.BFC_front_Colour_b[0], a);
+                    batch.normal(-xn, -yn, -zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x3, y3, z3);
+                    batch.vertex(x2, y2, z2);
+                    batch.colour(View.BFC_back__Colour_r[0], View.BFC_back__Colour_g[0], View.BFC_back__Colour_b[0], a);
+                    batch.normal(xn, yn, zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x2, y2, z2);
+                    batch.vertex(x3, y3, z3);
                 }
             }
             break;
         case BFC.CW:
             if (GData.globalNegativeDeterminant) {
                 if (GData.globalInvertNext) {
-                    GL11.glColor4f(View.BFC_front_Colour_r[0], View.BFC_front_Colour_g[0], View.BFC_front_Colour_b[0], a);
-                    GL11.glNormal3f(-xn, -yn, -zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x2, y2, z2);
-                    GL11.glVertex3f(x3, y3, z3);
-                    GL11.glColor4f(View.BFC_back__Colour_r[0], View.BFC_back__Colour_g[0], View.BFC_back__Colour_b[0], a);
-                    GL11.glNormal3f(xn, yn, zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x3, y3, z3);
-                    GL11.glVertex3f(x2, y2, z2);
+                    batch.colour(View.BFC_front_Colour_r[0], View.BFC_front_Colour_g[0], View.BFC_front_Colour_b[0], a);
+                    batch.normal(-xn, -yn, -zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x2, y2, z2);
+                    batch.vertex(x3, y3, z3);
+                    batch.colour(View.BFC_back__Colour_r[0], View.BFC_back__Colour_g[0], View.BFC_back__Colour_b[0], a);
+                    batch.normal(xn, yn, zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x3, y3, z3);
+                    batch.vertex(x2, y2, z2);
                 } else {
-                    GL11.glColor4f(View.BFC_front_Colour_r[0], View.BFC_front_Colour_g[0], View.BFC_front_Colour_b[0], a);
-                    GL11.glNormal3f(xn, yn, zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x3, y3, z3);
-                    GL11.glVertex3f(x2, y2, z2);
-                    GL11.glColor4f(View.BFC_back__Colour_r[0], View.BFC_back__Colour_g[0], View.BFC_back__Colour_b[0], a);
-                    GL11.glNormal3f(-xn, -yn, -zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x2, y2, z2);
-                    GL11.glVertex3f(x3, y3, z3);
+                    batch.colour(View.BFC_front_Colour_r[0], View.BFC_front_Colour_g[0], View.BFC_front_Colour_b[0], a);
+                    batch.normal(xn, yn, zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x3, y3, z3);
+                    batch.vertex(x2, y2, z2);
+                    batch.colour(View.BFC_back__Colour_r[0], View.BFC_back__Colour_g[0], View.BFC_back__Colour_b[0], a);
+                    batch.normal(-xn, -yn, -zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x2, y2, z2);
+                    batch.vertex(x3, y3, z3);
                 }
             } else {
                 if (GData.globalInvertNext) {
-                    GL11.glColor4f(View.BFC_front_Colour_r[0], View.BFC_front_Colour_g[0], View.BFC_front_Colour_b[0], a);
-                    GL11.glNormal3f(-xn, -yn, -zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x3, y3, z3);
-                    GL11.glVertex3f(x2, y2, z2);
-                    GL11.glColor4f(View.BFC_back__Colour_r[0], View.BFC_back__Colour_g[0], View.BFC_back__Colour_b[0], a);
-                    GL11.glNormal3f(xn, yn, zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x2, y2, z2);
-                    GL11.glVertex3f(x3, y3, z3);
+                    batch.colour(View.BFC_front_Colour_r[0], View.BFC_front_Colour_g[0], View.BFC_front_Colour_b[0], a);
+                    batch.normal(-xn, -yn, -zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x3, y3, z3);
+                    batch.vertex(x2, y2, z2);
+                    batch.colour(View.BFC_back__Colour_r[0], View.BFC_back__Colour_g[0], View.BFC_back__Colour_b[0], a);
+                    batch.normal(xn, yn, zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x2, y2, z2);
+                    batch.vertex(x3, y3, z3);
                 } else {
-                    GL11.glColor4f(View.BFC_front_Colour_r[0], View.BFC_front_Colour_g[0], View.BFC_front_Colour_b[0], a);
-                    GL11.glNormal3f(xn, yn, zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x2, y2, z2);
-                    GL11.glVertex3f(x3, y3, z3);
-                    GL11.glColor4f(View.BFC_back__Colour_r[0], View.BFC_back__Colour_g[0], View.BFC_back__Colour_b[0], a);
-                    GL11.glNormal3f(-xn, -yn, -zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x3, y3, z3);
-                    GL11.glVertex3f(x2, y2, z2);
+                    batch.colour(View.BFC_front_Colour_r[0], View.BFC_front_Colour_g[0], View.BFC_front_Colour_b[0], a);
+                    batch.normal(xn, yn, zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x2, y2, z2);
+                    batch.vertex(x3, y3, z3);
+                    batch.colour(View.BFC_back__Colour_r[0], View.BFC_back__Colour_g[0], View.BFC_back__Colour_b[0], a);
+                    batch.normal(-xn, -yn, -zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x3, y3, z3);
+                    batch.vertex(x2, y2, z2);
                 }
             }
             break;
         case BFC.NOCERTIFY:
             if (GData.globalNegativeDeterminant) {
                 if (GData.globalInvertNext) {
-                    GL11.glColor4f(View.BFC_uncertified_Colour_r[0], View.BFC_uncertified_Colour_g[0], View.BFC_uncertified_Colour_b[0], a);
-                    GL11.glNormal3f(-xn, -yn, -zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x2, y2, z2);
-                    GL11.glVertex3f(x3, y3, z3);
-                    GL11.glNormal3f(xn, yn, zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x3, y3, z3);
-                    GL11.glVertex3f(x2, y2, z2);
+                    batch.colour(View.BFC_uncertified_Colour_r[0], View.BFC_uncertified_Colour_g[0], View.BFC_uncertified_Colour_b[0], a);
+                    batch.normal(-xn, -yn, -zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x2, y2, z2);
+                    batch.vertex(x3, y3, z3);
+                    batch.normal(xn, yn, zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x3, y3, z3);
+                    batch.vertex(x2, y2, z2);
                 } else {
-                    GL11.glColor4f(View.BFC_uncertified_Colour_r[0], View.BFC_uncertified_Colour_g[0], View.BFC_uncertified_Colour_b[0], a);
-                    GL11.glNormal3f(xn, yn, zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x3, y3, z3);
-                    GL11.glVertex3f(x2, y2, z2);
-                    GL11.glNormal3f(-xn, -yn, -zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x2, y2, z2);
-                    GL11.glVertex3f(x3, y3, z3);
+                    batch.colour(View.BFC_uncertified_Colour_r[0], View.BFC_uncertified_Colour_g[0], View.BFC_uncertified_Colour_b[0], a);
+                    batch.normal(xn, yn, zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x3, y3, z3);
+                    batch.vertex(x2, y2, z2);
+                    batch.normal(-xn, -yn, -zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x2, y2, z2);
+                    batch.vertex(x3, y3, z3);
                 }
             } else {
                 if (GData.globalInvertNext) {
-                    GL11.glColor4f(View.BFC_uncertified_Colour_r[0], View.BFC_uncertified_Colour_g[0], View.BFC_uncertified_Colour_b[0], a);
-                    GL11.glNormal3f(-xn, -yn, -zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x3, y3, z3);
-                    GL11.glVertex3f(x2, y2, z2);
-                    GL11.glNormal3f(xn, yn, zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x2, y2, z2);
-                    GL11.glVertex3f(x3, y3, z3);
+                    batch.colour(View.BFC_uncertified_Colour_r[0], View.BFC_uncertified_Colour_g[0], View.BFC_uncertified_Colour_b[0], a);
+                    batch.normal(-xn, -yn, -zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x3, y3, z3);
+                    batch.vertex(x2, y2, z2);
+                    batch.normal(xn, yn, zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x2, y2, z2);
+                    batch.vertex(x3, y3, z3);
                 } else {
-                    GL11.glColor4f(View.BFC_uncertified_Colour_r[0], View.BFC_uncertified_Colour_g[0], View.BFC_uncertified_Colour_b[0], a);
-                    GL11.glNormal3f(xn, yn, zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x2, y2, z2);
-                    GL11.glVertex3f(x3, y3, z3);
-                    GL11.glNormal3f(-xn, -yn, -zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x3, y3, z3);
-                    GL11.glVertex3f(x2, y2, z2);
+                    batch.colour(View.BFC_uncertified_Colour_r[0], View.BFC_uncertified_Colour_g[0], View.BFC_uncertified_Colour_b[0], a);
+                    batch.normal(xn, yn, zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x2, y2, z2);
+                    batch.vertex(x3, y3, z3);
+                    batch.normal(-xn, -yn, -zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x3, y3, z3);
+                    batch.vertex(x2, y2, z2);
                 }
             }
         }
-        GL11.glEnd();
+        batch.end();
     }
 
     @Override
     public void drawGL20_BFCuncertified(Composite3D c3d) {
+        final VertexBatch batch = OpenGLRenderer20.BATCH;
         if (!visible)
             return;
         if (a < 1f && c3d.isDrawingSolidMaterials() || !c3d.isDrawingSolidMaterials() && a == 1f)
             return;
-        GL11.glBegin(GL11.GL_TRIANGLES);
+        batch.begin(GL11.GL_TRIANGLES);
         if (GData.globalNegativeDeterminant) {
-            GL11.glColor4f(View.BFC_uncertified_Colour_r[0], View.BFC_uncertified_Colour_g[0], View.BFC_uncertified_Colour_b[0], a);
-            GL11.glNormal3f(xn, yn, zn);
-            GL11.glVertex3f(x1, y1, z1);
-            GL11.glVertex3f(x3, y3, z3);
-            GL11.glVertex3f(x2, y2, z2);
-            GL11.glNormal3f(-xn, -yn, -zn);
-            GL11.glVertex3f(x1, y1, z1);
-            GL11.glVertex3f(x2, y2, z2);
-            GL11.glVertex3f(x3, y3, z3);
+            batch.colour(View.BFC_uncertified_Colour_r[0], View.BFC_uncertified_Colour_g[0], View.BFC_uncertified_Colour_b[0], a);
+            batch.normal(xn, yn, zn);
+            batch.vertex(x1, y1, z1);
+            batch.vertex(x3, y3, z3);
+            batch.vertex(x2, y2, z2);
+            batch.normal(-xn, -yn, -zn);
+            batch.vertex(x1, y1, z1);
+            batch.vertex(x2, y2, z2);
+            batch.vertex(x3, y3, z3);
         } else {
-            GL11.glColor4f(View.BFC_uncertified_Colour_r[0], View.BFC_uncertified_Colour_g[0], View.BFC_uncertified_Colour_b[0], a);
-            GL11.glNormal3f(xn, yn, zn);
-            GL11.glVertex3f(x1, y1, z1);
-            GL11.glVertex3f(x2, y2, z2);
-            GL11.glVertex3f(x3, y3, z3);
-            GL11.glNormal3f(-xn, -yn, -zn);
-            GL11.glVertex3f(x1, y1, z1);
-            GL11.glVertex3f(x3, y3, z3);
-            GL11.glVertex3f(x2, y2, z2);
+            batch.colour(View.BFC_uncertified_Colour_r[0], View.BFC_uncertified_Colour_g[0], View.BFC_uncertified_Colour_b[0], a);
+            batch.normal(xn, yn, zn);
+            batch.vertex(x1, y1, z1);
+            batch.vertex(x2, y2, z2);
+            batch.vertex(x3, y3, z3);
+            batch.normal(-xn, -yn, -zn);
+            batch.vertex(x1, y1, z1);
+            batch.vertex(x3, y3, z3);
+            batch.vertex(x2, y2, z2);
         }
-        GL11.glEnd();
+        batch.end();
     }
 
     @Override
     public void drawGL20_BFC_backOnly(Composite3D c3d) {
+        final VertexBatch batch = OpenGLRenderer20.BATCH;
         if (!visible)
             return;
         if (a < 1f && c3d.isDrawingSolidMaterials() || !c3d.isDrawingSolidMaterials() && a == 1f)
@@ -545,162 +552,163 @@ public final class GData3 extends GData {
             drawProtractor_GL20(false, c3d, X1, Y1, Z1, X2, Y2, Z2, X3, Y3, Z3);
             return;
         }
-        GL11.glBegin(GL11.GL_TRIANGLES);
+        batch.begin(GL11.GL_TRIANGLES);
         switch (GData.localWinding) {
         case BFC.CCW:
             if (GData.globalNegativeDeterminant) {
                 if (GData.globalInvertNext) {
-                    GL11.glColor4f(r, g, b, a);
-                    GL11.glNormal3f(xn, yn, zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x3, y3, z3);
-                    GL11.glVertex3f(x2, y2, z2);
-                    GL11.glColor4f(View.BFC_back__Colour_r[0], View.BFC_back__Colour_g[0], View.BFC_back__Colour_b[0], a);
-                    GL11.glNormal3f(-xn, -yn, -zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x2, y2, z2);
-                    GL11.glVertex3f(x3, y3, z3);
+                    batch.colour(r, g, b, a);
+                    batch.normal(xn, yn, zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x3, y3, z3);
+                    batch.vertex(x2, y2, z2);
+                    batch.colour(View.BFC_back__Colour_r[0], View.BFC_back__Colour_g[0], View.BFC_back__Colour_b[0], a);
+                    batch.normal(-xn, -yn, -zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x2, y2, z2);
+                    batch.vertex(x3, y3, z3);
                 } else {
-                    GL11.glColor4f(r, g, b, a);
-                    GL11.glNormal3f(-xn, -yn, -zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x2, y2, z2);
-                    GL11.glVertex3f(x3, y3, z3);
-                    GL11.glColor4f(View.BFC_back__Colour_r[0], View.BFC_back__Colour_g[0], View.BFC_back__Colour_b[0], a);
-                    GL11.glNormal3f(xn, yn, zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x3, y3, z3);
-                    GL11.glVertex3f(x2, y2, z2);
+                    batch.colour(r, g, b, a);
+                    batch.normal(-xn, -yn, -zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x2, y2, z2);
+                    batch.vertex(x3, y3, z3);
+                    batch.colour(View.BFC_back__Colour_r[0], View.BFC_back__Colour_g[0], View.BFC_back__Colour_b[0], a);
+                    batch.normal(xn, yn, zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x3, y3, z3);
+                    batch.vertex(x2, y2, z2);
                 }
             } else {
                 if (GData.globalInvertNext) {
-                    GL11.glColor4f(r, g, b, a);
-                    GL11.glNormal3f(xn, yn, zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x2, y2, z2);
-                    GL11.glVertex3f(x3, y3, z3);
-                    GL11.glColor4f(View.BFC_back__Colour_r[0], View.BFC_back__Colour_g[0], View.BFC_back__Colour_b[0], a);
-                    GL11.glNormal3f(-xn, -yn, -zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x3, y3, z3);
-                    GL11.glVertex3f(x2, y2, z2);
+                    batch.colour(r, g, b, a);
+                    batch.normal(xn, yn, zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x2, y2, z2);
+                    batch.vertex(x3, y3, z3);
+                    batch.colour(View.BFC_back__Colour_r[0], View.BFC_back__Colour_g[0], View.BFC_back__Colour_b[0], a);
+                    batch.normal(-xn, -yn, -zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x3, y3, z3);
+                    batch.vertex(x2, y2, z2);
                 } else {
-                    GL11.glColor4f(r, g, b, a);
-                    GL11.glNormal3f(-xn, -yn, -zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x3, y3, z3);
-                    GL11.glVertex3f(x2, y2, z2);
-                    GL11.glColor4f(View.BFC_back__Colour_r[0], View.BFC_back__Colour_g[0], View.BFC_back__Colour_b[0], a);
-                    GL11.glNormal3f(xn, yn, zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x2, y2, z2);
-                    GL11.glVertex3f(x3, y3, z3);
+                    batch.colour(r, g, b, a);
+                    batch.normal(-xn, -yn, -zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x3, y3, z3);
+                    batch.vertex(x2, y2, z2);
+                    batch.colour(View.BFC_back__Colour_r[0], View.BFC_back__Colour_g[0], View.BFC_back__Colour_b[0], a);
+                    batch.normal(xn, yn, zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x2, y2, z2);
+                    batch.vertex(x3, y3, z3);
                 }
             }
             break;
         case BFC.CW:
             if (GData.globalNegativeDeterminant) {
                 if (GData.globalInvertNext) {
-                    GL11.glColor4f(r, g, b, a);
-                    GL11.glNormal3f(-xn, -yn, -zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x2, y2, z2);
-                    GL11.glVertex3f(x3, y3, z3);
-                    GL11.glColor4f(View.BFC_back__Colour_r[0], View.BFC_back__Colour_g[0], View.BFC_back__Colour_b[0], a);
-                    GL11.glNormal3f(xn, yn, zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x3, y3, z3);
-                    GL11.glVertex3f(x2, y2, z2);
+                    batch.colour(r, g, b, a);
+                    batch.normal(-xn, -yn, -zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x2, y2, z2);
+                    batch.vertex(x3, y3, z3);
+                    batch.colour(View.BFC_back__Colour_r[0], View.BFC_back__Colour_g[0], View.BFC_back__Colour_b[0], a);
+                    batch.normal(xn, yn, zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x3, y3, z3);
+                    batch.vertex(x2, y2, z2);
                 } else {
-                    GL11.glColor4f(r, g, b, a);
-                    GL11.glNormal3f(xn, yn, zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x3, y3, z3);
-                    GL11.glVertex3f(x2, y2, z2);
-                    GL11.glColor4f(View.BFC_back__Colour_r[0], View.BFC_back__Colour_g[0], View.BFC_back__Colour_b[0], a);
-                    GL11.glNormal3f(-xn, -yn, -zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x2, y2, z2);
-                    GL11.glVertex3f(x3, y3, z3);
+                    batch.colour(r, g, b, a);
+                    batch.normal(xn, yn, zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x3, y3, z3);
+                    batch.vertex(x2, y2, z2);
+                    batch.colour(View.BFC_back__Colour_r[0], View.BFC_back__Colour_g[0], View.BFC_back__Colour_b[0], a);
+                    batch.normal(-xn, -yn, -zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x2, y2, z2);
+                    batch.vertex(x3, y3, z3);
                 }
             } else {
                 if (GData.globalInvertNext) {
-                    GL11.glColor4f(r, g, b, a);
-                    GL11.glNormal3f(-xn, -yn, -zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x3, y3, z3);
-                    GL11.glVertex3f(x2, y2, z2);
-                    GL11.glColor4f(View.BFC_back__Colour_r[0], View.BFC_back__Colour_g[0], View.BFC_back__Colour_b[0], a);
-                    GL11.glNormal3f(xn, yn, zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x2, y2, z2);
-                    GL11.glVertex3f(x3, y3, z3);
+                    batch.colour(r, g, b, a);
+                    batch.normal(-xn, -yn, -zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x3, y3, z3);
+                    batch.vertex(x2, y2, z2);
+                    batch.colour(View.BFC_back__Colour_r[0], View.BFC_back__Colour_g[0], View.BFC_back__Colour_b[0], a);
+                    batch.normal(xn, yn, zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x2, y2, z2);
+                    batch.vertex(x3, y3, z3);
                 } else {
-                    GL11.glColor4f(r, g, b, a);
-                    GL11.glNormal3f(xn, yn, zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x2, y2, z2);
-                    GL11.glVertex3f(x3, y3, z3);
-                    GL11.glColor4f(View.BFC_back__Colour_r[0], View.BFC_back__Colour_g[0], View.BFC_back__Colour_b[0], a);
-                    GL11.glNormal3f(-xn, -yn, -zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x3, y3, z3);
-                    GL11.glVertex3f(x2, y2, z2);
+                    batch.colour(r, g, b, a);
+                    batch.normal(xn, yn, zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x2, y2, z2);
+                    batch.vertex(x3, y3, z3);
+                    batch.colour(View.BFC_back__Colour_r[0], View.BFC_back__Colour_g[0], View.BFC_back__Colour_b[0], a);
+                    batch.normal(-xn, -yn, -zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x3, y3, z3);
+                    batch.vertex(x2, y2, z2);
                 }
             }
             break;
         case BFC.NOCERTIFY:
             if (GData.globalNegativeDeterminant) {
                 if (GData.globalInvertNext) {
-                    GL11.glColor4f(View.BFC_uncertified_Colour_r[0], View.BFC_uncertified_Colour_g[0], View.BFC_uncertified_Colour_b[0], a);
-                    GL11.glNormal3f(-xn, -yn, -zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x2, y2, z2);
-                    GL11.glVertex3f(x3, y3, z3);
-                    GL11.glNormal3f(xn, yn, zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x3, y3, z3);
-                    GL11.glVertex3f(x2, y2, z2);
+                    batch.colour(View.BFC_uncertified_Colour_r[0], View.BFC_uncertified_Colour_g[0], View.BFC_uncertified_Colour_b[0], a);
+                    batch.normal(-xn, -yn, -zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x2, y2, z2);
+                    batch.vertex(x3, y3, z3);
+                    batch.normal(xn, yn, zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x3, y3, z3);
+                    batch.vertex(x2, y2, z2);
                 } else {
-                    GL11.glColor4f(View.BFC_uncertified_Colour_r[0], View.BFC_uncertified_Colour_g[0], View.BFC_uncertified_Colour_b[0], a);
-                    GL11.glNormal3f(xn, yn, zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x3, y3, z3);
-                    GL11.glVertex3f(x2, y2, z2);
-                    GL11.glNormal3f(-xn, -yn, -zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x2, y2, z2);
-                    GL11.glVertex3f(x3, y3, z3);
+                    batch.colour(View.BFC_uncertified_Colour_r[0], View.BFC_uncertified_Colour_g[0], View.BFC_uncertified_Colour_b[0], a);
+                    batch.normal(xn, yn, zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x3, y3, z3);
+                    batch.vertex(x2, y2, z2);
+                    batch.normal(-xn, -yn, -zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x2, y2, z2);
+                    batch.vertex(x3, y3, z3);
                 }
             } else {
                 if (GData.globalInvertNext) {
-                    GL11.glColor4f(View.BFC_uncertified_Colour_r[0], View.BFC_uncertified_Colour_g[0], View.BFC_uncertified_Colour_b[0], a);
-                    GL11.glNormal3f(-xn, -yn, -zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x3, y3, z3);
-                    GL11.glVertex3f(x2, y2, z2);
-                    GL11.glNormal3f(xn, yn, zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x2, y2, z2);
-                    GL11.glVertex3f(x3, y3, z3);
+                    batch.colour(View.BFC_uncertified_Colour_r[0], View.BFC_uncertified_Colour_g[0], View.BFC_uncertified_Colour_b[0], a);
+                    batch.normal(-xn, -yn, -zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x3, y3, z3);
+                    batch.vertex(x2, y2, z2);
+                    batch.normal(xn, yn, zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x2, y2, z2);
+                    batch.vertex(x3, y3, z3);
                 } else {
-                    GL11.glColor4f(View.BFC_uncertified_Colour_r[0], View.BFC_uncertified_Colour_g[0], View.BFC_uncertified_Colour_b[0], a);
-                    GL11.glNormal3f(xn, yn, zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x2, y2, z2);
-                    GL11.glVertex3f(x3, y3, z3);
-                    GL11.glNormal3f(-xn, -yn, -zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x3, y3, z3);
-                    GL11.glVertex3f(x2, y2, z2);
+                    batch.colour(View.BFC_uncertified_Colour_r[0], View.BFC_uncertified_Colour_g[0], View.BFC_uncertified_Colour_b[0], a);
+                    batch.normal(xn, yn, zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x2, y2, z2);
+                    batch.vertex(x3, y3, z3);
+                    batch.normal(-xn, -yn, -zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x3, y3, z3);
+                    batch.vertex(x2, y2, z2);
                 }
             }
         }
-        GL11.glEnd();
+        batch.end();
     }
 
     @Override
     public void drawGL20_BFC_Colour(Composite3D c3d) {
+        final VertexBatch batch = OpenGLRenderer20.BATCH;
         if (!visible)
             return;
         if (a < 1f && c3d.isDrawingSolidMaterials() || !c3d.isDrawingSolidMaterials() && a == 1f)
@@ -709,118 +717,118 @@ public final class GData3 extends GData {
             drawProtractor_GL20(false, c3d, X1, Y1, Z1, X2, Y2, Z2, X3, Y3, Z3);
             return;
         }
-        GL11.glBegin(GL11.GL_TRIANGLES);
+        batch.begin(GL11.GL_TRIANGLES);
         switch (a < 1f ? BFC.NOCERTIFY : GData.localWinding) {
         case BFC.CCW:
             if (GData.globalNegativeDeterminant) {
                 if (GData.globalInvertNext) {
-                    GL11.glColor4f(r, g, b, a);
-                    GL11.glNormal3f(xn, yn, zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x3, y3, z3);
-                    GL11.glVertex3f(x2, y2, z2);
+                    batch.colour(r, g, b, a);
+                    batch.normal(xn, yn, zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x3, y3, z3);
+                    batch.vertex(x2, y2, z2);
                 } else {
-                    GL11.glColor4f(r, g, b, a);
-                    GL11.glNormal3f(-xn, -yn, -zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x2, y2, z2);
-                    GL11.glVertex3f(x3, y3, z3);
+                    batch.colour(r, g, b, a);
+                    batch.normal(-xn, -yn, -zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x2, y2, z2);
+                    batch.vertex(x3, y3, z3);
                 }
             } else {
                 if (GData.globalInvertNext) {
-                    GL11.glColor4f(r, g, b, a);
-                    GL11.glNormal3f(xn, yn, zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x2, y2, z2);
-                    GL11.glVertex3f(x3, y3, z3);
+                    batch.colour(r, g, b, a);
+                    batch.normal(xn, yn, zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x2, y2, z2);
+                    batch.vertex(x3, y3, z3);
                 } else {
-                    GL11.glColor4f(r, g, b, a);
-                    GL11.glNormal3f(-xn, -yn, -zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x3, y3, z3);
-                    GL11.glVertex3f(x2, y2, z2);
+                    batch.colour(r, g, b, a);
+                    batch.normal(-xn, -yn, -zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x3, y3, z3);
+                    batch.vertex(x2, y2, z2);
                 }
             }
             break;
         case BFC.CW:
             if (GData.globalNegativeDeterminant) {
                 if (GData.globalInvertNext) {
-                    GL11.glColor4f(r, g, b, a);
-                    GL11.glNormal3f(-xn, -yn, -zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x2, y2, z2);
-                    GL11.glVertex3f(x3, y3, z3);
+                    batch.colour(r, g, b, a);
+                    batch.normal(-xn, -yn, -zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x2, y2, z2);
+                    batch.vertex(x3, y3, z3);
                 } else {
-                    GL11.glColor4f(r, g, b, a);
-                    GL11.glNormal3f(xn, yn, zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x3, y3, z3);
-                    GL11.glVertex3f(x2, y2, z2);
+                    batch.colour(r, g, b, a);
+                    batch.normal(xn, yn, zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x3, y3, z3);
+                    batch.vertex(x2, y2, z2);
                 }
             } else {
                 if (GData.globalInvertNext) {
-                    GL11.glColor4f(r, g, b, a);
-                    GL11.glNormal3f(-xn, -yn, -zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x3, y3, z3);
-                    GL11.glVertex3f(x2, y2, z2);
+                    batch.colour(r, g, b, a);
+                    batch.normal(-xn, -yn, -zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x3, y3, z3);
+                    batch.vertex(x2, y2, z2);
                 } else {
-                    GL11.glColor4f(r, g, b, a);
-                    GL11.glNormal3f(xn, yn, zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x2, y2, z2);
-                    GL11.glVertex3f(x3, y3, z3);
+                    batch.colour(r, g, b, a);
+                    batch.normal(xn, yn, zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x2, y2, z2);
+                    batch.vertex(x3, y3, z3);
                 }
             }
             break;
         case BFC.NOCERTIFY:
             if (GData.globalNegativeDeterminant) {
                 if (GData.globalInvertNext) {
-                    GL11.glColor4f(r, g, b, a);
-                    GL11.glNormal3f(-xn, -yn, -zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x2, y2, z2);
-                    GL11.glVertex3f(x3, y3, z3);
-                    GL11.glNormal3f(xn, yn, zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x3, y3, z3);
-                    GL11.glVertex3f(x2, y2, z2);
+                    batch.colour(r, g, b, a);
+                    batch.normal(-xn, -yn, -zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x2, y2, z2);
+                    batch.vertex(x3, y3, z3);
+                    batch.normal(xn, yn, zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x3, y3, z3);
+                    batch.vertex(x2, y2, z2);
                 } else {
-                    GL11.glColor4f(r, g, b, a);
-                    GL11.glNormal3f(xn, yn, zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x3, y3, z3);
-                    GL11.glVertex3f(x2, y2, z2);
-                    GL11.glNormal3f(-xn, -yn, -zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x2, y2, z2);
-                    GL11.glVertex3f(x3, y3, z3);
+                    batch.colour(r, g, b, a);
+                    batch.normal(xn, yn, zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x3, y3, z3);
+                    batch.vertex(x2, y2, z2);
+                    batch.normal(-xn, -yn, -zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x2, y2, z2);
+                    batch.vertex(x3, y3, z3);
                 }
             } else {
                 if (GData.globalInvertNext) {
-                    GL11.glColor4f(r, g, b, a);
-                    GL11.glNormal3f(-xn, -yn, -zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x3, y3, z3);
-                    GL11.glVertex3f(x2, y2, z2);
-                    GL11.glNormal3f(xn, yn, zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x2, y2, z2);
-                    GL11.glVertex3f(x3, y3, z3);
+                    batch.colour(r, g, b, a);
+                    batch.normal(-xn, -yn, -zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x3, y3, z3);
+                    batch.vertex(x2, y2, z2);
+                    batch.normal(xn, yn, zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x2, y2, z2);
+                    batch.vertex(x3, y3, z3);
                 } else {
-                    GL11.glColor4f(r, g, b, a);
-                    GL11.glNormal3f(xn, yn, zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x2, y2, z2);
-                    GL11.glVertex3f(x3, y3, z3);
-                    GL11.glNormal3f(-xn, -yn, -zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x3, y3, z3);
-                    GL11.glVertex3f(x2, y2, z2);
+                    batch.colour(r, g, b, a);
+                    batch.normal(xn, yn, zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x2, y2, z2);
+                    batch.vertex(x3, y3, z3);
+                    batch.normal(-xn, -yn, -zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x3, y3, z3);
+                    batch.vertex(x2, y2, z2);
                 }
             }
         }
-        GL11.glEnd();
+        batch.end();
     }
 
     private void drawBFC_Colour2(Composite3D c3d, float r, float g, float b, float a, int useCubeMap) {
@@ -955,6 +963,7 @@ public final class GData3 extends GData {
 
     @Override
     public void drawGL20_BFC_Textured(Composite3D c3d) {
+        OpenGLRenderer20.BATCH.flush();
         if (GData.globalDrawObjects) {
             GColour c = View.getLDConfigColour(View.getLDConfigIndex(r, g, b));
             GColourType ct = c.getType();
@@ -1210,6 +1219,7 @@ public final class GData3 extends GData {
 
     @Override
     public void drawGL20_CoplanarityHeatmap(Composite3D c3d) {
+        final VertexBatch batch = OpenGLRenderer20.BATCH;
         if (!visible)
             return;
         if (a < 1f && c3d.isDrawingSolidMaterials() || !c3d.isDrawingSolidMaterials() && a == 1f)
@@ -1218,28 +1228,28 @@ public final class GData3 extends GData {
             drawProtractor_GL20(false, c3d, X1, Y1, Z1, X2, Y2, Z2, X3, Y3, Z3);
             return;
         }
-        GL11.glBegin(GL11.GL_TRIANGLES);
-        GL11.glColor4f(0f, 0f, 1f, a);
+        batch.begin(GL11.GL_TRIANGLES);
+        batch.colour(0f, 0f, 1f, a);
         if (GData.globalNegativeDeterminant) {
-            GL11.glNormal3f(xn, yn, zn);
-            GL11.glVertex3f(x1, y1, z1);
-            GL11.glVertex3f(x3, y3, z3);
-            GL11.glVertex3f(x2, y2, z2);
-            GL11.glNormal3f(-xn, -yn, -zn);
-            GL11.glVertex3f(x1, y1, z1);
-            GL11.glVertex3f(x2, y2, z2);
-            GL11.glVertex3f(x3, y3, z3);
+            batch.normal(xn, yn, zn);
+            batch.vertex(x1, y1, z1);
+            batch.vertex(x3, y3, z3);
+            batch.vertex(x2, y2, z2);
+            batch.normal(-xn, -yn, -zn);
+            batch.vertex(x1, y1, z1);
+            batch.vertex(x2, y2, z2);
+            batch.vertex(x3, y3, z3);
         } else {
-            GL11.glNormal3f(xn, yn, zn);
-            GL11.glVertex3f(x1, y1, z1);
-            GL11.glVertex3f(x2, y2, z2);
-            GL11.glVertex3f(x3, y3, z3);
-            GL11.glNormal3f(-xn, -yn, -zn);
-            GL11.glVertex3f(x1, y1, z1);
-            GL11.glVertex3f(x3, y3, z3);
-            GL11.glVertex3f(x2, y2, z2);
+            batch.normal(xn, yn, zn);
+            batch.vertex(x1, y1, z1);
+            batch.vertex(x2, y2, z2);
+            batch.vertex(x3, y3, z3);
+            batch.normal(-xn, -yn, -zn);
+            batch.vertex(x1, y1, z1);
+            batch.vertex(x3, y3, z3);
+            batch.vertex(x2, y2, z2);
         }
-        GL11.glEnd();
+        batch.end();
     }
 
     @Override
@@ -1599,6 +1609,7 @@ public final class GData3 extends GData {
     }
 
     public void drawProtractor_GL20(boolean selected, Composite3D c3d, BigDecimal x1c, BigDecimal y1c, BigDecimal z1c, BigDecimal x2c, BigDecimal y2c, BigDecimal z2c, BigDecimal x3c, BigDecimal y3c, BigDecimal z3c) {
+        OpenGLRenderer20.BATCH.flush();
         final java.text.DecimalFormat NUMBER_FORMAT2F = new java.text.DecimalFormat(View.NUMBER_FORMAT2F, new DecimalFormatSymbols(MyLanguage.LOCALE));
         final OpenGLRenderer20 renderer = (OpenGLRenderer20) c3d.getRenderer();
         final float zoom = 1f / c3d.getZoom();
@@ -1701,46 +1712,46 @@ public final class GData3 extends GData {
             final char c = number.charAt(i);
             switch (c) {
             case '0':
-                tris = View.D0;
+                tris = ViewText.D0;
                 break;
             case '1':
-                tris = View.D1;
+                tris = ViewText.D1;
                 break;
             case '2':
-                tris = View.D2;
+                tris = ViewText.D2;
                 break;
             case '3':
-                tris = View.D3;
+                tris = ViewText.D3;
                 break;
             case '4':
-                tris = View.D4;
+                tris = ViewText.D4;
                 break;
             case '5':
-                tris = View.D5;
+                tris = ViewText.D5;
                 break;
             case '6':
-                tris = View.D6;
+                tris = ViewText.D6;
                 break;
             case '7':
-                tris = View.D7;
+                tris = ViewText.D7;
                 break;
             case '8':
-                tris = View.D8;
+                tris = ViewText.D8;
                 break;
             case '9':
-                tris = View.D9;
+                tris = ViewText.D9;
                 break;
             case '.':
-                tris = View.Dd;
+                tris = ViewText.Dd;
                 break;
             case ',':
-                tris = View.Dc;
+                tris = ViewText.Dc;
                 break;
             case '°':
-                tris = View.Dg;
+                tris = ViewText.Dg;
                 break;
             case '-':
-                tris = View.DM;
+                tris = ViewText.DM;
                 break;
             default:
                 break;
@@ -1760,46 +1771,46 @@ public final class GData3 extends GData {
             final char c = number.charAt(i);
             switch (c) {
             case '0':
-                tris = View.D0;
+                tris = ViewText.D0;
                 break;
             case '1':
-                tris = View.D1;
+                tris = ViewText.D1;
                 break;
             case '2':
-                tris = View.D2;
+                tris = ViewText.D2;
                 break;
             case '3':
-                tris = View.D3;
+                tris = ViewText.D3;
                 break;
             case '4':
-                tris = View.D4;
+                tris = ViewText.D4;
                 break;
             case '5':
-                tris = View.D5;
+                tris = ViewText.D5;
                 break;
             case '6':
-                tris = View.D6;
+                tris = ViewText.D6;
                 break;
             case '7':
-                tris = View.D7;
+                tris = ViewText.D7;
                 break;
             case '8':
-                tris = View.D8;
+                tris = ViewText.D8;
                 break;
             case '9':
-                tris = View.D9;
+                tris = ViewText.D9;
                 break;
             case '.':
-                tris = View.Dd;
+                tris = ViewText.Dd;
                 break;
             case ',':
-                tris = View.Dc;
+                tris = ViewText.Dc;
                 break;
             case '°':
-                tris = View.Dg;
+                tris = ViewText.Dg;
                 break;
             case '-':
-                tris = View.DM;
+                tris = ViewText.DM;
                 break;
             default:
                 break;
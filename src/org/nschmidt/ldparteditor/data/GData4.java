@@ -31,6 +31,7 @@ import org.nschmidt.ldparteditor.helpers.math.ThreadsafeHashMap;
 import org.nschmidt.ldparteditor.helpers.math.ThreadsafeTreeMap;
 import org.nschmidt.ldparteditor.helpers.math.Vector3d;
 import org.nschmidt.ldparteditor.opengl.OpenGLRenderer20;
+import org.nschmidt.ldparteditor.opengl.VertexBatch;
 
 /**
  * @author nils
@@ -285,40 +286,42 @@ public final class GData4 extends GData {
 
     @Override
     public void drawGL20(Composite3D c3d) {
+        final VertexBatch batch = OpenGLRenderer20.BATCH;
         if (!visible)
             return;
         if (a < 1f && c3d.isDrawingSolidMaterials() || !c3d.isDrawingSolidMaterials() && a == 1f)
             return;
-        GL11.glBegin(GL11.GL_QUADS);
-        GL11.glColor4f(r, g, b, a);
+        batch.begin(GL11.GL_QUADS);
+        batch.colour(r, g, b, a);
         if (GData.globalNegativeDeterminant) {
-            GL11.glNormal3f(xn, yn, zn);
-            GL11.glVertex3f(x1, y1, z1);
-            GL11.glVertex3f(x4, y4, z4);
-            GL11.glVertex3f(x3, y3, z3);
-            GL11.glVertex3f(x2, y2, z2);
-            GL11.glNormal3f(-xn, -yn, -zn);
-            GL11.glVertex3f(x1, y1, z1);
-            GL11.glVertex3f(x2, y2, z2);
-            GL11.glVertex3f(x3, y3, z3);
-            GL11.glVertex3f(x4, y4, z4);
+            batch.normal(xn, yn, zn);
+            batch.vertex(x1, y1, z1);
+            batch.vertex(x4, y4, z4);
+            batch.vertex(x3, y3, z3);
+            batch.vertex(x2, y2, z2);
+            batch.normal(-xn, -yn, -zn);
+            batch.vertex(x1, y1, z1);
+            batch.vertex(x2, y2, z2);
+            batch.vertex(x3, y3, z3);
+            batch.vertex(x4, y4, z4);
         } else {
-            GL11.glNormal3f(-xn, -yn, -zn);
-            GL11.glVertex3f(x1, y1, z1);
-            GL11.glVertex3f(x4, y4, z4);
-            GL11.glVertex3f(x3, y3, z3);
-            GL11.glVertex3f(x2, y2, z2);
-            GL11.glNormal3f(xn, yn, zn);
-            GL11.glVertex3f(x1, y1, z1);
-            GL11.glVertex3f(x2, y2, z2);
-            GL11.glVertex3f(x3, y3, z3);
-            GL11.glVertex3f(x4, y4, z4);
+            batch.normal(-xn, -yn, -zn);
+            batch.vertex(x1, y1, z1);
+            batch.vertex(x4, y4, z4);
+            batch.vertex(x3, y3, z3);
+            batch.vertex(x2, y2, z2);
+            batch.normal(xn, yn, zn);
+            batch.vertex(x1, y1, z1);
+            batch.vertex(x2, y2, z2);
+            batch.vertex(x3, y3, z3);
+            batch.vertex(x4, y4, z4);
         }
-        GL11.glEnd();
+        batch.end();
     }
 
     @Override
     public void drawGL20_RandomColours(Composite3D c3d) {
+        final VertexBatch batch = OpenGLRenderer20.BATCH;
         if (!visible)
             return;
         if (a < 1f && c3d.isDrawingSolidMaterials() || !c3d.isDrawingSolidMaterials() && a == 1f)
@@ -326,499 +329,503 @@ public final class GData4 extends GData {
         final float r = MathHelper.randomFloat(ID, 0);
         final float g = MathHelper.randomFloat(ID, 1);
         final float b = MathHelper.randomFloat(ID, 2);
-        GL11.glBegin(GL11.GL_QUADS);
+        batch.begin(GL11.GL_QUADS);
         if (GData.globalNegativeDeterminant) {
-            GL11.glColor4f(r, g, b, a);
-            GL11.glNormal3f(xn, yn, zn);
-            GL11.glVertex3f(x1, y1, z1);
-            GL11.glVertex3f(x4, y4, z4);
-            GL11.glVertex3f(x3, y3, z3);
-            GL11.glVertex3f(x2, y2, z2);
-            GL11.glNormal3f(-xn, -yn, -zn);
-            GL11.glVertex3f(x1, y1, z1);
-            GL11.glVertex3f(x2, y2, z2);
-            GL11.glVertex3f(x3, y3, z3);
-            GL11.glVertex3f(x4, y4, z4);
+            batch.colour(r, g, b, a);
+            batch.normal(xn, yn, zn);
+            batch.vertex(x1, y1, z1);
+            batch.vertex(x4, y4, z4);
+            batch.vertex(x3, y3, z3);
+            batch.vertex(x2, y2, z2);
+            batch.normal(-xn, -yn, -zn);
+            batch.vertex(x1, y1, z1);
+            batch.vertex(x2, y2, z2);
+            batch.vertex(x3, y3, z3);
+            batch.vertex(x4, y4, z4);
         } else {
-            GL11.glColor4f(r, g, b, a);
-            GL11.glNormal3f(-xn, -yn, -zn);
-            GL11.glVertex3f(x1, y1, z1);
-            GL11.glVertex3f(x4, y4, z4);
-            GL11.glVertex3f(x3, y3, z3);
-            GL11.glVertex3f(x2, y2, z2);
-            GL11.glNormal3f(xn, yn, zn);
-            GL11.glVertex3f(x1, y1, z1);
-            GL11.glVertex3f(x2, y2, z2);
-            GL11.glVertex3f(x3, y3, z3);
-            GL11.glVertex3f(x4, y4, z4);
+            batch.colour(r, g, b, a);
+            batch.normal(-xn, -yn, -zn);
+            batch.vertex(x1, y1, z1);
+            batch.vertex(x4, y4, z4);
+            batch.vertex(x3, y3, z3);
+            batch.vertex(x2, y2, z2);
+            batch.normal(xn, yn, zn);
+            batch.vertex(x1, y1, z1);
+            batch.vertex(x2, y2, z2);
+            batch.vertex(x3, y3, z3);
+            batch.vertex(x4, y4, z4);
         }
-        GL11.glEnd();
+        batch.end();
     }
 
     @Override
     public void drawGL20_BFC(Composite3D c3d) {
+        final VertexBatch batch = OpenGLRenderer20.BATCH;
         if (!visible)
             return;
         if (a < 1f && c3d.isDrawingSolidMaterials() || !c3d.isDrawingSolidMaterials() && a == 1f)
             return;
-        GL11.glBegin(GL11.GL_QUADS);
+        batch.begin(GL11.GL_QUADS);
         switch (GData.localWinding) {
         case BFC.CCW:
             if (GData.globalNegativeDeterminant) {
                 if (GData.globalInvertNext) {
-                    GL11.glColor4f( // 111
+                    batch.colour( // 111
                             View.BFC_front_Colour_r[0], View.BFC_front_Colour_g[0], View.BFC_front_Colour_b[0], a);
-                    GL11.glNormal3f(xn, yn, zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x4, y4, z4);
-                    GL11.glVertex3f(x3, y3, z3);
-                    GL11.glVertex3f(x2, y2, z2);
-                    GL11.glColor4f(View.BFC_back__Colour_r[0], View.BFC_back__Colour_g[0], View.BFC_back__Colour_b[0], a);
-                    GL11.glNormal3f(-xn, -yn, -zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x2, y2, z2);
-                    GL11.glVertex3f(x3, y3, z3);
-                    GL11.glVertex3f(x4, y4, z4);
+                    batch.normal(xn, yn, zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x4, y4, z4);
+                    batch.vertex(x3, y3, z3);
+                    batch.vertex(x2, y2, z2);
+                    batch.colour(View.BFC_back__Colour_r[0], View.BFC_back__Colour_g[0], View.BFC_back__Colour_b[0], a);
+                    batch.normal(-xn, -yn, -zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x2, y2, z2);
+                    batch.vertex(x3, y3, z3);
+                    batch.vertex(x4, y4, z4);
                 } else {
-                    GL11.glColor4f( // 110
+                    batch.colour( // 110
                             View.BFC_front_Colour_r[0], View.BFC_front_Colour_g[0], View.BFC_front_Colour_b[0], a);
-                    GL11.glNormal3f(-xn, -yn, -zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x2, y2, z2);
-                    GL11.glVertex3f(x3, y3, z3);
-                    GL11.glVertex3f(x4, y4, z4);
-                    GL11.glColor4f(View.BFC_back__Colour_r[0], View.BFC_back__Colour_g[0], View.BFC_back__Colour_b[0], a);
-                    GL11.glNormal3f(xn, yn, zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x4, y4, z4);
-                    GL11.glVertex3f(x3, y3, z3);
-                    GL11.glVertex3f(x2, y2, z2);
+                    batch.normal(-xn, -yn, -zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x2, y2, z2);
+                    batch.vertex(x3, y3, z3);
+                    batch.vertex(x4, y4, z4);
+                    batch.colour(View.BFC_back__Colour_r[0], View.BFC_back__Colour_g[0], View.BFC_back__Colour_b[0], a);
+                    batch.normal(xn, yn, zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x4, y4, z4);
+                    batch.vertex(x3, y3, z3);
+                    batch.vertex(x2, y2, z2);
                 }
             } else {
                 if (GData.globalInvertNext) {
-                    GL11.glColor4f( // 101
+                    batch.colour( // 101
                             View.BFC_front_Colour_r[0], View.BFC_front_Colour_g[0], View.BFC_front_Colour_b[0], a);
-                    GL11.glNormal3f(xn, yn, zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x2, y2, z2);
-                    GL11.glVertex3f(x3, y3, z3);
-                    GL11.glVertex3f(x4, y4, z4);
-                    GL11.glColor4f(View.BFC_back__Colour_r[0], View.BFC_back__Colour_g[0], View.BFC_back__Colour_b[0], a);
-                    GL11.glNormal3f(-xn, -yn, -zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x4, y4, z4);
-                    GL11.glVertex3f(x3, y3, z3);
-                    GL11.glVertex3f(x2, y2, z2);
+                    batch.normal(xn, yn, zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x2, y2, z2);
+                    batch.vertex(x3, y3, z3);
+                    batch.vertex(x4, y4, z4);
+                    batch.colour(View.BFC_back__Colour_r[0], View.BFC_back__Colour_g[0], View.BFC_back__Colour_b[0], a);
+                    batch.normal(-xn, -yn, -zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x4, y4, z4);
+                    batch.vertex(x3, y3, z3);
+                    batch.vertex(x2, y2, z2);
                 } else {
-                    GL11.glColor4f( // 100
+                    batch.colour( // 100
                             View.BFC_front_Colour_r[0], View.BFC_front_Colour_g[0], View.BFC_front_Colour_b[0], a);
-                    GL11.glNormal3f(-xn, -yn, -zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x4, y4, z4);
-                    GL11.glVertex3f(x3, y3, z3);
-                    GL11.glVertex3f(x2, y2, z2);
-                    GL11.glColor4f(View.BFC_back__Colour_r[0], View.BFC_back__Colour_g[0], View.BFC_back__Colour_b[0], a);
-                    GL11.glNormal3f(xn, yn, zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x2, y2, z2);
-                    GL11.glVertex3f(x3, y3, z3);
-                    GL11.glVertex3f(x4, y4, z4);
+                    batch.normal(-xn, -yn, -zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x4, y4, z4);
+                    batch.vertex(x3, y3, z3);
+                    batch.vertex(x2, y2, z2);
+                    batch.colour(View.BFC_back__Colour_r[0], View.BFC_back__Colour_g[0], View.BFC_back__Colour_b[0], a);
+                    batch.normal(xn, yn, zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x2, y2, z2);
+                    batch.vertex(x3, y3, z3);
+                    batch.vertex(x4, y4, z4);
                 }
             }
             break;
         case BFC.CW:
             if (GData.globalNegativeDeterminant) {
                 if (GData.globalInvertNext) {
-                    GL11.glColor4f( // 011
+                    batch.colour( // 011
                             View.BFC_front_Colour_r[0], View.BFC_front_Colour_g[0], View.BFC_front_Colour_b[0], a);
-                    GL11.glNormal3f(-xn, -yn, -zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x2, y2, z2);
-                    GL11.glVertex3f(x3, y3, z3);
-                    GL11.glVertex3f(x4, y4, z4);
-                    GL11.glColor4f(View.BFC_back__Colour_r[0], View.BFC_back__Colour_g[0], View.BFC_back__Colour_b[0], a);
-                    GL11.glNormal3f(xn, yn, zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x4, y4, z4);
-                    GL11.glVertex3f(x3, y3, z3);
-                    GL11.glVertex3f(x2, y2, z2);
+                    batch.normal(-xn, -yn, -zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x2, y2, z2);
+                    batch.vertex(x3, y3, z3);
+                    batch.vertex(x4, y4, z4);
+                    batch.colour(View.BFC_back__Colour_r[0], View.BFC_back__Colour_g[0], View.BFC_back__Colour_b[0], a);
+                    batch.normal(xn, yn, zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x4, y4, z4);
+                    batch.vertex(x3, y3, z3);
+                    batch.vertex(x2, y2, z2);
                 } else {
-                    GL11.glColor4f( // 010
+                    batch.colour( // 010
                             View.BFC_front_Colour_r[0], View.BFC_front_Colour_g[0], View.BFC_front_Colour_b[0], a);
-                    GL11.glNormal3f(xn, yn, zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x4, y4, z4);
-                    GL11.glVertex3f(x3, y3, z3);
-                    GL11.glVertex3f(x2, y2, z2);
-                    GL11.glColor4f(View.BFC_back__Colour_r[0], View.BFC_back__Colour_g[0], View.BFC_back__Colour_b[0], a);
-                    GL11.glNormal3f(-xn, -yn, -zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x2, y2, z2);
-                    GL11.glVertex3f(x3, y3, z3);
-                    GL11.glVertex3f(x4, y4, z4);
+                    batch.normal(xn, yn, zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x4, y4, z4);
+                    batch.vertex(x3, y3, z3);
+                    batch.vertex(x2, y2, z2);
+                    batch.colour(View.BFC_back__Colour_r[0], View.BFC_back__Colour_g[0], View.BFC_back__Colour_b[0], a);
+                    batch.normal(-xn, -yn, -zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x2, y2, z2);
+                    batch.vertex(x3, y3, z3);
+                    batch.vertex(x4, y4, z4);
                 }
             } else {
                 if (GData.globalInvertNext) {
-                    GL11.glColor4f( // 001
+                    batch.colour( // 001
                             View.BFC_front_Colour_r[0], View.BFC_front_Colour_g[0], View.BFC_front_Colour_b[0], a);
-                    GL11.glNormal3f(-xn, -yn, -zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x4, y4, z4);
-                    GL11.glVertex3f(x3, y3, z3);
-                    GL11.glVertex3f(x2, y2, z2);
-                    GL11.glColor4f(View.BFC_back__Colour_r[0], View.BFC_back__Colour_g[0], View.BFC_back__Colour_b[0], a);
-                    GL11.glNormal3f(xn, yn, zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x2, y2, z2);
-                    GL11.glVertex3f(x3, y3, z3);
-                    GL11.glVertex3f(x4, y4, z4);
+                    batch.normal(-xn, -yn, -zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x4, y4, z4);
+                    batch.vertex(x3, y3, z3);
+                    batch.vertex(x2, y2, z2);
+                    batch.colour(View.BFC_back__Colour_r[0], View.BFC_back__Colour_g[0], View.BFC_back__Colour_b[0], a);
+                    batch.normal(xn, yn, zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x2, y2, z2);
+                    batch.vertex(x3, y3, z3);
+                    batch.vertex(x4, y4, z4);
                 } else {
-                    GL11.glColor4f( // 000
+                    batch.colour( // 000
                             View.BFC_front_Colour_r[0], View.BFC_front_Colour_g[0], View.BFC_front_Colour_b[0], a);
-                    GL11.glNormal3f(xn, yn, zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x2, y2, z2);
-                    GL11.glVertex3f(x3, y3, z3);
-                    GL11.glVertex3f(x4, y4, z4);
-                    GL11.glColor4f(View.BFC_back__Colour_r[0], View.BFC_back__Colour_g[0], View.BFC_back__Colour_b[0], a);
-                    GL11.glNormal3f(-xn, -yn, -zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x4, y4, z4);
-                    GL11.glVertex3f(x3, y3, z3);
-                    GL11.glVertex3f(x2, y2, z2);
+                    batch.normal(xn, yn, zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x2, y2, z2);
+                    batch.vertex(x3, y3, z3);
+                    batch.vertex(x4, y4, z4);
+                    batch.colour(View.BFC_back__Colour_r[0], View.BFC_back__Colour_g[0], View.BFC_back__Colour_b[0], a);
+                    batch.normal(-xn, -yn, -zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x4, y4, z4);
+                    batch.vertex(x3, y3, z3);
+                    batch.vertex(x2, y2, z2);
                 }
             }
             break;
         case BFC.NOCERTIFY:
             if (GData.globalNegativeDeterminant) {
-                GL11.glColor4f(View.BFC_uncertified_Colour_r[0], View.BFC_uncertified_Colour_g[0], View.BFC_uncertified_Colour_b[0], a);
-                GL11.glNormal3f(xn, yn, zn);
-                GL11.glVertex3f(x1, y1, z1);
-                GL11.glVertex3f(x4, y4, z4);
-                GL11.glVertex3f(x3, y3, z3);
-                GL11.glVertex3f(x2, y2, z2);
-                GL11.glNormal3f(-xn, -yn, -zn);
-                GL11.glVertex3f(x1, y1, z1);
-                GL11.glVertex3f(x2, y2, z2);
-                GL11.glVertex3f(x3, y3, z3);
-                GL11.glVertex3f(x4, y4, z4);
+                batch.colour(View.BFC_uncertified_Colour_r[0], View.BFC_uncertified_Colour_g[0], View.BFC_uncertified_Colour_b[0], a);
+                batch.normal(xn, yn, zn);
+                batch.vertex(x1, y1, z1);
+                batch.vertex(x4, y4, z4);
+                batch.vertex(x3, y3, z3);
+                batch.vertex(x2, y2, z2);
+                batch.normal(-xn, -yn, -zn);
+                batch.vertex(x1, y1, z1);
+                batch.vertex(x2, y2, z2);
+                batch.vertex(x3, y3, z3);
+                batch.vertex(x4, y4, z4);
             } else {
-                GL11.glColor4f(View.BFC_uncertified_Colour_r[0], View.BFC_uncertified_Colour_g[0], View.BFC_uncertified_Colour_b[0], a);
-                GL11.glNormal3f(-xn, -yn, -zn);
-                GL11.glVertex3f(x1, y1, z1);
-                GL11.glVertex3f(x4, y4, z4);
-                GL11.glVertex3f(x3, y3, z3);
-                GL11.glVertex3f(x2, y2, z2);
-                GL11.glNormal3f(xn, yn, zn);
-                GL11.glVertex3f(x1, y1, z1);
-                GL11.glVertex3f(x2, y2, z2);
-                GL11.glVertex3f(x3, y3, z3);
-                GL11.glVertex3f(x4, y4, z4);
+                batch.colour(View.BFC_uncertified_Colour_r[0], View.BFC_uncertified_Colour_g[0], View.BFC_uncertified_Colour_b[0], a);
+                batch.normal(-xn, -yn, -zn);
+                batch.vertex(x1, y1, z1);
+                batch.vertex(x4, y4, z4);
+                batch.vertex(x3, y3, z3);
+                batch.vertex(x2, y2, z2);
+                batch.normal(xn, yn, zn);
+                batch.vertex(x1, y1, z1);
+                batch.vertex(x2, y2, z2);
+                batch.vertex(x3, y3, z3);
+                batch.vertex(x4, y4, z4);
             }
             break;
         }
-        GL11.glEnd();
+        batch.end();
     }
 
     @Override
     public void drawGL20_BFCuncertified(Composite3D c3d) {
+        final VertexBatch batch = OpenGLRenderer20.BATCH;
         if (!visible)
             return;
         if (a < 1f && c3d.isDrawingSolidMaterials() || !c3d.isDrawingSolidMaterials() && a == 1f)
             return;
-        GL11.glBegin(GL11.GL_QUADS);
+        batch.begin(GL11.GL_QUADS);
         if (GData.globalNegativeDeterminant) {
-            GL11.glColor4f(View.BFC_uncertified_Colour_r[0], View.BFC_uncertified_Colour_g[0], View.BFC_uncertified_Colour_b[0], a);
-            GL11.glNormal3f(xn, yn, zn);
-            GL11.glVertex3f(x1, y1, z1);
-            GL11.glVertex3f(x4, y4, z4);
-            GL11.glVertex3f(x3, y3, z3);
-            GL11.glVertex3f(x2, y2, z2);
-            GL11.glNormal3f(-xn, -yn, -zn);
-            GL11.glVertex3f(x1, y1, z1);
-            GL11.glVertex3f(x2, y2, z2);
-            GL11.glVertex3f(x3, y3, z3);
-            GL11.glVertex3f(x4, y4, z4);
+            batch.colour(View.BFC_uncertified_Colour_r[0], View.BFC_uncertified_Colour_g[0], View.BFC_uncertified_Colour_b[0], a);
+            batch.normal(xn, yn, zn);
+            batch.vertex(x1, y1, z1);
+            batch.vertex(x4, y4, z4);
+            batch.vertex(x3, y3, z3);
+            batch.vertex(x2, y2, z2);
+            batch.normal(-xn, -yn, -zn);
+            batch.vertex(x1, y1, z1);
+            batch.vertex(x2, y2, z2);
+            batch.vertex(x3, y3, z3);
+            batch.vertex(x4, y4, z4);
         } else {
-            GL11.glColor4f(View.BFC_uncertified_Colour_r[0], View.BFC_uncertified_Colour_g[0], View.BFC_uncertified_Colour_b[0], a);
-            GL11.glNormal3f(-xn, -yn, -zn);
-            GL11.glVertex3f(x1, y1, z1);
-            GL11.glVertex3f(x4, y4, z4);
-            GL11.glVertex3f(x3, y3, z3);
-            GL11.glVertex3f(x2, y2, z2);
-            GL11.glNormal3f(xn, yn, zn);
-            GL11.glVertex3f(x1, y1, z1);
-            GL11.glVertex3f(x2, y2, z2);
-            GL11.glVertex3f(x3, y3, z3);
-            GL11.glVertex3f(x4, y4, z4);
+            batch.colour(View.BFC_uncertified_Colour_r[0], View.BFC_uncertified_Colour_g[0], View.BFC_uncertified_Colour_b[0], a);
+            batch.normal(-xn, -yn, -zn);
+            batch.vertex(x1, y1, z1);
+            batch.vertex(x4, y4, z4);
+            batch.vertex(x3, y3, z3);
+            batch.vertex(x2, y2, z2);
+            batch.normal(xn, yn, zn);
+            batch.vertex(x1, y1, z1);
+            batch.vertex(x2, y2, z2);
+            batch.vertex(x3, y3, z3);
+            batch.vertex(x4, y4, z4);
         }
-        GL11.glEnd();
+        batch.end();
     }
 
     @Override
     public void drawGL20_BFC_backOnly(Composite3D c3d) {
+        final VertexBatch batch = OpenGLRenderer20.BATCH;
         if (!visible)
             return;
         if (a < 1f && c3d.isDrawingSolidMaterials() || !c3d.isDrawingSolidMaterials() && a == 1f)
             return;
-        GL11.glBegin(GL11.GL_QUADS);
+        batch.begin(GL11.GL_QUADS);
         switch (GData.localWinding) {
         case BFC.CCW:
             if (GData.globalNegativeDeterminant) {
                 if (GData.globalInvertNext) {
-                    GL11.glColor4f(r, g, b, a);
-                    GL11.glNormal3f(xn, yn, zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x4, y4, z4);
-                    GL11.glVertex3f(x3, y3, z3);
-                    GL11.glVertex3f(x2, y2, z2);
-                    GL11.glColor4f(View.BFC_back__Colour_r[0], View.BFC_back__Colour_g[0], View.BFC_back__Colour_b[0], a);
-                    GL11.glNormal3f(-xn, -yn, -zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x2, y2, z2);
-                    GL11.glVertex3f(x3, y3, z3);
-                    GL11.glVertex3f(x4, y4, z4);
+                    batch.colour(r, g, b, a);
+                    batch.normal(xn, yn, zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x4, y4, z4);
+                    batch.vertex(x3, y3, z3);
+                    batch.vertex(x2, y2, z2);
+                    batch.colour(View.BFC_back__Colour_r[0], View.BFC_back__Colour_g[0], View.BFC_back__Colour_b[0], a);
+                    batch.normal(-xn, -yn, -zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x2, y2, z2);
+                    batch.vertex(x3, y3, z3);
+                    batch.vertex(x4, y4, z4);
                 } else {
-                    GL11.glColor4f(r, g, b, a);
-                    GL11.glNormal3f(-xn, -yn, -zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x2, y2, z2);
-                    GL11.glVertex3f(x3, y3, z3);
-                    GL11.glVertex3f(x4, y4, z4);
-                    GL11.glColor4f(View.BFC_back__Colour_r[0], View.BFC_back__Colour_g[0], View.BFC_back__Colour_b[0], a);
-                    GL11.glNormal3f(xn, yn, zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x4, y4, z4);
-                    GL11.glVertex3f(x3, y3, z3);
-                    GL11.glVertex3f(x2, y2, z2);
+                    batch.colour(r, g, b, a);
+                    batch.normal(-xn, -yn, -zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x2, y2, z2);
+                    batch.vertex(x3, y3, z3);
+                    batch.vertex(x4, y4, z4);
+                    batch.colour(View.BFC_back__Colour_r[0], View.BFC_back__Colour_g[0], View.BFC_back__Colour_b[0], a);
+                    batch.normal(xn, yn, zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x4, y4, z4);
+                    batch.vertex(x3, y3, z3);
+                    batch.vertex(x2, y2, z2);
                 }
             } else {
                 if (GData.globalInvertNext) {
-                    GL11.glColor4f(r, g, b, a);
-                    GL11.glNormal3f(xn, yn, zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x2, y2, z2);
-                    GL11.glVertex3f(x3, y3, z3);
-                    GL11.glVertex3f(x4, y4, z4);
-                    GL11.glColor4f(View.BFC_back__Colour_r[0], View.BFC_back__Colour_g[0], View.BFC_back__Colour_b[0], a);
-                    GL11.glNormal3f(-xn, -yn, -zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x4, y4, z4);
-                    GL11.glVertex3f(x3, y3, z3);
-                    GL11.glVertex3f(x2, y2, z2);
+                    batch.colour(r, g, b, a);
+                    batch.normal(xn, yn, zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x2, y2, z2);
+                    batch.vertex(x3, y3, z3);
+                    batch.vertex(x4, y4, z4);
+                    batch.colour(View.BFC_back__Colour_r[0], View.BFC_back__Colour_g[0], View.BFC_back__Colour_b[0], a);
+                    batch.normal(-xn, -yn, -zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x4, y4, z4);
+                    batch.vertex(x3, y3, z3);
+                    batch.vertex(x2, y2, z2);
                 } else {
-                    GL11.glColor4f(r, g, b, a);
-                    GL11.glNormal3f(-xn, -yn, -zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x4, y4, z4);
-                    GL11.glVertex3f(x3, y3, z3);
-                    GL11.glVertex3f(x2, y2, z2);
-                    GL11.glColor4f(View.BFC_back__Colour_r[0], View.BFC_back__Colour_g[0], View.BFC_back__Colour_b[0], a);
-                    GL11.glNormal3f(xn, yn, zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x2, y2, z2);
-                    GL11.glVertex3f(x3, y3, z3);
-                    GL11.glVertex3f(x4, y4, z4);
+                    batch.colour(r, g, b, a);
+                    batch.normal(-xn, -yn, -zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x4, y4, z4);
+                    batch.vertex(x3, y3, z3);
+                    batch.vertex(x2, y2, z2);
+                    batch.colour(View.BFC_back__Colour_r[0], View.BFC_back__Colour_g[0], View.BFC_back__Colour_b[0], a);
+                    batch.normal(xn, yn, zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x2, y2, z2);
+                    batch.vertex(x3, y3, z3);
+                    batch.vertex(x4, y4, z4);
                 }
             }
             break;
         case BFC.CW:
             if (GData.globalNegativeDeterminant) {
                 if (GData.globalInvertNext) {
-                    GL11.glColor4f(r, g, b, a);
-                    GL11.glNormal3f(-xn, -yn, -zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x2, y2, z2);
-                    GL11.glVertex3f(x3, y3, z3);
-                    GL11.glVertex3f(x4, y4, z4);
-                    GL11.glColor4f(View.BFC_back__Colour_r[0], View.BFC_back__Colour_g[0], View.BFC_back__Colour_b[0], a);
-                    GL11.glNormal3f(xn, yn, zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x4, y4, z4);
-                    GL11.glVertex3f(x3, y3, z3);
-                    GL11.glVertex3f(x2, y2, z2);
+                    batch.colour(r, g, b, a);
+                    batch.normal(-xn, -yn, -zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x2, y2, z2);
+                    batch.vertex(x3, y3, z3);
+                    batch.vertex(x4, y4, z4);
+                    batch.colour(View.BFC_back__Colour_r[0], View.BFC_back__Colour_g[0], View.BFC_back__Colour_b[0], a);
+                    batch.normal(xn, yn, zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x4, y4, z4);
+                    batch.vertex(x3, y3, z3);
+                    batch.vertex(x2, y2, z2);
                 } else {
-                    GL11.glColor4f(r, g, b, a);
-                    GL11.glNormal3f(xn, yn, zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x4, y4, z4);
-                    GL11.glVertex3f(x3, y3, z3);
-                    GL11.glVertex3f(x2, y2, z2);
-                    GL11.glColor4f(View.BFC_back__Colour_r[0], View.BFC_back__Colour_g[0], View.BFC_back__Colour_b[0], a);
-                    GL11.glNormal3f(-xn, -yn, -zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x2, y2, z2);
-                    GL11.glVertex3f(x3, y3, z3);
-                    GL11.glVertex3f(x4, y4, z4);
+                    batch.colour(r, g, b, a);
+                    batch.normal(xn, yn, zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x4, y4, z4);
+                    batch.vertex(x3, y3, z3);
+                    batch.vertex(x2, y2, z2);
+                    batch.colour(View.BFC_back__Colour_r[0], View.BFC_back__Colour_g[0], View.BFC_back__Colour_b[0], a);
+                    batch.normal(-xn, -yn, -zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x2, y2, z2);
+                    batch.vertex(x3, y3, z3);
+                    batch.vertex(x4, y4, z4);
                 }
             } else {
                 if (GData.globalInvertNext) {
-                    GL11.glColor4f(r, g, b, a);
-                    GL11.glNormal3f(-xn, -yn, -zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x4, y4, z4);
-                    GL11.glVertex3f(x3, y3, z3);
-                    GL11.glVertex3f(x2, y2, z2);
-                    GL11.glColor4f(View.BFC_back__Colour_r[0], View.BFC_back__Colour_g[0], View.BFC_back__Colour_b[0], a);
-                    GL11.glNormal3f(xn, yn, zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x2, y2, z2);
-                    GL11.glVertex3f(x3, y3, z3);
-                    GL11.glVertex3f(x4, y4, z4);
+                    batch.colour(r, g, b, a);
+                    batch.normal(-xn, -yn, -zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x4, y4, z4);
+                    batch.vertex(x3, y3, z3);
+                    batch.vertex(x2, y2, z2);
+                    batch.colour(View.BFC_back__Colour_r[0], View.BFC_back__Colour_g[0], View.BFC_back__Colour_b[0], a);
+                    batch.normal(xn, yn, zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x2, y2, z2);
+                    batch.vertex(x3, y3, z3);
+                    batch.vertex(x4, y4, z4);
                 } else {
-                    GL11.glColor4f(r, g, b, a);
-                    GL11.glNormal3f(xn, yn, zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x2, y2, z2);
-                    GL11.glVertex3f(x3, y3, z3);
-                    GL11.glVertex3f(x4, y4, z4);
-                    GL11.glColor4f(View.BFC_back__Colour_r[0], View.BFC_back__Colour_g[0], View.BFC_back__Colour_b[0], a);
-                    GL11.glNormal3f(-xn, -yn, -zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x4, y4, z4);
-                    GL11.glVertex3f(x3, y3, z3);
-                    GL11.glVertex3f(x2, y2, z2);
+                    batch.colour(r, g, b, a);
+                    batch.normal(xn, yn, zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x2, y2, z2);
+                    batch.vertex(x3, y3, z3);
+                    batch.vertex(x4, y4, z4);
+                    batch.colour(View.BFC_back__Colour_r[0], View.BFC_back__Colour_g[0], View.BFC_back__Colour_b[0], a);
+                    batch.normal(-xn, -yn, -zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x4, y4, z4);
+                    batch.vertex(x3, y3, z3);
+                    batch.vertex(x2, y2, z2);
                 }
             }
             break;
         case BFC.NOCERTIFY:
             if (GData.globalNegativeDeterminant) {
-                GL11.glColor4f(View.BFC_uncertified_Colour_r[0], View.BFC_uncertified_Colour_g[0], View.BFC_uncertified_Colour_b[0], a);
-                GL11.glNormal3f(xn, yn, zn);
-                GL11.glVertex3f(x1, y1, z1);
-                GL11.glVertex3f(x4, y4, z4);
-                GL11.glVertex3f(x3, y3, z3);
-                GL11.glVertex3f(x2, y2, z2);
-                GL11.glNormal3f(-xn, -yn, -zn);
-                GL11.glVertex3f(x1, y1, z1);
-                GL11.glVertex3f(x2, y2, z2);
-                GL11.glVertex3f(x3, y3, z3);
-                GL11.glVertex3f(x4, y4, z4);
+                batch.colour(View.BFC_uncertified_Colour_r[0], View.BFC_uncertified_Colour_g[0], View.BFC_uncertified_Colour_b[0], a);
+                batch.normal(xn, yn, zn);
+                batch.vertex(x1, y1, z1);
+                batch.vertex(x4, y4, z4);
+                batch.vertex(x3, y3, z3);
+                batch.vertex(x2, y2, z2);
+                batch.normal(-xn, -yn, -zn);
+                batch.vertex(x1, y1, z1);
+                batch.vertex(x2, y2, z2);
+                batch.vertex(x3, y3, z3);
+                batch.vertex(x4, y4, z4);
             } else {
-                GL11.glColor4f(View.BFC_uncertified_Colour_r[0], View.BFC_uncertified_Colour_g[0], View.BFC_uncertified_Colour_b[0], a);
-                GL11.glNormal3f(-xn, -yn, -zn);
-                GL11.glVertex3f(x1, y1, z1);
-                GL11.glVertex3f(x4, y4, z4);
-                GL11.glVertex3f(x3, y3, z3);
-                GL11.glVertex3f(x2, y2, z2);
-                GL11.glNormal3f(xn, yn, zn);
-                GL11.glVertex3f(x1, y1, z1);
-                GL11.glVertex3f(x2, y2, z2);
-                GL11.glVertex3f(x3, y3, z3);
-                GL11.glVertex3f(x4, y4, z4);
+                batch.colour(View.BFC_uncertified_Colour_r[0], View.BFC_uncertified_Colour_g[0], View.BFC_uncertified_Colour_b[0], a);
+                batch.normal(-xn, -yn, -zn);
+                batch.vertex(x1, y1, z1);
+                batch.vertex(x4, y4, z4);
+                batch.vertex(x3, y3, z3);
+                batch.vertex(x2, y2, z2);
+                batch.normal(xn, yn, zn);
+                batch.vertex(x1, y1, z1);
+                batch.vertex(x2, y2, z2);
+                batch.vertex(x3, y3, z3);
+                batch.vertex(x4, y4, z4);
             }
             break;
         }
-        GL11.glEnd();
+        batch.end();
     }
 
     @Override
     public void drawGL20_BFC_Colour(Composite3D c3d) {
+        final VertexBatch batch = OpenGLRenderer20.BATCH;
         if (!visible)
             return;
         if (a < 1f && c3d.isDrawingSolidMaterials() || !c3d.isDrawingSolidMaterials() && a == 1f)
             return;
-        GL11.glBegin(GL11.GL_QUADS);
+        batch.begin(GL11.GL_QUADS);
         switch (a < 1f ? BFC.NOCERTIFY : GData.localWinding) {
         case BFC.CCW:
             if (GData.globalNegativeDeterminant) {
                 if (GData.globalInvertNext) {
-                    GL11.glColor4f(r, g, b, a);
-                    GL11.glNormal3f(xn, yn, zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x4, y4, z4);
-                    GL11.glVertex3f(x3, y3, z3);
-                    GL11.glVertex3f(x2, y2, z2);
+                    batch.colour(r, g, b, a);
+                    batch.normal(xn, yn, zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x4, y4, z4);
+                    batch.vertex(x3, y3, z3);
+                    batch.vertex(x2, y2, z2);
                 } else {
-                    GL11.glColor4f(r, g, b, a);
-                    GL11.glNormal3f(-xn, -yn, -zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x2, y2, z2);
-                    GL11.glVertex3f(x3, y3, z3);
-                    GL11.glVertex3f(x4, y4, z4);
+                    batch.colour(r, g, b, a);
+                    batch.normal(-xn, -yn, -zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x2, y2, z2);
+                    batch.vertex(x3, y3, z3);
+                    batch.vertex(x4, y4, z4);
                 }
             } else {
                 if (GData.globalInvertNext) {
-                    GL11.glColor4f(r, g, b, a);
-                    GL11.glNormal3f(xn, yn, zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x2, y2, z2);
-                    GL11.glVertex3f(x3, y3, z3);
-                    GL11.glVertex3f(x4, y4, z4);
+                    batch.colour(r, g, b, a);
+                    batch.normal(xn, yn, zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x2, y2, z2);
+                    batch.vertex(x3, y3, z3);
+                    batch.vertex(x4, y4, z4);
                 } else {
-                    GL11.glColor4f(r, g, b, a);
-                    GL11.glNormal3f(-xn, -yn, -zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x4, y4, z4);
-                    GL11.glVertex3f(x3, y3, z3);
-                    GL11.glVertex3f(x2, y2, z2);
+                    batch.colour(r, g, b, a);
+                    batch.normal(-xn, -yn, -zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x4, y4, z4);
+                    batch.vertex(x3, y3, z3);
+                    batch.vertex(x2, y2, z2);
                 }
             }
             break;
         case BFC.CW:
             if (GData.globalNegativeDeterminant) {
                 if (GData.globalInvertNext) {
-                    GL11.glColor4f(r, g, b, a);
-                    GL11.glNormal3f(-xn, -yn, -zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x2, y2, z2);
-                    GL11.glVertex3f(x3, y3, z3);
-                    GL11.glVertex3f(x4, y4, z4);
+                    batch.colour(r, g, b, a);
+                    batch.normal(-xn, -yn, -zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x2, y2, z2);
+                    batch.vertex(x3, y3, z3);
+                    batch.vertex(x4, y4, z4);
                 } else {
-                    GL11.glColor4f(r, g, b, a);
-                    GL11.glNormal3f(xn, yn, zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x4, y4, z4);
-                    GL11.glVertex3f(x3, y3, z3);
-                    GL11.glVertex3f(x2, y2, z2);
+                    batch.colour(r, g, b, a);
+                    batch.normal(xn, yn, zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x4, y4, z4);
+                    batch.vertex(x3, y3, z3);
+                    batch.vertex(x2, y2, z2);
                 }
             } else {
                 if (GData.globalInvertNext) {
-                    GL11.glColor4f(r, g, b, a);
-                    GL11.glNormal3f(-xn, -yn, -zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x4, y4, z4);
-                    GL11.glVertex3f(x3, y3, z3);
-                    GL11.glVertex3f(x2, y2, z2);
+                    batch.colour(r, g, b, a);
+                    batch.normal(-xn, -yn, -zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x4, y4, z4);
+                    batch.vertex(x3, y3, z3);
+                    batch.vertex(x2, y2, z2);
                 } else {
-                    GL11.glColor4f(r, g, b, a);
-                    GL11.glNormal3f(xn, yn, zn);
-                    GL11.glVertex3f(x1, y1, z1);
-                    GL11.glVertex3f(x2, y2, z2);
-                    GL11.glVertex3f(x3, y3, z3);
-                    GL11.glVertex3f(x4, y4, z4);
+                    batch.colour(r, g, b, a);
+                    batch.normal(xn, yn, zn);
+                    batch.vertex(x1, y1, z1);
+                    batch.vertex(x2, y2, z2);
+                    batch.vertex(x3, y3, z3);
+                    batch.vertex(x4, y4, z4);
                 }
             }
             break;
         case BFC.NOCERTIFY:
             if (GData.globalNegativeDeterminant) {
-                GL11.glColor4f(r, g, b, a);
-                GL11.glNormal3f(xn, yn, zn);
-                GL11.glVertex3f(x1, y1, z1);
-                GL11.glVertex3f(x4, y4, z4);
-                GL11.glVertex3f(x3, y3, z3);
-                GL11.glVertex3f(x2, y2, z2);
-                GL11.glNormal3f(-xn, -yn, -zn);
-                GL11.glVertex3f(x1, y1, z1);
-                GL11.glVertex3f(x2, y2, z2);
-                GL11.glVertex3f(x3, y3, z3);
-                GL11.glVertex3f(x4, y4, z4);
+                batch.colour(r, g, b, a);
+                batch.normal(xn, yn, zn);
+                batch.vertex(x1, y1, z1);
+                batch.vertex(x4, y4, z4);
+                batch.vertex(x3, y3, z3);
+                batch.vertex(x2, y2, z2);
+                batch.normal(-xn, -yn, -zn);
+                batch.vertex(x1, y1, z1);
+                batch.vertex(x2, y2, z2);
+                batch.vertex(x3, y3, z3);
+                batch.vertex(x4, y4, z4);
             } else {
-                GL11.glColor4f(r, g, b, a);
-                GL11.glNormal3f(-xn, -yn, -zn);
-                GL11.glVertex3f(x1, y1, z1);
-                GL11.glVertex3f(x4, y4, z4);
-                GL11.glVertex3f(x3, y3, z3);
-                GL11.glVertex3f(x2, y2, z2);
-                GL11.glNormal3f(xn, yn, zn);
-                GL11.glVertex3f(x1, y1, z1);
-                GL11.glVertex3f(x2, y2, z2);
-                GL11.glVertex3f(x3, y3, z3);
-                GL11.glVertex3f(x4, y4, z4);
+                batch.colour(r, g, b, a);
+                batch.normal(-xn, -yn, -zn);
+                batch.vertex(x1, y1, z1);
+                batch.vertex(x4, y4, z4);
+                batch.vertex(x3, y3, z3);
+                batch.vertex(x2, y2, z2);
+                batch.normal(xn, yn, zn);
+                batch.vertex(x1, y1, z1);
+                batch.vertex(x2, y2, z2);
+                batch.vertex(x3, y3, z3);
+                batch.vertex(x4, y4, z4);
             }
             break;
         }
-        GL11.glEnd();
+        batch.end();
     }
 
     private void drawBFC_Colour2(Composite3D c3d, float r, float g, float b, float a, int useCubeMap) {
@@ -965,6 +972,7 @@ public final class GData4 extends GData {
 
     @Override
     public void drawGL20_BFC_Textured(Composite3D c3d) {
+        OpenGLRenderer20.BATCH.flush();
         if (GData.globalDrawObjects) {
             GColour c = View.getLDConfigColour(View.getLDConfigIndex(r, g, b));
             GColourType ct = c.getType();
@@ -1257,6 +1265,7 @@ public final class GData4 extends GData {
 
     @Override
     public void drawGL20_CoplanarityHeatmap(Composite3D c3d) {
+        final VertexBatch batch = OpenGLRenderer20.BATCH;
         calculateAngle();
         float f = (float) Math.min(1.0, Math.max(0, angle - Threshold.coplanarity_angle_warning) / Threshold.coplanarity_angle_error);
 
@@ -1276,32 +1285,32 @@ public final class GData4 extends GData {
             return;
         if (a < 1f && c3d.isDrawingSolidMaterials() || !c3d.isDrawingSolidMaterials() && a == 1f)
             return;
-        GL11.glBegin(GL11.GL_QUADS);
-        GL11.glColor4f(r, g, b, a);
+        batch.begin(GL11.GL_QUADS);
+        batch.colour(r, g, b, a);
         if (GData.globalNegativeDeterminant) {
-            GL11.glNormal3f(xn, yn, zn);
-            GL11.glVertex3f(x1, y1, z1);
-            GL11.glVertex3f(x4, y4, z4);
-            GL11.glVertex3f(x3, y3, z3);
-            GL11.glVertex3f(x2, y2, z2);
-            GL11.glNormal3f(-xn, -yn, -zn);
-            GL11.glVertex3f(x1, y1, z1);
-            GL11.glVertex3f(x2, y2, z2);
-            GL11.glVertex3f(x3, y3, z3);
-            GL11.glVertex3f(x4, y4, z4);
+            batch.normal(xn, yn, zn);
+            batch.vertex(x1, y1, z1);
+            batch.vertex(x4, y4, z4);
+            batch.vertex(x3, y3, z3);
+            batch.vertex(x2, y2, z2);
+            batch.normal(-xn, -yn, -zn);
+            batch.vertex(x1, y1, z1);
+            batch.vertex(x2, y2, z2);
+            batch.vertex(x3, y3, z3);
+            batch.vertex(x4, y4, z4);
         } else {
-            GL11.glNormal3f(-xn, -yn, -zn);
-            GL11.glVertex3f(x1, y1, z1);
-            GL11.glVertex3f(x4, y4, z4);
-            GL11.glVertex3f(x3, y3, z3);
-            GL11.glVertex3f(x2, y2, z2);
-            GL11.glNormal3f(xn, yn, zn);
-            GL11.glVertex3f(x1, y1, z1);
-            GL11.glVertex3f(x2, y2, z2);
-            GL11.glVertex3f(x3, y3, z3);
-            GL11.glVertex3f(x4, y4, z4);
+            batch.normal(-xn, -yn, -zn);
+            batch.vertex(x1, y1, z1);
+            batch.vertex(x4, y4, z4);
+            batch.vertex(x3, y3, z3);
+            batch.vertex(x2, y2, z2);
+            batch.normal(xn, yn, zn);
+            batch.vertex(x1, y1, z1);
+            batch.vertex(x2, y2, z2);
+            batch.vertex(x3, y3, z3);
+            batch.vertex(x4, y4, z4);
         }
-        GL11.glEnd();
+        batch.end();
     }
 
     @Override
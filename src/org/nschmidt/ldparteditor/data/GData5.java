@@ -378,6 +378,7 @@ public final class GData5 extends GData {
 
     @Override
     public void drawGL20(Composite3D c3d) {
+        OpenGLRenderer20.BATCH.flush();
         if (!visible) {
             if (c3d.isLightOn() && (next == null || next.type() != 2 && next.type() != 5))
                 GL11.glEnable(GL11.GL_LIGHTING);
@@ -507,6 +508,7 @@ public final class GData5 extends GData {
 
     @Override
     public void drawGL20_RandomColours(Composite3D c3d) {
+        OpenGLRenderer20.BATCH.flush();
         if (!visible) {
             if (c3d.isLightOn() && (next == null || next.type() != 2 && next.type() != 5))
                 GL11.glEnable(GL11.GL_LIGHTING);
@@ -642,6 +644,7 @@ public final class GData5 extends GData {
 
     @Override
     public void drawGL20_WhileAddCondlines(Composite3D c3d) {
+        OpenGLRenderer20.BATCH.flush();
         if (!visible) {
             if (c3d.isLightOn() && (next == null || next.type() != 2 && next.type() != 5))
                 GL11.glEnable(GL11.GL_LIGHTING);
@@ -793,6 +796,7 @@ public final class GData5 extends GData {
 
     @Override
     public void drawGL20_BFC_Textured(Composite3D c3d) {
+        OpenGLRenderer20.BATCH.flush();
         // done :)
         if (GData.globalDrawObjects) {
             final OpenGLRenderer20 r = (OpenGLRenderer20) c3d.getRenderer();
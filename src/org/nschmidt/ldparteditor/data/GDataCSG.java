@@ -39,6 +39,7 @@ import org.lwjgl.opengl.GL11;
 import org.lwjgl.util.vector.Matrix4f;
 import org.lwjgl.util.vector.Vector4f;
 import org.nschmidt.csg.CSG;
+import org.nschmidt.csg.CSGCache;
 import org.nschmidt.csg.CSGCircle;
 import org.nschmidt.csg.CSGCone;
 import org.nschmidt.csg.CSGCube;
@@ -80,6 +81,8 @@ public final class GDataCSG extends GData {
     static volatile Lock static_lock = new ReentrantLock();
 
     private final static ThreadsafeHashMap<DatFile, HashMap<String, CSG>> linkedCSG = new ThreadsafeHashMap<DatFile, HashMap<String, CSG>>();
+    /** The keys of the linked solids in the {@link CSGCache} ({@code null} if the solid is not cached) */
+    private final static ThreadsafeHashMap<DatFile, HashMap<String, CSGCache.Key>> linkedCSGKeys = new ThreadsafeHashMap<DatFile, HashMap<String, CSGCache.Key>>();
     private final static ThreadsafeHashMap<DatFile, HashBiMap<Integer, GDataCSG>> idToGDataCSG = new ThreadsafeHashMap<DatFile, HashBiMap<Integer, GDataCSG>>();
     private final static ThreadsafeHashMap<DatFile, HashSet<GData3>> selectedTrianglesMap = new ThreadsafeHashMap<DatFile, HashSet<GData3>>();
     private final static ThreadsafeHashMap<DatFile, HashSet<GDataCSG>> selectedBodyMap = new ThreadsafeHashMap<DatFile, HashSet<GDataCSG>>();
@@ -123,6 +126,8 @@ public final class GDataCSG extends GData {
         quality = 16;
         registeredData.putIfAbsent(df, new HashSet<GDataCSG>()).clear();
         linkedCSG.putIfAbsent(df, new HashMap<String, CSG>()).clear();
+        linkedCSGKeys.putIfAbsent(df, new HashMap<String, CSGCache.Key>()).clear();
+        CSGCache.clear(df);
         parsedData.putIfAbsent(df, new HashSet<GDataCSG>()).clear();
         idToGDataCSG.putIfAbsent(df, new HashBiMap<Integer, GDataCSG>()).clear();
         selectedTrianglesMap.putIfAbsent(df, new HashSet<GData3>()).clear();
@@ -152,6 +157,7 @@ public final class GDataCSG extends GData {
             registeredData.get(df).clear();
             registeredData.get(df).add(null);
             linkedCSG.putIfAbsent(df, new HashMap<String, CSG>()).clear();
+            linkedCSGKeys.putIfAbsent(df, new HashMap<String, CSGCache.Key>()).clear();
             idToGDataCSG.putIfAbsent(df, new HashBiMap<Integer, GDataCSG>()).clear();
         }
         parsedData.get(df).clear();
@@ -386,6 +392,7 @@ public final class GDataCSG extends GData {
         if (deleteAndRecompile || modified || clearCaches) {
             final HashBiMap<Integer, GDataCSG> idToGDataCSG = GDataCSG.idToGDataCSG.putIfAbsent(df, new HashBiMap<Integer, GDataCSG>());
             final HashMap<String, CSG> linkedCSG = GDataCSG.linkedCSG.putIfAbsent(df, new HashMap<String, CSG>());
+            final HashMap<String, CSGCache.Key> linkedCSGKeys = GDataCSG.linkedCSGKeys.putIfAbsent(df, new HashMap<String, CSGCache.Key>());
             final HashSet<GDataCSG> registeredData = GDataCSG.registeredData.putIfAbsent(df, new HashSet<GDataCSG>());
             final Matrix4f m;
             if (modified) {
@@ -418,8 +425,7 @@ public final class GDataCSG extends GData {
                                 } else {
                                     csgQuad = csgQuad.transformed(matrix);
                                 }
-                                dataCSG = csgQuad;
-                                linkedCSG.put(ref1, csgQuad);
+                                dataCSG = linkPrimitive(df, linkedCSG, linkedCSGKeys, idToGDataCSG, csgQuad, modified && isSelected(df));
                                 break;
                             case CSG.CIRCLE:
                                 CSGCircle circle = new CSGCircle(quality);
@@ -430,8 +436,7 @@ public final class GDataCSG extends GData {
                                 } else {
                                     csgCircle = csgCircle.transformed(matrix);
                                 }
-                                dataCSG = csgCircle;
-                                linkedCSG.put(ref1, csgCircle);
+                                dataCSG = linkPrimitive(df, linkedCSG, linkedCSGKeys, idToGDataCSG, csgCircle, modified && isSelected(df));
                                 break;
                             case CSG.ELLIPSOID:
                                 CSGSphere sphere = new CSGSphere(quality, quality / 2);
@@ -442,8 +447,7 @@ public final class GDataCSG extends GData {
                                 } else {
                                     csgSphere = csgSphere.transformed(matrix);
                                 }
-                                dataCSG = csgSphere;
-                                linkedCSG.put(ref1, csgSphere);
+                                dataCSG = linkPrimitive(df, linkedCSG, linkedCSGKeys, idToGDataCSG, csgSphere, modified && isSelected(df));
                                 break;
                             case CSG.CUBOID:
                                 CSGCube cube = new CSGCube();
@@ -454,8 +458,7 @@ public final class GDataCSG extends GData {
                                 } else {
                                     csgCube = csgCube.transformed(matrix);
                                 }
-                                dataCSG = csgCube;
-                                linkedCSG.put(ref1, csgCube);
+                                dataCSG = linkPrimitive(df, linkedCSG, linkedCSGKeys, idToGDataCSG, csgCube, modified && isSelected(df));
                                 break;
                             case CSG.CYLINDER:
                                 CSGCylinder cylinder = new CSGCylinder(quality);
@@ -466,8 +469,7 @@ public final class GDataCSG extends GData {
                                 } else {
                                     csgCylinder = csgCylinder.transformed(matrix);
                                 }
-                                dataCSG = csgCylinder;
-                                linkedCSG.put(ref1, csgCylinder);
+                                dataCSG = linkPrimitive(df, linkedCSG, linkedCSGKeys, idToGDataCSG, csgCylinder, modified && isSelected(df));
                                 break;
                             case CSG.CONE:
                                 CSGCone cone = new CSGCone(quality);
@@ -478,8 +480,7 @@ public final class GDataCSG extends GData {
                                 } else {
                                     csgCone = csgCone.transformed(matrix);
                                 }
-                                dataCSG = csgCone;
-                                linkedCSG.put(ref1, csgCone);
+                                dataCSG = linkPrimitive(df, linkedCSG, linkedCSGKeys, idToGDataCSG, csgCone, modified && isSelected(df));
                                 break;
                             case CSG.MESH:
                                 if (clearCaches) {
@@ -494,8 +495,7 @@ public final class GDataCSG extends GData {
                                 } else {
                                     csgMesh = csgMesh.transformed(matrix);
                                 }
-                                dataCSG = csgMesh;
-                                linkedCSG.put(ref1, csgMesh);
+                                dataCSG = linkPrimitive(df, linkedCSG, linkedCSGKeys, idToGDataCSG, csgMesh, modified && isSelected(df));
                                 break;
                             case CSG.EXTRUDE:
                                 if (clearCaches) {
@@ -515,8 +515,7 @@ public final class GDataCSG extends GData {
                                 } else {
                                     csgExtruder = csgExtruder.transformed(matrix);
                                 }
-                                dataCSG = csgExtruder;
-                                linkedCSG.put(ref1, csgExtruder);
+                                dataCSG = linkPrimitive(df, linkedCSG, linkedCSGKeys, idToGDataCSG, csgExtruder, modified && isSelected(df));
                                 break;
                             default:
                                 break;
@@ -526,35 +525,46 @@ public final class GDataCSG extends GData {
                     case CSG.COMPILE:
                         if (linkedCSG.containsKey(ref1)) {
                             compiledCSG = linkedCSG.get(ref1);
-                            compiledCSG.compile();
+                            // A solid from the CSG cache is already compiled (and maybe optimized)
+                            if (!compiledCSG.isCompiled()) {
+                                compiledCSG.compile();
+                            }
                         } else {
                             compiledCSG = null;
                         }
                         break;
                     case CSG.DIFFERENCE:
                         if (linkedCSG.containsKey(ref1) && linkedCSG.containsKey(ref2)) {
-                            linkedCSG.put(ref3, linkedCSG.get(ref1).difference(linkedCSG.get(ref2)));
+                            linkOperation(df, linkedCSG, linkedCSGKeys);
                         }
                         break;
                     case CSG.INTERSECTION:
                         if (linkedCSG.containsKey(ref1) && linkedCSG.containsKey(ref2)) {
-                            linkedCSG.put(ref3, linkedCSG.get(ref1).intersect(linkedCSG.get(ref2)));
+                            linkOperation(df, linkedCSG, linkedCSGKeys);
                         }
                         break;
                     case CSG.UNION:
                         if (linkedCSG.containsKey(ref1) && linkedCSG.containsKey(ref2)) {
-                            linkedCSG.put(ref3, linkedCSG.get(ref1).union(linkedCSG.get(ref2)));
+                            linkOperation(df, linkedCSG, linkedCSGKeys);
                         }
                         break;
                     case CSG.TRANSFORM:
                         if (linkedCSG.containsKey(ref1) && matrix != null) {
                             idToGDataCSG.put(ID, this);
+                            CSGCache.Key key = null;
                             if (modified && isSelected(df)) {
                                 dataCSG = linkedCSG.get(ref1).transformed(matrix).transformed(m, colour, ID);
                             } else {
-                                dataCSG = linkedCSG.get(ref1).transformed(matrix, colour, ID);
+                                final CSGCache.Key key1 = linkedCSGKeys.get(ref1);
+                                key = key1 == null ? null : CSGCache.getTransformationKey(key1, matrix, colour, ID);
+                                dataCSG = CSGCache.get(key, df);
+                                if (dataCSG == null) {
+                                    dataCSG = linkedCSG.get(ref1).transformed(matrix, colour, ID);
+                                    CSGCache.put(key, df, dataCSG);
+                                }
                             }
                             linkedCSG.put(ref2, dataCSG);
+                            linkedCSGKeys.put(ref2, key);
                         }
                         break;
                     case CSG.QUALITY:
@@ -586,6 +596,69 @@ public final class GDataCSG extends GData {
         }
     }
 
+    /**
+     * Links a primitive solid to its name. An equal solid from the
+     * {@link CSGCache} replaces the new solid, so that the cached operations
+     * on this solid can be used again.
+     *
+     * @param isTransforming
+     *            {@code true} if the solid is transformed by the manipulator
+     *            (it is not cached then)
+     * @return the linked solid
+     */
+    private CSG linkPrimitive(DatFile df, HashMap<String, CSG> linkedCSG, HashMap<String, CSGCache.Key> linkedCSGKeys,
+            HashBiMap<Integer, GDataCSG> idToGDataCSG, CSG csg, boolean isTransforming) {
+        CSGCache.Key key = null;
+        if (!isTransforming) {
+            key = CSGCache.getPrimitiveKey(ref1, csg);
+            final CSG cachedCSG = CSGCache.get(key, df);
+            if (cachedCSG == null) {
+                CSGCache.put(key, df, csg);
+            } else {
+                // The polygons of the cached solid have the ID of an older primitive
+                for (Polygon p : cachedCSG.getPolygons()) {
+                    if (p.getColour() != null) {
+                        idToGDataCSG.put(p.getColour().getIndex(), this);
+                        break;
+                    }
+                }
+                csg = cachedCSG;
+            }
+        }
+        linkedCSG.put(ref1, csg);
+        linkedCSGKeys.put(ref1, key);
+        return csg;
+    }
+
+    /**
+     * Calculates (or takes from the {@link CSGCache}) the union, difference
+     * or intersection of the solids {@code ref1} and {@code ref2}
+     */
+    private void linkOperation(DatFile df, HashMap<String, CSG> linkedCSG, HashMap<String, CSGCache.Key> linkedCSGKeys) {
+        final CSGCache.Key key1 = linkedCSGKeys.get(ref1);
+        final CSGCache.Key key2 = linkedCSGKeys.get(ref2);
+        final CSGCache.Key key = key1 == null || key2 == null ? null : CSGCache.getOperationKey(type, key1, key2);
+        CSG result = CSGCache.get(key, df);
+        if (result == null) {
+            final CSG csg1 = linkedCSG.get(ref1);
+            final CSG csg2 = linkedCSG.get(ref2);
+            switch (type) {
+            case CSG.DIFFERENCE:
+                result = csg1.difference(csg2);
+                break;
+            case CSG.INTERSECTION:
+                result = csg1.intersect(csg2);
+                break;
+            default:
+                result = csg1.union(csg2);
+                break;
+            }
+            CSGCache.put(key, df, result);
+        }
+        linkedCSG.put(ref3, result);
+        linkedCSGKeys.put(ref3, key);
+    }
+
     private CSG transformWithManipulator(CSG csg, Matrix4f transformation4f, Matrix4f myMatrix) {
         return csg.transformed(myMatrix).transformed(transformation4f);
     }
@@ -110,6 +110,7 @@ public final class GDataPNG extends GData {
 
     @Override
     public void drawGL20(Composite3D c3d) {
+        OpenGLRenderer20.BATCH.flush();
 
         final boolean selected = this.equals(c3d.getLockableDatFileReference().getVertexManager().getSelectedBgPicture());
 
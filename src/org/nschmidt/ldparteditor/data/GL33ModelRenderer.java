@@ -25,9 +25,7 @@ import java.util.Stack;
 import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -46,10 +44,12 @@ import org.nschmidt.ldparteditor.helpers.StudLogo;
 import org.nschmidt.ldparteditor.helpers.math.MathHelper;
 import org.nschmidt.ldparteditor.helpers.math.ThreadsafeHashMap;
 import org.nschmidt.ldparteditor.logger.NLogger;
+import org.nschmidt.ldparteditor.opengl.GL33Helper;
 import org.nschmidt.ldparteditor.opengl.GLMatrixStack;
 import org.nschmidt.ldparteditor.opengl.GLShader;
 import org.nschmidt.ldparteditor.opengl.OpenGLRenderer;
 import org.nschmidt.ldparteditor.opengl.OpenGLRenderer33;
+import org.nschmidt.ldparteditor.opengl.VertexBufferPatch;
 import org.nschmidt.ldparteditor.shells.editor3d.Editor3DWindow;
 
 /**
@@ -114,12 +114,10 @@ public class GL33ModelRenderer {
     private int vboStudLogo2;
 
     private volatile Lock lock = new ReentrantLock();
-    private static volatile Lock static_lock = new ReentrantLock();
-    private static volatile AtomicInteger idGen = new AtomicInteger(0);
-    private static volatile AtomicInteger idCount = new AtomicInteger(0);
+    private volatile GL33RebuildScheduler.Task rebuildTask = null;
 
-    private static volatile CopyOnWriteArrayList<Integer> idList = new CopyOnWriteArrayList<>();
     private volatile AtomicBoolean calculateCSG = new AtomicBoolean(true);
+    private volatile AtomicBoolean recalculateCSG = new AtomicBoolean(false);
 
     private volatile AtomicBoolean calculateCondlineControlPoints = new AtomicBoolean(true);
     private volatile TreeSet<Vertex> pureCondlineControlPoints = new TreeSet<>();
@@ -144,6 +142,12 @@ public class GL33ModelRenderer {
     private volatile int condlineSize = 0;
     private volatile int selectionSize = 0;
 
+    // The changes of the vertex data which were not uploaded yet (initially the whole buffer)
+    private volatile VertexBufferPatch trianglePatch = VertexBufferPatch.full(new float[]{0f});
+    private volatile VertexBufferPatch linePatch = VertexBufferPatch.full(new float[]{0f});
+    private volatile VertexBufferPatch vertexPatch = VertexBufferPatch.full(new float[]{0f});
+    private volatile VertexBufferPatch condlinePatch = VertexBufferPatch.full(new float[]{0f});
+
     private volatile ArrayList<GDataPNG> images = new ArrayList<>();
     private volatile ArrayList<GData2> distanceMeters = new ArrayList<>();
     private volatile ArrayList<GData3> protractors = new ArrayList<>();
@@ -154,8 +158,6 @@ public class GL33ModelRenderer {
     private volatile ArrayList<Matrix4f> stud1_Matrices = new ArrayList<>();
     private volatile ArrayList<Matrix4f> stud2_Matrices = new ArrayList<>();
 
-    private volatile AtomicBoolean isRunning = new AtomicBoolean(true);
-
     public void init() {
         vao = GL30.glGenVertexArrays();
         vbo = GL15.glGenBuffers();
@@ -296,6 +298,8 @@ public class GL33ModelRenderer {
         GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
         GL30.glBindVertexArray(0);
 
+        rebuildTask = GL33RebuildScheduler.register(c3d, this::getRebuildState);
+
         new Thread(new Runnable() {
             @Override
             public void run() {
@@ -315,40 +319,26 @@ public class GL33ModelRenderer {
                 final HashMap<GData, float[]> normalMap = new HashMap<>();
                 final ThreadsafeHashMap<GData1, Matrix4f> CACHE_viewByProjection = new ThreadsafeHashMap<GData1, Matrix4f>(1000);
                 final HashMap<GData1, Matrix4f> matrixMap = new HashMap<>();
-                final Integer myID = idGen.getAndIncrement();
+                DatFile controlPointFile = null;
+                long controlPointVersion = -1L;
                 matrixMap.put(View.DUMMY_REFERENCE, View.ID);
-                idList.add(myID);
-                while (isRunning.get()) {
-
-                    boolean myTurn;
-                    try {
-                        myTurn = myID == idList.get(idCount.get());
-                    } catch (IndexOutOfBoundsException iob) {
-                        try {
-                            Thread.sleep(10);
-                        } catch (InterruptedException e) {}
-                        continue;
-                    }
-
-                    if (!myTurn) {
-                        try {
-                            Thread.sleep(10);
-                        } catch (InterruptedException e) {}
-                        continue;
-                    }
+                // Sleeps until the model or the view has changed
+                while (rebuildTask.awaitRebuild()) {
 
                     final int renderMode = c3d.getRenderMode();
 
-                    // Skip render mode 5
-                    if (renderMode != 5) try {
-                        static_lock.lock();
+                    try {
+                        // Skip render mode 5
+                        if (renderMode == 5) {
+                            continue; // rebuildTask.finishRebuild(); on finally
+                        }
                         // final long start = System.currentTimeMillis();
 
                         // First we have to get links to the sets from the model
                         final DatFile df = c3d.getLockableDatFileReference();
                         // Just to speed up things in some cases...
                         if (df == null || !df.isDrawSelection()) {
-                            continue; // static_lock.unlock(); on finally
+                            continue; // rebuildTask.finishRebuild(); on finally
                         }
                         final VertexManager vm = df.getVertexManager();
                         final Lock maniLock = vm.getManifestationLock();
@@ -359,7 +349,11 @@ public class GL33ModelRenderer {
                         vertices.addAll(vm.vertexLinkedToPositionInFile.keySet());
                         maniLock.unlock();
 
-                        if (calculateCondlineControlPoints.compareAndSet(true, false)) {
+                        // The control points depend only on the model data
+                        final long modelVersion = vm.getModificationCount();
+                        if ((df != controlPointFile || modelVersion != controlPointVersion) && calculateCondlineControlPoints.compareAndSet(true, false)) {
+                            controlPointFile = df;
+                            controlPointVersion = modelVersion;
                             CompletableFuture.runAsync( () -> {
                                 final TreeSet<Vertex> tmpPureCondlineControlPoints = new TreeSet<>();
                                 for (Vertex v : vertices) {
@@ -381,6 +375,7 @@ public class GL33ModelRenderer {
                                 }
                                 pureCondlineControlPoints = tmpPureCondlineControlPoints;
                                 calculateCondlineControlPoints.set(true);
+                                rebuildTask.invalidate();
                             });
                         }
 
@@ -654,8 +649,14 @@ public class GL33ModelRenderer {
                                 } finally {
                                     GDataCSG.static_lock.unlock();
                                     calculateCSG.set(true);
+                                    if (recalculateCSG.getAndSet(false)) {
+                                        rebuildTask.invalidate();
+                                    }
                                 }
                             });
+                        } else {
+                            // The CSG data is still calculated. Calculate it again afterwards.
+                            recalculateCSG.set(true);
                         }
 
                         final boolean smoothVertices = OpenGLRenderer.getSmoothing().get();
@@ -784,9 +785,13 @@ public class GL33ModelRenderer {
                                         Vertex[] verts = vertexMap.get(gd);
                                         Vertex[] nverts = new Vertex[verts.length];
                                         for (int i = 0; i < verts.length; i++) {
-                                            Vector4f v = transformedVerts.getOrDefault(verts[i], verts[i].toVector4fm());
-                                            needNormal = needNormal || verts[i].toVector4fm() != v;
-                                            nverts[i] = new Vertex(v.x, v.y, v.z, true);
+                                            final Vector4f v = transformedVerts.get(verts[i]);
+                                            if (v == null) {
+                                                nverts[i] = new Vertex(verts[i].x, verts[i].y, verts[i].z, true);
+                                            } else {
+                                                needNormal = true;
+                                                nverts[i] = new Vertex(v.x, v.y, v.z, true);
+                                            }
                                         }
                                         vertexMap.put(gd, nverts);
                                         if (needNormal) {
@@ -2153,20 +2158,32 @@ public class GL33ModelRenderer {
                             vertexMap2.putAll(vertexMap);
                             sharedVertexMap = vertexMap2;
                         }
+                        // A buffer is only uploaded again if its vertex data has changed
+                        final VertexBufferPatch newTrianglePatch = VertexBufferPatch.create(dataTriangles, triangleData);
+                        final VertexBufferPatch newLinePatch = VertexBufferPatch.create(dataLines, lineData);
+                        final VertexBufferPatch newVertexPatch = VertexBufferPatch.create(dataVertices, vertexData);
+                        final VertexBufferPatch newCondlinePatch = VertexBufferPatch.create(dataCondlines, condlineData);
+                        if (newTrianglePatch.hasChanges() || newLinePatch.hasChanges() || newVertexPatch.hasChanges() || newCondlinePatch.hasChanges()) {
+                            rebuildTask.requestFrame();
+                        }
                         lock.lock();
                         images = pngImages;
                         distanceMeters = tmpDistanceMeters;
                         protractors = tmpProtractors;
                         dataTriangles = triangleData;
+                        trianglePatch = mergePatches(trianglePatch, newTrianglePatch);
                         solidTriangleSize = triangleVertexCount;
                         transparentTriangleSize = transparentTriangleVertexCount;
                         transparentTriangleOffset = triangleVertexCount;
                         vertexSize = local_verticesSize;
                         dataVertices = vertexData;
+                        vertexPatch = mergePatches(vertexPatch, newVertexPatch);
                         lineSize = lineVertexCount;
                         dataLines = lineData;
+                        linePatch = mergePatches(linePatch, newLinePatch);
                         condlineSize = condlineVertexCount;
                         dataCondlines = condlineData;
+                        condlinePatch = mergePatches(condlinePatch, newCondlinePatch);
                         tempLineSize = tempLineVertexCount;
                         dataTempLines = tempLineData;
                         selectionSize = selectionLineVertexCount;
@@ -2183,21 +2200,15 @@ public class GL33ModelRenderer {
                             System.out.println("Exception: " + ex.getMessage()); //$NON-NLS-1$
                         }
                     } finally {
-                        static_lock.unlock();
-                    }
-                    if (idCount.incrementAndGet() >= idList.size()) {
-                        idCount.set(0);
+                        rebuildTask.finishRebuild();
                     }
                 }
-                idCount.set(0);
-                idList.remove(myID);
-                idCount.set(0);
             }
         }).start();
     }
 
     public void dispose() {
-        isRunning.set(false);
+        GL33RebuildScheduler.unregister(rebuildTask);
         GL30.glDeleteVertexArrays(vao);
         GL15.glDeleteBuffers(vbo);
         GL30.glDeleteVertexArrays(vaoVertices);
@@ -2218,6 +2229,54 @@ public class GL33ModelRenderer {
         GL15.glDeleteBuffers(vboStudLogo2);
     }
 
+    /**
+     * @return the state of the model and the view. The vertex data has to be
+     *         rebuilt when this state changes.
+     */
+    private long[] getRebuildState() {
+        final int renderMode = c3d.getRenderMode();
+        final DatFile df = c3d.getLockableDatFileReference();
+        if (df == null || renderMode == 5) {
+            return new long[]{renderMode};
+        }
+        final VertexManager vm = df.getVertexManager();
+        long flags = 0L;
+        if (df.isDrawSelection()) flags |= 1L;
+        if (c3d.isMeshLines()) flags |= 2L;
+        if (c3d.isSubMeshLines()) flags |= 4L;
+        if (c3d.isShowingLogo()) flags |= 8L;
+        if (c3d.isSmoothShading()) flags |= 16L;
+        if (c3d.isShowingCondlineControlPoints()) flags |= 32L;
+        if (OpenGLRenderer.getSmoothing().get()) flags |= 64L;
+        if (Editor3DWindow.getWindow().isMovingAdjacentData()) flags |= 128L;
+        final long[] state = new long[]{
+                renderMode,
+                c3d.getLineMode(),
+                flags,
+                System.identityHashCode(df),
+                vm.getModificationCount(),
+                df.getDrawPerLine_NOCLONE().getModificationCount(),
+                GDataCSG.getSelectionData(df).size(),
+                // The vertex data is rebuilt continuously while the manipulator transforms the selection
+                c3d.getManipulator().isModified() ? System.nanoTime() : 0L};
+        if (renderMode == 6) {
+            // The condline mode depends on the viewport
+            return GL33RebuildScheduler.appendViewState(state, c3d);
+        }
+        return state;
+    }
+
+    private static VertexBufferPatch mergePatches(VertexBufferPatch pending, VertexBufferPatch patch) {
+        return pending == null ? patch : pending.merge(patch);
+    }
+
+    private static void uploadPatch(VertexBufferPatch patch) {
+        // There is no patch if nothing has changed since the last upload
+        if (patch != null) {
+            GL33Helper.uploadPatch(GL15.GL_ARRAY_BUFFER, patch);
+        }
+    }
+
     private int ts, ss, to, vs, ls, tls, sls, cls, ssCSG, toCSG, tsCSG, sCSG;
     public void draw(GLMatrixStack stack, GLShader mainShader, GLShader condlineShader, GLShader glyphShader, boolean drawSolidMaterials, DatFile df) {
 
@@ -2278,8 +2337,8 @@ public class GL33ModelRenderer {
             GL30.glBindVertexArray(vao);
             GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, vbo);
             lock.lock();
-            // I can't use glBufferSubData() it creates a memory leak!!!
-            GL15.glBufferData(GL15.GL_ARRAY_BUFFER, dataTriangles, GL15.GL_STATIC_DRAW);
+            uploadPatch(trianglePatch);
+            trianglePatch = null;
             ss = solidTriangleSize;
             to = transparentTriangleOffset;
             ts = transparentTriangleSize;
@@ -2311,7 +2370,8 @@ public class GL33ModelRenderer {
                 GL30.glBindVertexArray(vaoLines);
                 GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, vboLines);
                 lock.lock();
-                GL15.glBufferData(GL15.GL_ARRAY_BUFFER, dataLines, GL15.GL_STATIC_DRAW);
+                uploadPatch(linePatch);
+                linePatch = null;
                 ls = lineSize;
                 lock.unlock();
 
@@ -2396,8 +2456,8 @@ public class GL33ModelRenderer {
                 GL30.glBindVertexArray(vaoVertices);
                 GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, vboVertices);
                 lock.lock();
-                // I can't use glBufferSubData() it creates a memory leak!!!
-                GL15.glBufferData(GL15.GL_ARRAY_BUFFER, dataVertices, GL15.GL_STATIC_DRAW);
+                uploadPatch(vertexPatch);
+                vertexPatch = null;
                 vs = vertexSize;
                 lock.unlock();
 
@@ -2438,7 +2498,8 @@ public class GL33ModelRenderer {
                 GL30.glBindVertexArray(vaoCondlines);
                 GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, vboCondlines);
                 lock.lock();
-                GL15.glBufferData(GL15.GL_ARRAY_BUFFER, dataCondlines, GL15.GL_STATIC_DRAW);
+                uploadPatch(condlinePatch);
+                condlinePatch = null;
                 cls = condlineSize;
                 lock.unlock();
 
@@ -23,9 +23,6 @@ import java.util.Iterator;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.Stack;
-import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -41,9 +38,11 @@ import org.nschmidt.ldparteditor.enums.View;
 import org.nschmidt.ldparteditor.helpers.StudLogo;
 import org.nschmidt.ldparteditor.helpers.math.ThreadsafeHashMap;
 import org.nschmidt.ldparteditor.logger.NLogger;
+import org.nschmidt.ldparteditor.opengl.GL33Helper;
 import org.nschmidt.ldparteditor.opengl.GLMatrixStack;
 import org.nschmidt.ldparteditor.opengl.GLShader;
 import org.nschmidt.ldparteditor.opengl.OpenGLRenderer33;
+import org.nschmidt.ldparteditor.opengl.VertexBufferPatch;
 
 /**
  * New OpenGL 3.3 high performance render function for the LDraw standard render mode
@@ -92,11 +91,7 @@ public class GL33ModelRendererLDrawStandard {
     private int vboStudLogo2;
 
     private volatile Lock lock = new ReentrantLock();
-    private static volatile Lock static_lock = new ReentrantLock();
-    private static volatile AtomicInteger idGen = new AtomicInteger(0);
-    private static volatile AtomicInteger idCount = new AtomicInteger(0);
-
-    private static volatile CopyOnWriteArrayList<Integer> idList = new CopyOnWriteArrayList<>();
+    private volatile GL33RebuildScheduler.Task rebuildTask = null;
 
     private volatile float[] dataTriangles = null;
     private volatile float[] dataLines = new float[]{0f};
@@ -107,6 +102,11 @@ public class GL33ModelRendererLDrawStandard {
     private volatile int lineSize = 0;
     private volatile int condlineSize = 0;
 
+    // The changes of the vertex data which were not uploaded yet (initially the whole buffer)
+    private volatile VertexBufferPatch trianglePatch = VertexBufferPatch.full(new float[]{0f});
+    private volatile VertexBufferPatch linePatch = VertexBufferPatch.full(new float[]{0f});
+    private volatile VertexBufferPatch condlinePatch = VertexBufferPatch.full(new float[]{0f});
+
     private volatile ArrayList<GDataAndTexture> texmapData = new ArrayList<>();
     private volatile HashMap<GData, Vertex[]> sharedVertexMap = new HashMap<>();
     private volatile HashMap<GData, Vector3f[]> shared_TEXMAP_NormalMap = new HashMap<>();
@@ -116,8 +116,6 @@ public class GL33ModelRendererLDrawStandard {
     private volatile ArrayList<Matrix4f> stud1_Matrices = new ArrayList<>();
     private volatile ArrayList<Matrix4f> stud2_Matrices = new ArrayList<>();
 
-    private volatile AtomicBoolean isRunning = new AtomicBoolean(true);
-
     public void init() {
         vao = GL30.glGenVertexArrays();
         vbo = GL15.glGenBuffers();
@@ -199,6 +197,8 @@ public class GL33ModelRendererLDrawStandard {
         GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
         GL30.glBindVertexArray(0);
 
+        rebuildTask = GL33RebuildScheduler.register(c3d, this::getRebuildState);
+
         new Thread(new Runnable() {
             @Override
             public void run() {
@@ -216,40 +216,24 @@ public class GL33ModelRendererLDrawStandard {
                 final HashMap<GData, float[]> normalMap = new HashMap<>();
                 final ThreadsafeHashMap<GData1, Matrix4f> CACHE_viewByProjection = new ThreadsafeHashMap<GData1, Matrix4f>(1000);
                 final HashMap<GData1, Matrix4f> matrixMap = new HashMap<>();
-                final Integer myID = idGen.getAndIncrement();
                 matrixMap.put(View.DUMMY_REFERENCE, View.ID);
-                idList.add(myID);
-                while (isRunning.get()) {
-
-                    boolean myTurn;
-                    try {
-                        myTurn = myID == idList.get(idCount.get());
-                    } catch (IndexOutOfBoundsException iob) {
-                        try {
-                            Thread.sleep(10);
-                        } catch (InterruptedException e) {}
-                        continue;
-                    }
-
-                    if (!myTurn) {
-                        try {
-                            Thread.sleep(10);
-                        } catch (InterruptedException e) {}
-                        continue;
-                    }
+                // Sleeps until the model or the view has changed
+                while (rebuildTask.awaitRebuild()) {
 
                     final int renderMode = c3d.getRenderMode();
 
-                    // Only process render mode 5
-                    if (renderMode == 5) try {
-                        static_lock.lock();
+                    try {
+                        // Only process render mode 5
+                        if (renderMode != 5) {
+                            continue; // rebuildTask.finishRebuild(); on finally
+                        }
                         // final long start = System.currentTimeMillis();
 
                         // First we have to get links to the sets from the model
                         final DatFile df = c3d.getLockableDatFileReference();
                         // Just to speed up things in some cases...
                         if (df == null || !df.isDrawSelection()) {
-                            continue; // static_lock.unlock(); on finally
+                            continue; // rebuildTask.finishRebuild(); on finally
                         }
                         final VertexManager vm = df.getVertexManager();
 
@@ -1095,15 +1079,25 @@ public class GL33ModelRendererLDrawStandard {
                             vertexMap2.putAll(vertexMap);
                             sharedVertexMap = vertexMap2;
                         }
+                        // A buffer is only uploaded again if its vertex data has changed
+                        final VertexBufferPatch newTrianglePatch = VertexBufferPatch.create(dataTriangles, triangleData);
+                        final VertexBufferPatch newLinePatch = VertexBufferPatch.create(dataLines, lineData);
+                        final VertexBufferPatch newCondlinePatch = VertexBufferPatch.create(dataCondlines, condlineData);
+                        if (newTrianglePatch.hasChanges() || newLinePatch.hasChanges() || newCondlinePatch.hasChanges()) {
+                            rebuildTask.requestFrame();
+                        }
                         lock.lock();
                         dataTriangles = triangleData;
+                        trianglePatch = mergePatches(trianglePatch, newTrianglePatch);
                         solidTriangleSize = triangleVertexCount;
                         transparentTriangleSize = transparentTriangleVertexCount;
                         transparentTriangleOffset = triangleVertexCount;
                         lineSize = lineVertexCount;
                         dataLines = lineData;
+                        linePatch = mergePatches(linePatch, newLinePatch);
                         condlineSize = condlineVertexCount;
                         dataCondlines = condlineData;
+                        condlinePatch = mergePatches(condlinePatch, newCondlinePatch);
                         lock.unlock();
 
                         /* if (NLogger.DEBUG) {
@@ -1114,21 +1108,15 @@ public class GL33ModelRendererLDrawStandard {
                             System.out.println("Exception: " + ex.getMessage()); //$NON-NLS-1$
                         }
                     } finally {
-                        static_lock.unlock();
-                    }
-                    if (idCount.incrementAndGet() >= idList.size()) {
-                        idCount.set(0);
+                        rebuildTask.finishRebuild();
                     }
                 }
-                idCount.set(0);
-                idList.remove(myID);
-                idCount.set(0);
             }
         }).start();
     }
 
     public void dispose() {
-        isRunning.set(false);
+        GL33RebuildScheduler.unregister(rebuildTask);
         GL30.glDeleteVertexArrays(vao);
         GL15.glDeleteBuffers(vbo);
         GL30.glDeleteVertexArrays(vaoLines);
@@ -1141,6 +1129,43 @@ public class GL33ModelRendererLDrawStandard {
         GL15.glDeleteBuffers(vboStudLogo2);
     }
 
+    /**
+     * @return the state of the model and the view. The vertex data has to be
+     *         rebuilt when this state changes.
+     */
+    private long[] getRebuildState() {
+        final int renderMode = c3d.getRenderMode();
+        final DatFile df = c3d.getLockableDatFileReference();
+        if (df == null || renderMode != 5) {
+            return new long[]{renderMode};
+        }
+        final VertexManager vm = df.getVertexManager();
+        long flags = 0L;
+        if (df.isDrawSelection()) flags |= 1L;
+        if (c3d.isShowingLogo()) flags |= 2L;
+        if (c3d.isSmoothShading()) flags |= 4L;
+        final long[] state = new long[]{
+                renderMode,
+                c3d.getLineMode(),
+                flags,
+                System.identityHashCode(df),
+                vm.getModificationCount(),
+                df.getDrawPerLine_NOCLONE().getModificationCount()};
+        // The condlines are calculated with the viewport
+        return GL33RebuildScheduler.appendViewState(state, c3d);
+    }
+
+    private static VertexBufferPatch mergePatches(VertexBufferPatch pending, VertexBufferPatch patch) {
+        return pending == null ? patch : pending.merge(patch);
+    }
+
+    private static void uploadPatch(VertexBufferPatch patch) {
+        // There is no patch if nothing has changed since the last upload
+        if (patch != null) {
+            GL33Helper.uploadPatch(GL15.GL_ARRAY_BUFFER, patch);
+        }
+    }
+
     private int ts, ss, to, ls, cls;
     public void draw(GLMatrixStack stack, GLShader mainShader, GLShader condlineShader, GLShader glyphShader, boolean drawSolidMaterials, DatFile df) {
 
@@ -1182,8 +1207,8 @@ public class GL33ModelRendererLDrawStandard {
             GL30.glBindVertexArray(vao);
             GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, vbo);
             lock.lock();
-            // I can't use glBufferSubData() it creates a memory leak!!!
-            GL15.glBufferData(GL15.GL_ARRAY_BUFFER, dataTriangles, GL15.GL_STATIC_DRAW);
+            uploadPatch(trianglePatch);
+            trianglePatch = null;
             ss = solidTriangleSize;
             to = transparentTriangleOffset;
             ts = transparentTriangleSize;
@@ -1213,7 +1238,8 @@ public class GL33ModelRendererLDrawStandard {
                 GL30.glBindVertexArray(vaoLines);
                 GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, vboLines);
                 lock.lock();
-                GL15.glBufferData(GL15.GL_ARRAY_BUFFER, dataLines, GL15.GL_STATIC_DRAW);
+                uploadPatch(linePatch);
+                linePatch = null;
                 ls = lineSize;
                 lock.unlock();
 
@@ -1282,7 +1308,8 @@ public class GL33ModelRendererLDrawStandard {
                 GL30.glBindVertexArray(vaoCondlines);
                 GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, vboCondlines);
                 lock.lock();
-                GL15.glBufferData(GL15.GL_ARRAY_BUFFER, dataCondlines, GL15.GL_STATIC_DRAW);
+                uploadPatch(condlinePatch);
+                condlinePatch = null;
                 cls = condlineSize;
                 lock.unlock();
 
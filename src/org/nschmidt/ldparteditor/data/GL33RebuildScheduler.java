@@ -0,0 +1,312 @@
+/* MIT - License
+
+Copyright (c) 2012 - this year, Nils Schmidt
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE
+FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE. */
+package org.nschmidt.ldparteditor.data;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import org.lwjgl.util.vector.Matrix4f;
+import org.nschmidt.ldparteditor.composites.Composite3D;
+import org.nschmidt.ldparteditor.helpers.Metrics;
+import org.nschmidt.ldparteditor.helpers.composite3d.ViewIdleManager;
+import org.nschmidt.ldparteditor.logger.NLogger;
+
+/**
+ * Decides when the OpenGL 3.3 model renderers have to rebuild their vertex
+ * data. Every renderer registers a task which describes the model and view
+ * state of its 3D view as an array of numbers. One scheduler thread compares
+ * this state with the state of the last rebuild and wakes up only the renderer
+ * threads of the views which have changed. The scheduler thread sleeps until a
+ * check is requested (by the vertex manager, a frame request of a view or an
+ * invalidated task). Views which show different files
+ * are rebuilt in parallel (with a limited number of concurrent rebuilds).
+ * Views which show the same file are rebuilt one after another. A new frame of
+ * the view is requested after every rebuild which has changed something.
+ *
+ * @author nils
+ *
+ */
+public enum GL33RebuildScheduler {
+    INSTANCE;
+
+    private static final int MAX_PARALLEL_REBUILDS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+
+    private static final CopyOnWriteArrayList<Task> tasks = new CopyOnWriteArrayList<>();
+    private static final Semaphore rebuildPermits = new Semaphore(MAX_PARALLEL_REBUILDS);
+    /** Views which show the same file must not be rebuilt at the same time */
+    private static final Map<DatFile, Lock> fileLocks = Collections.synchronizedMap(new WeakHashMap<DatFile, Lock>());
+    /** Wakes up the scheduler thread */
+    private static final Semaphore checkSignal = new Semaphore(0);
+    /** Requests which arrive before the next check are merged into one check */
+    private static final AtomicBoolean checkRequested = new AtomicBoolean(false);
+
+    /** The time between the detection of a change and the end of the rebuild */
+    private static final Metrics.Timer latencyTimer = Metrics.timer("gl33.rebuild.latency"); //$NON-NLS-1$
+    /** The time of the rebuild itself */
+    private static final Metrics.Timer rebuildTimer = Metrics.timer("gl33.rebuild"); //$NON-NLS-1$
+    private static final Metrics.Counter skippedCounter = Metrics.counter("gl33.rebuild.skipped"); //$NON-NLS-1$
+
+    private static Thread scheduler = null;
+
+    /**
+     * Registers a new 3D view. The first rebuild is scheduled immediately.
+     *
+     * @param c3d
+     *            the 3D view
+     * @param state
+     *            returns the current state of the model and the view. It is
+     *            called from the scheduler thread and must be fast.
+     * @return the task for the view
+     */
+    static synchronized Task register(Composite3D c3d, Supplier<long[]> state) {
+        if (scheduler == null) {
+            scheduler = new Thread(() -> {
+                while (true) {
+                    checkSignal.acquireUninterruptibly();
+                    checkRequested.set(false);
+                    checkTasks();
+                }
+            }, "GL33RebuildScheduler"); //$NON-NLS-1$
+            scheduler.setDaemon(true);
+            scheduler.start();
+        }
+        final Task task = new Task(c3d, state);
+        tasks.add(task);
+        requestCheck();
+        return task;
+    }
+
+    /**
+     * Wakes up the scheduler, which compares the state of all views with the
+     * state of their last rebuild. It has to be called after every change of
+     * the model or the view and can be called from any thread.
+     */
+    public static void requestCheck() {
+        if (checkRequested.compareAndSet(false, true)) {
+            checkSignal.release();
+        }
+    }
+
+    /**
+     * Forces a rebuild of all views, e.g. when a colour was changed. The
+     * colours are not part of the state of the views.
+     */
+    public static void invalidateAll() {
+        for (Task task : tasks) {
+            task.invalid.set(true);
+        }
+        requestCheck();
+    }
+
+    /**
+     * Unregisters a 3D view. The renderer thread of the view returns from
+     * {@link Task#awaitRebuild()} with {@code false}.
+     *
+     * @param task
+     *            the task of the view
+     */
+    static void unregister(Task task) {
+        if (task != null) {
+            tasks.remove(task);
+            task.registered.set(false);
+            task.due.release();
+        }
+    }
+
+    /**
+     * @return the number of rebuilds since the start of the application
+     */
+    public static long getRebuildCount() {
+        return latencyTimer.getCount();
+    }
+
+    /**
+     * @return the number of state checks which did not lead to a rebuild
+     */
+    public static long getSkippedCount() {
+        return skippedCounter.get();
+    }
+
+    /**
+     * @return the average time between the detection of a change and the end
+     *         of the rebuild in milliseconds
+     */
+    public static double getAverageLatency() {
+        final long count = latencyTimer.getCount();
+        return count == 0L ? 0.0 : latencyTimer.getSum() / (count * 1000000.0);
+    }
+
+    /**
+     * @return the maximum time between the detection of a change and the end
+     *         of the rebuild in milliseconds
+     */
+    public static double getMaxLatency() {
+        return latencyTimer.getMax() / 1000000.0;
+    }
+
+    /**
+     * Appends the viewport and the zoom of a 3D view to the state of a view.
+     * This is only necessary if the vertex data depends on the viewport.
+     *
+     * @param state
+     *            the state of the model and the view
+     * @param c3d
+     *            the 3D view
+     * @return the extended state
+     */
+    static long[] appendViewState(long[] state, Composite3D c3d) {
+        final Matrix4f v = c3d.getViewport();
+        final float[] values = new float[] {
+                v.m00, v.m01, v.m02, v.m03,
+                v.m10, v.m11, v.m12, v.m13,
+                v.m20, v.m21, v.m22, v.m23,
+                v.m30, v.m31, v.m32, v.m33,
+                c3d.getZoom() };
+        final long[] result = Arrays.copyOf(state, state.length + values.length);
+        for (int i = 0; i < values.length; i++) {
+            result[state.length + i] = Float.floatToIntBits(values[i]);
+        }
+        return result;
+    }
+
+    private static void checkTasks() {
+        final long now = System.nanoTime();
+        for (Task task : tasks) {
+            if (task.queued.get()) {
+                continue;
+            }
+            final long[] state;
+            try {
+                state = task.state.get();
+            } catch (RuntimeException re) {
+                NLogger.debug(GL33RebuildScheduler.class, re);
+                continue;
+            }
+            if (task.invalid.get() || !Arrays.equals(state, task.builtState)) {
+                task.queued.set(true);
+                task.requestTime = now;
+                task.due.release();
+            } else {
+                skippedCounter.increment();
+            }
+        }
+    }
+
+    private static Lock getFileLock(DatFile df) {
+        synchronized (fileLocks) {
+            Lock fileLock = fileLocks.get(df);
+            if (fileLock == null) {
+                fileLock = new ReentrantLock();
+                fileLocks.put(df, fileLock);
+            }
+            return fileLock;
+        }
+    }
+
+    /**
+     * The rebuild task of a single 3D view. The renderer thread of the view
+     * calls {@link #awaitRebuild()} and {@link #finishRebuild()} around every
+     * rebuild.
+     */
+    static final class Task {
+
+        private final Composite3D c3d;
+        private final Supplier<long[]> state;
+
+        private final Semaphore due = new Semaphore(0);
+        private final AtomicBoolean registered = new AtomicBoolean(true);
+        private final AtomicBoolean queued = new AtomicBoolean(false);
+        private final AtomicBoolean invalid = new AtomicBoolean(true);
+
+        private volatile long[] builtState = null;
+        private volatile long requestTime = 0L;
+        private long rebuildStart = 0L;
+        private volatile boolean frameRequired = true;
+        private Lock fileLock = null;
+
+        private Task(Composite3D c3d, Supplier<long[]> state) {
+            this.c3d = c3d;
+            this.state = state;
+        }
+
+        /**
+         * Waits until the view has to be rebuilt. The caller must call
+         * {@link #finishRebuild()} after the rebuild.
+         *
+         * @return {@code false} if the view was unregistered
+         */
+        boolean awaitRebuild() {
+            due.acquireUninterruptibly();
+            if (!registered.get()) {
+                return false;
+            }
+            rebuildPermits.acquireUninterruptibly();
+            // Changes which happen during the rebuild will trigger the next one
+            final boolean wasInvalid = invalid.getAndSet(false);
+            final long[] lastState = builtState;
+            try {
+                builtState = state.get();
+            } catch (RuntimeException re) {
+                builtState = null;
+            }
+            // A rebuild only needs a new frame if the vertex data has changed
+            frameRequired = wasInvalid || lastState == null || !Arrays.equals(lastState, builtState);
+            fileLock = getFileLock(c3d.getLockableDatFileReference());
+            fileLock.lock();
+            rebuildStart = rebuildTimer.start();
+            return true;
+        }
+
+        void finishRebuild() {
+            rebuildTimer.stop(rebuildStart);
+            fileLock.unlock();
+            fileLock = null;
+            rebuildPermits.release();
+            latencyTimer.record(System.nanoTime() - requestTime);
+            queued.set(false);
+            // Changes which happened during the rebuild were not checked
+            requestCheck();
+            if (frameRequired) {
+                ViewIdleManager.requestFrame(c3d);
+            }
+        }
+
+        /**
+         * Requests a new frame of the view after the rebuild (e.g. when the
+         * rebuild has changed the vertex data)
+         */
+        void requestFrame() {
+            frameRequired = true;
+        }
+
+        /**
+         * Forces a rebuild, even if the state of the view did not change (e.g.
+         * when an asynchronous calculation for the view has finished).
+         */
+        void invalidate() {
+            invalid.set(true);
+            requestCheck();
+        }
+    }
+}
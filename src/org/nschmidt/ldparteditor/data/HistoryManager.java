@@ -19,6 +19,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map.Entry;
 import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentLinkedQueue;
@@ -26,12 +27,12 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
-import java.util.regex.Pattern;
 
 import org.eclipse.swt.custom.CTabItem;
 import org.eclipse.swt.graphics.Point;
 import org.eclipse.swt.widgets.Shell;
 import org.nschmidt.ldparteditor.composites.compositetab.CompositeTab;
+import org.nschmidt.ldparteditor.helpers.Metrics;
 import org.nschmidt.ldparteditor.helpers.composite3d.GuiStatusManager;
 import org.nschmidt.ldparteditor.helpers.math.ThreadsafeHashMap;
 import org.nschmidt.ldparteditor.logger.NLogger;
@@ -43,7 +44,11 @@ import org.nschmidt.ldparteditor.workbench.WorkbenchManager;
 
 public class HistoryManager {
 
-    private static final Pattern pattern = Pattern.compile("\r?\n|\r"); //$NON-NLS-1$
+    /** The time to add an entry to the undo/redo history */
+    private static final Metrics.Timer pushTimer = Metrics.timer("history.push"); //$NON-NLS-1$
+    /** The memory usage of the undo/redo entries in bytes */
+    private static final Metrics.Histogram entrySizeHistogram = Metrics.histogram("history.entry.size"); //$NON-NLS-1$
+    private static final Metrics.Counter restoreCounter = Metrics.counter("history.restore"); //$NON-NLS-1$
 
     private DatFile df;
 
@@ -69,7 +74,7 @@ public class HistoryManager {
                 @Override
                 public void run() {
 
-                    final int MAX_ITEM_COUNT = 100; // default is 100
+                    final int MAX_ITEM_COUNT = 1000; // the memory budget is the actual limit
 
                     int pointer = 0;
                     int pointerMax = 0;
@@ -77,19 +82,19 @@ public class HistoryManager {
                     final ArrayList<Integer> historySelectionStart = new ArrayList<Integer>();
                     final ArrayList<Integer> historySelectionEnd = new ArrayList<Integer>();
                     final ArrayList<Integer> historyTopIndex = new ArrayList<Integer>();
-                    final ArrayList<String> historyFullText = new ArrayList<String>();
-                    final ArrayList<String[]> historyText = new ArrayList<String[]>();
+                    final HistoryText historyText = new HistoryText();
                     final ArrayList<HashMap<String, ArrayList<Boolean>>> historySelectedData = new ArrayList<HashMap<String, ArrayList<Boolean>>>();
                     final ArrayList<HashMap<String, ArrayList<Boolean>>> historyHiddenData = new ArrayList<HashMap<String, ArrayList<Boolean>>>();
                     final ArrayList<Vertex[]> historySelectedVertices = new ArrayList<Vertex[]>();
                     final ArrayList<Vertex[]> historyHiddenVertices = new ArrayList<Vertex[]>();
+                    final ArrayList<Long> historyMemoryUsage = new ArrayList<Long>();
 
                     while (isRunning.get() && Editor3DWindow.getAlive().get()) {
                         try {
                             Object[] newEntry = workQueue.poll();
                             if (newEntry != null) {
-                                final String[] result;
-                                final String resultFullText;
+                                final long pushStart = pushTimer.start();
+                                final String[] dataLines;
                                 String text = (String) newEntry[0];
                                 GData[] data = (GData[]) newEntry[3];
                                 if (text != null && !text.isEmpty()) {
@@ -105,30 +110,17 @@ public class HistoryManager {
                                     if (text.length() > 0 && text.charAt(text.length() - 1) == '\n') {
                                         text = text.substring(0, text.length() - 1);
                                     }
-                                    String[] result2 = pattern.split(text);
-                                    if (result2.length == 0) {
-                                        result = new String[]{""}; //$NON-NLS-1$
-                                    } else {
-                                        result = result2;
-                                    }
-                                    resultFullText = text;
+                                    // The text is split into lines when it is added to the history
+                                    dataLines = null;
                                 } else if (data != null) {
                                     final int size = data.length;
                                     if (size > 0) {
-                                        final String ld = StringHelper.getLineDelimiter();
-                                        final StringBuilder sb = new StringBuilder();
-                                        result = new String[size];
+                                        dataLines = new String[size];
                                         for (int i = 0; i < size; i++) {
-                                            if (i > 0) {
-                                                sb.append(ld);
-                                            }
-                                            result[i] = data[i].toString();
-                                            sb.append(result[i]);
+                                            dataLines[i] = data[i].toString();
                                         }
-                                        resultFullText = sb.toString();
                                     } else {
-                                        result = new String[]{""}; //$NON-NLS-1$
-                                        resultFullText = result[0];
+                                        dataLines = new String[]{""}; //$NON-NLS-1$
                                     }
                                 } else {
                                     // throw new AssertionError("There must be data to backup!"); //$NON-NLS-1$
@@ -147,29 +139,40 @@ public class HistoryManager {
                                     removeFromListAboveOrEqualIndex(historyHiddenData, pointer + 1);
                                     removeFromListAboveOrEqualIndex(historySelectedVertices, pointer + 1);
                                     removeFromListAboveOrEqualIndex(historyHiddenVertices, pointer + 1);
-                                    removeFromListAboveOrEqualIndex(historyText, pointer + 1);
-                                    removeFromListAboveOrEqualIndex(historyFullText, pointer + 1);
+                                    removeFromListAboveOrEqualIndex(historyMemoryUsage, pointer + 1);
+                                    historyText.removeFrom(pointer + 1);
                                     removeFromListAboveOrEqualIndex(historyTopIndex, pointer + 1);
                                     pointerMax = pointer + 1;
                                 }
-                                // Dont store more than MAX_ITEM_COUNT undo/redo entries
+                                // Dont store more than MAX_ITEM_COUNT undo/redo entries and stay within the memory budget
                                 {
                                     final int item_count = historyText.size();
-                                    if (item_count > MAX_ITEM_COUNT) {
-                                        int delta = item_count - MAX_ITEM_COUNT;
+                                    final long memoryBudget = WorkbenchManager.getUserSettingState().getUndoMemoryBudget() * 1048576L;
+                                    long memoryUsage = historyText.getMemoryUsage();
+                                    for (Long entryMemoryUsage : historyMemoryUsage) {
+                                        memoryUsage += entryMemoryUsage;
+                                    }
+                                    int delta = Math.max(0, item_count - MAX_ITEM_COUNT);
+                                    for (int i = 0; i < delta; i++) {
+                                        memoryUsage -= historyText.getMemoryUsage(i) + historyMemoryUsage.get(i);
+                                    }
+                                    // The oldest entries are removed first, but the newest entry is always kept
+                                    while (memoryUsage > memoryBudget && item_count - delta > 1) {
+                                        memoryUsage -= historyText.getMemoryUsage(delta) + historyMemoryUsage.get(delta);
+                                        delta++;
+                                    }
+                                    if (delta > 0) {
                                         removeFromListLessIndex(historySelectionStart, delta + 1);
                                         removeFromListLessIndex(historySelectionEnd, delta + 1);
                                         removeFromListLessIndex(historySelectedData, delta + 1);
                                         removeFromListLessIndex(historyHiddenData, delta + 1);
                                         removeFromListLessIndex(historySelectedVertices, delta + 1);
                                         removeFromListLessIndex(historyHiddenVertices, delta + 1);
-                                        removeFromListLessIndex(historyText, delta + 1);
-                                        removeFromListLessIndex(historyFullText, delta + 1);
+                                        removeFromListLessIndex(historyMemoryUsage, delta + 1);
+                                        historyText.removeFirst(delta);
                                         removeFromListLessIndex(historyTopIndex, delta + 1);
                                         pointerMax = pointerMax - delta;
-                                        if (pointer > MAX_ITEM_COUNT) {
-                                            pointer = pointer - delta;
-                                        }
+                                        pointer = Math.max(0, pointer - delta);
                                     }
                                 }
 
@@ -180,14 +183,22 @@ public class HistoryManager {
                                 historyTopIndex.add((Integer) newEntry[6]);
                                 historyHiddenData.add((HashMap<String, ArrayList<Boolean>>) newEntry[7]);
                                 historyHiddenVertices.add((Vertex[]) newEntry[8]);
-                                historyText.add(result);
-                                historyFullText.add(resultFullText);
+                                final long entryMemoryUsage = getMemoryUsage(newEntry);
+                                entrySizeHistogram.record(entryMemoryUsage);
+                                historyMemoryUsage.add(entryMemoryUsage);
+                                final String[] result;
+                                if (dataLines == null) {
+                                    result = historyText.addText(text);
+                                } else {
+                                    historyText.addLines(dataLines, StringHelper.getLineDelimiter());
+                                    result = dataLines;
+                                }
 
                                 // 1. Cleanup duplicated text entries
 
                                 if (pointer > 0) {
                                     int pStart = historySelectionStart.get(pointer - 1);
-                                    String[] previous = historyText.get(pointer - 1);
+                                    String[] previous = historyText.getLines(pointer - 1);
                                     if (Arrays.equals(previous, result) && !Editor3DWindow.getWindow().isAddingSomething()) {
                                         if (pStart != -1) {
                                             if ((Integer) newEntry[2] == 0) {
@@ -198,8 +209,8 @@ public class HistoryManager {
                                                 removeFromListAboveOrEqualIndex(historyHiddenData, pointer);
                                                 removeFromListAboveOrEqualIndex(historySelectedVertices, pointer);
                                                 removeFromListAboveOrEqualIndex(historyHiddenVertices, pointer);
-                                                removeFromListAboveOrEqualIndex(historyText, pointer);
-                                                removeFromListAboveOrEqualIndex(historyFullText, pointer);
+                                                removeFromListAboveOrEqualIndex(historyMemoryUsage, pointer);
+                                                historyText.removeFrom(pointer);
                                                 removeFromListAboveOrEqualIndex(historyTopIndex, pointer);
                                             } else {
                                                 // Remove the previous entry, because it only contains a new text selection
@@ -209,8 +220,8 @@ public class HistoryManager {
                                                 historyHiddenData.remove(pointer - 1);
                                                 historySelectedVertices.remove(pointer - 1);
                                                 historyHiddenVertices.remove(pointer - 1);
+                                                historyMemoryUsage.remove(pointer - 1);
                                                 historyText.remove(pointer - 1);
-                                                historyFullText.remove(pointer - 1);
                                                 historyTopIndex.remove(pointer - 1);
                                             }
                                             pointerMax--;
@@ -223,6 +234,7 @@ public class HistoryManager {
 
                                 pointerMax++;
                                 pointer++;
+                                pushTimer.stop(pushStart);
                                 NLogger.debug(getClass(), "Added undo/redo data"); //$NON-NLS-1$
                                 if (workQueue.isEmpty()) Thread.sleep(100);
                             } else {
@@ -252,6 +264,7 @@ public class HistoryManager {
                                         break;
                                     }
                                     if (doRestore) {
+                                        restoreCounter.increment();
                                         df.getVertexManager().setSkipSyncWithTextEditor(true);
 
                                         final boolean openTextEditor = historySelectionStart.get(pointer) != -1;
@@ -272,8 +285,8 @@ public class HistoryManager {
                                         final int start = historySelectionStart.get(pointer);
                                         final int end = historySelectionEnd.get(pointer);
                                         final int topIndex = historyTopIndex.get(pointer);
-                                        final String fullText = historyFullText.get(pointer);
-                                        final String[] lines = historyText.get(pointer);
+                                        final String fullText = historyText.getFullText(pointer);
+                                        final String[] lines = historyText.getLines(pointer);
                                         HashMap<String, ArrayList<Boolean>> selection = historySelectedData.get(pointer);
                                         HashMap<String, ArrayList<Boolean>> hiddenSelection = historyHiddenData.get(pointer);
                                         final Vertex[] verts = historySelectedVertices.get(pointer);
@@ -584,6 +597,30 @@ public class HistoryManager {
         NLogger.debug(getClass(), "done."); //$NON-NLS-1$
     }
 
+    /**
+     * @return the approximated memory usage of the selection state of a new
+     *         undo/redo entry in bytes (without the text)
+     */
+    @SuppressWarnings("unchecked")
+    private long getMemoryUsage(Object[] newEntry) {
+        long result = 64L;
+        for (int i : new int[]{4, 7}) {
+            final HashMap<String, ArrayList<Boolean>> data = (HashMap<String, ArrayList<Boolean>>) newEntry[i];
+            if (data != null) {
+                for (Entry<String, ArrayList<Boolean>> entry : data.entrySet()) {
+                    result += 96L + entry.getKey().length() * 2L + entry.getValue().size() * 4L;
+                }
+            }
+        }
+        for (int i : new int[]{5, 8}) {
+            final Vertex[] vertices = (Vertex[]) newEntry[i];
+            if (vertices != null) {
+                result += 16L + vertices.length * 4L;
+            }
+        }
+        return result;
+    }
+
     private void removeFromListAboveOrEqualIndex(List<?> l, int i) {
         i--;
         for (int j = l.size() - 1; j > i; j--) {
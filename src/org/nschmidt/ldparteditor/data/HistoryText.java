@@ -0,0 +1,488 @@
+/* MIT - License
+
+Copyright (c) 2012 - this year, Nils Schmidt
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE
+FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE. */
+package org.nschmidt.ldparteditor.data;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.nschmidt.ldparteditor.logger.NLogger;
+
+/**
+ * Stores the text of the undo/redo entries of the {@link HistoryManager}.
+ * Only the newest entry holds all of its lines. An older entry is stored as a
+ * reverse delta: the lines which differ from the next entry. Every
+ * {@link #KEYFRAME_INTERVAL}th entry holds all of its lines to limit the
+ * number of deltas which have to be applied to restore an entry. Keyframes
+ * which are not one of the {@link #HOT_ENTRIES} newest entries are
+ * compressed. Unchanged lines are shared between the entries (the same
+ * {@link String} instance).
+ * <br>
+ * The line arrays returned by this class must not be modified.
+ *
+ * @author nils
+ *
+ */
+final class HistoryText {
+
+    /** The maximum number of deltas between two keyframes */
+    private static final int KEYFRAME_INTERVAL = 16;
+    /** The newest entries are never compressed */
+    private static final int HOT_ENTRIES = 4;
+
+    /** The approximated memory usage of an object header (with padding) */
+    private static final int OBJECT_SIZE = 16;
+    /** The approximated memory usage of a {@link String} without its characters */
+    private static final int STRING_SIZE = 40;
+    /** The approximated memory usage of a reference */
+    private static final int REFERENCE_SIZE = 4;
+
+    private static final String[] NO_LINES = new String[0];
+
+    private final ArrayList<Entry> entries = new ArrayList<Entry>();
+
+    /** The newest text which was added with {@link #addText(String)} */
+    private String lastText = null;
+
+    /** The index of the last restored entry (deltas are applied to it) */
+    private int cachedIndex = -1;
+    private String[] cachedLines = null;
+
+    private long memoryUsage = 0L;
+
+    /**
+     * Adds a new entry for a text. The text is split into lines at every line
+     * break ({@code \r\n}, {@code \n} or {@code \r}). Empty lines at the end
+     * of the text are ignored.
+     *
+     * @param text
+     *            the text
+     * @return the lines of the text
+     */
+    String[] addText(String text) {
+        final String[] lines;
+        String delimiter = null;
+        boolean hasOneDelimiter = true;
+        if (lastText != null && lastText.equals(text)) {
+            // The lines are immutable and can be shared with the previous entry
+            final Entry previous = entries.get(entries.size() - 1);
+            lines = getLines(entries.size() - 1);
+            delimiter = previous.delimiter;
+            hasOneDelimiter = previous.fullText == null;
+        } else {
+            final ArrayList<String> result = new ArrayList<String>();
+            final int length = text.length();
+            int start = 0;
+            int nonEmptyCount = 0;
+            for (int i = 0; i < length; i++) {
+                final char c = text.charAt(i);
+                if (c == '\n' || c == '\r') {
+                    final String currentDelimiter;
+                    if (c == '\r' && i + 1 < length && text.charAt(i + 1) == '\n') {
+                        currentDelimiter = "\r\n"; //$NON-NLS-1$
+                    } else {
+                        currentDelimiter = c == '\n' ? "\n" : "\r"; //$NON-NLS-1$ //$NON-NLS-2$
+                    }
+                    if (delimiter == null) {
+                        delimiter = currentDelimiter;
+                    } else if (!delimiter.equals(currentDelimiter)) {
+                        hasOneDelimiter = false;
+                    }
+                    result.add(text.substring(start, i));
+                    if (i > start) {
+                        nonEmptyCount = result.size();
+                    }
+                    i += currentDelimiter.length() - 1;
+                    start = i + 1;
+                }
+            }
+            result.add(text.substring(start));
+            if (length > start) {
+                nonEmptyCount = result.size();
+            }
+            // Empty lines at the end are ignored (like String.split() does)
+            if (nonEmptyCount == 0) {
+                lines = new String[]{""}; //$NON-NLS-1$
+                hasOneDelimiter = length == 0;
+            } else {
+                if (nonEmptyCount < result.size()) {
+                    hasOneDelimiter = false;
+                }
+                lines = result.subList(0, nonEmptyCount).toArray(NO_LINES);
+            }
+            if (delimiter == null) {
+                delimiter = "\n"; //$NON-NLS-1$
+            }
+        }
+        if (hasOneDelimiter) {
+            add(lines, delimiter, null);
+        } else {
+            add(lines, null, text);
+        }
+        // The text editor holds the text of the newest entry anyway
+        lastText = text;
+        return lines;
+    }
+
+    /**
+     * Adds a new entry.
+     *
+     * @param lines
+     *            the lines (the array must not be modified afterwards)
+     * @param delimiter
+     *            the line delimiter which is used to join the lines to the
+     *            full text
+     */
+    void addLines(String[] lines, String delimiter) {
+        add(lines, delimiter, null);
+        lastText = null;
+    }
+
+    /**
+     * @return the lines of the entry (must not be modified)
+     */
+    String[] getLines(int index) {
+        if (index == cachedIndex) {
+            return cachedLines;
+        }
+        final int size = entries.size();
+        // Find the nearest entry which can be restored without a delta
+        int i = index;
+        while (i < size - 1 && i != cachedIndex && !entries.get(i).isKeyframe()) {
+            i++;
+        }
+        String[] result = i == cachedIndex ? cachedLines : entries.get(i).restoreKeyframe();
+        while (i > index) {
+            i--;
+            result = entries.get(i).applyDelta(result);
+        }
+        cachedIndex = index;
+        cachedLines = result;
+        return result;
+    }
+
+    /**
+     * @return the full text of the entry
+     */
+    String getFullText(int index) {
+        final Entry entry = entries.get(index);
+        if (entry.fullText != null) {
+            return entry.fullText;
+        }
+        if (index == entries.size() - 1 && lastText != null) {
+            return lastText;
+        }
+        return String.join(entry.delimiter, getLines(index));
+    }
+
+    /**
+     * @return the number of entries
+     */
+    int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return the approximated memory usage of all entries in bytes
+     */
+    long getMemoryUsage() {
+        return memoryUsage;
+    }
+
+    /**
+     * @return the approximated memory usage of the entry in bytes
+     */
+    long getMemoryUsage(int index) {
+        return entries.get(index).memory;
+    }
+
+    /**
+     * Removes a single entry. The entries before it are rebased on the next
+     * entry.
+     */
+    void remove(int index) {
+        final int size = entries.size();
+        if (index == size - 1) {
+            removeFrom(index);
+            return;
+        }
+        if (index > 0) {
+            // The previous entry can depend on the removed entry
+            final String[] previous = getLines(index - 1);
+            final String[] next = getLines(index + 1);
+            removeEntry(index);
+            encode(index - 1, previous, next);
+        } else {
+            removeEntry(index);
+        }
+        invalidateCache();
+    }
+
+    /**
+     * Removes all entries from the given index to the end
+     */
+    void removeFrom(int fromIndex) {
+        if (fromIndex >= entries.size()) {
+            return;
+        }
+        if (fromIndex > 0) {
+            // The new newest entry must hold all of its lines
+            final String[] lines = getLines(fromIndex - 1);
+            while (entries.size() > fromIndex) {
+                removeEntry(entries.size() - 1);
+            }
+            encodeFull(fromIndex - 1, lines, false);
+        } else {
+            while (!entries.isEmpty()) {
+                removeEntry(entries.size() - 1);
+            }
+        }
+        lastText = null;
+        invalidateCache();
+    }
+
+    /**
+     * Removes the given number of the oldest entries
+     */
+    void removeFirst(int count) {
+        for (int i = 0; i < count && !entries.isEmpty(); i++) {
+            removeEntry(0);
+        }
+        if (entries.isEmpty()) {
+            lastText = null;
+        }
+        invalidateCache();
+    }
+
+    private void add(String[] lines, String delimiter, String fullText) {
+        final int previousIndex = entries.size() - 1;
+        final Entry entry = new Entry();
+        entry.delimiter = delimiter;
+        entry.fullText = fullText;
+        if (previousIndex >= 0) {
+            final String[] previous = getLines(previousIndex);
+            entries.add(entry);
+            encodeFull(previousIndex + 1, lines, false);
+            encode(previousIndex, previous, lines);
+            // Compress the keyframes which are not used for undo/redo in the near future
+            final int coldIndex = previousIndex - HOT_ENTRIES;
+            if (coldIndex >= 0 && entries.get(coldIndex).lines != null) {
+                final String[] coldLines = entries.get(coldIndex).lines;
+                encodeFull(coldIndex, coldLines, true);
+            }
+        } else {
+            entries.add(entry);
+            encodeFull(0, lines, false);
+        }
+        invalidateCache();
+        cachedIndex = previousIndex + 1;
+        cachedLines = lines;
+    }
+
+    /**
+     * Encodes an entry as a reverse delta to the next entry, or as a keyframe
+     * if there are too many deltas in a row
+     */
+    private void encode(int index, String[] lines, String[] next) {
+        final int newestIndex = entries.size() - 1;
+        int deltaCount = 0;
+        for (int i = index - 1; i >= 0 && !entries.get(i).isKeyframe(); i--) {
+            deltaCount++;
+        }
+        for (int i = index + 1; i < newestIndex && !entries.get(i).isKeyframe(); i++) {
+            deltaCount++;
+        }
+        if (deltaCount + 1 >= KEYFRAME_INTERVAL) {
+            // The newest entries are not compressed
+            encodeFull(index, lines, index < newestIndex - HOT_ENTRIES);
+            return;
+        }
+        final int minLength = Math.min(lines.length, next.length);
+        int prefix = 0;
+        while (prefix < minLength && equals(lines[prefix], next[prefix])) {
+            next[prefix] = lines[prefix];
+            prefix++;
+        }
+        int suffix = 0;
+        while (suffix < minLength - prefix && equals(lines[lines.length - suffix - 1], next[next.length - suffix - 1])) {
+            next[next.length - suffix - 1] = lines[lines.length - suffix - 1];
+            suffix++;
+        }
+        final String[] replacement = new String[lines.length - prefix - suffix];
+        System.arraycopy(lines, prefix, replacement, 0, replacement.length);
+        final Entry entry = entries.get(index);
+        entry.lines = null;
+        entry.compressed = null;
+        entry.deltaStart = prefix;
+        entry.deltaLength = next.length - prefix - suffix;
+        entry.replacement = replacement;
+        setMemoryUsage(entry, OBJECT_SIZE * 2 + REFERENCE_SIZE * replacement.length + getSize(replacement));
+    }
+
+    private void encodeFull(int index, String[] lines, boolean compress) {
+        final Entry entry = entries.get(index);
+        entry.deltaStart = -1;
+        entry.replacement = null;
+        entry.lineCount = lines.length;
+        if (compress) {
+            final byte[] compressed = compress(lines);
+            if (compressed != null) {
+                entry.lines = null;
+                entry.compressed = compressed;
+                setMemoryUsage(entry, OBJECT_SIZE * 2 + compressed.length);
+                return;
+            }
+        }
+        entry.lines = lines;
+        entry.compressed = null;
+        if (index == entries.size() - 1) {
+            setMemoryUsage(entry, OBJECT_SIZE * 2 + REFERENCE_SIZE * lines.length + getSize(lines));
+        } else {
+            // Most of the lines are shared with the next entries
+            setMemoryUsage(entry, OBJECT_SIZE * 2 + REFERENCE_SIZE * lines.length);
+        }
+    }
+
+    private void removeEntry(int index) {
+        memoryUsage -= entries.get(index).memory;
+        entries.remove(index);
+    }
+
+    private void setMemoryUsage(Entry entry, long memory) {
+        if (entry.fullText != null) {
+            memory += STRING_SIZE + entry.fullText.length() * 2L;
+        }
+        memoryUsage += memory - entry.memory;
+        entry.memory = memory;
+    }
+
+    private void invalidateCache() {
+        cachedIndex = -1;
+        cachedLines = null;
+    }
+
+    private static boolean equals(String a, String b) {
+        return a == b || a.equals(b);
+    }
+
+    private static long getSize(String[] lines) {
+        long result = 0L;
+        for (String line : lines) {
+            result += STRING_SIZE + line.length() * 2L;
+        }
+        return result;
+    }
+
+    private static byte[] compress(String[] lines) {
+        final byte[] input = String.join("\n", lines).getBytes(StandardCharsets.UTF_8); //$NON-NLS-1$
+        final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(input);
+            deflater.finish();
+            byte[] output = new byte[Math.max(64, input.length / 4)];
+            int length = 0;
+            while (!deflater.finished()) {
+                if (length == output.length) {
+                    if (length >= input.length) {
+                        // Not worth it
+                        return null;
+                    }
+                    output = Arrays.copyOf(output, output.length * 2);
+                }
+                length += deflater.deflate(output, length, output.length - length);
+            }
+            return Arrays.copyOf(output, length);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static String[] decompress(byte[] compressed, int lineCount) {
+        final Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            byte[] output = new byte[compressed.length * 4];
+            int length = 0;
+            while (!inflater.finished()) {
+                if (length == output.length) {
+                    output = Arrays.copyOf(output, output.length * 2);
+                }
+                length += inflater.inflate(output, length, output.length - length);
+            }
+            final String text = new String(output, 0, length, StandardCharsets.UTF_8);
+            final String[] result = new String[lineCount];
+            int start = 0;
+            for (int i = 0; i < lineCount - 1; i++) {
+                final int end = text.indexOf('\n', start);
+                result[i] = text.substring(start, end);
+                start = end + 1;
+            }
+            result[lineCount - 1] = text.substring(start);
+            return result;
+        } catch (DataFormatException dfe) {
+            // Can't happen, since the data was compressed by this class
+            NLogger.error(HistoryText.class, dfe);
+            throw new IllegalStateException(dfe);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static final class Entry {
+
+        /** The lines of a keyframe (or {@code null}) */
+        String[] lines = null;
+        /** The compressed lines of a keyframe (or {@code null}) */
+        byte[] compressed = null;
+        int lineCount = 0;
+
+        /**
+         * The delta to the next entry: replace {@link #deltaLength} lines at
+         * {@link #deltaStart} with {@link #replacement} ({@code -1} for a
+         * keyframe)
+         */
+        int deltaStart = -1;
+        int deltaLength = 0;
+        String[] replacement = null;
+
+        /** Joins the lines to the full text ({@code null} if the full text is stored) */
+        String delimiter = null;
+        /** The full text, if it can't be restored from the lines */
+        String fullText = null;
+
+        long memory = 0L;
+
+        boolean isKeyframe() {
+            return deltaStart == -1;
+        }
+
+        String[] restoreKeyframe() {
+            return lines != null ? lines : decompress(compressed, lineCount);
+        }
+
+        String[] applyDelta(String[] next) {
+            final int tailLength = next.length - deltaStart - deltaLength;
+            final String[] result = new String[deltaStart + replacement.length + tailLength];
+            System.arraycopy(next, 0, result, 0, deltaStart);
+            System.arraycopy(replacement, 0, result, deltaStart, replacement.length);
+            System.arraycopy(next, deltaStart + deltaLength, result, deltaStart + replacement.length, tailLength);
+            return result;
+        }
+    }
+}
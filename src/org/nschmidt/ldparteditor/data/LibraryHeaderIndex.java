@@ -0,0 +1,364 @@
+/* MIT - License
+
+Copyright (c) 2012 - this year, Nils Schmidt
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE
+FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE. */
+package org.nschmidt.ldparteditor.data;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.nschmidt.ldparteditor.logger.NLogger;
+import org.nschmidt.ldparteditor.text.LDParsingException;
+import org.nschmidt.ldparteditor.text.UTF8BufferedReader;
+import org.nschmidt.ldparteditor.win32appdata.AppData;
+
+/**
+ * Caches the header (title and {@code !LDRAW_ORG} type) of the library files.
+ * An entry is valid as long as the timestamp and the size of its file are
+ * unchanged. The index is stored in the AppData folder and read in one go
+ * when it is used for the first time. Changed files are read in parallel on a
+ * small thread pool.
+ *
+ * @author nils
+ *
+ */
+public enum LibraryHeaderIndex {
+    INSTANCE;
+
+    private static final String INDEX_FILE = AppData.getPath() + "library_headers.bin"; //$NON-NLS-1$
+    private static final int MAGIC = 0x4C444849;
+    private static final int VERSION = 1;
+    /** The number of files which are read by one task */
+    private static final int CHUNK_SIZE = 64;
+    private static final int THREAD_COUNT = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+
+    /** Absolute file name -> header */
+    private static final ConcurrentHashMap<String, Header> index = new ConcurrentHashMap<String, Header>(16384);
+    private static final AtomicInteger readCount = new AtomicInteger();
+    private static final AtomicInteger reuseCount = new AtomicInteger();
+
+    private static boolean loaded = false;
+    private static ExecutorService executor = null;
+
+    /**
+     * The header of a library file
+     */
+    public static final class Header {
+
+        private final long lastModified;
+        private final long size;
+        private final String description;
+        private final DatType type;
+        private volatile boolean used = true;
+
+        private Header(long lastModified, long size, String description, DatType type) {
+            this.lastModified = lastModified;
+            this.size = size;
+            this.description = description;
+            this.type = type;
+        }
+
+        /**
+         * @return the title of the file as it is shown in the part tree (e.g.
+         *         {@code " - Brick  2 x  4"}), or an empty string
+         */
+        public String getDescription() {
+            return description;
+        }
+
+        /**
+         * @return the type from the {@code !LDRAW_ORG} meta command or
+         *         {@code null} if there is no such command
+         */
+        public DatType getType() {
+            return type;
+        }
+    }
+
+    /**
+     * Returns the header of a library file. The file is only read if it was
+     * changed since the last time.
+     *
+     * @param f
+     *            the file
+     * @return the header
+     */
+    public static Header getHeader(File f) {
+        load();
+        final String path = f.getAbsolutePath();
+        final long lastModified = f.lastModified();
+        final long size = f.length();
+        Header header = index.get(path);
+        if (header != null && header.lastModified == lastModified && header.size == size) {
+            header.used = true;
+            reuseCount.incrementAndGet();
+            return header;
+        }
+        header = readHeader(path, lastModified, size);
+        index.put(path, header);
+        readCount.incrementAndGet();
+        return header;
+    }
+
+    /**
+     * Returns the headers of many library files. The files are checked (and
+     * read) in parallel.
+     *
+     * @param files
+     *            the files
+     * @return absolute file name -> header
+     */
+    public static Map<String, Header> getHeaders(List<File> files) {
+        load();
+        final Map<String, Header> result = new HashMap<String, Header>(files.size() * 2);
+        if (files.size() <= CHUNK_SIZE) {
+            for (File f : files) {
+                result.put(f.getAbsolutePath(), getHeader(f));
+            }
+            return result;
+        }
+        final List<Future<Map<String, Header>>> futures = new ArrayList<Future<Map<String, Header>>>();
+        final ExecutorService pool = getExecutor();
+        for (int i = 0; i < files.size(); i += CHUNK_SIZE) {
+            final List<File> chunk = files.subList(i, Math.min(files.size(), i + CHUNK_SIZE));
+            futures.add(pool.submit(() -> {
+                final Map<String, Header> headers = new HashMap<String, Header>(chunk.size() * 2);
+                for (File f : chunk) {
+                    headers.put(f.getAbsolutePath(), getHeader(f));
+                }
+                return headers;
+            }));
+        }
+        for (Future<Map<String, Header>> future : futures) {
+            try {
+                result.putAll(future.get());
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(ie);
+            } catch (ExecutionException ee) {
+                throw new RuntimeException(ee.getCause());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Resets the counters of {@link #getReadCount()} and
+     * {@link #getReuseCount()}
+     */
+    public static void resetStatistics() {
+        readCount.set(0);
+        reuseCount.set(0);
+    }
+
+    /**
+     * @return the number of headers which were read from the file system
+     */
+    public static int getReadCount() {
+        return readCount.get();
+    }
+
+    /**
+     * @return the number of headers which were taken from the index
+     */
+    public static int getReuseCount() {
+        return reuseCount.get();
+    }
+
+    /**
+     * Writes the index to the AppData folder. Only the headers which were used
+     * since the start of the application are written, so deleted files are
+     * removed from the index.
+     */
+    public static synchronized void save() {
+        if (!loaded) {
+            return;
+        }
+        final File tmp = new File(INDEX_FILE + ".tmp"); //$NON-NLS-1$
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            final ArrayList<Map.Entry<String, Header>> entries = new ArrayList<Map.Entry<String, Header>>();
+            for (Map.Entry<String, Header> entry : index.entrySet()) {
+                if (entry.getValue().used) {
+                    entries.add(entry);
+                }
+            }
+            out.writeInt(entries.size());
+            for (Map.Entry<String, Header> entry : entries) {
+                final Header header = entry.getValue();
+                writeString(out, entry.getKey());
+                out.writeLong(header.lastModified);
+                out.writeLong(header.size);
+                writeString(out, header.description);
+                out.writeByte(header.type == null ? -1 : header.type.ordinal());
+            }
+        } catch (IOException | SecurityException e) {
+            NLogger.error(LibraryHeaderIndex.class, e);
+            tmp.delete();
+            return;
+        }
+        final File target = new File(INDEX_FILE);
+        target.delete();
+        if (!tmp.renameTo(target)) {
+            tmp.delete();
+        }
+    }
+
+    private static synchronized void load() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        final File f = new File(INDEX_FILE);
+        if (!f.exists()) {
+            return;
+        }
+        final DatType[] types = DatType.values();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(f), 65536))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return;
+            }
+            final int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                final String path = readString(in);
+                final long lastModified = in.readLong();
+                final long size = in.readLong();
+                final String description = readString(in);
+                final int type = in.readByte();
+                final Header header = new Header(lastModified, size, description, type >= 0 && type < types.length ? types[type] : null);
+                header.used = false;
+                index.put(path, header);
+            }
+        } catch (IOException | SecurityException e) {
+            NLogger.error(LibraryHeaderIndex.class, e);
+            index.clear();
+        }
+    }
+
+    private static synchronized ExecutorService getExecutor() {
+        if (executor == null) {
+            executor = Executors.newFixedThreadPool(THREAD_COUNT, r -> {
+                final Thread t = new Thread(r, "LibraryHeaderIndex"); //$NON-NLS-1$
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        return executor;
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        final byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        final byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads the title from the first line and the type from the
+     * {@code !LDRAW_ORG} line of the header
+     */
+    private static Header readHeader(String path, long lastModified, long size) {
+        final StringBuilder titleSb = new StringBuilder();
+        DatType type = null;
+        UTF8BufferedReader reader = null;
+        try {
+            reader = new UTF8BufferedReader(path);
+            String title = reader.readLine();
+            if (title != null) {
+                title = title.trim();
+                if (title.length() > 0) {
+                    titleSb.append(" -"); //$NON-NLS-1$
+                    titleSb.append(title.substring(1));
+                }
+            }
+            // Detect type
+            while (true) {
+                String typ = reader.readLine();
+                if (typ != null) {
+                    typ = typ.trim();
+                    if (!typ.startsWith("0")) { //$NON-NLS-1$
+                        break;
+                    } else {
+                        int i1 = typ.indexOf("!LDRAW_ORG"); //$NON-NLS-1$
+                        if (i1 > -1) {
+                            int i2;
+                            i2 = typ.indexOf("Subpart"); //$NON-NLS-1$
+                            if (i2 > -1 && i1 < i2) {
+                                type = DatType.SUBPART;
+                                break;
+                            }
+                            i2 = typ.indexOf("Part"); //$NON-NLS-1$
+                            if (i2 > -1 && i1 < i2) {
+                                type = DatType.PART;
+                                break;
+                            }
+                            i2 = typ.indexOf("48_Primitive"); //$NON-NLS-1$
+                            if (i2 > -1 && i1 < i2) {
+                                type = DatType.PRIMITIVE48;
+                                break;
+                            }
+                            i2 = typ.indexOf("8_Primitive"); //$NON-NLS-1$
+                            if (i2 > -1 && i1 < i2) {
+                                type = DatType.PRIMITIVE8;
+                                break;
+                            }
+                            i2 = typ.indexOf("Primitive"); //$NON-NLS-1$
+                            if (i2 > -1 && i1 < i2) {
+                                type = DatType.PRIMITIVE;
+                                break;
+                            }
+                        }
+                    }
+                } else {
+                    break;
+                }
+            }
+        } catch (LDParsingException e) {
+        } catch (FileNotFoundException e) {
+        } catch (UnsupportedEncodingException e) {
+        } finally {
+            try {
+                if (reader != null)
+                    reader.close();
+            } catch (LDParsingException e1) {
+            }
+        }
+        return new Header(lastModified, size, titleSb.toString(), type);
+    }
+}
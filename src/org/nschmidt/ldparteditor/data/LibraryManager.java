@@ -16,25 +16,23 @@ ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEAL
 package org.nschmidt.ldparteditor.data;
 
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.regex.Pattern;
 
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.custom.CTabItem;
 import org.nschmidt.ldparteditor.composites.Composite3D;
 import org.nschmidt.ldparteditor.composites.compositetab.CompositeTab;
+import org.nschmidt.ldparteditor.helpers.Metrics;
 import org.nschmidt.ldparteditor.logger.NLogger;
 import org.nschmidt.ldparteditor.opengl.OpenGLRenderer;
 import org.nschmidt.ldparteditor.project.Project;
 import org.nschmidt.ldparteditor.shells.editor3d.Editor3DWindow;
 import org.nschmidt.ldparteditor.shells.editortext.EditorTextWindow;
-import org.nschmidt.ldparteditor.text.LDParsingException;
-import org.nschmidt.ldparteditor.text.UTF8BufferedReader;
 import org.nschmidt.ldparteditor.widgets.TreeItem;
 import org.nschmidt.ldparteditor.workbench.WorkbenchManager;
 
@@ -53,6 +51,11 @@ public class LibraryManager {
 
     // TODO Needs error handling!
 
+    /** The time to read a library folder into the parts tree */
+    private static final Metrics.Timer readTimer = Metrics.timer("library.read"); //$NON-NLS-1$
+    /** The time to synchronise a library folder with the parts tree */
+    private static final Metrics.Timer syncTimer = Metrics.timer("library.sync"); //$NON-NLS-1$
+
     /**
      * Reads all paths to project library parts case insensitive <br>
      * <b>NOTE:</b> The base path is still case sensitive!
@@ -589,6 +592,7 @@ public class LibraryManager {
      *            {@code true} if the folder contains primitives
      */
     private static void readLibraryFolder(String basePath, String prefix1, String prefix2, TreeItem treeItem, boolean isPrimitiveFolder, boolean isReadOnlyFolder, DatType type) {
+        final long start = readTimer.start();
         String folderPath = basePath;
         boolean canSearch = true;
         File baseFolder = new File(basePath);
@@ -597,98 +601,35 @@ public class LibraryManager {
             HashMap<DatFileName, DatType> typeMap = new HashMap<DatFileName, DatType>();
             ArrayList<DatFileName> datFiles = new ArrayList<DatFileName>();
             File libFolder = new File(folderPath);
-            StringBuilder titleSb = new StringBuilder();
             File[] files = libFolder.listFiles();
             if (files != null) {
-                for (File f : files) {
-                    if (f.isFile() && f.getName().matches(".*.dat")) { //$NON-NLS-1$
-                        titleSb.setLength(0);
-                        UTF8BufferedReader reader = null;
-                        try {
-                            reader = new UTF8BufferedReader(f.getAbsolutePath());
-                            String title = reader.readLine();
-                            if (title != null) {
-                                title = title.trim();
-                                if (title.length() > 0) {
-                                    titleSb.append(" -"); //$NON-NLS-1$
-                                    titleSb.append(title.substring(1));
-                                }
-                            }
-                            // Detect type
-                            while (true) {
-                                String typ = reader.readLine();
-                                if (typ != null) {
-                                    typ = typ.trim();
-                                    if (!typ.startsWith("0")) { //$NON-NLS-1$
-                                        break;
-                                    } else {
-                                        int i1 = typ.indexOf("!LDRAW_ORG"); //$NON-NLS-1$
-                                        if (i1 > -1) {
-                                            int i2;
-                                            i2 = typ.indexOf("Subpart"); //$NON-NLS-1$
-                                            if (i2 > -1 && i1 < i2) {
-                                                type = DatType.SUBPART;
-                                                break;
-                                            }
-                                            i2 = typ.indexOf("Part"); //$NON-NLS-1$
-                                            if (i2 > -1 && i1 < i2) {
-                                                type = DatType.PART;
-                                                break;
-                                            }
-                                            i2 = typ.indexOf("48_Primitive"); //$NON-NLS-1$
-                                            if (i2 > -1 && i1 < i2) {
-                                                type = DatType.PRIMITIVE48;
-                                                break;
-                                            }
-                                            i2 = typ.indexOf("8_Primitive"); //$NON-NLS-1$
-                                            if (i2 > -1 && i1 < i2) {
-                                                type = DatType.PRIMITIVE8;
-                                                break;
-                                            }
-                                            i2 = typ.indexOf("Primitive"); //$NON-NLS-1$
-                                            if (i2 > -1 && i1 < i2) {
-                                                type = DatType.PRIMITIVE;
-                                                break;
-                                            }
-                                        }
-                                    }
-                                } else {
-                                    break;
-                                }
-                            }
-                            if (type == null) type = DatType.PART;
-                            // Change treeItem according to type
-                            switch (type) {
-                            case PART:
-                                treeItem = Editor3DWindow.getWindow().getProjectParts();
-                                break;
-                            case SUBPART:
-                                treeItem = Editor3DWindow.getWindow().getProjectSubparts();
-                                break;
-                            case PRIMITIVE:
-                                treeItem = Editor3DWindow.getWindow().getProjectPrimitives();
-                                break;
-                            case PRIMITIVE48:
-                                treeItem = Editor3DWindow.getWindow().getProjectPrimitives48();
-                                break;
-                            default:
-                                break;
-                            }
-                        } catch (LDParsingException e) {
-                        } catch (FileNotFoundException e) {
-                        } catch (UnsupportedEncodingException e) {
-                        } finally {
-                            try {
-                                if (reader != null)
-                                    reader.close();
-                            } catch (LDParsingException e1) {
-                            }
-                        }
-                        DatFileName name = new DatFileName(f.getName(), titleSb.toString(), type == DatType.PRIMITIVE || type == DatType.PRIMITIVE48  || type == DatType.PRIMITIVE8);
-                        datFiles.add(name);
-                        parentMap.put(name, treeItem);
-                        typeMap.put(name, type);
+                final ArrayList<File> datFileList = getDatFiles(files);
+                final Map<String, LibraryHeaderIndex.Header> headers = LibraryHeaderIndex.getHeaders(datFileList);
+                for (File f : datFileList) {
+                    final LibraryHeaderIndex.Header header = headers.get(f.getAbsolutePath());
+                    if (header.getType() != null) type = header.getType();
+                    if (type == null) type = DatType.PART;
+                    // Change treeItem according to type
+                    switch (type) {
+                    case PART:
+                        treeItem = Editor3DWindow.getWindow().getProjectParts();
+                        break;
+                    case SUBPART:
+                        treeItem = Editor3DWindow.getWindow().getProjectSubparts();
+                        break;
+                    case PRIMITIVE:
+                        treeItem = Editor3DWindow.getWindow().getProjectPrimitives();
+                        break;
+                    case PRIMITIVE48:
+                        treeItem = Editor3DWindow.getWindow().getProjectPrimitives48();
+                        break;
+                    default:
+                        break;
                     }
+                    DatFileName name = new DatFileName(f.getName(), header.getDescription(), type == DatType.PRIMITIVE || type == DatType.PRIMITIVE48  || type == DatType.PRIMITIVE8);
+                    datFiles.add(name);
+                    parentMap.put(name, treeItem);
+                    typeMap.put(name, type);
                 }
             } else {
                 NLogger.error(LibraryManager.class, "readLibraryFolder: Can't open directory" + folderPath);  //$NON-NLS-1$
@@ -731,10 +672,8 @@ public class LibraryManager {
                         // Do the search for DAT files
                         ArrayList<DatFileName> datFiles = new ArrayList<DatFileName>();
                         File libFolder = new File(folderPath);
-                        for (File f : libFolder.listFiles()) {
-                            if (f.isFile() && f.getName().matches(".*.dat")) { //$NON-NLS-1$
-                                datFiles.add(new DatFileName(f.getName(), "", isPrimitiveFolder)); //$NON-NLS-1$
-                            }
+                        for (File f : getDatFiles(libFolder.listFiles())) {
+                            datFiles.add(new DatFileName(f.getName(), "", isPrimitiveFolder)); //$NON-NLS-1$
                         }
                         // Sort the file list
                         Collections.sort(datFiles);
@@ -758,6 +697,7 @@ public class LibraryManager {
                 }
             }
         }
+        readTimer.stop(start);
     }
 
 
@@ -780,6 +720,7 @@ public class LibraryManager {
      */
     private static int[] syncLibraryFolder(String basePath, String prefix1, String prefix2, TreeItem treeItem, boolean isPrimitiveFolder, boolean isReadOnlyFolder, DatType type) {
 
+        final long start = syncTimer.start();
         int[] result = new int[3];
 
         HashMap<String, TreeItem> parentMap = new HashMap<String, TreeItem>();
@@ -969,9 +910,49 @@ public class LibraryManager {
             }
         }
 
+        syncTimer.stop(start);
         return result;
     }
 
+    /**
+     * @return all DAT files from the list
+     */
+    private static ArrayList<File> getDatFiles(File[] files) {
+        final ArrayList<File> result = new ArrayList<File>();
+        if (files != null) {
+            for (File f : files) {
+                // The same as f.getName().matches(".*.dat"), but without a regular expression
+                final String name = f.getName();
+                if (name.length() > 3 && name.endsWith("dat") && f.isFile()) { //$NON-NLS-1$
+                    result.add(f);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return all DAT files from the list which are not locked by LPE. The
+     *         statistics of the synchronisation are updated.
+     */
+    private static ArrayList<File> getUnlockedDatFiles(int[] result, File[] files, HashSet<String> locked, HashSet<String> loaded) {
+        final ArrayList<File> unlocked = new ArrayList<File>();
+        for (File f : getDatFiles(files)) {
+            final String path = f.getAbsolutePath();
+            if (locked.contains(path)) {
+                // File is locked by LPE, so don't parse it twice
+                result[2] = result[2] + 1;
+                continue;
+            }
+            if (!loaded.contains(path)) {
+                // The file is new
+                result[0] = result[0] + 1;
+            }
+            unlocked.add(f);
+        }
+        return unlocked;
+    }
+
     private static void readAllUnsavedFiles(HashMap<String, TreeItem> parentMap, HashMap<String, DatType> typeMap, HashMap<String, DatFileName> dfnMap, HashSet<String> locked,
             HashMap<String, DatFile> existingMap) {
         for (DatFile df : Project.getUnsavedFiles()) {
@@ -1088,115 +1069,42 @@ public class LibraryManager {
         final File baseFolder = new File(basePath);
 
         if (prefix1.isEmpty() && prefix2.isEmpty()) {
-            StringBuilder titleSb = new StringBuilder();
             File[] files = baseFolder.listFiles();
             if (files != null) {
-                for (File f : files) {
-                    if (f.isFile() && f.getName().matches(".*.dat")) { //$NON-NLS-1$
-                        final String path = f.getAbsolutePath();
-                        if (locked.contains(path)) {
-                            // File is locked by LPE, so don't parse it twice
-                            result[2] = result[2] + 1;
-                            continue;
-                        }
-                        if (!loaded.contains(path)) {
-                            // The file is new
-                            result[0] = result[0] + 1;
-                        }
-                        titleSb.setLength(0);
-                        TreeItem treeItem2 = Editor3DWindow.getWindow().getProjectParts();
-                        UTF8BufferedReader reader = null;
-                        try {
-                            reader = new UTF8BufferedReader(path);
-                            String title = reader.readLine();
-                            if (title != null) {
-                                title = title.trim();
-                                if (title.length() > 0) {
-                                    titleSb.append(" -"); //$NON-NLS-1$
-                                    titleSb.append(title.substring(1));
-                                }
-                            }
-                            // Detect type
-                            while (true) {
-                                String typ = reader.readLine();
-                                if (typ != null) {
-                                    typ = typ.trim();
-                                    if (!typ.startsWith("0")) { //$NON-NLS-1$
-                                        break;
-                                    } else {
-                                        int i1 = typ.indexOf("!LDRAW_ORG"); //$NON-NLS-1$
-                                        if (i1 > -1) {
-                                            int i2;
-                                            i2 = typ.indexOf("Subpart"); //$NON-NLS-1$
-                                            if (i2 > -1 && i1 < i2) {
-                                                type = DatType.SUBPART;
-                                                break;
-                                            }
-                                            i2 = typ.indexOf("Part"); //$NON-NLS-1$
-                                            if (i2 > -1 && i1 < i2) {
-                                                type = DatType.PART;
-                                                break;
-                                            }
-                                            i2 = typ.indexOf("48_Primitive"); //$NON-NLS-1$
-                                            if (i2 > -1 && i1 < i2) {
-                                                type = DatType.PRIMITIVE48;
-                                                break;
-                                            }
-                                            i2 = typ.indexOf("8_Primitive"); //$NON-NLS-1$
-                                            if (i2 > -1 && i1 < i2) {
-                                                type = DatType.PRIMITIVE8;
-                                                break;
-                                            }
-                                            i2 = typ.indexOf("Primitive"); //$NON-NLS-1$
-                                            if (i2 > -1 && i1 < i2) {
-                                                type = DatType.PRIMITIVE;
-                                                break;
-                                            }
-                                        }
-                                    }
-                                } else {
-                                    break;
-                                }
-                            }
-
-                            if (type == null) type = DatType.PART;
-
-                            // Change treeItem according to type
-                            switch (type) {
-                            case PART:
-                                treeItem2 = Editor3DWindow.getWindow().getProjectParts();
-                                break;
-                            case SUBPART:
-                                treeItem2 = Editor3DWindow.getWindow().getProjectSubparts();
-                                break;
-                            case PRIMITIVE:
-                                treeItem2 = Editor3DWindow.getWindow().getProjectPrimitives();
-                                break;
-                            case PRIMITIVE48:
-                                treeItem2 = Editor3DWindow.getWindow().getProjectPrimitives48();
-                                break;
-                            case PRIMITIVE8:
-                                treeItem2 = Editor3DWindow.getWindow().getProjectPrimitives8();
-                                break;
-                            default:
-                                break;
-                            }
-                        } catch (LDParsingException e) {
-                        } catch (FileNotFoundException e) {
-                        } catch (UnsupportedEncodingException e) {
-                        } finally {
-                            try {
-                                if (reader != null)
-                                    reader.close();
-                            } catch (LDParsingException e1) {
-                            }
-                        }
-
-                        newDfnMap.put(path, new DatFileName(path, f.getName(), titleSb.toString(), type == DatType.PRIMITIVE || type == DatType.PRIMITIVE48 || type == DatType.PRIMITIVE8));
-                        newParentMap.put(path, treeItem2);
-                        newTypeMap.put(path, type);
-                        readOnly.put(path, isReadOnlyFolder);
+                final ArrayList<File> datFileList = getUnlockedDatFiles(result, files, locked, loaded);
+                final Map<String, LibraryHeaderIndex.Header> headers = LibraryHeaderIndex.getHeaders(datFileList);
+                for (File f : datFileList) {
+                    final String path = f.getAbsolutePath();
+                    final LibraryHeaderIndex.Header header = headers.get(path);
+                    TreeItem treeItem2 = Editor3DWindow.getWindow().getProjectParts();
+                    if (header.getType() != null) type = header.getType();
+                    if (type == null) type = DatType.PART;
+
+                    // Change treeItem according to type
+                    switch (type) {
+                    case PART:
+                        treeItem2 = Editor3DWindow.getWindow().getProjectParts();
+                        break;
+                    case SUBPART:
+                        treeItem2 = Editor3DWindow.getWindow().getProjectSubparts();
+                        break;
+                    case PRIMITIVE:
+                        treeItem2 = Editor3DWindow.getWindow().getProjectPrimitives();
+                        break;
+                    case PRIMITIVE48:
+                        treeItem2 = Editor3DWindow.getWindow().getProjectPrimitives48();
+                        break;
+                    case PRIMITIVE8:
+                        treeItem2 = Editor3DWindow.getWindow().getProjectPrimitives8();
+                        break;
+                    default:
+                        break;
                     }
+
+                    newDfnMap.put(path, new DatFileName(path, f.getName(), header.getDescription(), type == DatType.PRIMITIVE || type == DatType.PRIMITIVE48 || type == DatType.PRIMITIVE8));
+                    newParentMap.put(path, treeItem2);
+                    newTypeMap.put(path, type);
+                    readOnly.put(path, isReadOnlyFolder);
                 }
             } else {
                 NLogger.error(LibraryManager.class, "readActualDataFromFolder: Can't open directory" + basePath);  //$NON-NLS-1$
@@ -1223,47 +1131,14 @@ public class LibraryManager {
                     if (canSearch) {
                         // Do the search for DAT files
                         File libFolder = new File(folderPath);
-                        UTF8BufferedReader reader = null;
-                        StringBuilder titleSb = new StringBuilder();
-                        for (File f : libFolder.listFiles()) {
-                            if (f.isFile() && f.getName().matches(".*.dat")) { //$NON-NLS-1$
-                                final String path = f.getAbsolutePath();
-                                if (locked.contains(path)) {
-                                    // File is locked by LPE, so don't parse it twice
-                                    result[2] = result[2] + 1;
-                                    continue;
-                                }
-                                if (!loaded.contains(path)) {
-                                    // The file is new
-                                    result[0] = result[0] + 1;
-                                }
-                                titleSb.setLength(0);
-                                try {
-                                    reader = new UTF8BufferedReader(f.getAbsolutePath());
-                                    String title = reader.readLine();
-                                    if (title != null) {
-                                        title = title.trim();
-                                        if (title.length() > 0) {
-                                            titleSb.append(" -"); //$NON-NLS-1$
-                                            titleSb.append(title.substring(1));
-                                        }
-                                    }
-                                } catch (LDParsingException e) {
-                                } catch (FileNotFoundException e) {
-                                } catch (UnsupportedEncodingException e) {
-                                } finally {
-                                    try {
-                                        if (reader != null)
-                                            reader.close();
-                                    } catch (LDParsingException e1) {
-                                    }
-                                }
-
-                                newDfnMap.put(path, new DatFileName(path,f.getName(), titleSb.toString(), isPrimitiveFolder));
-                                newParentMap.put(path, treeItem);
-                                newTypeMap.put(path, type);
-                                readOnly.put(path, isReadOnlyFolder);
-                            }
+                        final ArrayList<File> datFileList = getUnlockedDatFiles(result, libFolder.listFiles(), locked, loaded);
+                        final Map<String, LibraryHeaderIndex.Header> headers = LibraryHeaderIndex.getHeaders(datFileList);
+                        for (File f : datFileList) {
+                            final String path = f.getAbsolutePath();
+                            newDfnMap.put(path, new DatFileName(path,f.getName(), headers.get(path).getDescription(), isPrimitiveFolder));
+                            newParentMap.put(path, treeItem);
+                            newTypeMap.put(path, type);
+                            readOnly.put(path, isReadOnlyFolder);
                         }
                     }
                     break;
@@ -51,6 +51,13 @@ public final class Matrix {
 
     private final BigDecimal[][] M = new BigDecimal[4][4];
 
+    /**
+     * Transforms points without BigDecimal arithmetic (or {@code null}). It
+     * is created by the first call of {@link #transform(BigDecimal, BigDecimal, BigDecimal)}.
+     */
+    private CompactMatrix compact = null;
+    private volatile boolean compactCreated = false;
+
     /**
      *
      */
@@ -270,6 +277,32 @@ public final class Matrix {
     }
 
     public BigDecimal[] transform(BigDecimal X, BigDecimal Y, BigDecimal Z) {
+        // The results of the compact matrix are never rounded
+        final int precision = Threshold.mc.getPrecision();
+        if (precision == 0 || precision >= 19) {
+            final CompactMatrix compact = getCompact();
+            final BigDecimal[] result = compact == null ? null : compact.transform(X, Y, Z);
+            if (result != null) {
+                return result;
+            }
+        }
+        return transformExact(X, Y, Z);
+    }
+
+    private CompactMatrix getCompact() {
+        if (!compactCreated) {
+            // Two threads can create it at the same time, but the result is the same
+            compact = CompactMatrix.create(M);
+            compactCreated = true;
+        }
+        return compact;
+    }
+
+    /**
+     * Transforms a point with {@link BigDecimal} arithmetic (rounded with
+     * {@link Threshold#mc})
+     */
+    BigDecimal[] transformExact(BigDecimal X, BigDecimal Y, BigDecimal Z) {
         final MathContext mc = Threshold.mc;
         final BigDecimal[] result = new BigDecimal[4];
         for (int row = 0; row < 4; row++) {
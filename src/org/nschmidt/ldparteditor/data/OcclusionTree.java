@@ -0,0 +1,130 @@
+/* MIT - License
+
+Copyright (c) 2012 - this year, Nils Schmidt
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE
+FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE. */
+package org.nschmidt.ldparteditor.data;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Finds the triangles and quads which could hide a vertex. It combines a
+ * {@link SurfaceBVH} over the faces of the vertex manager with the faces which
+ * were added after the hierarchy was built. The hierarchy is built on the
+ * first query and only built again when too many faces were changed since
+ * then. Removed faces stay in the hierarchy until then, so the caller has to
+ * check if a face still exists.
+ *
+ * @author nils
+ *
+ */
+final class OcclusionTree {
+
+    /** The minimum number of changes which leads to a new hierarchy */
+    private static final int MIN_CHANGES = 64;
+
+    private SurfaceBVH tree = null;
+    private final Set<GData> addedFaces = new HashSet<GData>();
+    private int changeCount = 0;
+    private Snapshot snapshot = null;
+
+    /**
+     * The state of the tree at one point in time. It can be used from
+     * multiple threads.
+     */
+    static final class Snapshot {
+
+        private final SurfaceBVH tree;
+        private final GData[] addedFaces;
+
+        private Snapshot(SurfaceBVH tree, GData[] addedFaces) {
+            this.tree = tree;
+            this.addedFaces = addedFaces;
+        }
+
+        /**
+         * Collects all faces which could intersect an infinite line (and
+         * maybe some faces which were already removed)
+         *
+         * @param o
+         *            a point on the line (x, y, z)
+         * @param d
+         *            the direction of the line (x, y, z)
+         */
+        void collectCandidates(double[] o, double[] d, List<GData> result) {
+            tree.collectIntersectedByLine(o, d, result);
+            Collections.addAll(result, addedFaces);
+        }
+    }
+
+    /**
+     * Has to be called after a triangle or quad was added (or its vertices
+     * were changed)
+     */
+    synchronized void added(GData gd) {
+        if (tree != null) {
+            addedFaces.add(gd);
+            changed();
+        }
+    }
+
+    /**
+     * Has to be called after a triangle or quad was removed
+     */
+    synchronized void removed(GData gd) {
+        if (tree != null) {
+            addedFaces.remove(gd);
+            changed();
+        }
+    }
+
+    /**
+     * Discards the hierarchy. It is built again with the next query.
+     */
+    synchronized void clear() {
+        tree = null;
+        addedFaces.clear();
+        changeCount = 0;
+        snapshot = null;
+    }
+
+    /**
+     * @return the current state of the tree. The hierarchy is built if
+     *         necessary.
+     */
+    synchronized Snapshot getSnapshot(Map<GData3, Vertex[]> triangles, Map<GData4, Vertex[]> quads) {
+        if (tree == null || changeCount > Math.max(MIN_CHANGES, tree.size() / 8)) {
+            final List<GData> faces = new ArrayList<GData>(triangles.size() + quads.size());
+            faces.addAll(triangles.keySet());
+            faces.addAll(quads.keySet());
+            tree = new SurfaceBVH(faces, triangles, quads);
+            addedFaces.clear();
+            changeCount = 0;
+            snapshot = null;
+        }
+        if (snapshot == null) {
+            snapshot = new Snapshot(tree, addedFaces.toArray(new GData[addedFaces.size()]));
+        }
+        return snapshot;
+    }
+
+    private void changed() {
+        changeCount++;
+        snapshot = null;
+    }
+}
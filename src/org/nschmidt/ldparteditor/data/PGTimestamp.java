@@ -30,6 +30,14 @@ public class PGTimestamp implements Serializable {
         this.lastModified = lastModified;
     }
 
+    public String getPath() {
+        return path;
+    }
+
+    public long getLastModified() {
+        return lastModified;
+    }
+
     public boolean isHot() {
         final File oldFile = new File(path);
         return oldFile.exists() && lastModified == oldFile.lastModified();
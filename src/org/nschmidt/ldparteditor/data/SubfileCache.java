@@ -0,0 +1,214 @@
+/* MIT - License
+
+Copyright (c) 2012 - this year, Nils Schmidt
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE
+FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE. */
+package org.nschmidt.ldparteditor.data;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.TreeSet;
+
+import org.nschmidt.ldparteditor.enums.View;
+import org.nschmidt.ldparteditor.helpers.LibraryFileIndex;
+import org.nschmidt.ldparteditor.project.Project;
+import org.nschmidt.ldparteditor.workbench.WorkbenchManager;
+
+/**
+ * Caches the source and the parsed lines of subfiles between two parsing
+ * passes. A {@link GData1} instantiates its content from the parsed lines (in
+ * local space) instead of parsing the source again. An entry is valid as long
+ * as the timestamp and the size of its file are unchanged. The source of
+ * unsaved files is only valid within one parsing pass.
+ *
+ * @author nils
+ *
+ */
+public enum SubfileCache {
+    INSTANCE;
+
+    /** Absolute file name -> cached subfile */
+    private static final HashMap<String, CachedSubfile> cache = new HashMap<String, CachedSubfile>(1000);
+
+    /** Counts the parsing passes */
+    private static long generation = 0L;
+
+    /** All settings and files which have an influence on the resolution of a subfile reference */
+    private static String resolutionState = null;
+
+    /**
+     * Starts a new parsing pass. Entries from unsaved files are removed. The
+     * parsed lines are removed, too, if a reference could now point to
+     * another file (e.g. if a new file was created or a library path has
+     * changed).
+     */
+    public static void beginParse() {
+        generation++;
+        for (Iterator<CachedSubfile> it = cache.values().iterator(); it.hasNext();) {
+            if (it.next().isVirtual) {
+                it.remove();
+            }
+        }
+        final String newResolutionState = getResolutionState();
+        if (!newResolutionState.equals(resolutionState)) {
+            resolutionState = newResolutionState;
+            clearParsedLines();
+        }
+    }
+
+    /**
+     * Removes all entries
+     */
+    public static void clear() {
+        cache.clear();
+        resolutionState = null;
+    }
+
+    /**
+     * Removes the parsed lines, but keeps the source of the files
+     */
+    public static void clearParsedLines() {
+        for (CachedSubfile subfile : cache.values()) {
+            subfile.parsedLines.clear();
+        }
+    }
+
+    /**
+     * @param absoluteFilename
+     *            the absolute file name of the subfile
+     * @return the cached source of the subfile or {@code null} if the file
+     *         was not cached or has changed
+     */
+    public static ArrayList<String> getLines(String absoluteFilename) {
+        final CachedSubfile subfile = getValidSubfile(absoluteFilename);
+        return subfile == null ? null : subfile.lines;
+    }
+
+    /**
+     * @param absoluteFilename
+     *            the absolute file name of an unsaved subfile
+     * @return the source of the unsaved file if it was already cached within
+     *         the current parsing pass, or {@code null}
+     */
+    public static ArrayList<String> getVirtualLines(String absoluteFilename) {
+        final CachedSubfile subfile = cache.get(absoluteFilename);
+        return subfile != null && subfile.isVirtual ? subfile.lines : null;
+    }
+
+    /**
+     * @param absoluteFilename
+     *            the absolute file name of a file from the disk
+     * @param lines
+     *            the source of the file
+     * @param lastModified
+     *            the timestamp of the file before it was read
+     * @param length
+     *            the size of the file before it was read
+     */
+    public static void putLines(String absoluteFilename, ArrayList<String> lines, long lastModified, long length) {
+        cache.put(absoluteFilename, new CachedSubfile(lines, false, lastModified, length));
+    }
+
+    /**
+     * @param absoluteFilename
+     *            the absolute file name of an unsaved file
+     * @param lines
+     *            the source of the file
+     */
+    public static void putVirtualLines(String absoluteFilename, ArrayList<String> lines) {
+        cache.put(absoluteFilename, new CachedSubfile(lines, true, 0L, 0L));
+    }
+
+    /**
+     * @return the parsed lines of the subfile (line with context -> parsed
+     *         line) or {@code null} if the subfile is not cached
+     */
+    static HashMap<String, GData> getParsedLines(String absoluteFilename) {
+        if (absoluteFilename == null) {
+            return null;
+        }
+        final CachedSubfile subfile = getValidSubfile(absoluteFilename);
+        return subfile == null ? null : subfile.parsedLines;
+    }
+
+    /**
+     * A file which is not part of the project is searched within its own
+     * folder first. Its subfile references can point to other files.
+     *
+     * @return the folder which was used to resolve the references of the
+     *         file, or an empty string
+     */
+    static String getResolutionContext(DatFile datFile) {
+        if (datFile == null || datFile.isProjectFile() || View.DUMMY_DATFILE.equals(datFile)) {
+            return ""; //$NON-NLS-1$
+        }
+        final String parent = new File(datFile.getOldName()).getParent();
+        return parent == null ? "" : parent; //$NON-NLS-1$
+    }
+
+    private static CachedSubfile getValidSubfile(String absoluteFilename) {
+        final CachedSubfile subfile = cache.get(absoluteFilename);
+        if (subfile == null) {
+            return null;
+        }
+        if (subfile.validGeneration != generation) {
+            // Check the file only once per parsing pass
+            final File file = new File(absoluteFilename);
+            if (subfile.isVirtual || file.lastModified() != subfile.lastModified || file.length() != subfile.length) {
+                cache.remove(absoluteFilename);
+                return null;
+            }
+            subfile.validGeneration = generation;
+        }
+        return subfile;
+    }
+
+    private static String getResolutionState() {
+        final StringBuilder sb = new StringBuilder();
+        sb.append(Project.getProjectPath());
+        sb.append('|');
+        sb.append(WorkbenchManager.getUserSettingState().getUnofficialFolderPath());
+        sb.append('|');
+        sb.append(WorkbenchManager.getUserSettingState().getLdrawFolderPath());
+        sb.append('|');
+        sb.append(LibraryFileIndex.getModificationCount());
+        final TreeSet<String> unsavedFiles = new TreeSet<String>();
+        for (DatFile df : Project.getUnsavedFiles()) {
+            unsavedFiles.add(df.getNewName());
+        }
+        for (String name : unsavedFiles) {
+            sb.append('|');
+            sb.append(name);
+        }
+        return sb.toString();
+    }
+
+    private static class CachedSubfile {
+
+        final ArrayList<String> lines;
+        final HashMap<String, GData> parsedLines = new HashMap<String, GData>();
+        final boolean isVirtual;
+        final long lastModified;
+        final long length;
+        long validGeneration = generation;
+
+        CachedSubfile(ArrayList<String> lines, boolean isVirtual, long lastModified, long length) {
+            this.lines = lines;
+            this.isVirtual = isVirtual;
+            this.lastModified = lastModified;
+            this.length = length;
+        }
+    }
+}
@@ -0,0 +1,307 @@
+/* MIT - License
+
+Copyright (c) 2012 - this year, Nils Schmidt
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE
+FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE. */
+package org.nschmidt.ldparteditor.data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.nschmidt.ldparteditor.helpers.math.Vector3d;
+
+/**
+ * A bounding volume hierarchy (axis aligned boxes) over triangles and quads.
+ * It is only used as a broad phase: a query returns all surfaces whose
+ * (slightly enlarged) bounding box is hit. The exact intersection test is
+ * still done with {@link java.math.BigDecimal} by the caller.
+ * <br>
+ * The hierarchy is immutable and can be queried from multiple threads.
+ *
+ * @author nils
+ *
+ */
+final class SurfaceBVH {
+
+    /** The maximum number of surfaces in a leaf */
+    private static final int LEAF_SIZE = 4;
+    /** The absolute enlargement of a bounding box in LDU */
+    private static final double MARGIN = .001;
+    /** The relative enlargement of a bounding box (covers the tolerances of the exact tests) */
+    private static final double RELATIVE_MARGIN = .0001;
+
+    private final GData[] surfaces;
+    /** The bounding box of every surface (min x, y, z and max x, y, z) */
+    private final double[][] surfaceBounds;
+    /** Min x, y, z and max x, y, z of every node */
+    private final double[] nodeBounds;
+    /** The first child (inner node) or the first surface (leaf) of every node */
+    private final int[] nodeStart;
+    /** The number of surfaces of a leaf ({@code 0} for an inner node) */
+    private final int[] nodeCount;
+    private int nodeSize = 0;
+
+    /**
+     * Builds the hierarchy
+     *
+     * @param data
+     *            the triangles and quads (other data is ignored)
+     * @param triangles
+     *            the vertices of the triangles
+     * @param quads
+     *            the vertices of the quads
+     */
+    SurfaceBVH(Collection<? extends GData> data, Map<GData3, Vertex[]> triangles, Map<GData4, Vertex[]> quads) {
+        final ArrayList<GData> validSurfaces = new ArrayList<GData>(data.size());
+        final ArrayList<double[]> validBounds = new ArrayList<double[]>(data.size());
+        for (GData gd : data) {
+            final Vertex[] verts;
+            switch (gd.type()) {
+            case 3:
+                verts = triangles.get(gd);
+                break;
+            case 4:
+                verts = quads.get(gd);
+                break;
+            default:
+                verts = null;
+                break;
+            }
+            if (verts != null) {
+                validSurfaces.add(gd);
+                validBounds.add(getBounds(verts));
+            }
+        }
+        final int size = validSurfaces.size();
+        surfaces = new GData[size];
+        surfaceBounds = new double[size][];
+        final double[][] bounds = validBounds.toArray(new double[size][]);
+        final Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        final int maxNodes = Math.max(1, 2 * size);
+        nodeBounds = new double[maxNodes * 6];
+        nodeStart = new int[maxNodes];
+        nodeCount = new int[maxNodes];
+        build(order, 0, size, bounds, newNode());
+        // The leaves refer to the sorted surfaces
+        for (int i = 0; i < size; i++) {
+            surfaces[i] = validSurfaces.get(order[i]);
+            surfaceBounds[i] = bounds[order[i]];
+        }
+    }
+
+    /**
+     * @return the enlarged bounding box of the vertices (min x, y, z and max
+     *         x, y, z)
+     */
+    static double[] getBounds(Vertex[] verts) {
+        final double[] result = new double[]{
+                Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY,
+                Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY};
+        for (Vertex v : verts) {
+            final double x = v.X.doubleValue();
+            final double y = v.Y.doubleValue();
+            final double z = v.Z.doubleValue();
+            result[0] = Math.min(result[0], x);
+            result[1] = Math.min(result[1], y);
+            result[2] = Math.min(result[2], z);
+            result[3] = Math.max(result[3], x);
+            result[4] = Math.max(result[4], y);
+            result[5] = Math.max(result[5], z);
+        }
+        final double extent = Math.max(result[3] - result[0], Math.max(result[4] - result[1], result[5] - result[2]));
+        final double margin = MARGIN + extent * RELATIVE_MARGIN;
+        for (int i = 0; i < 3; i++) {
+            result[i] -= margin;
+            result[i + 3] += margin;
+        }
+        return result;
+    }
+
+    /**
+     * @return the number of surfaces in the hierarchy
+     */
+    int size() {
+        return surfaces.length;
+    }
+
+    /**
+     * Collects all surfaces whose bounding box overlaps the bounding box of the
+     * vertices
+     */
+    void collectOverlapping(Vertex[] verts, List<GData> result) {
+        collectOverlapping(getBounds(verts), result);
+    }
+
+    /**
+     * Collects all surfaces whose bounding box overlaps the given box
+     *
+     * @param bounds
+     *            min x, y, z and max x, y, z
+     */
+    void collectOverlapping(double[] bounds, List<GData> result) {
+        if (surfaces.length == 0) {
+            return;
+        }
+        final int[] stack = new int[64];
+        int top = 0;
+        stack[top++] = 0;
+        while (top > 0) {
+            final int node = stack[--top];
+            if (!overlaps(nodeBounds, node * 6, bounds)) {
+                continue;
+            }
+            final int count = nodeCount[node];
+            if (count > 0) {
+                final int start = nodeStart[node];
+                for (int i = start; i < start + count; i++) {
+                    if (overlaps(surfaceBounds[i], 0, bounds)) {
+                        result.add(surfaces[i]);
+                    }
+                }
+            } else {
+                stack[top++] = nodeStart[node];
+                stack[top++] = nodeStart[node] + 1;
+            }
+        }
+    }
+
+    /**
+     * Collects all surfaces whose bounding box is hit by an infinite line (in
+     * both directions)
+     *
+     * @param origin
+     *            a point on the line
+     * @param direction
+     *            the direction of the line
+     */
+    void collectIntersectedByLine(Vector3d origin, Vector3d direction, List<GData> result) {
+        final double[] o = new double[]{origin.X.doubleValue(), origin.Y.doubleValue(), origin.Z.doubleValue()};
+        final double[] d = new double[]{direction.X.doubleValue(), direction.Y.doubleValue(), direction.Z.doubleValue()};
+        collectIntersectedByLine(o, d, result);
+    }
+
+    /**
+     * Collects all surfaces whose bounding box is hit by an infinite line (in
+     * both directions)
+     *
+     * @param o
+     *            a point on the line (x, y, z)
+     * @param d
+     *            the direction of the line (x, y, z)
+     */
+    void collectIntersectedByLine(double[] o, double[] d, List<GData> result) {
+        if (surfaces.length == 0) {
+            return;
+        }
+        final int[] stack = new int[64];
+        int top = 0;
+        stack[top++] = 0;
+        while (top > 0) {
+            final int node = stack[--top];
+            if (!isHitByLine(nodeBounds, node * 6, o, d)) {
+                continue;
+            }
+            final int count = nodeCount[node];
+            if (count > 0) {
+                final int start = nodeStart[node];
+                for (int i = start; i < start + count; i++) {
+                    if (isHitByLine(surfaceBounds[i], 0, o, d)) {
+                        result.add(surfaces[i]);
+                    }
+                }
+            } else {
+                stack[top++] = nodeStart[node];
+                stack[top++] = nodeStart[node] + 1;
+            }
+        }
+    }
+
+    private static boolean overlaps(double[] box, int offset, double[] bounds) {
+        return box[offset] <= bounds[3] && box[offset + 3] >= bounds[0]
+                && box[offset + 1] <= bounds[4] && box[offset + 4] >= bounds[1]
+                && box[offset + 2] <= bounds[5] && box[offset + 5] >= bounds[2];
+    }
+
+    private static boolean isHitByLine(double[] box, int offset, double[] o, double[] d) {
+        double tMin = Double.NEGATIVE_INFINITY;
+        double tMax = Double.POSITIVE_INFINITY;
+        for (int axis = 0; axis < 3; axis++) {
+            final double min = box[offset + axis];
+            final double max = box[offset + axis + 3];
+            if (d[axis] == 0.0) {
+                if (o[axis] < min || o[axis] > max) {
+                    return false;
+                }
+            } else {
+                final double t1 = (min - o[axis]) / d[axis];
+                final double t2 = (max - o[axis]) / d[axis];
+                tMin = Math.max(tMin, Math.min(t1, t2));
+                tMax = Math.min(tMax, Math.max(t1, t2));
+                if (tMin > tMax) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private int newNode() {
+        return nodeSize++;
+    }
+
+    private void setEmpty(int node) {
+        Arrays.fill(nodeBounds, node * 6, node * 6 + 3, Double.POSITIVE_INFINITY);
+        Arrays.fill(nodeBounds, node * 6 + 3, node * 6 + 6, Double.NEGATIVE_INFINITY);
+    }
+
+    /**
+     * Builds the node for the surfaces from {@code start} (inclusive) to
+     * {@code end} (exclusive). The surfaces are split at the median of the
+     * longest axis.
+     */
+    private void build(Integer[] order, int start, int end, double[][] bounds, int node) {
+        final int offset = node * 6;
+        setEmpty(node);
+        for (int i = start; i < end; i++) {
+            final double[] b = bounds[order[i]];
+            for (int axis = 0; axis < 3; axis++) {
+                nodeBounds[offset + axis] = Math.min(nodeBounds[offset + axis], b[axis]);
+                nodeBounds[offset + axis + 3] = Math.max(nodeBounds[offset + axis + 3], b[axis + 3]);
+            }
+        }
+        final int count = end - start;
+        if (count <= LEAF_SIZE) {
+            nodeStart[node] = start;
+            nodeCount[node] = count;
+            return;
+        }
+        final double dx = nodeBounds[offset + 3] - nodeBounds[offset];
+        final double dy = nodeBounds[offset + 4] - nodeBounds[offset + 1];
+        final double dz = nodeBounds[offset + 5] - nodeBounds[offset + 2];
+        final int axis = dx >= dy && dx >= dz ? 0 : dy >= dz ? 1 : 2;
+        Arrays.sort(order, start, end, (a, b) -> Double.compare(bounds[a][axis] + bounds[a][axis + 3], bounds[b][axis] + bounds[b][axis + 3]));
+        final int middle = start + count / 2;
+        final int left = newNode();
+        final int right = newNode();
+        nodeStart[node] = left;
+        nodeCount[node] = 0;
+        build(order, start, middle, bounds, left);
+        build(order, middle, end, bounds, right);
+    }
+}
@@ -23,13 +23,20 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
 
 import org.eclipse.swt.SWTException;
 import org.eclipse.swt.custom.CTabItem;
+import org.eclipse.swt.custom.StyledText;
 import org.eclipse.swt.graphics.Point;
 import org.eclipse.swt.widgets.Display;
 import org.lwjgl.opengl.GL11;
@@ -39,6 +46,7 @@ import org.lwjgl.util.vector.Vector4f;
 import org.nschmidt.ldparteditor.composites.compositetab.CompositeTab;
 import org.nschmidt.ldparteditor.composites.compositetab.CompositeTabState;
 import org.nschmidt.ldparteditor.enums.View;
+import org.nschmidt.ldparteditor.helpers.Metrics;
 import org.nschmidt.ldparteditor.helpers.composite3d.ViewIdleManager;
 import org.nschmidt.ldparteditor.helpers.compositetext.SubfileCompiler;
 import org.nschmidt.ldparteditor.helpers.math.HashBiMap;
@@ -49,6 +57,7 @@ import org.nschmidt.ldparteditor.logger.NLogger;
 import org.nschmidt.ldparteditor.project.Project;
 import org.nschmidt.ldparteditor.shells.editor3d.Editor3DWindow;
 import org.nschmidt.ldparteditor.shells.editortext.EditorTextWindow;
+import org.nschmidt.ldparteditor.text.LinePatch;
 import org.nschmidt.ldparteditor.workbench.WorkbenchManager;
 
 /**
@@ -65,7 +74,7 @@ class VM00Base {
      * {@code lineLinkedToVertices} checken, wenn ausgeschlossen werden soll,
      * dass es sich um Subfile Daten handelt
      */
-    protected final ThreadsafeTreeMap<Vertex, Set<VertexManifestation>> vertexLinkedToPositionInFile = new ThreadsafeTreeMap<Vertex, Set<VertexManifestation>>();
+    protected final VertexManifestationMap vertexLinkedToPositionInFile = new VertexManifestationMap();
 
     // 1 Vertex kann keinem oder mehreren Subfiles angehören
     protected final ThreadsafeTreeMap<Vertex, Set<GData1>> vertexLinkedToSubfile = new ThreadsafeTreeMap<Vertex, Set<GData1>>();
@@ -90,17 +99,27 @@ class VM00Base {
     protected final ThreadsafeHashMap<GData4, Vertex[]> quads = new ThreadsafeHashMap<GData4, Vertex[]>();
     protected final ThreadsafeHashMap<GData5, Vertex[]> condlines = new ThreadsafeHashMap<GData5, Vertex[]>();
 
+    /** Finds the faces which could hide a vertex (for the selection) */
+    protected final OcclusionTree occlusionTree = new OcclusionTree();
+
     protected final Vertex[] vArray = new Vertex[4];
     protected final VertexManifestation[] vdArray = new VertexManifestation[4];
 
-    protected final Set<Vertex> selectedVertices = Collections.newSetFromMap(new ThreadsafeTreeMap<Vertex, Boolean>());
-
-    protected final Set<GData> selectedData = Collections.newSetFromMap(new ThreadsafeHashMap<GData, Boolean>());
-    protected final Set<GData1> selectedSubfiles = Collections.newSetFromMap(new ThreadsafeHashMap<GData1, Boolean>());
-    protected final Set<GData2> selectedLines = Collections.newSetFromMap(new ThreadsafeHashMap<GData2, Boolean>());
-    protected final Set<GData3> selectedTriangles = Collections.newSetFromMap(new ThreadsafeHashMap<GData3, Boolean>());
-    protected final Set<GData4> selectedQuads = Collections.newSetFromMap(new ThreadsafeHashMap<GData4, Boolean>());
-    protected final Set<GData5> selectedCondlines = Collections.newSetFromMap(new ThreadsafeHashMap<GData5, Boolean>());
+    private final ThreadsafeTreeMap<Vertex, Boolean> selectedVerticesMap = new ThreadsafeTreeMap<Vertex, Boolean>();
+    protected final Set<Vertex> selectedVertices = Collections.newSetFromMap(selectedVerticesMap);
+
+    private final ThreadsafeHashMap<GData, Boolean> selectedDataMap = new ThreadsafeHashMap<GData, Boolean>();
+    protected final Set<GData> selectedData = Collections.newSetFromMap(selectedDataMap);
+    private final ThreadsafeHashMap<GData1, Boolean> selectedSubfilesMap = new ThreadsafeHashMap<GData1, Boolean>();
+    protected final Set<GData1> selectedSubfiles = Collections.newSetFromMap(selectedSubfilesMap);
+    private final ThreadsafeHashMap<GData2, Boolean> selectedLinesMap = new ThreadsafeHashMap<GData2, Boolean>();
+    protected final Set<GData2> selectedLines = Collections.newSetFromMap(selectedLinesMap);
+    private final ThreadsafeHashMap<GData3, Boolean> selectedTrianglesMap = new ThreadsafeHashMap<GData3, Boolean>();
+    protected final Set<GData3> selectedTriangles = Collections.newSetFromMap(selectedTrianglesMap);
+    private final ThreadsafeHashMap<GData4, Boolean> selectedQuadsMap = new ThreadsafeHashMap<GData4, Boolean>();
+    protected final Set<GData4> selectedQuads = Collections.newSetFromMap(selectedQuadsMap);
+    private final ThreadsafeHashMap<GData5, Boolean> selectedCondlinesMap = new ThreadsafeHashMap<GData5, Boolean>();
+    protected final Set<GData5> selectedCondlines = Collections.newSetFromMap(selectedCondlinesMap);
 
     protected final Set<Vertex> backupSelectedVertices = Collections.newSetFromMap(new ThreadsafeTreeMap<Vertex, Boolean>());
 
@@ -140,15 +159,40 @@ class VM00Base {
 
     protected Vertex lastSelectedVertex = null;
 
-    protected final Set<Vertex> hiddenVertices = Collections.newSetFromMap(new ThreadsafeTreeMap<Vertex, Boolean>());
-    protected final Set<GData> hiddenData = Collections.newSetFromMap(new ThreadsafeHashMap<GData, Boolean>());
+    private final ThreadsafeTreeMap<Vertex, Boolean> hiddenVerticesMap = new ThreadsafeTreeMap<Vertex, Boolean>();
+    protected final Set<Vertex> hiddenVertices = Collections.newSetFromMap(hiddenVerticesMap);
+    private final ThreadsafeHashMap<GData, Boolean> hiddenDataMap = new ThreadsafeHashMap<GData, Boolean>();
+    protected final Set<GData> hiddenData = Collections.newSetFromMap(hiddenDataMap);
 
     protected final HashMap<GData, Byte> bfcMap = new HashMap<GData, Byte>();
 
+    /** The delay of the synchronisation with the text editors (in milliseconds) */
+    private static final long SYNC_DELAY = 1800L;
+    private static final Pattern LINE_DELIMITER = Pattern.compile("\r?\n|\r"); //$NON-NLS-1$
+    /** The time to patch the text of a text editor */
+    private static final Metrics.Timer SYNC_TIMER = Metrics.timer("editor.sync.patch"); //$NON-NLS-1$
+    /** Runs the synchronisations of all files with the text editors */
+    private static final ScheduledExecutorService syncExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+        final Thread t = new Thread(r, "TextEditorSync"); //$NON-NLS-1$
+        t.setDaemon(true);
+        return t;
+    });
+
     protected volatile AtomicBoolean resetTimer = new AtomicBoolean(false);
     protected volatile AtomicBoolean skipTimer = new AtomicBoolean(false);
     protected volatile AtomicInteger tid = new AtomicInteger(0);
-    protected volatile AtomicInteger openThreads = new AtomicInteger(0);
+    /**
+     * Counts the changes of the model which are not tracked by the maps (e.g.
+     * changed values of the data)
+     */
+    private final AtomicLong changeCount = new AtomicLong(0L);
+    /** The pending synchronisation with the text editors (guarded by "lock") */
+    private ScheduledFuture<?> pendingSync = null;
+    /**
+     * The data of each line when the text editors were synchronised the last
+     * time ({@code null} if the text editors have to be compared line by line)
+     */
+    private volatile GData[] syncedData = null;
     protected volatile Lock lock = new ReentrantLock();
     private volatile Lock manifestationLock = new ReentrantLock();
 
@@ -159,22 +203,57 @@ class VM00Base {
     public final synchronized void setUpdated(boolean updated) {
         this.updated = updated;
         if (updated) {
-            ViewIdleManager.renderLDrawStandard[0].set(true);
+            ViewIdleManager.requestFrames();
         }
     }
 
     public final synchronized void setModified_NoSync() {
         this.modified = true;
         setUpdated(false);
+        markChanged();
     }
 
     public final boolean isModified() {
         return modified;
     }
 
+    /**
+     * @return a number which changes every time the geometry, the selection or
+     *         the visibility of the model data was modified
+     */
+    public final long getModificationCount() {
+        return changeCount.get()
+                + vertexLinkedToPositionInFile.getModificationCount()
+                + lineLinkedToVertices.getModificationCount()
+                + declaredVertices.getModificationCount()
+                + lines.getModificationCount()
+                + triangles.getModificationCount()
+                + quads.getModificationCount()
+                + condlines.getModificationCount()
+                + selectedVerticesMap.getModificationCount()
+                + selectedDataMap.getModificationCount()
+                + selectedSubfilesMap.getModificationCount()
+                + selectedLinesMap.getModificationCount()
+                + selectedTrianglesMap.getModificationCount()
+                + selectedQuadsMap.getModificationCount()
+                + selectedCondlinesMap.getModificationCount()
+                + hiddenVerticesMap.getModificationCount()
+                + hiddenDataMap.getModificationCount();
+    }
+
+    /**
+     * Marks the model as changed (e.g. after the selection or a value of the
+     * data was changed in place) and requests a rebuild check of the 3D views.
+     */
+    public final void markChanged() {
+        changeCount.incrementAndGet();
+        GL33RebuildScheduler.requestCheck();
+    }
+
     public final synchronized void setModified(boolean modified, boolean addHistory) {
         if (modified) {
             setUpdated(false);
+            markChanged();
             syncWithTextEditors(addHistory);
         }
         this.modified = modified;
@@ -221,136 +300,215 @@ class VM00Base {
                 // lock.unlock() call on finally!
                 return;
             }
-            if (openThreads.get() > 10) {
-                resetTimer.set(true);
-                // lock.unlock() call on finally!
-                return;
+            scheduleSync(tid.incrementAndGet(), skipTimer.getAndSet(false) ? 0L : SYNC_DELAY);
+        } finally {
+            try {
+                lock.unlock();
+            } catch (Exception e) {
+                NLogger.error(getClass(), e);
             }
-            final AtomicInteger tid2 = new AtomicInteger(tid.incrementAndGet());
-            final Thread syncThread = new Thread(new Runnable() {
-                @Override
-                public void run() {
-                    openThreads.incrementAndGet();
-                    do {
-                        if (skipTimer.get()) {
-                            break;
-                        }
-                        resetTimer.set(false);
-                        for(int i = 0; i < 4; i++) {
-                            try {
-                                Thread.sleep(450);
-                            } catch (InterruptedException e) {
-                            }
-                            if (tid2.get() != tid.get()) break;
-                        }
-                    } while (resetTimer.get());
-                    skipTimer.set(false);
-                    openThreads.decrementAndGet();
-                    if (tid2.get() != tid.get() || isSkipSyncWithTextEditor() || !isSyncWithTextEditor()) return;
-                    boolean notFound = true;
-                    boolean tryToUnlockLock2 = false;
-                    Lock lock2 = null;
-                    try {
-                        lock2 = linkedDatFile.getHistory().getLock();
-                        // "lock2" will be locked, if undo/redo tries to restore the state.
-                        // Any attempt to broke the data structure with an old synchronisation state will be
-                        // prevented with this lock.
-                        if (lock2.tryLock()) {
-                            tryToUnlockLock2 = true;
-                            try {
-                                // A lot of stuff can throw an exception here, since the thread waits two seconds and
-                                // the state of the program may not allow a synchronisation anymore
-                                for (EditorTextWindow w : Project.getOpenTextWindows()) {
-                                    for (final CTabItem t : w.getTabFolder().getItems()) {
-                                        // FIXME Implement a solid solution against this NullPointer errors here...
-                                        final CompositeTab ctab = ((CompositeTab) t);
-                                        if (ctab == null) continue;
-                                        final CompositeTabState state = ctab.getState();
-                                        if (state == null) continue;
-                                        final DatFile txtDat = state.getFileNameObj();
-                                        if (txtDat != null && txtDat.equals(linkedDatFile)) {
-                                            notFound = false;
-                                            final String txt;
-                                            if (isModified()) {
-                                                txt = txtDat.getText();
-                                            } else {
-                                                txt = null;
-                                            }
-                                            Display.getDefault().asyncExec(new Runnable() {
-                                                @Override
-                                                public void run() {
-                                                    try {
-                                                        int ti = ctab.getTextComposite().getTopIndex();
-                                                        Point r = ctab.getTextComposite().getSelectionRange();
-                                                        ctab.getState().setSync(true);
-                                                        if (isModified() && txt != null) {
-                                                            ctab.getTextComposite().setText(txt);
-                                                        }
-                                                        ctab.getTextComposite().setTopIndex(ti);
-                                                        try {
-                                                            ctab.getTextComposite().setSelectionRange(r.x, r.y);
-                                                        } catch (IllegalArgumentException consumed) {}
-                                                        ctab.getTextComposite().redraw();
-                                                        ctab.getControl().redraw();
-                                                        ctab.getState().setSync(false);
-                                                    } catch (SWTException ex) {
-                                                        // The text editor widget could be disposed
-                                                        NLogger.error(getClass(), ex);
-                                                    } finally {
-                                                        setUpdated(true);
-                                                    }
-                                                }
-                                            });
-                                        }
-                                    }
-                                }
-                            } catch (Exception consumed) {
+        }
+    }
 
-                                // We want to know what can go wrong here
-                                // because it SHOULD be avoided!!
-                                NLogger.error(getClass(), "Synchronisation with the text editor failed."); //$NON-NLS-1$
-                                NLogger.error(getClass(), consumed);
+    /**
+     * Replaces the pending synchronisation (if any). The caller has to hold
+     * the lock.
+     */
+    private void scheduleSync(final int tid2, long delay) {
+        final ScheduledFuture<?> pending = pendingSync;
+        if (pending != null) {
+            pending.cancel(false);
+        }
+        resetTimer.set(false);
+        pendingSync = syncExecutor.schedule(() -> runSync(tid2), delay, TimeUnit.MILLISECONDS);
+    }
 
-                                setUpdated(true);
-                            } finally {
-                                if (notFound) setUpdated(true);
-                            }
-                            if (WorkbenchManager.getUserSettingState().getSyncWithLpeInline().get()) {
-                                while (!isUpdated() && Editor3DWindow.getAlive().get()) {
-                                    try {
-                                        Thread.sleep(100);
-                                    } catch (InterruptedException e) {
-                                    }
-                                }
+    /**
+     * Applies the text of the modified file to its text editors. Only the
+     * changed lines are replaced, so the text editor has to restyle and to
+     * check only these lines. The changed lines are the lines whose data in
+     * the draw chain was replaced since the last synchronisation.
+     */
+    private void runSync(final int tid2) {
+        if (tid2 != tid.get()) return;
+        if (resetTimer.get() && !skipTimer.get()) {
+            // The model is still modified (e.g. by dragging vertices)
+            try {
+                lock.lock();
+                if (tid2 == tid.get()) scheduleSync(tid2, SYNC_DELAY);
+            } finally {
+                lock.unlock();
+            }
+            return;
+        }
+        skipTimer.set(false);
+        if (isSkipSyncWithTextEditor() || !isSyncWithTextEditor()) return;
+        boolean notFound = true;
+        boolean tryToUnlockLock2 = false;
+        Lock lock2 = null;
+        try {
+            lock2 = linkedDatFile.getHistory().getLock();
+            // "lock2" will be locked, if undo/redo tries to restore the state.
+            // Any attempt to broke the data structure with an old synchronisation state will be
+            // prevented with this lock.
+            if (lock2.tryLock()) {
+                tryToUnlockLock2 = true;
+                try {
+                    // A lot of stuff can throw an exception here, since the thread waits two seconds and
+                    // the state of the program may not allow a synchronisation anymore
+                    final GData[] previousData = syncedData;
+                    final GData[] data = isModified() ? getDataPerLine() : null;
+                    final int prefix;
+                    final int suffix;
+                    final String[] changedLines;
+                    if (data == null) {
+                        prefix = 0;
+                        suffix = 0;
+                        changedLines = isModified() ? LINE_DELIMITER.split(linkedDatFile.getText(), -1) : null;
+                    } else if (previousData == null) {
+                        prefix = 0;
+                        suffix = 0;
+                        changedLines = toLines(data, 0, data.length);
+                    } else {
+                        // Only the lines with new data have to be converted to text
+                        final int minCount = Math.min(previousData.length, data.length);
+                        int p = 0;
+                        while (p < minCount && previousData[p] == data[p]) {
+                            p++;
+                        }
+                        int s = 0;
+                        while (p + s < minCount && previousData[previousData.length - s - 1] == data[data.length - s - 1]) {
+                            s++;
+                        }
+                        prefix = p;
+                        suffix = s;
+                        changedLines = toLines(data, p, data.length - s);
+                    }
+                    // The hint is only valid, if the text editor still shows the previous data
+                    final int expectedLineCount = data == null || previousData == null ? -1 : previousData.length;
+                    syncedData = data;
+                    for (EditorTextWindow w : Project.getOpenTextWindows()) {
+                        for (final CTabItem t : w.getTabFolder().getItems()) {
+                            // FIXME Implement a solid solution against this NullPointer errors here...
+                            final CompositeTab ctab = ((CompositeTab) t);
+                            if (ctab == null) continue;
+                            final CompositeTabState state = ctab.getState();
+                            if (state == null) continue;
+                            final DatFile txtDat = state.getFileNameObj();
+                            if (txtDat != null && txtDat.equals(linkedDatFile)) {
+                                notFound = false;
                                 Display.getDefault().asyncExec(new Runnable() {
                                     @Override
                                     public void run() {
-                                        SubfileCompiler.compile(linkedDatFile, true, true);
+                                        try {
+                                            final StyledText st = ctab.getTextComposite();
+                                            int ti = st.getTopIndex();
+                                            Point r = st.getSelectionRange();
+                                            ctab.getState().setSync(true);
+                                            if (isModified() && changedLines != null) {
+                                                final long start = SYNC_TIMER.start();
+                                                final LinePatch patch;
+                                                if (expectedLineCount == -1 || expectedLineCount == st.getLineCount()) {
+                                                    patch = LinePatch.create(st::getLine, st.getLineCount(), st.getCharCount(), st::getOffsetAtLine, prefix, suffix, changedLines, st.getLineDelimiter());
+                                                } else {
+                                                    // The text was changed in the meantime
+                                                    patch = LinePatch.create(st::getLine, st.getLineCount(), st.getCharCount(), st::getOffsetAtLine, toLines(data, 0, data.length), st.getLineDelimiter());
+                                                }
+                                                if (patch != null) {
+                                                    st.replaceTextRange(patch.getStart(), patch.getLength(), patch.getText());
+                                                }
+                                                SYNC_TIMER.stop(start);
+                                            } else {
+                                                // The text editor does not show the data of this synchronisation
+                                                syncedData = null;
+                                            }
+                                            st.setTopIndex(ti);
+                                            try {
+                                                st.setSelectionRange(r.x, r.y);
+                                            } catch (IllegalArgumentException consumed) {}
+                                            st.redraw();
+                                            ctab.getControl().redraw();
+                                            ctab.getState().setSync(false);
+                                        } catch (SWTException ex) {
+                                            // The text editor widget could be disposed
+                                            NLogger.error(getClass(), ex);
+                                        } finally {
+                                            setUpdated(true);
+                                        }
                                     }
                                 });
                             }
-                        } else {
-                            NLogger.debug(getClass(), "Synchronisation was skipped due to undo/redo."); //$NON-NLS-1$
-                        }
-                    } finally {
-                        try {
-                            if (lock2 != null && tryToUnlockLock2) lock2.unlock();
-                        } catch (Exception e) {
-                            NLogger.error(getClass(), e);
                         }
                     }
+                } catch (Exception consumed) {
+
+                    // We want to know what can go wrong here
+                    // because it SHOULD be avoided!!
+                    NLogger.error(getClass(), "Synchronisation with the text editor failed."); //$NON-NLS-1$
+                    NLogger.error(getClass(), consumed);
+
+                    syncedData = null;
+                    setUpdated(true);
+                } finally {
+                    if (notFound) {
+                        syncedData = null;
+                        setUpdated(true);
+                    }
                 }
-            });
-            syncThread.start();
+                if (WorkbenchManager.getUserSettingState().getSyncWithLpeInline().get()) {
+                    compileInlineWhenUpdated();
+                }
+            } else {
+                NLogger.debug(getClass(), "Synchronisation was skipped due to undo/redo."); //$NON-NLS-1$
+            }
         } finally {
             try {
-                lock.unlock();
+                if (lock2 != null && tryToUnlockLock2) lock2.unlock();
             } catch (Exception e) {
                 NLogger.error(getClass(), e);
             }
         }
     }
 
+    /**
+     * Compiles the !LPE INLINE statements after the text editors were updated.
+     * The check is rescheduled instead of blocking the synchronisation thread,
+     * which is shared by all files.
+     */
+    private void compileInlineWhenUpdated() {
+        if (!isUpdated() && Editor3DWindow.getAlive().get()) {
+            syncExecutor.schedule(this::compileInlineWhenUpdated, 100L, TimeUnit.MILLISECONDS);
+            return;
+        }
+        Display.getDefault().asyncExec(new Runnable() {
+            @Override
+            public void run() {
+                SubfileCompiler.compile(linkedDatFile, true, true);
+            }
+        });
+    }
+
+    /**
+     * @return the data of each line of the linked file (in the order of the
+     *         draw chain) or {@code null} if the file is empty
+     */
+    private GData[] getDataPerLine() {
+        final ArrayList<GData> result = new ArrayList<GData>();
+        GData data2draw = linkedDatFile.getDrawChainStart();
+        while ((data2draw = data2draw.getNext()) != null) {
+            result.add(data2draw);
+        }
+        return result.isEmpty() ? null : result.toArray(new GData[result.size()]);
+    }
+
+    private static String[] toLines(GData[] data, int from, int to) {
+        final String[] result = new String[to - from];
+        for (int i = from; i < to; i++) {
+            result[i - from] = data[i].toString();
+        }
+        return result;
+    }
+
     public final boolean isSyncWithLpeInline() {
         return WorkbenchManager.getUserSettingState().getSyncWithLpeInline().get();
     }
@@ -438,8 +596,7 @@ class VM00Base {
         // Do not validate more stuff on release, since it costs a lot performance.
         if (!NLogger.DEBUG) return;
 
-        // TreeMap<Vertex, HashSet<VertexManifestation>>
-        // vertexLinkedToPositionInFile
+        // VertexManifestationMap vertexLinkedToPositionInFile
         // TreeMap<Vertex, HashSet<GData1>> vertexLinkedToSubfile
         // HashMap<GData, HashSet<VertexInfo>> lineLinkedToVertices
 
@@ -728,6 +885,7 @@ class VM00Base {
                     break;
                 case 3:
                     triangles.remove(linkedData);
+                    occlusionTree.removed(linkedData);
                     if (vd != null) {
                         vd.remove(new VertexManifestation(0, linkedData));
                         vd.remove(new VertexManifestation(1, linkedData));
@@ -738,6 +896,7 @@ class VM00Base {
                     break;
                 case 4:
                     quads.remove(linkedData);
+                    occlusionTree.removed(linkedData);
                     if (vd != null) {
                         vd.remove(new VertexManifestation(0, linkedData));
                         vd.remove(new VertexManifestation(1, linkedData));
@@ -786,6 +945,7 @@ class VM00Base {
             break;
         case 3: // Triangle
             triangles.remove(gdata);
+            occlusionTree.removed(gdata);
             lineLinkedToVertices.remove(gdata);
             if (lv == null)
                 break;
@@ -800,6 +960,7 @@ class VM00Base {
             break;
         case 4: // Quad
             quads.remove(gdata);
+            occlusionTree.removed(gdata);
             lineLinkedToVertices.remove(gdata);
             if (lv == null)
                 break;
@@ -1818,9 +1979,11 @@ class VM00Base {
         lines.clear();
         triangles.clear();
         quads.clear();
+        occlusionTree.clear();
         condlines.clear();
         selectedItemIndex = -1;
-        win.disableSelectionTab();
+        // There is no window when the data is used without the UI (e.g. by a benchmark)
+        if (win != null) win.disableSelectionTab();
         selectedData.clear();
         selectedVertices.clear();
         selectedSubfiles.clear();
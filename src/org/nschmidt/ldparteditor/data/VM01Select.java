@@ -54,7 +54,7 @@ class VM01Select extends VM00Snapshot {
     public synchronized void clearSelection() {
         final Editor3DWindow win = Editor3DWindow.getWindow();
         selectedItemIndex = -1;
-        win.disableSelectionTab();
+        if (win != null) win.disableSelectionTab();
         selectedData.clear();
         selectedVertices.clear();
         selectedSubfiles.clear();
@@ -21,6 +21,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -757,8 +758,6 @@ public class VM01SelectHelper extends VM01Select {
     }
 
     private void selectVertices_helper(final Composite3D c3d, final Vertex vertex, final Vector4f rayDirection, PowerRay powerRay, boolean noTrans, boolean needRayTest) {
-        final Set<GData3> tris = triangles.keySet();
-        final Set<GData4> qs = quads.keySet();
         if (c3d.isShowingHiddenVertices()) {
             if (selectedVertices.contains(vertex)) {
                 if (needRayTest || c3d.getKeys().isAltPressed())  {
@@ -769,34 +768,7 @@ public class VM01SelectHelper extends VM01Select {
                 if (Editor3DWindow.getWindow().getWorkingType() == ObjectMode.VERTICES) lastSelectedVertex = vertex;
             }
         } else {
-            final Vector4f point = vertex.toVector4f();
-            boolean vertexIsShown = true;
-            for (GData3 triangle : tris) {
-                if (noTrans && triangle.a < 1f || hiddenData.contains(triangle))
-                    continue;
-                Vertex[] tverts = triangles.get(triangle);
-                if (!tverts[0].equals(vertex) && !tverts[1].equals(vertex) && !tverts[2].equals(vertex)) {
-                    if (powerRay.TRIANGLE_INTERSECT(point, rayDirection, tverts[0], tverts[1], tverts[2])) {
-                        vertexIsShown = false;
-                        break;
-                    }
-                }
-            }
-            if (vertexIsShown) {
-                for (GData4 quad : qs) {
-                    if (noTrans && quad.a < 1f || hiddenData.contains(quad))
-                        continue;
-                    Vertex[] tverts = quads.get(quad);
-                    if (!tverts[0].equals(vertex) && !tverts[1].equals(vertex) && !tverts[2].equals(vertex) && !tverts[3].equals(vertex)) {
-                        if (powerRay.TRIANGLE_INTERSECT(point, rayDirection, tverts[0], tverts[1], tverts[2])
-                                || powerRay.TRIANGLE_INTERSECT(point, rayDirection, tverts[2], tverts[3], tverts[0])) {
-                            vertexIsShown = false;
-                            break;
-                        }
-                    }
-                }
-            }
-            if (vertexIsShown) {
+            if (!isVertexHidden(vertex, rayDirection, powerRay, noTrans)) {
                 if (selectedVertices.contains(vertex)) {
                     if (needRayTest || c3d.getKeys().isAltPressed()) {
                         selectedVertices.remove(vertex);
@@ -810,81 +782,59 @@ public class VM01SelectHelper extends VM01Select {
     }
 
     private void selectVertices2_helper(final Composite3D c3d, final Vertex vertex, final Vector4f rayDirection, PowerRay powerRay, boolean noTrans) {
-        final Set<GData3> tris = triangles.keySet();
-        final Set<GData4> qs = quads.keySet();
         if (c3d.isShowingHiddenVertices()) {
             selectedVerticesForSubfile.add(vertex);
         } else {
-            final Vector4f point = vertex.toVector4f();
-            boolean vertexIsShown = true;
-            for (GData3 triangle : tris) {
-                if (noTrans && triangle.a < 1f || hiddenData.contains(triangle))
-                    continue;
-                Vertex[] tverts = triangles.get(triangle);
-                if (!tverts[0].equals(vertex) && !tverts[1].equals(vertex) && !tverts[2].equals(vertex)) {
-                    if (powerRay.TRIANGLE_INTERSECT(point, rayDirection, tverts[0], tverts[1], tverts[2])) {
-                        vertexIsShown = false;
-                        break;
-                    }
-                }
-            }
-            if (vertexIsShown) {
-                for (GData4 quad : qs) {
-                    if (noTrans && quad.a < 1f || hiddenData.contains(quad))
-                        continue;
-                    Vertex[] tverts = quads.get(quad);
-                    if (!tverts[0].equals(vertex) && !tverts[1].equals(vertex) && !tverts[2].equals(vertex) && !tverts[3].equals(vertex)) {
-                        if (powerRay.TRIANGLE_INTERSECT(point, rayDirection, tverts[0], tverts[1], tverts[2])
-                                || powerRay.TRIANGLE_INTERSECT(point, rayDirection, tverts[2], tverts[3], tverts[0])) {
-                            vertexIsShown = false;
-                            break;
-                        }
-                    }
-                }
-            }
-            if (vertexIsShown) {
+            if (!isVertexHidden(vertex, rayDirection, powerRay, noTrans)) {
                 selectedVerticesForSubfile.add(vertex);
             }
         }
     }
 
     private boolean isVertexVisible(Composite3D c3d, Vertex vertex, Vector4f rayDirection, boolean noTrans) {
-        if (!c3d.isShowingHiddenVertices()) {
-            final Vector4f point = vertex.toVector4f();
-            Vertex[] triQuadVerts = new Vertex[4];
-            int i = 0;
-            for (GData3 triangle : triangles.keySet()) {
-                if (noTrans && triangle.a < 1f || hiddenData.contains(triangle))
+        return c3d.isShowingHiddenVertices() || !isVertexHidden(vertex, rayDirection, powerRay, noTrans);
+    }
+
+    /**
+     * Checks if a vertex is hidden by a triangle or quad. Only the faces
+     * whose bounding box is hit by the line through the vertex are tested.
+     *
+     * @return {@code true} if the ray from the vertex hits a face which does
+     *         not contain the vertex itself
+     */
+    private boolean isVertexHidden(Vertex vertex, Vector4f rayDirection, PowerRay powerRay, boolean noTrans) {
+        final Vector4f point = vertex.toVector4f();
+        final List<GData> candidates = new ArrayList<GData>();
+        occlusionTree.getSnapshot(triangles, quads).collectCandidates(
+                new double[]{point.x, point.y, point.z},
+                new double[]{rayDirection.x, rayDirection.y, rayDirection.z}, candidates);
+        for (GData gd : candidates) {
+            if (hiddenData.contains(gd))
+                continue;
+            if (gd.type() == 3) {
+                final GData3 triangle = (GData3) gd;
+                final Vertex[] tverts = triangles.get(triangle);
+                if (tverts == null || noTrans && triangle.a < 1f)
                     continue;
-                i = 0;
-                for (Vertex tvertex : triangles.get(triangle)) {
-                    triQuadVerts[i] = tvertex;
-                    i++;
-                }
-                if (!triQuadVerts[0].equals(vertex) && !triQuadVerts[1].equals(vertex) && !triQuadVerts[2].equals(vertex)) {
-                    if (powerRay.TRIANGLE_INTERSECT(point, rayDirection, triQuadVerts[0], triQuadVerts[1], triQuadVerts[2])) {
-                        return false;
+                if (!tverts[0].equals(vertex) && !tverts[1].equals(vertex) && !tverts[2].equals(vertex)) {
+                    if (powerRay.TRIANGLE_INTERSECT(point, rayDirection, tverts[0], tverts[1], tverts[2])) {
+                        return true;
                     }
                 }
-            }
-
-            for (GData4 quad : quads.keySet()) {
-                if (noTrans && quad.a < 1f || hiddenData.contains(quad))
+            } else {
+                final GData4 quad = (GData4) gd;
+                final Vertex[] tverts = quads.get(quad);
+                if (tverts == null || noTrans && quad.a < 1f)
                     continue;
-                i = 0;
-                for (Vertex tvertex : quads.get(quad)) {
-                    triQuadVerts[i] = tvertex;
-                    i++;
-                }
-                if (!triQuadVerts[0].equals(vertex) && !triQuadVerts[1].equals(vertex) && !triQuadVerts[2].equals(vertex) && !triQuadVerts[3].equals(vertex)) {
-                    if (powerRay.TRIANGLE_INTERSECT(point, rayDirection, triQuadVerts[0], triQuadVerts[1], triQuadVerts[2])
-                            || powerRay.TRIANGLE_INTERSECT(point, rayDirection, triQuadVerts[2], triQuadVerts[3], triQuadVerts[0])) {
-                        return false;
+                if (!tverts[0].equals(vertex) && !tverts[1].equals(vertex) && !tverts[2].equals(vertex) && !tverts[3].equals(vertex)) {
+                    if (powerRay.TRIANGLE_INTERSECT(point, rayDirection, tverts[0], tverts[1], tverts[2])
+                            || powerRay.TRIANGLE_INTERSECT(point, rayDirection, tverts[2], tverts[3], tverts[0])) {
+                        return true;
                     }
                 }
             }
         }
-        return true;
+        return false;
     }
 
     public synchronized void selectLines(Composite3D c3d, SelectorSettings sels) {
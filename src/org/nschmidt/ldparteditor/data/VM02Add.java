@@ -164,6 +164,7 @@ class VM02Add extends VM01SelectHelper {
                 }
             }
             triangles.put(gd3, Arrays.copyOf(vArray, 3));
+            occlusionTree.added(gd3);
             max = 3;
             break;
         case 4: // Quad
@@ -212,6 +213,7 @@ class VM02Add extends VM01SelectHelper {
                 }
             }
             quads.put(gd4, Arrays.copyOf(vArray, 4));
+            occlusionTree.added(gd4);
             max = 4;
             break;
         case 5: // Optional Line
@@ -15,24 +15,27 @@ FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TOR
 ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE. */
 package org.nschmidt.ldparteditor.data;
 
+import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map.Entry;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.stream.Collectors;
 
-import org.nschmidt.ldparteditor.enums.Threshold;
 import org.nschmidt.ldparteditor.enums.View;
 import org.nschmidt.ldparteditor.helpers.composite3d.Edger2Settings;
 import org.nschmidt.ldparteditor.helpers.math.Vector3d;
+import org.nschmidt.ldparteditor.helpers.math.VertexGrid;
+import org.nschmidt.ldparteditor.logger.NLogger;
 import org.nschmidt.ldparteditor.shells.editor3d.Editor3DWindow;
 
 class VM06Edger2 extends VM05Distance {
 
-    private ArrayList<Vertex> verticesToCheck = new ArrayList<>();
-
     protected VM06Edger2(DatFile linkedDatFile) {
         super(linkedDatFile);
     }
@@ -237,166 +240,17 @@ class VM06Edger2 extends VM05Distance {
 
         if (linkedDatFile.isReadOnly()) return;
 
+        final long start = System.currentTimeMillis();
         initBFCmap();
-        verticesToCheck.clear();
-
-        final double edsquare = es.getEqualDistance().multiply(es.getEqualDistance(), Threshold.mc).doubleValue() * 1E6;
-        TreeMap<Vertex, Vertex> snap = new TreeMap<Vertex, Vertex>();
-        TreeMap<Vertex, TreeSet<Vertex>> snapToOriginal = new TreeMap<Vertex, TreeSet<Vertex>>();
-
-        HashMap<AccurateEdge, Integer> edges = new HashMap<AccurateEdge, Integer>();
-        HashSet<AccurateEdge> presentEdges = new HashSet<AccurateEdge>();
-
-        switch (es.getScope()) {
-        case 0: // All Data
-        {
-            Set<Vertex> allVerts = vertexLinkedToPositionInFile.keySet();
-            for (Vertex vertex : allVerts) {
-                if (!snap.containsKey(vertex)) snap.put(vertex, vertexWithinDist(edsquare, vertex));
-                if (snapToOriginal.containsKey(snap.get(vertex))) {
-                    snapToOriginal.get(snap.get(vertex)).add(vertex);
-                } else {
-                    TreeSet<Vertex> h = new TreeSet<Vertex>();
-                    h.add(vertex);
-                    snapToOriginal.put(snap.get(vertex), h);
-                }
-            }
-            Set<GData2> lins = lines.keySet();
-            for (GData2 g2 : lins) {
-                if (!g2.isLine) {
-                    continue;
-                }
-                Vertex[] verts = lines.get(g2);
-                AccurateEdge e1 = new AccurateEdge(snap.get(verts[0]), snap.get(verts[1]));
-                presentEdges.add(e1);
-            }
-            Set<GData5> clins = condlines.keySet();
-            for (GData5 g5 : clins) {
-                Vertex[] verts = condlines.get(g5);
-                AccurateEdge e1 = new AccurateEdge(snap.get(verts[0]), snap.get(verts[1]));
-                presentEdges.add(e1);
-            }
 
-            Set<GData3> tris = triangles.keySet();
-            for (GData3 g3 : tris) {
-                if (!g3.isTriangle) {
-                    continue;
-                }
-                Vertex[] verts = triangles.get(g3);
-                {
-                    AccurateEdge e = new AccurateEdge(snap.get(verts[0]), snap.get(verts[1]));
-                    if (!presentEdges.contains(e)) {
-                        if (edges.containsKey(e)) {
-                            edges.put(e, edges.get(e) + 1);
-                        } else {
-                            edges.put(e, 1);
-                        }
-                    }
-                }
-                {
-                    AccurateEdge e = new AccurateEdge(snap.get(verts[1]), snap.get(verts[2]));
-                    if (!presentEdges.contains(e)) {
-                        if (edges.containsKey(e)) {
-                            edges.put(e, edges.get(e) + 1);
-                        } else {
-                            edges.put(e, 1);
-                        }
-                    }
-                }
-                {
-                    AccurateEdge e = new AccurateEdge(snap.get(verts[2]), snap.get(verts[0]));
-                    if (!presentEdges.contains(e)) {
-                        if (edges.containsKey(e)) {
-                            edges.put(e, edges.get(e) + 1);
-                        } else {
-                            edges.put(e, 1);
-                        }
-                    }
-                }
-            }
-            Set<GData4> qs = quads.keySet();
-            for (GData4 g4 : qs) {
-                if (es.isCondlineOnQuads()) addLineQuadEdger2(g4, presentEdges, es, snap);
-                Vertex[] verts = quads.get(g4);
-                {
-                    AccurateEdge e = new AccurateEdge(snap.get(verts[0]), snap.get(verts[1]));
-                    if (!presentEdges.contains(e)) {
-                        if (edges.containsKey(e)) {
-                            edges.put(e, edges.get(e) + 1);
-                        } else {
-                            edges.put(e, 1);
-                        }
-                    }
-                }
-                {
-                    AccurateEdge e = new AccurateEdge(snap.get(verts[1]), snap.get(verts[2]));
-                    if (!presentEdges.contains(e)) {
-                        if (edges.containsKey(e)) {
-                            edges.put(e, edges.get(e) + 1);
-                        } else {
-                            edges.put(e, 1);
-                        }
-                    }
-                }
-                {
-                    AccurateEdge e = new AccurateEdge(snap.get(verts[2]), snap.get(verts[3]));
-                    if (!presentEdges.contains(e)) {
-                        if (edges.containsKey(e)) {
-                            edges.put(e, edges.get(e) + 1);
-                        } else {
-                            edges.put(e, 1);
-                        }
-                    }
-                }
-                {
-                    AccurateEdge e = new AccurateEdge(snap.get(verts[3]), snap.get(verts[0]));
-                    if (!presentEdges.contains(e)) {
-                        if (edges.containsKey(e)) {
-                            edges.put(e, edges.get(e) + 1);
-                        } else {
-                            edges.put(e, 1);
-                        }
-                    }
-                }
-            }
+        final int scope = es.getScope();
+        if (scope >= 0 && scope <= 2) { // All Data, No Subfile Facets, Selected Data Only
 
-            GColour tmpCol = Editor3DWindow.getWindow().getLastUsedColour();
-            Editor3DWindow.getWindow().setLastUsedColour(View.getLDConfigColour(16));
-            if (es.getUnmatchedMode() < 2) {
-                Set<AccurateEdge> ee = edges.keySet();
-                for (AccurateEdge e : ee) {
-                    if (edges.get(e) > 1) {
-                        addLineEdger2(e.v1, e.v2, snapToOriginal.get(e.v1),  snapToOriginal.get(e.v2), es);
-                    }
-                }
-            }
-
-            Editor3DWindow.getWindow().setLastUsedColour(View.getLDConfigColour(4));
-            if (es.getUnmatchedMode() != 1) {
-                Set<AccurateEdge> ee = edges.keySet();
-                for (AccurateEdge e : ee) {
-                    if (edges.get(e) == 1) {
-                        addEdgeEdger2(snapToOriginal.get(e.v1),  snapToOriginal.get(e.v2));
-                    }
-                }
-            }
-            Editor3DWindow.getWindow().setLastUsedColour(tmpCol);
+            TreeMap<Vertex, Vertex> snap = new TreeMap<Vertex, Vertex>();
+            TreeMap<Vertex, TreeSet<Vertex>> snapToOriginal = new TreeMap<Vertex, TreeSet<Vertex>>();
+            snapVertices(es.getEqualDistance(), snap, snapToOriginal);
 
-        }
-        break;
-        case 1: // No Subfile Facets
-        {
-            Set<Vertex> allVerts = vertexLinkedToPositionInFile.keySet();
-            for (Vertex vertex : allVerts) {
-                if (!snap.containsKey(vertex)) snap.put(vertex, vertexWithinDist(edsquare, vertex));
-                if (snapToOriginal.containsKey(snap.get(vertex))) {
-                    snapToOriginal.get(snap.get(vertex)).add(vertex);
-                } else {
-                    TreeSet<Vertex> h = new TreeSet<Vertex>();
-                    h.add(vertex);
-                    snapToOriginal.put(snap.get(vertex), h);
-                }
-            }
+            HashSet<AccurateEdge> presentEdges = new HashSet<AccurateEdge>();
             Set<GData2> lins = lines.keySet();
             for (GData2 g2 : lins) {
                 if (!g2.isLine) {
@@ -413,291 +267,37 @@ class VM06Edger2 extends VM05Distance {
                 presentEdges.add(e1);
             }
 
-            Set<GData3> tris = triangles.keySet();
-            for (GData3 g3 : tris) {
-                if (!lineLinkedToVertices.containsKey(g3) || !g3.isTriangle) continue;
-                Vertex[] verts = triangles.get(g3);
-                {
-                    AccurateEdge e = new AccurateEdge(snap.get(verts[0]), snap.get(verts[1]));
-                    if (!presentEdges.contains(e)) {
-                        if (edges.containsKey(e)) {
-                            edges.put(e, edges.get(e) + 1);
-                        } else {
-                            edges.put(e, 1);
-                        }
-                    }
-                }
-                {
-                    AccurateEdge e = new AccurateEdge(snap.get(verts[1]), snap.get(verts[2]));
-                    if (!presentEdges.contains(e)) {
-                        if (edges.containsKey(e)) {
-                            edges.put(e, edges.get(e) + 1);
-                        } else {
-                            edges.put(e, 1);
-                        }
-                    }
-                }
-                {
-                    AccurateEdge e = new AccurateEdge(snap.get(verts[2]), snap.get(verts[0]));
-                    if (!presentEdges.contains(e)) {
-                        if (edges.containsKey(e)) {
-                            edges.put(e, edges.get(e) + 1);
-                        } else {
-                            edges.put(e, 1);
-                        }
-                    }
-                }
-            }
-            Set<GData4> qs = quads.keySet();
-            for (GData4 g4 : qs) {
-                if (!lineLinkedToVertices.containsKey(g4)) continue;
-                addLineQuadEdger2(g4, presentEdges, es, snap);
-                Vertex[] verts = quads.get(g4);
-                {
-                    AccurateEdge e = new AccurateEdge(snap.get(verts[0]), snap.get(verts[1]));
-                    if (!presentEdges.contains(e)) {
-                        if (edges.containsKey(e)) {
-                            edges.put(e, edges.get(e) + 1);
-                        } else {
-                            edges.put(e, 1);
-                        }
-                    }
-                }
-                {
-                    AccurateEdge e = new AccurateEdge(snap.get(verts[1]), snap.get(verts[2]));
-                    if (!presentEdges.contains(e)) {
-                        if (edges.containsKey(e)) {
-                            edges.put(e, edges.get(e) + 1);
-                        } else {
-                            edges.put(e, 1);
-                        }
-                    }
-                }
-                {
-                    AccurateEdge e = new AccurateEdge(snap.get(verts[2]), snap.get(verts[3]));
-                    if (!presentEdges.contains(e)) {
-                        if (edges.containsKey(e)) {
-                            edges.put(e, edges.get(e) + 1);
-                        } else {
-                            edges.put(e, 1);
-                        }
-                    }
-                }
-                {
-                    AccurateEdge e = new AccurateEdge(snap.get(verts[3]), snap.get(verts[0]));
-                    if (!presentEdges.contains(e)) {
-                        if (edges.containsKey(e)) {
-                            edges.put(e, edges.get(e) + 1);
-                        } else {
-                            edges.put(e, 1);
-                        }
-                    }
-                }
-            }
-
-            GColour tmpCol = Editor3DWindow.getWindow().getLastUsedColour();
-            Editor3DWindow.getWindow().setLastUsedColour(View.getLDConfigColour(16));
-            if (es.getUnmatchedMode() < 2) {
-                Set<AccurateEdge> ee = edges.keySet();
-                for (AccurateEdge e : ee) {
-                    if (edges.get(e) > 1) {
-                        addLineEdger2(e.v1, e.v2, snapToOriginal.get(e.v1),  snapToOriginal.get(e.v2), es);
-                    }
-                }
-            }
-
-            Editor3DWindow.getWindow().setLastUsedColour(View.getLDConfigColour(4));
-            if (es.getUnmatchedMode() != 1) {
-                Set<AccurateEdge> ee = edges.keySet();
-                for (AccurateEdge e : ee) {
-                    if (edges.get(e) == 1) {
-                        addEdgeEdger2(snapToOriginal.get(e.v1),  snapToOriginal.get(e.v2));
-                    }
-                }
-            }
-            Editor3DWindow.getWindow().setLastUsedColour(tmpCol);
+            // The facets of subfiles are only used for "All Data"
+            HashMap<AccurateEdge, int[]> edges = countEdges(snap, presentEdges, scope != 0);
 
-        }
-        break;
-        case 2: // Selected Data Only
-        {
-            Set<Vertex> allVerts = vertexLinkedToPositionInFile.keySet();
-            for (Vertex vertex : allVerts) {
-                if (!snap.containsKey(vertex)) snap.put(vertex, vertexWithinDist(edsquare, vertex));
-                if (snapToOriginal.containsKey(snap.get(vertex))) {
-                    snapToOriginal.get(snap.get(vertex)).add(vertex);
-                } else {
-                    TreeSet<Vertex> h = new TreeSet<Vertex>();
-                    h.add(vertex);
-                    snapToOriginal.put(snap.get(vertex), h);
-                }
-            }
-            Set<GData2> lins = lines.keySet();
-            for (GData2 g2 : lins) {
-                if (!g2.isLine) {
-                    continue;
-                }
-                Vertex[] verts = lines.get(g2);
-                AccurateEdge e1 = new AccurateEdge(snap.get(verts[0]), snap.get(verts[1]));
-                presentEdges.add(e1);
-            }
-            Set<GData5> clins = condlines.keySet();
-            for (GData5 g5 : clins) {
-                Vertex[] verts = condlines.get(g5);
-                AccurateEdge e1 = new AccurateEdge(snap.get(verts[0]), snap.get(verts[1]));
-                presentEdges.add(e1);
-            }
-
-            Set<GData3> tris = triangles.keySet();
-            for (GData3 g3 : tris) {
-                if (!lineLinkedToVertices.containsKey(g3) || !g3.isTriangle) continue;
-                Vertex[] verts = triangles.get(g3);
-                {
-                    AccurateEdge e = new AccurateEdge(snap.get(verts[0]), snap.get(verts[1]));
-                    if (!presentEdges.contains(e)) {
-                        if (edges.containsKey(e)) {
-                            edges.put(e, edges.get(e) + 1);
-                        } else {
-                            edges.put(e, 1);
-                        }
-                    }
-                }
-                {
-                    AccurateEdge e = new AccurateEdge(snap.get(verts[1]), snap.get(verts[2]));
-                    if (!presentEdges.contains(e)) {
-                        if (edges.containsKey(e)) {
-                            edges.put(e, edges.get(e) + 1);
-                        } else {
-                            edges.put(e, 1);
-                        }
-                    }
-                }
-                {
-                    AccurateEdge e = new AccurateEdge(snap.get(verts[2]), snap.get(verts[0]));
-                    if (!presentEdges.contains(e)) {
-                        if (edges.containsKey(e)) {
-                            edges.put(e, edges.get(e) + 1);
-                        } else {
-                            edges.put(e, 1);
-                        }
+            if (scope == 0 && es.isCondlineOnQuads() || scope == 1) {
+                Set<GData4> qs = quads.keySet();
+                for (GData4 g4 : qs) {
+                    if (scope == 0 || lineLinkedToVertices.containsKey(g4)) {
+                        addLineQuadEdger2(g4, presentEdges, es, snap);
                     }
                 }
             }
-            Set<GData4> qs = quads.keySet();
-            for (GData4 g4 : qs) {
-                if (!lineLinkedToVertices.containsKey(g4)) continue;
-                Vertex[] verts = quads.get(g4);
-                {
-                    AccurateEdge e = new AccurateEdge(snap.get(verts[0]), snap.get(verts[1]));
-                    if (!presentEdges.contains(e)) {
-                        if (edges.containsKey(e)) {
-                            edges.put(e, edges.get(e) + 1);
-                        } else {
-                            edges.put(e, 1);
-                        }
-                    }
-                }
-                {
-                    AccurateEdge e = new AccurateEdge(snap.get(verts[1]), snap.get(verts[2]));
-                    if (!presentEdges.contains(e)) {
-                        if (edges.containsKey(e)) {
-                            edges.put(e, edges.get(e) + 1);
-                        } else {
-                            edges.put(e, 1);
-                        }
-                    }
-                }
-                {
-                    AccurateEdge e = new AccurateEdge(snap.get(verts[2]), snap.get(verts[3]));
-                    if (!presentEdges.contains(e)) {
-                        if (edges.containsKey(e)) {
-                            edges.put(e, edges.get(e) + 1);
-                        } else {
-                            edges.put(e, 1);
-                        }
-                    }
-                }
-                {
-                    AccurateEdge e = new AccurateEdge(snap.get(verts[3]), snap.get(verts[0]));
-                    if (!presentEdges.contains(e)) {
-                        if (edges.containsKey(e)) {
-                            edges.put(e, edges.get(e) + 1);
-                        } else {
-                            edges.put(e, 1);
-                        }
-                    }
-                }
-            }
-
 
-            {
+            if (scope == 2) {
                 HashSet<AccurateEdge> selectedEdges = new HashSet<AccurateEdge>();
-
                 for (GData3 g3 : selectedTriangles) {
                     if (!g3.isTriangle) continue;
-                    Vertex[] verts = triangles.get(g3);
-                    {
-                        AccurateEdge e = new AccurateEdge(snap.get(verts[0]), snap.get(verts[1]));
-                        if (!presentEdges.contains(e)) {
-                            selectedEdges.add(e);
-                        }
-                    }
-                    {
-                        AccurateEdge e = new AccurateEdge(snap.get(verts[1]), snap.get(verts[2]));
-                        if (!presentEdges.contains(e)) {
-                            selectedEdges.add(e);
-                        }
-                    }
-                    {
-                        AccurateEdge e = new AccurateEdge(snap.get(verts[2]), snap.get(verts[0]));
-                        if (!presentEdges.contains(e)) {
-                            selectedEdges.add(e);
-                        }
-                    }
+                    addFaceEdges(triangles.get(g3), snap, presentEdges, selectedEdges);
                 }
                 for (GData4 g4 : selectedQuads) {
                     addLineQuadEdger2(g4, presentEdges, es, snap);
-                    Vertex[] verts = quads.get(g4);
-                    {
-                        AccurateEdge e = new AccurateEdge(snap.get(verts[0]), snap.get(verts[1]));
-                        if (!presentEdges.contains(e)) {
-                            selectedEdges.add(e);
-                        }
-                    }
-                    {
-                        AccurateEdge e = new AccurateEdge(snap.get(verts[1]), snap.get(verts[2]));
-                        if (!presentEdges.contains(e)) {
-                            selectedEdges.add(e);
-                        }
-                    }
-                    {
-                        AccurateEdge e = new AccurateEdge(snap.get(verts[2]), snap.get(verts[3]));
-                        if (!presentEdges.contains(e)) {
-                            selectedEdges.add(e);
-                        }
-                    }
-                    {
-                        AccurateEdge e = new AccurateEdge(snap.get(verts[3]), snap.get(verts[0]));
-                        if (!presentEdges.contains(e)) {
-                            selectedEdges.add(e);
-                        }
-                    }
-                }
-
-                Set<AccurateEdge> keySet = edges.keySet();
-                for(Iterator<AccurateEdge> it = keySet.iterator(); it.hasNext();) {
-                    if (!selectedEdges.contains(it.next())) {
-                        it.remove();
-                    }
+                    addFaceEdges(quads.get(g4), snap, presentEdges, selectedEdges);
                 }
+                edges.keySet().retainAll(selectedEdges);
             }
 
             GColour tmpCol = Editor3DWindow.getWindow().getLastUsedColour();
             Editor3DWindow.getWindow().setLastUsedColour(View.getLDConfigColour(16));
             if (es.getUnmatchedMode() < 2) {
-                Set<AccurateEdge> ee = edges.keySet();
-                for (AccurateEdge e : ee) {
-                    if (edges.get(e) > 1) {
+                for (Entry<AccurateEdge, int[]> entry : edges.entrySet()) {
+                    if (entry.getValue()[0] > 1) {
+                        AccurateEdge e = entry.getKey();
                         addLineEdger2(e.v1, e.v2, snapToOriginal.get(e.v1),  snapToOriginal.get(e.v2), es);
                     }
                 }
@@ -705,48 +305,131 @@ class VM06Edger2 extends VM05Distance {
 
             Editor3DWindow.getWindow().setLastUsedColour(View.getLDConfigColour(4));
             if (es.getUnmatchedMode() != 1) {
-                Set<AccurateEdge> ee = edges.keySet();
-                for (AccurateEdge e : ee) {
-                    if (edges.get(e) == 1) {
+                for (Entry<AccurateEdge, int[]> entry : edges.entrySet()) {
+                    if (entry.getValue()[0] == 1) {
+                        AccurateEdge e = entry.getKey();
                         addEdgeEdger2(snapToOriginal.get(e.v1),  snapToOriginal.get(e.v2));
                     }
                 }
             }
             Editor3DWindow.getWindow().setLastUsedColour(tmpCol);
+            NLogger.debug(getClass(), "Edger2: {0} vertices snapped to {1} positions, {2} edges counted in {3} ms", snap.size(), snapToOriginal.size(), edges.size(), System.currentTimeMillis() - start); //$NON-NLS-1$
         }
-        break;
-        default:
-            break;
-        }
-
-        verticesToCheck.clear();
         disposeBFCmap();
-
         if (isModified()) {
             setModified(true, true);
         }
         validateState();
+    }
 
+    /**
+     * Snaps every vertex to the first vertex (in the order of the file
+     * positions) which is closer than the equal distance. The snap targets are
+     * kept in a grid whose cell size is the equal distance, so only the
+     * neighbouring cells have to be searched.
+     */
+    void snapVertices(BigDecimal equalDistance, TreeMap<Vertex, Vertex> snap, TreeMap<Vertex, TreeSet<Vertex>> snapToOriginal) {
+        final VertexGrid targets = new VertexGrid(equalDistance);
+        final IdentityHashMap<Vertex, Integer> targetIndex = new IdentityHashMap<Vertex, Integer>();
+        Set<Vertex> allVerts = vertexLinkedToPositionInFile.keySet();
+        for (Vertex vertex : allVerts) {
+            Vertex target = snap.get(vertex);
+            if (target == null) {
+                int bestIndex = Integer.MAX_VALUE;
+                for (Vertex candidate : targets.getNeighbours(vertex, equalDistance)) {
+                    final int index = targetIndex.get(candidate);
+                    if (index < bestIndex) {
+                        bestIndex = index;
+                        target = candidate;
+                    }
+                }
+                if (target == null) {
+                    target = new Vertex(vertex.X, vertex.Y, vertex.Z);
+                    targetIndex.put(target, targetIndex.size());
+                    targets.add(target);
+                }
+                snap.put(vertex, target);
+            }
+            TreeSet<Vertex> h = snapToOriginal.get(target);
+            if (h == null) {
+                h = new TreeSet<Vertex>();
+                snapToOriginal.put(target, h);
+            }
+            h.add(vertex);
+        }
     }
 
-    private Vertex vertexWithinDist(double edsquare, Vertex ov) {
-        for (Vertex v : verticesToCheck) {
-            double dx = v.x - ov.x;
-            double dy = v.y - ov.y;
-            double dz = v.z - ov.z;
-            dx = dx * dx;
-            dy = dy * dy;
-            dz = dz * dz;
-            double total_dist = dx + dy+ dz;
-            if (total_dist < edsquare) {
-                return v;
+    /**
+     * Counts how many triangles and quads share an edge (without the edges of
+     * existing lines and condlines). The faces are counted in parallel chunks.
+     *
+     * @param onlyFileData
+     *            {@code true} if the facets of subfiles should be ignored
+     * @return edge -> number of faces
+     */
+    HashMap<AccurateEdge, int[]> countEdges(final TreeMap<Vertex, Vertex> snap, final HashSet<AccurateEdge> presentEdges, boolean onlyFileData) {
+        final ArrayList<Vertex[]> faces = new ArrayList<Vertex[]>();
+        for (Entry<GData3, Vertex[]> entry : triangles.entrySet()) {
+            final GData3 g3 = entry.getKey();
+            if (g3.isTriangle && (!onlyFileData || lineLinkedToVertices.containsKey(g3))) {
+                faces.add(entry.getValue());
+            }
+        }
+        for (Entry<GData4, Vertex[]> entry : quads.entrySet()) {
+            if (!onlyFileData || lineLinkedToVertices.containsKey(entry.getKey())) {
+                faces.add(entry.getValue());
+            }
+        }
+        final int chunkSize = Math.max(1024, faces.size() / (View.NUM_CORES * 4) + 1);
+        final ArrayList<List<Vertex[]>> chunks = new ArrayList<List<Vertex[]>>();
+        for (int i = 0; i < faces.size(); i += chunkSize) {
+            chunks.add(faces.subList(i, Math.min(faces.size(), i + chunkSize)));
+        }
+        final List<HashMap<AccurateEdge, int[]>> counts = chunks.parallelStream().map(chunk -> {
+            final HashMap<AccurateEdge, int[]> chunkCounts = new HashMap<AccurateEdge, int[]>();
+            for (Vertex[] verts : chunk) {
+                addFaceEdges(verts, snap, presentEdges, chunkCounts);
+            }
+            return chunkCounts;
+        }).collect(Collectors.toList());
+
+        final HashMap<AccurateEdge, int[]> result = new HashMap<AccurateEdge, int[]>();
+        for (HashMap<AccurateEdge, int[]> chunkCounts : counts) {
+            for (Entry<AccurateEdge, int[]> entry : chunkCounts.entrySet()) {
+                final int[] count = result.get(entry.getKey());
+                if (count == null) {
+                    result.put(entry.getKey(), entry.getValue());
+                } else {
+                    count[0] += entry.getValue()[0];
+                }
             }
         }
-        final Vertex result = new Vertex(ov.X, ov.Y, ov.Z);
-        verticesToCheck.add(result);
         return result;
     }
 
+    private static void addFaceEdges(Vertex[] verts, TreeMap<Vertex, Vertex> snap, HashSet<AccurateEdge> presentEdges, HashMap<AccurateEdge, int[]> counts) {
+        for (int i = 0; i < verts.length; i++) {
+            AccurateEdge e = new AccurateEdge(snap.get(verts[i]), snap.get(verts[(i + 1) % verts.length]));
+            if (!presentEdges.contains(e)) {
+                final int[] count = counts.get(e);
+                if (count == null) {
+                    counts.put(e, new int[]{1});
+                } else {
+                    count[0]++;
+                }
+            }
+        }
+    }
+
+    private static void addFaceEdges(Vertex[] verts, TreeMap<Vertex, Vertex> snap, HashSet<AccurateEdge> presentEdges, HashSet<AccurateEdge> edges) {
+        for (int i = 0; i < verts.length; i++) {
+            AccurateEdge e = new AccurateEdge(snap.get(verts[i]), snap.get(verts[(i + 1) % verts.length]));
+            if (!presentEdges.contains(e)) {
+                edges.add(e);
+            }
+        }
+    }
+
     private void initBFCmap() {
         linkedDatFile.getBFCorientationMap(bfcMap);
     }
@@ -19,10 +19,12 @@ import java.lang.reflect.InvocationTargetException;
 import java.math.BigDecimal;
 import java.text.MessageFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -30,9 +32,13 @@ import java.util.Random;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntConsumer;
 
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jface.dialogs.ProgressMonitorDialog;
@@ -103,13 +109,35 @@ public class VM12IntersectorAndIsecalc extends VM11HideShow {
                     try
                     {
                         monitor.beginTask(I18n.VM_SearchIntersection, IProgressMonitor.UNKNOWN);
+                        // Only surfaces with overlapping bounding boxes can intersect
+                        final SurfaceBVH surfaceTree = new SurfaceBVH(surfsToParse, triangles, quads);
+                        final IdentityHashMap<GData, Integer> surfaceIndices = new IdentityHashMap<GData, Integer>();
+                        for(int i = 0; i < surfsSize; i++) {
+                            surfaceIndices.put(surfsToParse.get(i), i);
+                        }
+                        final ArrayList<GData> candidates = new ArrayList<GData>();
                         for(int i = 0; i < surfsSize; i++) {
                             /* Check if the monitor has been canceled */
                             if (monitor.isCanceled()) break;
                             NLogger.debug(getClass(), "Checked {0}  of {1} surfaces.", i + 1, surfsSize); //$NON-NLS-1$
-                            for(int j = i + 1; j < surfsSize; j++) {
-                                GData s1 = surfsToParse.get(i);
-                                GData s2 = surfsToParse.get(j);
+                            GData s1 = surfsToParse.get(i);
+                            Vertex[] v1 = s1.type() == 3 ? triangles.get(s1) : quads.get(s1);
+                            if (v1 == null) continue;
+                            candidates.clear();
+                            surfaceTree.collectOverlapping(v1, candidates);
+                            // Keep the order of the pairwise comparison
+                            int[] candidateIndices = new int[candidates.size()];
+                            int candidateCount = 0;
+                            for (GData s2 : candidates) {
+                                int j = surfaceIndices.get(s2);
+                                if (j > i) {
+                                    candidateIndices[candidateCount] = j;
+                                    candidateCount++;
+                                }
+                            }
+                            Arrays.sort(candidateIndices, 0, candidateCount);
+                            for(int c = 0; c < candidateCount; c++) {
+                                GData s2 = surfsToParse.get(candidateIndices[c]);
                                 if (isConnected2(s1, s2)) continue;
                                 newLines.addAll(intersectionLines(clinesToDelete, linesToDelete, s1, s2));
                             }
@@ -409,74 +437,31 @@ public class VM12IntersectorAndIsecalc extends VM11HideShow {
                             monitor.beginTask(I18n.VM_Intersector, IProgressMonitor.UNKNOWN);
 
                             {
-
-                                final Set<IntersectionInfoWithColour> intersectionSet = Collections.newSetFromMap(new ThreadsafeHashMap<IntersectionInfoWithColour, Boolean>());
-
-                                final int iterations = originObjects.size();
-                                final int chunks = View.NUM_CORES;
-                                final Thread[] threads = new Thread[chunks];
-
-                                final String surfCount = "/" + iterations;//$NON-NLS-1$
-                                final AtomicInteger counter2 = new AtomicInteger(0);
-
-                                int lastend = 0;
-                                for (int j = 0; j < chunks; ++j) {
-                                    final int[] start = new int[] { lastend };
-                                    lastend = Math.round(iterations / chunks * (j + 1));
-                                    final int[] end = new int[] { lastend };
-                                    if (j == chunks - 1) {
-                                        end[0] = iterations;
-                                    }
-                                    threads[j] = new Thread(new Runnable() {
-                                        @Override
-                                        public void run() {
-                                            for (int k = start[0]; k < end[0]; k++) {
-                                                monitor.subTask(counter2.toString() + surfCount);
-                                                GData o = originObjects.get(k);
-                                                /* Check if the monitor has been canceled */
-                                                if (monitor.isCanceled()) {
-                                                    isCancelled[0] = 1;
-                                                    return;
-                                                }
-                                                counter2.incrementAndGet();
-                                                IntersectionInfoWithColour ii = getIntersectionInfo(o, targetSurfs, ins);
-                                                if (ii != null) {
-                                                    intersectionSet.add(ii);
-                                                    switch (o.type()) {
-                                                    case 2:
-                                                        linesToDelete.add((GData2) o);
-                                                        break;
-                                                    case 3:
-                                                        trisToDelete.add((GData3) o);
-                                                        break;
-                                                    case 4:
-                                                        quadsToDelete.add((GData4) o);
-                                                        break;
-                                                    case 5:
-                                                        condlinesToDelete.add((GData5) o);
-                                                        break;
-                                                    default:
-                                                        break;
-                                                    }
-                                                }
-                                            }
-                                        }
-                                    });
-                                    threads[j].start();
+                                final Set<GData> intersectingObjects = Collections.newSetFromMap(new ThreadsafeHashMap<GData, Boolean>());
+                                final ArrayList<IntersectionInfoWithColour> result = calculateIntersections(originObjects, targetSurfs, ins, intersectingObjects, monitor);
+                                if (result == null) {
+                                    isCancelled[0] = 1;
+                                } else {
+                                    intersections.addAll(result);
                                 }
-                                boolean isRunning = true;
-                                while (isRunning) {
-                                    try {
-                                        Thread.sleep(100);
-                                    } catch (InterruptedException e) {
-                                    }
-                                    isRunning = false;
-                                    for (Thread thread : threads) {
-                                        if (thread.isAlive())
-                                            isRunning = true;
+                                for (GData o : intersectingObjects) {
+                                    switch (o.type()) {
+                                    case 2:
+                                        linesToDelete.add((GData2) o);
+                                        break;
+                                    case 3:
+                                        trisToDelete.add((GData3) o);
+                                        break;
+                                    case 4:
+                                        quadsToDelete.add((GData4) o);
+                                        break;
+                                    case 5:
+                                        condlinesToDelete.add((GData5) o);
+                                        break;
+                                    default:
+                                        break;
                                     }
                                 }
-                                intersections.addAll(intersectionSet);
                             }
 
                             if (isCancelled[0] > 0) return;
@@ -498,56 +483,25 @@ public class VM12IntersectorAndIsecalc extends VM11HideShow {
 
                             {
                                 final int iterations = intersections.size();
-                                final int chunks = View.NUM_CORES;
-                                final Thread[] threads = new Thread[chunks];
-
 
                                 final String maxIterations = "/" + iterations;//$NON-NLS-1$
                                 final AtomicInteger counter2 = new AtomicInteger(0);
 
-                                int lastend = 0;
-                                for (int j = 0; j < chunks; ++j) {
-                                    final int[] start = new int[] { lastend };
-                                    lastend = Math.round(iterations / chunks * (j + 1));
-                                    final int[] end = new int[] { lastend };
-                                    if (j == chunks - 1) {
-                                        end[0] = iterations;
-                                    }
-                                    threads[j] = new Thread(new Runnable() {
-                                        @Override
-                                        public void run() {
-                                            for (int k = start[0]; k < end[0]; k++) {
-                                                monitor.subTask(counter2.toString() + maxIterations);
-                                                IntersectionInfoWithColour info = intersections.get(k);
-                                                if (monitor.isCanceled()) {
-                                                    isCancelled[0] = 2;
-                                                    return;
-                                                }
-                                                counter2.incrementAndGet();
+                                final boolean cancelled = runParallel(iterations, monitor, k -> {
+                                    monitor.subTask(counter2.toString() + maxIterations);
+                                    IntersectionInfoWithColour info = intersections.get(k);
+                                    counter2.incrementAndGet();
 
-                                                final ArrayList<Vector3dd> av = info.getAllVertices();
-                                                final ArrayList<GColour> cols = info.getColours();
-                                                final ArrayList<Integer> ts = info.getIsLine();
+                                    final ArrayList<Vector3dd> av = info.getAllVertices();
+                                    final ArrayList<GColour> cols = info.getColours();
+                                    final ArrayList<Integer> ts = info.getIsLine();
 
-                                                newTriangles.addAll(MathHelper.triangulatePointGroups(cols, av, ts, View.DUMMY_REFERENCE, linkedDatFile));
-                                                newLines.addAll(MathHelper.triangulatePointGroups2(cols, av, ts, View.DUMMY_REFERENCE, linkedDatFile));
-                                                newCondlines.addAll(MathHelper.triangulatePointGroups5(cols, av, ts, View.DUMMY_REFERENCE, linkedDatFile));
-                                            }
-                                        }
-                                    });
-                                    threads[j].start();
-                                }
-                                boolean isRunning = true;
-                                while (isRunning) {
-                                    try {
-                                        Thread.sleep(100);
-                                    } catch (InterruptedException e) {
-                                    }
-                                    isRunning = false;
-                                    for (Thread thread : threads) {
-                                        if (thread.isAlive())
-                                            isRunning = true;
-                                    }
+                                    newTriangles.addAll(MathHelper.triangulatePointGroups(cols, av, ts, View.DUMMY_REFERENCE, linkedDatFile));
+                                    newLines.addAll(MathHelper.triangulatePointGroups2(cols, av, ts, View.DUMMY_REFERENCE, linkedDatFile));
+                                    newCondlines.addAll(MathHelper.triangulatePointGroups5(cols, av, ts, View.DUMMY_REFERENCE, linkedDatFile));
+                                });
+                                if (cancelled) {
+                                    isCancelled[0] = 2;
                                 }
                             }
 
@@ -659,6 +613,48 @@ public class VM12IntersectorAndIsecalc extends VM11HideShow {
         }
     }
 
+    /**
+     * Calculates the intersections of the origin objects with the target
+     * surfaces. Only the target surfaces with overlapping bounding boxes reach
+     * the exact intersection test.
+     *
+     * @param intersectingObjects
+     *            receives the origin objects which intersect a target surface
+     *            (has to be thread safe)
+     * @return the intersections or {@code null} if the monitor was canceled
+     */
+    ArrayList<IntersectionInfoWithColour> calculateIntersections(final ArrayList<GData> originObjects, Collection<GData> targetSurfs, final IntersectorSettings ins, final Set<GData> intersectingObjects, final IProgressMonitor monitor) {
+        final Set<IntersectionInfoWithColour> intersectionSet = Collections.newSetFromMap(new ThreadsafeHashMap<IntersectionInfoWithColour, Boolean>());
+
+        final int iterations = originObjects.size();
+
+        final String surfCount = "/" + iterations;//$NON-NLS-1$
+        final AtomicInteger counter2 = new AtomicInteger(0);
+
+        final SurfaceBVH targetTree = new SurfaceBVH(targetSurfs, triangles, quads);
+        final SurfaceBVH surfaceTree;
+        if (ins.isColourise()) {
+            final ArrayList<GData> allSurfaces = new ArrayList<GData>(triangles.size() + quads.size());
+            allSurfaces.addAll(triangles.keySet());
+            allSurfaces.addAll(quads.keySet());
+            surfaceTree = new SurfaceBVH(allSurfaces, triangles, quads);
+        } else {
+            surfaceTree = null;
+        }
+
+        final boolean cancelled = runParallel(iterations, monitor, k -> {
+            monitor.subTask(counter2.toString() + surfCount);
+            GData o = originObjects.get(k);
+            counter2.incrementAndGet();
+            IntersectionInfoWithColour ii = getIntersectionInfo(o, targetTree, surfaceTree, ins);
+            if (ii != null) {
+                intersectionSet.add(ii);
+                intersectingObjects.add(o);
+            }
+        });
+        return cancelled ? null : new ArrayList<IntersectionInfoWithColour>(intersectionSet);
+    }
+
     private HashSet<GData2> intersectionLines(final Set<GData5> clinesToDelete, final Set<GData2> linesToDelete, GData g1, GData g2) {
 
         GColour c = new GColour(24, View.line_Colour_r[0], View.line_Colour_g[0], View.line_Colour_b[0], 1f);
@@ -919,7 +915,7 @@ public class VM12IntersectorAndIsecalc extends VM11HideShow {
         return result;
     }
 
-    private IntersectionInfoWithColour getIntersectionInfo(GData origin, HashSet<GData> targetSurfs, IntersectorSettings ins) {
+    private IntersectionInfoWithColour getIntersectionInfo(GData origin, SurfaceBVH targetTree, SurfaceBVH surfaceTree, IntersectorSettings ins) {
 
         final BigDecimal MIN_DIST = new BigDecimal(".0001"); //$NON-NLS-1$
 
@@ -951,7 +947,7 @@ public class VM12IntersectorAndIsecalc extends VM11HideShow {
 
         if (ot == 2 || ot == 5) {
 
-            if (getLineFaceIntersection(fixedVertices, targetSurfs, ov)) {
+            if (getLineFaceIntersection(fixedVertices, targetTree, ov)) {
 
                 final ArrayList<Vector3dd> resultVertices = new ArrayList<Vector3dd>();
                 final ArrayList<GColour> resultColours = new ArrayList<GColour>();
@@ -973,23 +969,7 @@ public class VM12IntersectorAndIsecalc extends VM11HideShow {
                         mid.setY(start.Y.multiply(MathHelper.R1).add(end.Y.multiply(MathHelper.R2.add(MathHelper.R3))));
                         mid.setZ(start.Z.multiply(MathHelper.R1).add(end.Z.multiply(MathHelper.R2.add(MathHelper.R3))));
 
-                        int intersectionCount = 0;
-
-
-                        for (GData3 g3 : triangles.keySet()) {
-                            Vertex[] v = triangles.get(g3);
-                            if (intersectRayTriangle(mid, normal, new Vector3dd(v[0]), new Vector3dd(v[1]), new Vector3dd(v[2]))) {
-                                intersectionCount += 1;
-                            }
-                        }
-                        for (GData4 g4 : quads.keySet()) {
-                            Vertex[] v = quads.get(g4);
-                            if (
-                                    intersectRayTriangle(mid, normal, new Vector3dd(v[0]), new Vector3dd(v[1]), new Vector3dd(v[2])) ||
-                                    intersectRayTriangle(mid, normal, new Vector3dd(v[2]), new Vector3dd(v[3]), new Vector3dd(v[0]))) {
-                                intersectionCount += 1;
-                            }
-                        }
+                        int intersectionCount = countRayIntersections(surfaceTree, mid, normal);
                         resultVertices.add(start);
                         resultVertices.add(end);
                         if (ot == 2) {
@@ -1043,6 +1023,8 @@ public class VM12IntersectorAndIsecalc extends VM11HideShow {
             }
 
         } else {
+            final ArrayList<GData> targetSurfs = new ArrayList<GData>();
+            targetTree.collectOverlapping(ov, targetSurfs);
             for (GData targetSurf : targetSurfs) {
                 final int tt = targetSurf.type();
 
@@ -1341,22 +1323,7 @@ public class VM12IntersectorAndIsecalc extends VM11HideShow {
                                     mid.setY(triVerts[0].Y.multiply(MathHelper.R1).add(triVerts[1].Y.multiply(MathHelper.R2)).add(triVerts[2].Y.multiply(MathHelper.R3)));
                                     mid.setZ(triVerts[0].Z.multiply(MathHelper.R1).add(triVerts[1].Z.multiply(MathHelper.R2)).add(triVerts[2].Z.multiply(MathHelper.R3)));
 
-                                    int intersectionCount = 0;
-
-                                    for (GData3 g3 : triangles.keySet()) {
-                                        Vertex[] v = triangles.get(g3);
-                                        if (intersectRayTriangle(mid, normal, new Vector3dd(v[0]), new Vector3dd(v[1]), new Vector3dd(v[2]))) {
-                                            intersectionCount += 1;
-                                        }
-                                    }
-                                    for (GData4 g4 : quads.keySet()) {
-                                        Vertex[] v = quads.get(g4);
-                                        if (
-                                                intersectRayTriangle(mid, normal, new Vector3dd(v[0]), new Vector3dd(v[1]), new Vector3dd(v[2])) ||
-                                                intersectRayTriangle(mid, normal, new Vector3dd(v[2]), new Vector3dd(v[3]), new Vector3dd(v[0]))) {
-                                            intersectionCount += 1;
-                                        }
-                                    }
+                                    int intersectionCount = countRayIntersections(surfaceTree, mid, normal);
 
                                     if (intersectionCount == 1) {
                                         resultColours.add(View.getLDConfigColour(7));
@@ -1401,12 +1368,15 @@ public class VM12IntersectorAndIsecalc extends VM11HideShow {
         }
     }
 
-    private boolean getLineFaceIntersection(ArrayList<Vector3dd> fixedVertices, HashSet<GData> targetSurfs, Vertex[] ov) {
+    private boolean getLineFaceIntersection(ArrayList<Vector3dd> fixedVertices, SurfaceBVH targetTree, Vertex[] ov) {
 
         TreeMap<BigDecimal, Vector3d> linePoints = new TreeMap<BigDecimal, Vector3d>();
         Vector3d start = new Vector3d(ov[0]);
         Vector3d end = new Vector3d(ov[1]);
 
+        final ArrayList<GData> targetSurfs = new ArrayList<GData>();
+        targetTree.collectOverlapping(new Vertex[]{ov[0], ov[1]}, targetSurfs);
+
         for (GData g : targetSurfs) {
             Vector3d intersection = new Vector3d();
             switch (g.type()) {
@@ -1503,6 +1473,92 @@ public class VM12IntersectorAndIsecalc extends VM11HideShow {
         result2.addAll(result);
     }
 
+    /**
+     * Counts the triangles and quads which are intersected by the line through
+     * the given point (in both directions)
+     */
+    private int countRayIntersections(SurfaceBVH surfaceTree, Vector3dd mid, Vector3d normal) {
+        int intersectionCount = 0;
+        final ArrayList<GData> candidates = new ArrayList<GData>();
+        surfaceTree.collectIntersectedByLine(mid, normal, candidates);
+        for (GData g : candidates) {
+            if (g.type() == 3) {
+                Vertex[] v = triangles.get(g);
+                if (intersectRayTriangle(mid, normal, new Vector3dd(v[0]), new Vector3dd(v[1]), new Vector3dd(v[2]))) {
+                    intersectionCount += 1;
+                }
+            } else {
+                Vertex[] v = quads.get(g);
+                if (
+                        intersectRayTriangle(mid, normal, new Vector3dd(v[0]), new Vector3dd(v[1]), new Vector3dd(v[2])) ||
+                        intersectRayTriangle(mid, normal, new Vector3dd(v[2]), new Vector3dd(v[3]), new Vector3dd(v[0]))) {
+                    intersectionCount += 1;
+                }
+            }
+        }
+        return intersectionCount;
+    }
+
+    /**
+     * Calls the action for every index from {@code 0} to
+     * {@code iterations - 1}. The indices are processed in parallel by a tree
+     * of fork/join tasks. No new index is processed after the monitor was
+     * canceled.
+     *
+     * @return {@code true} if the monitor was canceled
+     */
+    private static boolean runParallel(int iterations, IProgressMonitor monitor, IntConsumer action) {
+        final AtomicBoolean cancelled = new AtomicBoolean(false);
+        if (iterations > 0) {
+            final int threshold = Math.max(1, iterations / (ForkJoinPool.getCommonPoolParallelism() * 8));
+            ForkJoinPool.commonPool().invoke(new CancellableRangeTask(0, iterations, threshold, monitor, cancelled, action));
+        }
+        return cancelled.get() || monitor.isCanceled();
+    }
+
+    private static class CancellableRangeTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int start;
+        private final int end;
+        private final int threshold;
+        private final IProgressMonitor monitor;
+        private final AtomicBoolean cancelled;
+        private final IntConsumer action;
+
+        CancellableRangeTask(int start, int end, int threshold, IProgressMonitor monitor, AtomicBoolean cancelled, IntConsumer action) {
+            this.start = start;
+            this.end = end;
+            this.threshold = threshold;
+            this.monitor = monitor;
+            this.cancelled = cancelled;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            if (cancelled.get()) {
+                return;
+            }
+            if (end - start > threshold) {
+                final int middle = start + end >>> 1;
+                invokeAll(
+                        new CancellableRangeTask(start, middle, threshold, monitor, cancelled, action),
+                        new CancellableRangeTask(middle, end, threshold, monitor, cancelled, action));
+                return;
+            }
+            for (int k = start; k < end; k++) {
+                /* Check if the monitor has been canceled */
+                if (cancelled.get() || monitor.isCanceled()) {
+                    cancelled.set(true);
+                    return;
+                }
+                action.accept(k);
+            }
+        }
+    }
+
     private boolean intersectLineLineSegmentUnidirectional(Vector3dd p, Vector3dd p2, Vector3dd q, Vector3dd q2) {
 
 
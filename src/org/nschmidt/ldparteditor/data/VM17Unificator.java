@@ -18,6 +18,7 @@ package org.nschmidt.ldparteditor.data;
 import java.lang.reflect.InvocationTargetException;
 import java.math.BigDecimal;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
@@ -27,7 +28,7 @@ import org.eclipse.jface.dialogs.ProgressMonitorDialog;
 import org.eclipse.jface.operation.IRunnableWithProgress;
 import org.nschmidt.ldparteditor.enums.Threshold;
 import org.nschmidt.ldparteditor.helpers.composite3d.UnificatorSettings;
-import org.nschmidt.ldparteditor.helpers.math.Vector3d;
+import org.nschmidt.ldparteditor.helpers.math.VertexGrid;
 import org.nschmidt.ldparteditor.i18n.I18n;
 import org.nschmidt.ldparteditor.logger.NLogger;
 import org.nschmidt.ldparteditor.shells.editor3d.Editor3DWindow;
@@ -46,8 +47,9 @@ class VM17Unificator extends VM16Subdivide {
 
         if (linkedDatFile.isReadOnly()) return;
 
-        final BigDecimal vt = us.getVertexThreshold().multiply(us.getVertexThreshold());
-        final BigDecimal st = us.getSubvertexThreshold().multiply(us.getSubvertexThreshold());
+        // A vertex is within the threshold if its squared distance is less than the squared threshold
+        final BigDecimal vertexThreshold = us.getVertexThreshold().abs();
+        final BigDecimal subvertexThreshold = us.getSubvertexThreshold().abs();
 
         if (us.getScope() == 0) {
             selectAll(null, true);
@@ -94,107 +96,11 @@ class VM17Unificator extends VM16Subdivide {
 
                     TreeSet<Vertex> subfileVertices = new TreeSet<Vertex>();
                     TreeSet<Vertex> fileVertices = new TreeSet<Vertex>();
-
-                    for (Vertex v : selectedVerts) {
-
-                        boolean isFileVertex = false;
-
-                        if (vertexLinkedToSubfile.containsKey(v)) {
-                            // Do not add points for condlines in subparts.
-                            Set<VertexManifestation> mani = vertexLinkedToPositionInFile.get(v);
-                            int controlPointCondlineInSubfile = 0;
-                            for (VertexManifestation vm : mani) {
-                                GData gd = vm.getGdata();
-                                if (lineLinkedToVertices.containsKey(gd)) {
-                                    // Better performance, since we can detect file vertices here!
-                                    fileVertices.add(v);
-                                    isFileVertex = true;
-                                    break;
-                                } else if (gd.type() == 5 && vm.getPosition() > 1) {
-                                    controlPointCondlineInSubfile++;
-                                }
-                            }
-                            if (controlPointCondlineInSubfile == mani.size()) {
-                                continue;
-                            }
-                            subfileVertices.add(v);
-                        }
-
-                        if (!isFileVertex) {
-                            Set<VertexManifestation> mani = vertexLinkedToPositionInFile.get(v);
-                            for (VertexManifestation vm : mani) {
-                                GData gd = vm.getGdata();
-                                if (lineLinkedToVertices.containsKey(gd)) {
-                                    fileVertices.add(v);
-                                    break;
-                                }
-                            }
-                        }
-                    }
-
+                    sortOutVertices(selectedVerts, fileVertices, subfileVertices);
 
                     if (us.getSnapOn() == VERTICES || us.getSnapOn() == VERTICES_AND_SUBPART_VERTICES) {
                         monitor.subTask(I18n.VM_Unify);
-                        int i = 0;
-                        int j = 0;
-
-                        TreeMap<Vertex, Vertex> mergeTargets = new TreeMap<Vertex, Vertex>();
-                        {
-                            TreeMap<Vertex, TreeSet<Vertex>> unifyGroups = new TreeMap<Vertex, TreeSet<Vertex>>();
-                            TreeSet<Vertex> inGroup = new TreeSet<Vertex>();
-
-                            for (Vertex v1 : fileVertices) {
-                                if (us.getSnapOn() == VERTICES_AND_SUBPART_VERTICES && subfileVertices.contains(v1)) {
-                                    i++;
-                                    continue;
-                                }
-                                TreeSet<Vertex> group = new TreeSet<Vertex>();
-                                group.add(v1);
-                                j = 0;
-                                for (Vertex v2 : fileVertices) {
-                                    if (j > i && !inGroup.contains(v2)) {
-                                        Vector3d v3d1 = new Vector3d(v1);
-                                        Vector3d v3d2 = new Vector3d(v2);
-                                        if (Vector3d.distSquare(v3d1, v3d2).compareTo(vt) < 0) {
-                                            group.add(v2);
-                                            inGroup.add(v2);
-                                        }
-                                    }
-                                    j++;
-                                }
-                                unifyGroups.put(v1, group);
-                                i++;
-                            }
-
-                            fileVertices.clear();
-
-                            Set<Vertex> keySet = unifyGroups.keySet();
-                            for (Vertex key : keySet) {
-                                TreeSet<Vertex> group = unifyGroups.get(key);
-                                if (group.size() > 1) {
-                                    BigDecimal X = BigDecimal.ZERO;
-                                    BigDecimal Y = BigDecimal.ZERO;
-                                    BigDecimal Z = BigDecimal.ZERO;
-                                    BigDecimal gc = new BigDecimal(group.size());
-                                    for (Vertex gv : group) {
-                                        X = X.add(gv.X);
-                                        Y = Y.add(gv.Y);
-                                        Z = Z.add(gv.Z);
-                                    }
-                                    X = X.divide(gc, Threshold.mc);
-                                    Y = Y.divide(gc, Threshold.mc);
-                                    Z = Z.divide(gc, Threshold.mc);
-                                    Vertex newVertex = new Vertex(X, Y, Z);
-                                    fileVertices.add(newVertex);
-                                    for (Vertex gv : group) {
-                                        mergeTargets.put(gv, newVertex);
-                                    }
-                                } else {
-                                    fileVertices.add(key);
-                                }
-                            }
-                        }
-
+                        TreeMap<Vertex, Vertex> mergeTargets = unifyVertices(fileVertices, subfileVertices, vertexThreshold, us.getSnapOn());
                         Set<Vertex> keySet = mergeTargets.keySet();
                         for (Vertex key : keySet) {
                             Vertex target = mergeTargets.get(key);
@@ -208,40 +114,7 @@ class VM17Unificator extends VM16Subdivide {
 
                     if (us.getSnapOn() == SUBPART_VERTICES || us.getSnapOn() == VERTICES_AND_SUBPART_VERTICES) {
                         monitor.subTask(I18n.VM_Snap);
-
-                        TreeMap<Vertex, Vertex> mergeTargets = new TreeMap<Vertex, Vertex>();
-                        {
-                            TreeMap<Vertex, TreeSet<Vertex>> unifyGroups = new TreeMap<Vertex, TreeSet<Vertex>>();
-                            TreeSet<Vertex> inGroup = new TreeSet<Vertex>();
-
-                            for (Vertex v1 : subfileVertices) {
-                                TreeSet<Vertex> group = new TreeSet<Vertex>();
-                                for (Vertex v2 : fileVertices) {
-                                    if (!inGroup.contains(v2)) {
-                                        Vector3d v3d1 = new Vector3d(v1);
-                                        Vector3d v3d2 = new Vector3d(v2);
-                                        if (Vector3d.distSquare(v3d1, v3d2).compareTo(st) < 0) {
-                                            group.add(v2);
-                                            inGroup.add(v2);
-                                        }
-                                    }
-                                }
-                                unifyGroups.put(v1, group);
-                            }
-
-                            fileVertices.clear();
-
-                            Set<Vertex> keySet = unifyGroups.keySet();
-                            for (Vertex key : keySet) {
-                                TreeSet<Vertex> group = unifyGroups.get(key);
-                                if (group.size() > 0) {
-                                    for (Vertex gv : group) {
-                                        mergeTargets.put(gv, key);
-                                    }
-                                }
-                            }
-                        }
-
+                        TreeMap<Vertex, Vertex> mergeTargets = snapToSubfileVertices(fileVertices, subfileVertices, subvertexThreshold);
                         Set<Vertex> keySet = mergeTargets.keySet();
                         for (Vertex key : keySet) {
                             Vertex target = mergeTargets.get(key);
@@ -335,4 +208,151 @@ class VM17Unificator extends VM16Subdivide {
 
         validateState();
     }
+
+    /**
+     * Sorts the selected vertices out into vertices of the file and vertices
+     * of subfiles (a vertex can be both). The control points of condlines in
+     * subfiles are ignored.
+     */
+    void sortOutVertices(Set<Vertex> selectedVerts, TreeSet<Vertex> fileVertices, TreeSet<Vertex> subfileVertices) {
+        for (Vertex v : selectedVerts) {
+
+            boolean isFileVertex = false;
+
+            if (vertexLinkedToSubfile.containsKey(v)) {
+                // Do not add points for condlines in subparts.
+                Set<VertexManifestation> mani = vertexLinkedToPositionInFile.get(v);
+                int controlPointCondlineInSubfile = 0;
+                for (VertexManifestation vm : mani) {
+                    GData gd = vm.getGdata();
+                    if (lineLinkedToVertices.containsKey(gd)) {
+                        // Better performance, since we can detect file vertices here!
+                        fileVertices.add(v);
+                        isFileVertex = true;
+                        break;
+                    } else if (gd.type() == 5 && vm.getPosition() > 1) {
+                        controlPointCondlineInSubfile++;
+                    }
+                }
+                if (controlPointCondlineInSubfile == mani.size()) {
+                    continue;
+                }
+                subfileVertices.add(v);
+            }
+
+            if (!isFileVertex) {
+                Set<VertexManifestation> mani = vertexLinkedToPositionInFile.get(v);
+                for (VertexManifestation vm : mani) {
+                    GData gd = vm.getGdata();
+                    if (lineLinkedToVertices.containsKey(gd)) {
+                        fileVertices.add(v);
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Groups the file vertices which are within the threshold. The file
+     * vertices are replaced by the centres of the groups.
+     *
+     * @return vertex -> centre of its group
+     */
+    TreeMap<Vertex, Vertex> unifyVertices(TreeSet<Vertex> fileVertices, TreeSet<Vertex> subfileVertices, BigDecimal threshold, int snapOn) {
+        TreeMap<Vertex, Vertex> mergeTargets = new TreeMap<Vertex, Vertex>();
+        int i = 0;
+        TreeMap<Vertex, TreeSet<Vertex>> unifyGroups = new TreeMap<Vertex, TreeSet<Vertex>>();
+        TreeSet<Vertex> inGroup = new TreeSet<Vertex>();
+
+        // The grid finds the vertices within the threshold without comparing all pairs of vertices
+        final VertexGrid grid = new VertexGrid(threshold, fileVertices);
+        final IdentityHashMap<Vertex, Integer> indices = new IdentityHashMap<Vertex, Integer>();
+        for (Vertex v : fileVertices) {
+            indices.put(v, indices.size());
+        }
+
+        for (Vertex v1 : fileVertices) {
+            if (snapOn == VERTICES_AND_SUBPART_VERTICES && subfileVertices.contains(v1)) {
+                i++;
+                continue;
+            }
+            TreeSet<Vertex> group = new TreeSet<Vertex>();
+            group.add(v1);
+            for (Vertex v2 : grid.getNeighbours(v1, threshold)) {
+                if (indices.get(v2) > i && !inGroup.contains(v2)) {
+                    group.add(v2);
+                    inGroup.add(v2);
+                }
+            }
+            unifyGroups.put(v1, group);
+            i++;
+        }
+
+        fileVertices.clear();
+
+        Set<Vertex> keySet = unifyGroups.keySet();
+        for (Vertex key : keySet) {
+            TreeSet<Vertex> group = unifyGroups.get(key);
+            if (group.size() > 1) {
+                BigDecimal X = BigDecimal.ZERO;
+                BigDecimal Y = BigDecimal.ZERO;
+                BigDecimal Z = BigDecimal.ZERO;
+                BigDecimal gc = new BigDecimal(group.size());
+                for (Vertex gv : group) {
+                    X = X.add(gv.X);
+                    Y = Y.add(gv.Y);
+                    Z = Z.add(gv.Z);
+                }
+                X = X.divide(gc, Threshold.mc);
+                Y = Y.divide(gc, Threshold.mc);
+                Z = Z.divide(gc, Threshold.mc);
+                Vertex newVertex = new Vertex(X, Y, Z);
+                fileVertices.add(newVertex);
+                for (Vertex gv : group) {
+                    mergeTargets.put(gv, newVertex);
+                }
+            } else {
+                fileVertices.add(key);
+            }
+        }
+        return mergeTargets;
+    }
+
+    /**
+     * Snaps the file vertices to the subfile vertices within the threshold.
+     *
+     * @return file vertex -> subfile vertex
+     */
+    TreeMap<Vertex, Vertex> snapToSubfileVertices(TreeSet<Vertex> fileVertices, TreeSet<Vertex> subfileVertices, BigDecimal threshold) {
+        TreeMap<Vertex, Vertex> mergeTargets = new TreeMap<Vertex, Vertex>();
+        TreeMap<Vertex, TreeSet<Vertex>> unifyGroups = new TreeMap<Vertex, TreeSet<Vertex>>();
+        TreeSet<Vertex> inGroup = new TreeSet<Vertex>();
+
+        final VertexGrid grid = new VertexGrid(threshold, fileVertices);
+
+        for (Vertex v1 : subfileVertices) {
+            TreeSet<Vertex> group = new TreeSet<Vertex>();
+            for (Vertex v2 : grid.getNeighbours(v1, threshold)) {
+                if (!inGroup.contains(v2)) {
+                    group.add(v2);
+                    inGroup.add(v2);
+                }
+            }
+            unifyGroups.put(v1, group);
+        }
+
+        fileVertices.clear();
+
+        Set<Vertex> keySet = unifyGroups.keySet();
+        for (Vertex key : keySet) {
+            TreeSet<Vertex> group = unifyGroups.get(key);
+            if (group.size() > 0) {
+                for (Vertex gv : group) {
+                    mergeTargets.put(gv, key);
+                }
+            }
+        }
+        return mergeTargets;
+    }
 }
@@ -815,15 +815,11 @@ public class VM20Manipulator extends VM19ColourChanger {
         } else {
             colourBuilder.append(g.colourNumber);
         }
-        // Clear the cache..
-        GData.parsedLines.clear();
-        GData.CACHE_parsedFilesSource.clear();
+        // Refresh the cache..
+        SubfileCache.beginParse();
         GData1 reloadedSubfile = (GData1) DatParser
                 .parseLine("1 " + colourBuilder.toString() + M.toLDrawString() + g.shortName , 0, 0, col16.getR(), col16.getG(), col16.getB(), 1f, View.DUMMY_REFERENCE, View.ID, View.ACCURATE_ID, linkedDatFile, false, //$NON-NLS-1$
                         new HashSet<String>(), false).get(0).getGraphicalData();
-        // Clear the cache..
-        GData.parsedLines.clear();
-        GData.CACHE_parsedFilesSource.clear();
         // The transformation can be invalid!
         if (reloadedSubfile != null) {
             GData oldNext = g.getNext();
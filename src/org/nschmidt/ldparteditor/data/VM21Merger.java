@@ -21,7 +21,6 @@ import java.util.Set;
 import java.util.TreeSet;
 
 import org.eclipse.jface.dialogs.IDialogConstants;
-import org.lwjgl.util.vector.Vector4f;
 import org.nschmidt.ldparteditor.data.tools.IdenticalVertexRemover;
 import org.nschmidt.ldparteditor.data.tools.Merger;
 import org.nschmidt.ldparteditor.dialogs.direction.DirectionDialog;
@@ -259,10 +258,11 @@ public class VM21Merger extends VM20Manipulator {
                     selectedVertices.clear();
                     selectedVertices.add(vertex2);
                     Vertex minVertex = new Vertex(0f, 0f, 0f);
-                    Vector4f next = vertex2.toVector4fm();
                     for (Vertex vertex : allVerticesMinusSelection) {
-                        Vector4f sub = Vector4f.sub(next, vertex.toVector4fm(), null);
-                        float d2 = sub.lengthSquared();
+                        final float dx = vertex2.x - vertex.x;
+                        final float dy = vertex2.y - vertex.y;
+                        final float dz = vertex2.z - vertex.z;
+                        float d2 = dx * dx + dy * dy + dz * dz;
                         if (d2 < minDist) {
                             minVertex = vertex;
                             minDist = d2;
@@ -16,7 +16,6 @@ ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEAL
 package org.nschmidt.ldparteditor.data;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 
 import org.lwjgl.util.vector.Vector4f;
 import org.nschmidt.ldparteditor.helpers.math.Rational;
@@ -39,10 +38,10 @@ public class Vertex implements Comparable<Vertex> {
     public final float x;
     public final float y;
     public final float z;
-    private final Vector4f vertex;
-    private final float rounded_x;
-    private final float rounded_y;
-    private final float rounded_z;
+    // The rounded values are the coordinates of the VertexStore
+    final float rounded_x;
+    final float rounded_y;
+    final float rounded_z;
 
     // Lowest accuracy version (simple float to BigDecimal cast)
     public Vertex(Vector4f vertex) {
@@ -51,23 +50,13 @@ public class Vertex implements Comparable<Vertex> {
         this.y = vertex.y;
         this.z = vertex.z;
 
-        BigDecimal x = new BigDecimal(this.x);
-        X = x.scaleByPowerOfTen(-3);
-        x = x.setScale(2, RoundingMode.HALF_UP);
+        X = new BigDecimal(this.x).scaleByPowerOfTen(-3);
+        Y = new BigDecimal(this.y).scaleByPowerOfTen(-3);
+        Z = new BigDecimal(this.z).scaleByPowerOfTen(-3);
 
-        BigDecimal y = new BigDecimal(this.y);
-        Y = y.scaleByPowerOfTen(-3);
-        y = y.setScale(2, RoundingMode.HALF_UP);
-
-        BigDecimal z = new BigDecimal(this.z);
-        Z = z.scaleByPowerOfTen(-3);
-        z = z.setScale(2, RoundingMode.HALF_UP);
-
-        this.rounded_x = x.floatValue();
-        this.rounded_y = y.floatValue();
-        this.rounded_z = z.floatValue();
-
-        this.vertex = new Vector4f(vertex);
+        this.rounded_x = round(this.x);
+        this.rounded_y = round(this.y);
+        this.rounded_z = round(this.z);
 
         // NLogger.error(getClass(), "Standard accuracy on vertex."); //$NON-NLS-1$
     }
@@ -83,24 +72,13 @@ public class Vertex implements Comparable<Vertex> {
         this.y = by.floatValue() * 1000f;
         this.z = bz.floatValue() * 1000f;
 
-        this.vertex = new Vector4f(this.x, this.y, this.z, 1f);
-
         this.X = bx;
         this.Y = by;
         this.Z = bz;
 
-        BigDecimal x = new BigDecimal(this.x);
-        x = x.setScale(2, RoundingMode.HALF_UP);
-
-        BigDecimal y = new BigDecimal(this.y);
-        y = y.setScale(2, RoundingMode.HALF_UP);
-
-        BigDecimal z = new BigDecimal(this.z);
-        z = z.setScale(2, RoundingMode.HALF_UP);
-
-        this.rounded_x = x.floatValue();
-        this.rounded_y = y.floatValue();
-        this.rounded_z = z.floatValue();
+        this.rounded_x = round(this.x);
+        this.rounded_y = round(this.y);
+        this.rounded_z = round(this.z);
     }
 
     // High performance version / only for texture rendering, primitive preview
@@ -110,23 +88,13 @@ public class Vertex implements Comparable<Vertex> {
         this.y = vy;
         this.z = vz;
 
-        this.vertex = null;
         this.X = null;
         this.Y = null;
         this.Z = null;
 
-        BigDecimal x = new BigDecimal(this.x);
-        x = x.setScale(2, RoundingMode.HALF_UP);
-
-        BigDecimal y = new BigDecimal(this.y);
-        y = y.setScale(2, RoundingMode.HALF_UP);
-
-        BigDecimal z = new BigDecimal(this.z);
-        z = z.setScale(2, RoundingMode.HALF_UP);
-
-        this.rounded_x = x.floatValue();
-        this.rounded_y = y.floatValue();
-        this.rounded_z = z.floatValue();
+        this.rounded_x = round(this.x);
+        this.rounded_y = round(this.y);
+        this.rounded_z = round(this.z);
     }
 
     // High accuracy version (better performance)
@@ -136,24 +104,13 @@ public class Vertex implements Comparable<Vertex> {
         this.y = vertex.y;
         this.z = vertex.z;
 
-        this.vertex = new Vector4f(vertex);
-
         this.X = bx;
         this.Y = by;
         this.Z = bz;
 
-        BigDecimal x = new BigDecimal(this.x);
-        x = x.setScale(2, RoundingMode.HALF_UP);
-
-        BigDecimal y = new BigDecimal(this.y);
-        y = y.setScale(2, RoundingMode.HALF_UP);
-
-        BigDecimal z = new BigDecimal(this.z);
-        z = z.setScale(2, RoundingMode.HALF_UP);
-
-        this.rounded_x = x.floatValue();
-        this.rounded_y = y.floatValue();
-        this.rounded_z = z.floatValue();
+        this.rounded_x = round(this.x);
+        this.rounded_y = round(this.y);
+        this.rounded_z = round(this.z);
     }
 
     public Vertex(float x, float y, float z) {
@@ -173,12 +130,19 @@ public class Vertex implements Comparable<Vertex> {
     }
 
     public final Vector4f toVector4f() {
-        return new Vector4f(vertex);
+        return new Vector4f(x, y, z, 1f);
     };
 
-    final Vector4f toVector4fm() {
-        return vertex;
-    };
+    /**
+     * Rounds the value to two decimal places (like
+     * {@code new BigDecimal(value).setScale(2, RoundingMode.HALF_UP).floatValue()},
+     * but without creating {@link BigDecimal} objects). The product of a
+     * float and 100 is exact as a double.
+     */
+    private static float round(float value) {
+        final double scaled = Math.abs(value * 100.0);
+        return (float) (Math.copySign(Math.floor(scaled + .5), value) / 100.0);
+    }
 
     @Override
     public int hashCode() {
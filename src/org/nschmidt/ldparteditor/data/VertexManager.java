@@ -955,13 +955,9 @@ public final class VertexManager extends VM99Clipboard {
                     n.normalise();
                     c3d.getManipulator().getZaxis().set(n.x, n.y, n.z, 1f);
 
-                    Vector4f v0 = verts[0].toVector4fm();
-                    Vector4f v1 = verts[1].toVector4fm();
-                    Vector4f v2 = verts[2].toVector4fm();
-
-                    Vector4f d1 = Vector4f.sub(v0, v1, null);
-                    Vector4f d2 = Vector4f.sub(v0, v2, null);
-                    Vector4f d3 = Vector4f.sub(v1, v2, null);
+                    Vector4f d1 = sub(verts[0], verts[1]);
+                    Vector4f d2 = sub(verts[0], verts[2]);
+                    Vector4f d3 = sub(verts[1], verts[2]);
 
                     float dist1 = d1.lengthSquared();
                     float dist2 = d2.lengthSquared();
@@ -987,17 +983,12 @@ public final class VertexManager extends VM99Clipboard {
                     GData4 quad = (GData4) selectedObject;
 
                     Vertex[] verts = quads.get(quad);
-                    Vector4f v0 = verts[0].toVector4fm();
-                    Vector4f v1 = verts[1].toVector4fm();
-                    Vector4f v2 = verts[2].toVector4fm();
-                    Vector4f v3 = verts[3].toVector4fm();
-
                     Vector3f[] normals = new Vector3f[4];
                     Vector4f[] lineVectors = new Vector4f[4];
-                    lineVectors[0] = Vector4f.sub(v1, v0, null);
-                    lineVectors[1] = Vector4f.sub(v2, v1, null);
-                    lineVectors[2] = Vector4f.sub(v3, v2, null);
-                    lineVectors[3] = Vector4f.sub(v0, v3, null);
+                    lineVectors[0] = sub(verts[1], verts[0]);
+                    lineVectors[1] = sub(verts[2], verts[1]);
+                    lineVectors[2] = sub(verts[3], verts[2]);
+                    lineVectors[3] = sub(verts[0], verts[3]);
                     normals[0] = Vector3f.cross(new Vector3f(lineVectors[0].x, lineVectors[0].y, lineVectors[0].z), new Vector3f(lineVectors[1].x, lineVectors[1].y, lineVectors[1].z), null);
                     normals[1] = Vector3f.cross(new Vector3f(lineVectors[1].x, lineVectors[1].y, lineVectors[1].z), new Vector3f(lineVectors[2].x, lineVectors[2].y, lineVectors[2].z), null);
                     normals[2] = Vector3f.cross(new Vector3f(lineVectors[2].x, lineVectors[2].y, lineVectors[2].z), new Vector3f(lineVectors[3].x, lineVectors[3].y, lineVectors[3].z), null);
@@ -1011,9 +1002,9 @@ public final class VertexManager extends VM99Clipboard {
 
                     c3d.getManipulator().getZaxis().set(n.x, n.y, n.z, 1f);
 
-                    Vector4f d1 = Vector4f.sub(v0, v1, null);
-                    Vector4f d2 = Vector4f.sub(v0, v2, null);
-                    Vector4f d3 = Vector4f.sub(v1, v2, null);
+                    Vector4f d1 = sub(verts[0], verts[1]);
+                    Vector4f d2 = sub(verts[0], verts[2]);
+                    Vector4f d3 = sub(verts[1], verts[2]);
 
                     float dist1 = d1.lengthSquared();
                     float dist2 = d2.lengthSquared();
@@ -1074,4 +1065,12 @@ public final class VertexManager extends VM99Clipboard {
             ((ScalableComposite) c3d.getParent()).redrawScales(event.x, event.y);
         }
     }
+
+    /**
+     * @return the difference of two vertices (like
+     *         {@code Vector4f.sub(a.toVector4f(), b.toVector4f(), null)})
+     */
+    private static Vector4f sub(Vertex a, Vertex b) {
+        return new Vector4f(a.x - b.x, a.y - b.y, a.z - b.z, 0f);
+    }
 }
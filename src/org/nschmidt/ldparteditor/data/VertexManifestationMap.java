@@ -0,0 +1,245 @@
+/* MIT - License
+
+Copyright (c) 2012 - this year, Nils Schmidt
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE
+FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE. */
+package org.nschmidt.ldparteditor.data;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * The manifestations of every vertex (vertex to its positions in the file).
+ * The vertices get an int id from a {@link VertexStore} and the
+ * manifestations are stored in an array with the id as index, so a lookup
+ * needs neither a comparison of {@link Vertex} objects nor a tree.
+ * <br>
+ * The map has the same locking and the same modification count as the
+ * {@link org.nschmidt.ldparteditor.helpers.math.ThreadsafeTreeMap} which it
+ * replaces. The keys are iterated in the order of
+ * {@link Vertex#compareTo(Vertex)} like before, since some tools (e.g. the
+ * Edger2) depend on this order. The sorted keys are cached until a vertex is
+ * added or removed.
+ *
+ * @author nils
+ *
+ */
+final class VertexManifestationMap extends AbstractMap<Vertex, Set<VertexManifestation>> {
+
+    private final VertexStore store = new VertexStore();
+    /** The manifestations of every vertex id */
+    @SuppressWarnings("unchecked")
+    private Set<VertexManifestation>[] manifestations = new Set[16];
+    private final ReadWriteLock rwl = new ReentrantReadWriteLock();
+    private final Lock rl = rwl.readLock();
+    private final Lock wl = rwl.writeLock();
+    /** Counts all write operations (only changed while the write lock is held) */
+    private volatile long modificationCount = 0L;
+    /** The sorted keys ({@code null} if a vertex was added or removed since the last sort) */
+    private volatile Vertex[] sortedKeys = null;
+
+    private final Set<Vertex> keySet = new AbstractSet<Vertex>() {
+
+        @Override
+        public Iterator<Vertex> iterator() {
+            return Arrays.asList(getSortedKeys()).iterator();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return containsKey(o);
+        }
+
+        @Override
+        public int size() {
+            return VertexManifestationMap.this.size();
+        }
+    };
+
+    private final Set<Map.Entry<Vertex, Set<VertexManifestation>>> entrySet = new AbstractSet<Map.Entry<Vertex, Set<VertexManifestation>>>() {
+
+        @Override
+        public Iterator<Map.Entry<Vertex, Set<VertexManifestation>>> iterator() {
+            final Vertex[] keys = getSortedKeys();
+            return new Iterator<Map.Entry<Vertex, Set<VertexManifestation>>>() {
+
+                private int index = 0;
+
+                @Override
+                public boolean hasNext() {
+                    return index < keys.length;
+                }
+
+                @Override
+                public Map.Entry<Vertex, Set<VertexManifestation>> next() {
+                    if (index >= keys.length) {
+                        throw new NoSuchElementException();
+                    }
+                    final Vertex key = keys[index++];
+                    return new SimpleImmutableEntry<Vertex, Set<VertexManifestation>>(key, get(key));
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return VertexManifestationMap.this.size();
+        }
+    };
+
+    @Override
+    public Set<VertexManifestation> get(Object key) {
+        rl.lock();
+        final int id = store.find((Vertex) key);
+        final Set<VertexManifestation> val = id == VertexStore.NO_ID ? null : manifestations[id];
+        rl.unlock();
+        return val;
+    }
+
+    @Override
+    public Set<VertexManifestation> getOrDefault(Object key, Set<VertexManifestation> defaultValue) {
+        final Set<VertexManifestation> val = get(key);
+        return val == null ? defaultValue : val;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        rl.lock();
+        final boolean value = store.find((Vertex) key) != VertexStore.NO_ID;
+        rl.unlock();
+        return value;
+    }
+
+    @Override
+    public Set<VertexManifestation> put(Vertex key, Set<VertexManifestation> value) {
+        wl.lock();
+        modificationCount++;
+        final int oldSize = store.size();
+        final int id = store.add(key);
+        if (store.size() != oldSize) {
+            sortedKeys = null;
+        }
+        if (id >= manifestations.length) {
+            manifestations = Arrays.copyOf(manifestations, Math.max(id + 1, manifestations.length * 2));
+        }
+        final Set<VertexManifestation> val = manifestations[id];
+        manifestations[id] = value;
+        wl.unlock();
+        return val;
+    }
+
+    @Override
+    public Set<VertexManifestation> remove(Object key) {
+        wl.lock();
+        modificationCount++;
+        final int id = store.remove((Vertex) key);
+        Set<VertexManifestation> val = null;
+        if (id != VertexStore.NO_ID) {
+            val = manifestations[id];
+            manifestations[id] = null;
+            sortedKeys = null;
+        }
+        wl.unlock();
+        return val;
+    }
+
+    @Override
+    public void clear() {
+        wl.lock();
+        modificationCount++;
+        Arrays.fill(manifestations, null);
+        store.clear();
+        sortedKeys = null;
+        wl.unlock();
+    }
+
+    @Override
+    public int size() {
+        rl.lock();
+        final int rvalue = store.size();
+        rl.unlock();
+        return rvalue;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * @return a view of the keys, which are iterated in their natural order
+     *         (the iteration uses a copy of the keys, so the map can be
+     *         changed during the iteration)
+     */
+    @Override
+    public Set<Vertex> keySet() {
+        return keySet;
+    }
+
+    @Override
+    public Set<Map.Entry<Vertex, Set<VertexManifestation>>> entrySet() {
+        return entrySet;
+    }
+
+    /**
+     * @return a copy of all entries
+     */
+    public Set<Map.Entry<Vertex, Set<VertexManifestation>>> threadSafeEntrySet() {
+        rl.lock();
+        final Set<Map.Entry<Vertex, Set<VertexManifestation>>> result = new HashSet<>();
+        for (int id = 0; id < store.idBound(); id++) {
+            final Vertex key = store.getVertex(id);
+            if (key != null) {
+                result.add(new SimpleImmutableEntry<Vertex, Set<VertexManifestation>>(key, manifestations[id]));
+            }
+        }
+        rl.unlock();
+        return result;
+    }
+
+    /**
+     * @return a number which changes every time the content of the map was
+     *         modified with one of the methods of this class
+     */
+    public long getModificationCount() {
+        return modificationCount;
+    }
+
+    private Vertex[] getSortedKeys() {
+        Vertex[] keys = sortedKeys;
+        if (keys == null) {
+            rl.lock();
+            keys = new Vertex[store.size()];
+            int i = 0;
+            for (int id = 0; id < store.idBound(); id++) {
+                final Vertex key = store.getVertex(id);
+                if (key != null) {
+                    keys[i++] = key;
+                }
+            }
+            Arrays.sort(keys);
+            sortedKeys = keys;
+            rl.unlock();
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,219 @@
+/* MIT - License
+
+Copyright (c) 2012 - this year, Nils Schmidt
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE
+FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE. */
+package org.nschmidt.ldparteditor.data;
+
+import java.util.Arrays;
+
+/**
+ * Gives every vertex an int id. The rounded coordinates of the vertices are
+ * stored in parallel float arrays, so a lookup compares primitive values
+ * instead of {@link Vertex} objects. The ids of removed vertices are used
+ * again.
+ * <br>
+ * Two vertices get the same id if they are equal (see
+ * {@link Vertex#equals(Object)}). The rounded coordinates are multiples of
+ * {@code 0.01}, so equal vertices have the same rounded coordinates and a
+ * comparison with {@code ==} is sufficient.
+ * <br>
+ * The store is not thread-safe.
+ *
+ * @author nils
+ *
+ */
+final class VertexStore {
+
+    /** The id which is returned if a vertex is not stored */
+    static final int NO_ID = -1;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private float[] roundedX = new float[INITIAL_CAPACITY];
+    private float[] roundedY = new float[INITIAL_CAPACITY];
+    private float[] roundedZ = new float[INITIAL_CAPACITY];
+    private int[] hashes = new int[INITIAL_CAPACITY];
+    /** The vertex of every id ({@code null} if the id is not used) */
+    private Vertex[] vertices = new Vertex[INITIAL_CAPACITY];
+    /** Open addressing with linear probing, contains the ids ({@link #NO_ID} marks a free slot) */
+    private int[] table = newTable(INITIAL_CAPACITY * 2);
+    /** The ids of removed vertices */
+    private int[] freeIds = new int[INITIAL_CAPACITY];
+    private int freeIdCount = 0;
+    /** All ids below this bound were used once */
+    private int idBound = 0;
+    private int size = 0;
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return an exclusive upper bound for all ids
+     */
+    int idBound() {
+        return idBound;
+    }
+
+    /**
+     * @param id
+     *            an id below {@link #idBound()}
+     * @return the vertex with this id, or {@code null} if the id is not used
+     */
+    Vertex getVertex(int id) {
+        return vertices[id];
+    }
+
+    /**
+     * @return the id of the vertex, or {@link #NO_ID} if it is not stored
+     */
+    int find(Vertex vertex) {
+        final float x = vertex.rounded_x;
+        final float y = vertex.rounded_y;
+        final float z = vertex.rounded_z;
+        final int mask = table.length - 1;
+        for (int slot = hash(x, y, z) & mask;; slot = slot + 1 & mask) {
+            final int id = table[slot];
+            if (id == NO_ID) {
+                return NO_ID;
+            }
+            if (roundedX[id] == x && roundedY[id] == y && roundedZ[id] == z) {
+                return id;
+            }
+        }
+    }
+
+    /**
+     * Stores the vertex if there is no equal vertex in the store
+     *
+     * @return the id of the stored vertex (the first vertex keeps its id)
+     */
+    int add(Vertex vertex) {
+        final int existingId = find(vertex);
+        if (existingId != NO_ID) {
+            return existingId;
+        }
+        if ((size + 1) * 2 > table.length) {
+            rehash(table.length * 2);
+        }
+        final int id;
+        if (freeIdCount > 0) {
+            id = freeIds[--freeIdCount];
+        } else {
+            if (idBound == vertices.length) {
+                grow(idBound * 2);
+            }
+            id = idBound++;
+        }
+        final float x = vertex.rounded_x;
+        final float y = vertex.rounded_y;
+        final float z = vertex.rounded_z;
+        final int hash = hash(x, y, z);
+        roundedX[id] = x;
+        roundedY[id] = y;
+        roundedZ[id] = z;
+        hashes[id] = hash;
+        vertices[id] = vertex;
+        final int mask = table.length - 1;
+        int slot = hash & mask;
+        while (table[slot] != NO_ID) {
+            slot = slot + 1 & mask;
+        }
+        table[slot] = id;
+        size++;
+        return id;
+    }
+
+    /**
+     * Removes the vertex (its id can be returned by {@link #add(Vertex)}
+     * again)
+     *
+     * @return the id of the removed vertex, or {@link #NO_ID} if it was not
+     *         stored
+     */
+    int remove(Vertex vertex) {
+        final int id = find(vertex);
+        if (id == NO_ID) {
+            return NO_ID;
+        }
+        final int mask = table.length - 1;
+        int slot = hashes[id] & mask;
+        while (table[slot] != id) {
+            slot = slot + 1 & mask;
+        }
+        // Moves the following entries back, so that no entry gets separated from its slot
+        int freeSlot = slot;
+        for (int i = slot + 1 & mask; table[i] != NO_ID; i = i + 1 & mask) {
+            final int home = hashes[table[i]] & mask;
+            if ((i - home & mask) >= (i - freeSlot & mask)) {
+                table[freeSlot] = table[i];
+                freeSlot = i;
+            }
+        }
+        table[freeSlot] = NO_ID;
+        vertices[id] = null;
+        if (freeIdCount == freeIds.length) {
+            freeIds = Arrays.copyOf(freeIds, freeIdCount * 2);
+        }
+        freeIds[freeIdCount++] = id;
+        size--;
+        return id;
+    }
+
+    void clear() {
+        Arrays.fill(vertices, 0, idBound, null);
+        Arrays.fill(table, NO_ID);
+        freeIdCount = 0;
+        idBound = 0;
+        size = 0;
+    }
+
+    private void grow(int capacity) {
+        roundedX = Arrays.copyOf(roundedX, capacity);
+        roundedY = Arrays.copyOf(roundedY, capacity);
+        roundedZ = Arrays.copyOf(roundedZ, capacity);
+        hashes = Arrays.copyOf(hashes, capacity);
+        vertices = Arrays.copyOf(vertices, capacity);
+    }
+
+    private void rehash(int tableSize) {
+        table = newTable(tableSize);
+        final int mask = tableSize - 1;
+        for (int id = 0; id < idBound; id++) {
+            if (vertices[id] != null) {
+                int slot = hashes[id] & mask;
+                while (table[slot] != NO_ID) {
+                    slot = slot + 1 & mask;
+                }
+                table[slot] = id;
+            }
+        }
+    }
+
+    private static int[] newTable(int tableSize) {
+        final int[] result = new int[tableSize];
+        Arrays.fill(result, NO_ID);
+        return result;
+    }
+
+    private static int hash(float x, float y, float z) {
+        // + 0f turns -0f into 0f, since both are equal
+        int h = Float.floatToIntBits(x + 0f);
+        h = h * 31 + Float.floatToIntBits(y + 0f);
+        h = h * 31 + Float.floatToIntBits(z + 0f);
+        // The low bits of the coordinates are often zero, they are mixed with the high bits
+        h *= 0x9E3779B9;
+        return h ^ h >>> 16;
+    }
+}
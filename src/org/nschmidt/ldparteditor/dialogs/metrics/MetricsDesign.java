@@ -0,0 +1,112 @@
+/* MIT - License
+
+Copyright (c) 2012 - this year, Nils Schmidt
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE
+FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE. */
+package org.nschmidt.ldparteditor.dialogs.metrics;
+
+import org.eclipse.jface.dialogs.Dialog;
+import org.eclipse.jface.dialogs.IDialogConstants;
+import org.eclipse.jface.layout.GridDataFactory;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.custom.StyledText;
+import org.eclipse.swt.graphics.Point;
+import org.eclipse.swt.layout.GridData;
+import org.eclipse.swt.layout.GridLayout;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Control;
+import org.eclipse.swt.widgets.Label;
+import org.eclipse.swt.widgets.Shell;
+import org.nschmidt.ldparteditor.enums.Font;
+import org.nschmidt.ldparteditor.helpers.Metrics;
+import org.nschmidt.ldparteditor.i18n.I18n;
+import org.nschmidt.ldparteditor.widgets.NButton;
+
+/**
+ * The performance metrics dialog
+ * <p>
+ * Note: This class should not be instantiated, it defines the gui layout and no
+ * business logic.
+ *
+ * @author nils
+ *
+ */
+class MetricsDesign extends Dialog {
+
+    // Use final only for subclass/listener references!
+
+    final StyledText[] txt_Report = new StyledText[1];
+    final NButton[] btn_Refresh = new NButton[1];
+    final NButton[] btn_Reset = new NButton[1];
+
+    MetricsDesign(Shell parentShell) {
+        super(parentShell);
+    }
+
+    /**
+     * Create contents of the dialog.
+     *
+     * @param parent
+     */
+    @Override
+    protected Control createDialogArea(Composite parent) {
+        Composite cmp_container = (Composite) super.createDialogArea(parent);
+        GridLayout gridLayout = (GridLayout) cmp_container.getLayout();
+        gridLayout.numColumns = 2;
+        gridLayout.verticalSpacing = 10;
+        gridLayout.horizontalSpacing = 10;
+
+        Label lbl_info = new Label(cmp_container, SWT.NONE);
+        lbl_info.setText(I18n.E3D_MetricsInfo);
+        lbl_info.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, false, false, 2, 1));
+
+        Label lbl_separator = new Label(cmp_container, SWT.SEPARATOR | SWT.HORIZONTAL);
+        lbl_separator.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, false, false, 2, 1));
+
+        final StyledText txt_Report = new StyledText(cmp_container, SWT.BORDER | SWT.V_SCROLL | SWT.H_SCROLL | SWT.MULTI | SWT.READ_ONLY);
+        this.txt_Report[0] = txt_Report;
+        txt_Report.setFont(Font.MONOSPACE);
+        txt_Report.setText(Metrics.getReport());
+        txt_Report.setLayoutData(GridDataFactory.fillDefaults().grab(true, true).span(2, 1).hint(800, 400).create());
+
+        NButton btn_Refresh = new NButton(cmp_container, SWT.NONE);
+        this.btn_Refresh[0] = btn_Refresh;
+        btn_Refresh.setText(I18n.E3D_MetricsRefresh);
+
+        NButton btn_Reset = new NButton(cmp_container, SWT.NONE);
+        this.btn_Reset[0] = btn_Reset;
+        btn_Reset.setText(I18n.E3D_Reset);
+
+        cmp_container.pack();
+        return cmp_container;
+    }
+
+    /**
+     * Create contents of the button bar.
+     *
+     * @param parent
+     */
+    @Override
+    protected void createButtonsForButtonBar(Composite parent) {
+        createButton(parent, IDialogConstants.OK_ID, I18n.DIALOG_OK, true);
+    }
+
+    /**
+     * Return the initial size of the dialog.
+     */
+    @Override
+    protected Point getInitialSize() {
+        return super.getInitialSize();
+    }
+
+}
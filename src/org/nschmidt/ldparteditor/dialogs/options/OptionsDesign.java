@@ -37,6 +37,7 @@ import org.eclipse.swt.widgets.Text;
 import org.eclipse.wb.swt.SWTResourceManager;
 import org.nschmidt.ldparteditor.composites.compositetab.CompositeTab;
 import org.nschmidt.ldparteditor.data.GColour;
+import org.nschmidt.ldparteditor.data.GL33RebuildScheduler;
 import org.nschmidt.ldparteditor.dialogs.keys.KeyDialog;
 import org.nschmidt.ldparteditor.enums.Colour;
 import org.nschmidt.ldparteditor.enums.Task;
@@ -49,6 +50,7 @@ import org.nschmidt.ldparteditor.project.Project;
 import org.nschmidt.ldparteditor.resources.ResourceManager;
 import org.nschmidt.ldparteditor.shells.editortext.EditorTextWindow;
 import org.nschmidt.ldparteditor.state.KeyStateManager;
+import org.nschmidt.ldparteditor.text.SyntaxFormatter;
 import org.nschmidt.ldparteditor.widgets.BigDecimalSpinner;
 import org.nschmidt.ldparteditor.widgets.NButton;
 import org.nschmidt.ldparteditor.widgets.Tree;
@@ -624,9 +626,13 @@ class OptionsDesign extends ApplicationWindow {
                                     ((float[]) ((Object[]) colourObj[1])[0])[0] = refCol.getR();
                                     ((float[]) ((Object[]) colourObj[1])[1])[0] = refCol.getG();
                                     ((float[]) ((Object[]) colourObj[1])[2])[0] = refCol.getB();
+                                    // The colours are part of the vertex data
+                                    GL33RebuildScheduler.invalidateAll();
                                     break;
                                 case SWT_COLOUR:
                                     ((Color[]) colourObj[1])[0] = SWTResourceManager.getColor(rgb) ;
+                                    // The cached line styles contain the old colour
+                                    SyntaxFormatter.clearCache();
                                     break;
                                 default:
                                     break;
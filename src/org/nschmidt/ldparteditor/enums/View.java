@@ -18,7 +18,6 @@ package org.nschmidt.ldparteditor.enums;
 import java.io.File;
 import java.math.BigDecimal;
 import java.util.HashMap;
-import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -28,8 +27,8 @@ import org.nschmidt.ldparteditor.data.DatFile;
 import org.nschmidt.ldparteditor.data.DatType;
 import org.nschmidt.ldparteditor.data.GColour;
 import org.nschmidt.ldparteditor.data.GData1;
+import org.nschmidt.ldparteditor.data.GL33RebuildScheduler;
 import org.nschmidt.ldparteditor.data.Matrix;
-import org.nschmidt.ldparteditor.data.PGData3;
 import org.nschmidt.ldparteditor.data.colour.GCChrome;
 import org.nschmidt.ldparteditor.data.colour.GCGlitter;
 import org.nschmidt.ldparteditor.data.colour.GCMatteMetal;
@@ -40,7 +39,6 @@ import org.nschmidt.ldparteditor.data.colour.GCSpeckle;
 import org.nschmidt.ldparteditor.i18n.I18n;
 import org.nschmidt.ldparteditor.logger.NLogger;
 import org.nschmidt.ldparteditor.text.LDParsingException;
-import org.nschmidt.ldparteditor.text.TextTriangulator;
 import org.nschmidt.ldparteditor.text.UTF8BufferedReader;
 
 /**
@@ -315,33 +313,6 @@ public enum View {
     public static final float[] primitive_condline_Colour_g = new float[] { 0f };
     public static final float[] primitive_condline_Colour_b = new float[] { 1f };
 
-    public final static Set<PGData3> FRONT = TextTriangulator.triangulateGLText(Font.MONOSPACE, I18n.PERSPECTIVE_FRONT, 0.07, 0.3, .012f * (1f + IconSize.getIconsize() / 4f), 16.9);
-    public final static Set<PGData3> BACK = TextTriangulator.triangulateGLText(Font.MONOSPACE, I18n.PERSPECTIVE_BACK, 0.07, 0.3, .012f * (1f + IconSize.getIconsize() / 4f), 16.9);
-    public final static Set<PGData3> BOTTOM = TextTriangulator.triangulateGLText(Font.MONOSPACE, I18n.PERSPECTIVE_BOTTOM, 0.07, 0.3, .012f * (1f + IconSize.getIconsize() / 4f), 16.9);
-    public final static Set<PGData3> LEFT = TextTriangulator.triangulateGLText(Font.MONOSPACE, I18n.PERSPECTIVE_LEFT, 0.07, 0.3, .012f * (1f + IconSize.getIconsize() / 4f), 16.9);
-    public final static Set<PGData3> RIGHT = TextTriangulator.triangulateGLText(Font.MONOSPACE, I18n.PERSPECTIVE_RIGHT, 0.07, 0.3, .012f * (1f + IconSize.getIconsize() / 4f), 16.9);
-    public final static Set<PGData3> TOP = TextTriangulator.triangulateGLText(Font.MONOSPACE, I18n.PERSPECTIVE_TOP, 0.07, 0.3, .012f * (1f + IconSize.getIconsize() / 4f), 16.9);
-
-    public final static Set<PGData3> S = TextTriangulator.triangulateGLText(Font.MONOSPACE, "*", 0.07, 0.3, 16.9); //$NON-NLS-1$
-    public final static Set<PGData3> D0 = TextTriangulator.triangulateGLText(Font.MONOSPACE, "0", 0.07, 0.3, 16.9); //$NON-NLS-1$
-    public final static Set<PGData3> D1 = TextTriangulator.triangulateGLText(Font.MONOSPACE, "1", 0.07, 0.3, 16.9); //$NON-NLS-1$
-    public final static Set<PGData3> D2 = TextTriangulator.triangulateGLText(Font.MONOSPACE, "2", 0.07, 0.3, 16.9); //$NON-NLS-1$
-    public final static Set<PGData3> D3 = TextTriangulator.triangulateGLText(Font.MONOSPACE, "3", 0.07, 0.3, 16.9); //$NON-NLS-1$
-    public final static Set<PGData3> D4 = TextTriangulator.triangulateGLText(Font.MONOSPACE, "4", 0.07, 0.3, 16.9); //$NON-NLS-1$
-    public final static Set<PGData3> D5 = TextTriangulator.triangulateGLText(Font.MONOSPACE, "5", 0.07, 0.3, 16.9); //$NON-NLS-1$
-    public final static Set<PGData3> D6 = TextTriangulator.triangulateGLText(Font.MONOSPACE, "6", 0.07, 0.3, 16.9); //$NON-NLS-1$
-    public final static Set<PGData3> D7 = TextTriangulator.triangulateGLText(Font.MONOSPACE, "7", 0.07, 0.3, 16.9); //$NON-NLS-1$
-    public final static Set<PGData3> D8 = TextTriangulator.triangulateGLText(Font.MONOSPACE, "8", 0.07, 0.3, 16.9); //$NON-NLS-1$
-    public final static Set<PGData3> D9 = TextTriangulator.triangulateGLText(Font.MONOSPACE, "9", 0.07, 0.3, 16.9); //$NON-NLS-1$
-    public final static Set<PGData3> Dd = TextTriangulator.triangulateGLText(Font.MONOSPACE, ".", 0.07, 0.3, 16.9); //$NON-NLS-1$
-    public final static Set<PGData3> Dc = TextTriangulator.triangulateGLText(Font.MONOSPACE, ",", 0.07, 0.3, 16.9); //$NON-NLS-1$
-    public final static Set<PGData3> Dg = TextTriangulator.triangulateGLText(Font.MONOSPACE, "°", 0.07, 0.3, 16.9); //$NON-NLS-1$
-    public final static Set<PGData3> DX = TextTriangulator.triangulateGLText(Font.MONOSPACE, "dX =", 0.07, 0.3, 16.9); //$NON-NLS-1$
-    public final static Set<PGData3> DY = TextTriangulator.triangulateGLText(Font.MONOSPACE, "dY =", 0.07, 0.3, 16.9); //$NON-NLS-1$
-    public final static Set<PGData3> DZ = TextTriangulator.triangulateGLText(Font.MONOSPACE, "dZ =", 0.07, 0.3, 16.9); //$NON-NLS-1$
-    public final static Set<PGData3> DA = TextTriangulator.triangulateGLText(Font.MONOSPACE, "D  =", 0.07, 0.3, 16.9); //$NON-NLS-1$
-    public final static Set<PGData3> DM = TextTriangulator.triangulateGLText(Font.MONOSPACE, "-", 0.07, 0.3, 16.9); //$NON-NLS-1$
-
     private static final GColour BLACK = new GColour(-1, 0f, 0f, 0f, 1f);
     private static IndexedEntry col16_indexedEntry = new IndexedEntry(.5f + .000016f, .5f + .000016f, .5f + .000016f);
     private static GColour original_col16 = new GColour(-1, 0f, 0f, 0f, 1f);
@@ -609,6 +580,7 @@ public enum View {
                         }
                     }
                 }
+                GL33RebuildScheduler.invalidateAll();
                 return true;
             } catch (Exception e) {
             } finally {
@@ -643,6 +615,7 @@ public enum View {
         indexFromColour.remove(col16_indexedEntry);
         col16_indexedEntry = new IndexedEntry(r + .000016f, g + .000016f, b + .000016f);
         indexFromColour.put(col16_indexedEntry, 16);
+        GL33RebuildScheduler.invalidateAll();
     }
 
 }
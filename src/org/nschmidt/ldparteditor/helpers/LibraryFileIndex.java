@@ -0,0 +1,353 @@
+/* MIT - License
+
+Copyright (c) 2012 - this year, Nils Schmidt
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE
+FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE. */
+package org.nschmidt.ldparteditor.helpers;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.InvalidPathException;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.nschmidt.ldparteditor.logger.NLogger;
+
+/**
+ * Caches the directory listings of the project, unofficial and official
+ * library folders, so that resolving a subfile reference does not have to ask
+ * the file system if a file exists. Every directory is read only once. A
+ * {@link WatchService} keeps the cached listings current and
+ * {@link #refresh()} drops them on demand (e.g. on a library sync).
+ *
+ * @author nils
+ *
+ */
+public enum LibraryFileIndex {
+    INSTANCE;
+
+    /** Directory path -> cached listing */
+    private static final Map<String, DirectoryListing> listings = new ConcurrentHashMap<String, DirectoryListing>();
+    /** Watch key -> directory paths which were registered with this key */
+    private static final Map<WatchKey, Set<String>> watchedDirectories = new ConcurrentHashMap<WatchKey, Set<String>>();
+    /** Counts all detected changes (a file or folder was created or deleted) */
+    private static final AtomicLong modificationCount = new AtomicLong();
+
+    private static WatchService watcher = null;
+    private static boolean watcherUnavailable = false;
+
+    /**
+     * Searches the first existing file below the given folder. The lookup
+     * order is the same as for nested loops over {@code middle} and
+     * {@code suffix}.
+     *
+     * @param prefix
+     *            the library folder
+     * @param middle
+     *            the sub folders (e.g. "PARTS", "P")
+     * @param suffix
+     *            the possible file names
+     * @return the file or {@code null} if there is no such file
+     */
+    public static File findFile(String prefix, String[] middle, String[] suffix) {
+        for (String s2 : middle) {
+            for (String s3 : suffix) {
+                File f = new File(prefix + s2 + s3);
+                if (isFile(f)) {
+                    return f;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return all path combinations of prefix, middle and suffix
+     */
+    public static Set<String> getCandidates(String[] prefix, String[] middle, String[] suffix) {
+        final Set<String> result = new HashSet<String>(prefix.length * middle.length * suffix.length * 2);
+        for (String s1 : prefix) {
+            for (String s2 : middle) {
+                for (String s3 : suffix) {
+                    result.add(s1 + s2 + s3);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The cached equivalent to {@code f.exists() && f.isFile()}
+     *
+     * @param f
+     *            the file to check
+     * @return {@code true} if the file exists and is a normal file
+     */
+    public static boolean isFile(File f) {
+        final File dir = f.getParentFile();
+        final String key = dir == null ? null : getKey(dir);
+        if (key == null) {
+            return f.exists() && f.isFile();
+        }
+        DirectoryListing listing = listings.get(key);
+        if (listing == null) {
+            listing = createListing(dir, key);
+        }
+        return listing.isFile(dir, f.getName());
+    }
+
+    /**
+     * @return a number which changes every time the index detects that a file
+     *         was created or deleted
+     */
+    public static long getModificationCount() {
+        return modificationCount.get();
+    }
+
+    /**
+     * Tells the index that LDPartEditor created or overwrote a file. This
+     * avoids waiting for the notification from the watch service.
+     *
+     * @param path
+     *            the path of the file
+     */
+    public static void invalidate(String path) {
+        final File f = new File(path);
+        File dir = f.getParentFile();
+        if (dir == null) {
+            return;
+        }
+        final String key = getKey(dir);
+        if (key == null) {
+            return;
+        }
+        modificationCount.incrementAndGet();
+        final DirectoryListing listing = listings.get(key);
+        if (listing != null) {
+            if (listing.exists) {
+                listing.add(f.getName());
+            } else {
+                listings.remove(key);
+            }
+        }
+        // The file could have been created in a new folder
+        while ((dir = dir.getParentFile()) != null) {
+            final String parentKey = getKey(dir);
+            if (parentKey != null) {
+                final DirectoryListing parentListing = listings.get(parentKey);
+                if (parentListing != null && !parentListing.exists) {
+                    listings.remove(parentKey);
+                }
+            }
+        }
+    }
+
+    /**
+     * Drops all cached directory listings. They will be read again on demand.
+     */
+    public static void refresh() {
+        for (WatchKey watchKey : watchedDirectories.keySet()) {
+            watchKey.cancel();
+        }
+        watchedDirectories.clear();
+        listings.clear();
+        modificationCount.incrementAndGet();
+    }
+
+    private static String getKey(File dir) {
+        try {
+            return dir.toPath().toAbsolutePath().normalize().toString();
+        } catch (InvalidPathException ipe) {
+            return null;
+        }
+    }
+
+    private static DirectoryListing createListing(File dir, String key) {
+        final String[] names = dir.list();
+        final DirectoryListing listing = new DirectoryListing(names);
+        if (names == null) {
+            // Watch the nearest existing parent folder to get notified when this folder will be created
+            final File parent = dir.getParentFile();
+            final String parentKey = parent == null ? null : getKey(parent);
+            if (parentKey != null && !listings.containsKey(parentKey)) {
+                createListing(parent, parentKey);
+            }
+        } else {
+            watch(dir, key);
+        }
+        listings.put(key, listing);
+        return listing;
+    }
+
+    private static synchronized void watch(File dir, String key) {
+        if (watcherUnavailable) {
+            return;
+        }
+        try {
+            if (watcher == null) {
+                watcher = FileSystems.getDefault().newWatchService();
+                final Thread watchThread = new Thread(LibraryFileIndex::processEvents, "LibraryFileIndex"); //$NON-NLS-1$
+                watchThread.setDaemon(true);
+                watchThread.start();
+            }
+            final WatchKey watchKey = dir.toPath().register(watcher, ENTRY_CREATE, ENTRY_DELETE);
+            Set<String> keys = watchedDirectories.get(watchKey);
+            if (keys == null) {
+                keys = ConcurrentHashMap.newKeySet();
+                watchedDirectories.put(watchKey, keys);
+            }
+            keys.add(key);
+        } catch (IOException | UnsupportedOperationException | InvalidPathException ex) {
+            // Without a watch service the index can only be refreshed on demand
+            NLogger.debug(LibraryFileIndex.class, ex);
+            watcherUnavailable = true;
+        }
+    }
+
+    private static void processEvents() {
+        while (true) {
+            final WatchKey watchKey;
+            try {
+                watchKey = watcher.take();
+            } catch (ClosedWatchServiceException | InterruptedException ex) {
+                return;
+            }
+            final Set<String> keys = watchedDirectories.get(watchKey);
+            if (keys != null) {
+                modificationCount.incrementAndGet();
+                for (WatchEvent<?> event : watchKey.pollEvents()) {
+                    final WatchEvent.Kind<?> kind = event.kind();
+                    for (String key : keys) {
+                        if (kind == OVERFLOW) {
+                            listings.remove(key);
+                            continue;
+                        }
+                        final String name = event.context().toString();
+                        final DirectoryListing listing = listings.get(key);
+                        if (listing != null) {
+                            if (kind == ENTRY_CREATE) {
+                                listing.add(name);
+                            } else if (kind == ENTRY_DELETE) {
+                                listing.remove(name);
+                            }
+                        }
+                        removeSubfolders(key + File.separator + name);
+                    }
+                }
+            }
+            if (!watchKey.reset()) {
+                final Set<String> removedKeys = watchedDirectories.remove(watchKey);
+                if (removedKeys != null) {
+                    for (String key : removedKeys) {
+                        listings.remove(key);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * A folder was created or deleted. Its cached listing and the listings of
+     * its sub folders are outdated.
+     */
+    private static void removeSubfolders(String folderKey) {
+        final String subfolderPrefix = folderKey + File.separator;
+        for (String key : listings.keySet()) {
+            if (key.equals(folderKey) || key.startsWith(subfolderPrefix)) {
+                listings.remove(key);
+            }
+        }
+    }
+
+    private enum EntryType {
+        UNKNOWN, FILE, OTHER
+    }
+
+    private static class DirectoryListing {
+
+        final boolean exists;
+        /** File name -> type (the type is determined on the first lookup) */
+        final Map<String, EntryType> entries = new ConcurrentHashMap<String, EntryType>();
+        /** Lower case file name -> file name */
+        final Map<String, String> entriesLowerCase = new ConcurrentHashMap<String, String>();
+        /** {@code null} as long as the case sensitivity of the folder is unknown */
+        volatile Boolean caseInsensitive = null;
+
+        DirectoryListing(String[] names) {
+            exists = names != null;
+            if (exists) {
+                for (String name : names) {
+                    add(name);
+                }
+            }
+        }
+
+        void add(String name) {
+            entries.put(name, EntryType.UNKNOWN);
+            entriesLowerCase.put(name.toLowerCase(Locale.ENGLISH), name);
+        }
+
+        void remove(String name) {
+            entries.remove(name);
+            entriesLowerCase.remove(name.toLowerCase(Locale.ENGLISH), name);
+        }
+
+        boolean isFile(File dir, String name) {
+            if (!exists) {
+                return false;
+            }
+            String actualName = name;
+            EntryType type = entries.get(name);
+            if (type == null) {
+                // The file system could ignore the case of the file name
+                actualName = entriesLowerCase.get(name.toLowerCase(Locale.ENGLISH));
+                if (actualName == null || !isCaseInsensitive(dir, actualName)) {
+                    return false;
+                }
+                type = entries.get(actualName);
+                if (type == null) {
+                    return false;
+                }
+            }
+            if (type == EntryType.UNKNOWN) {
+                type = new File(dir, actualName).isFile() ? EntryType.FILE : EntryType.OTHER;
+                entries.replace(actualName, EntryType.UNKNOWN, type);
+            }
+            return type == EntryType.FILE;
+        }
+
+        private boolean isCaseInsensitive(File dir, String existingName) {
+            Boolean result = caseInsensitive;
+            if (result == null) {
+                final String upperCase = existingName.toUpperCase(Locale.ENGLISH);
+                final String otherCase = upperCase.equals(existingName) ? existingName.toLowerCase(Locale.ENGLISH) : upperCase;
+                result = new File(dir, otherCase).exists();
+                caseInsensitive = result;
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,401 @@
+/* MIT - License
+
+Copyright (c) 2012 - this year, Nils Schmidt
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE
+FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE. */
+package org.nschmidt.ldparteditor.helpers;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import org.nschmidt.ldparteditor.logger.NLogger;
+import org.nschmidt.ldparteditor.text.StringHelper;
+import org.nschmidt.ldparteditor.win32appdata.AppData;
+
+/**
+ * Records named timers, counters and histograms of the hot paths (parsing,
+ * buffer building, undo/redo, CSG, etc.). The values are recorded with
+ * {@link LongAdder}s, so any number of threads can record values at the same
+ * time without locks. A metric is created when its name is used for the first
+ * time and lives until the application ends.
+ * <br>
+ * Usage:
+ *
+ * <pre>
+ * private static final Metrics.Timer PARSE_TIMER = Metrics.timer("parser.line");
+ * ...
+ * final long start = PARSE_TIMER.start();
+ * ...
+ * PARSE_TIMER.stop(start);
+ * </pre>
+ *
+ * @author nils
+ *
+ */
+public enum Metrics {
+    INSTANCE;
+
+    /** The file which receives the report when the application is closed */
+    public static final String METRICS_LOG = AppData.getPath() + "metrics_log.txt"; //$NON-NLS-1$
+
+    private static final ConcurrentHashMap<String, Metric> metrics = new ConcurrentHashMap<String, Metric>();
+
+    /**
+     * @return the counter with this name (it is created if necessary)
+     */
+    public static Counter counter(String name) {
+        return register(name, Counter.class, Counter::new);
+    }
+
+    /**
+     * @return the histogram with this name (it is created if necessary)
+     */
+    public static Histogram histogram(String name) {
+        return register(name, Histogram.class, Histogram::new);
+    }
+
+    /**
+     * @return the timer with this name (it is created if necessary)
+     */
+    public static Timer timer(String name) {
+        return register(name, Timer.class, Timer::new);
+    }
+
+    private static <T extends Metric> T register(String name, Class<T> type, Function<String, T> factory) {
+        final Metric metric = metrics.computeIfAbsent(name, factory);
+        if (metric.getClass() != type) {
+            throw new IllegalArgumentException("The metric " + name + " is not a " + type.getSimpleName()); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+        return type.cast(metric);
+    }
+
+    /**
+     * @return the current values of all metrics, sorted by their names
+     */
+    public static List<Snapshot> getSnapshots() {
+        final List<Snapshot> result = new ArrayList<Snapshot>();
+        for (Metric metric : metrics.values()) {
+            result.add(metric.snapshot());
+        }
+        Collections.sort(result, (a, b) -> a.name.compareTo(b.name));
+        return result;
+    }
+
+    /**
+     * Resets all metrics. Values which are recorded during the reset can get
+     * lost.
+     */
+    public static void reset() {
+        for (Metric metric : metrics.values()) {
+            metric.reset();
+        }
+    }
+
+    /**
+     * @return the current values of all metrics as a table (one metric per
+     *         line)
+     */
+    public static String getReport() {
+        final StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ENGLISH, "%-32s %-9s %12s %12s %12s %12s %12s %12s", //$NON-NLS-1$
+                "Name", "Type", "Count", "Mean", "P50", "P90", "P99", "Max")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$ //$NON-NLS-8$
+        sb.append(StringHelper.getLineDelimiter());
+        for (Snapshot s : getSnapshots()) {
+            sb.append(s.toString());
+            sb.append(StringHelper.getLineDelimiter());
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Writes the report of all metrics to a file (it replaces the report of
+     * the last session)
+     *
+     * @param path
+     *            the path of the file
+     */
+    public static void dump(String path) {
+        try (PrintWriter pw = new PrintWriter(new OutputStreamWriter(new FileOutputStream(path), StandardCharsets.UTF_8))) {
+            pw.print(MessageFormat.format("[{0}] LDPartEditor {1}", new Date(), Version.getVersion())); //$NON-NLS-1$
+            pw.print(StringHelper.getLineDelimiter());
+            pw.print(getReport());
+            pw.print(StringHelper.getLineDelimiter());
+        } catch (IOException ioe) {
+            NLogger.error(Metrics.class, ioe);
+        }
+    }
+
+    /**
+     * The common base of all metrics
+     */
+    public abstract static class Metric {
+
+        private final String name;
+
+        private Metric(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        abstract Snapshot snapshot();
+
+        abstract void reset();
+    }
+
+    /**
+     * Counts events (e.g. cache hits)
+     */
+    public static final class Counter extends Metric {
+
+        private final LongAdder count = new LongAdder();
+
+        private Counter(String name) {
+            super(name);
+        }
+
+        public void increment() {
+            count.increment();
+        }
+
+        public void add(long value) {
+            count.add(value);
+        }
+
+        public long get() {
+            return count.sum();
+        }
+
+        @Override
+        Snapshot snapshot() {
+            return new Snapshot(getName(), "counter", count.sum(), 0L, 0L, 0L, 0L, 0L); //$NON-NLS-1$
+        }
+
+        @Override
+        void reset() {
+            count.reset();
+        }
+    }
+
+    /**
+     * Records the distribution of non-negative values (e.g. sizes). The values
+     * are counted in buckets with power-of-two bounds, so the percentiles are
+     * estimates with a maximum error of factor two.
+     */
+    public static class Histogram extends Metric {
+
+        private final LongAdder count = new LongAdder();
+        private final LongAdder sum = new LongAdder();
+        private final LongAccumulator max = new LongAccumulator(Math::max, 0L);
+        /** Bucket {@code i} counts the values from {@code 2^(i-1)} to {@code 2^i - 1} */
+        private final LongAdder[] buckets = new LongAdder[65];
+
+        private Histogram(String name) {
+            super(name);
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        /**
+         * Records a value. Negative values are recorded as {@code 0}.
+         */
+        public void record(long value) {
+            if (value < 0L) {
+                value = 0L;
+            }
+            count.increment();
+            sum.add(value);
+            max.accumulate(value);
+            buckets[64 - Long.numberOfLeadingZeros(value)].increment();
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        public long getSum() {
+            return sum.sum();
+        }
+
+        public long getMax() {
+            return max.get();
+        }
+
+        /**
+         * @param p
+         *            the percentile (from {@code 0.0} to {@code 1.0})
+         * @return the upper bound of the bucket which contains the percentile
+         */
+        public long getPercentile(double p) {
+            final long total = count.sum();
+            if (total == 0L) {
+                return 0L;
+            }
+            final long target = Math.max(1L, (long) Math.ceil(p * total));
+            final long maxValue = max.get();
+            long seen = 0L;
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i].sum();
+                if (seen >= target) {
+                    return i == 0 ? 0L : Math.min(maxValue, i == 64 ? Long.MAX_VALUE : (1L << i) - 1L);
+                }
+            }
+            return maxValue;
+        }
+
+        @Override
+        Snapshot snapshot() {
+            return new Snapshot(getName(), "histogram", getCount(), getSum(), getPercentile(.5), getPercentile(.9), getPercentile(.99), getMax()); //$NON-NLS-1$
+        }
+
+        @Override
+        void reset() {
+            count.reset();
+            sum.reset();
+            max.reset();
+            for (LongAdder bucket : buckets) {
+                bucket.reset();
+            }
+        }
+    }
+
+    /**
+     * Records the duration of an operation in nanoseconds. Unlike the old
+     * global stop-watch, a timer can measure concurrent operations.
+     */
+    public static final class Timer extends Histogram {
+
+        private Timer(String name) {
+            super(name);
+        }
+
+        /**
+         * @return the start time for {@link #stop(long)}
+         */
+        public long start() {
+            return System.nanoTime();
+        }
+
+        /**
+         * Records the time since the start
+         *
+         * @param start
+         *            the value of {@link #start()}
+         * @return the duration in nanoseconds
+         */
+        public long stop(long start) {
+            final long duration = System.nanoTime() - start;
+            record(duration);
+            return duration;
+        }
+
+        @Override
+        Snapshot snapshot() {
+            final Snapshot s = super.snapshot();
+            return new Snapshot(s.name, "timer", s.count, s.sum, s.p50, s.p90, s.p99, s.max); //$NON-NLS-1$
+        }
+    }
+
+    /**
+     * The values of a metric at a point in time. The values of a timer are
+     * in nanoseconds.
+     */
+    public static final class Snapshot {
+
+        private final String name;
+        private final String type;
+        private final long count;
+        private final long sum;
+        private final long p50;
+        private final long p90;
+        private final long p99;
+        private final long max;
+
+        private Snapshot(String name, String type, long count, long sum, long p50, long p90, long p99, long max) {
+            this.name = name;
+            this.type = type;
+            this.count = count;
+            this.sum = sum;
+            this.p50 = p50;
+            this.p90 = p90;
+            this.p99 = p99;
+            this.max = max;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getSum() {
+            return sum;
+        }
+
+        public double getMean() {
+            return count == 0L ? 0.0 : (double) sum / count;
+        }
+
+        public long getP50() {
+            return p50;
+        }
+
+        public long getP90() {
+            return p90;
+        }
+
+        public long getP99() {
+            return p99;
+        }
+
+        public long getMax() {
+            return max;
+        }
+
+        /**
+         * @return the values as a line of the report (timers in milliseconds)
+         */
+        @Override
+        public String toString() {
+            if ("counter".equals(type)) { //$NON-NLS-1$
+                return String.format(Locale.ENGLISH, "%-32s %-9s %12d", name, type, count); //$NON-NLS-1$
+            }
+            final double scale = "timer".equals(type) ? TimeUnit.MILLISECONDS.toNanos(1L) : 1.0; //$NON-NLS-1$
+            return String.format(Locale.ENGLISH, "%-32s %-9s %12d %12.3f %12.3f %12.3f %12.3f %12.3f", //$NON-NLS-1$
+                    name, type, count, getMean() / scale, p50 / scale, p90 / scale, p99 / scale, max / scale);
+        }
+    }
+}
@@ -0,0 +1,294 @@
+/* MIT - License
+
+Copyright (c) 2012 - this year, Nils Schmidt
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE
+FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE. */
+package org.nschmidt.ldparteditor.helpers.composite3d;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides when the views have to be drawn. A view is only drawn when a new
+ * frame was requested for it, e.g. after an input event or a change of the
+ * model. Requests which arrive before the frame was drawn are merged into one
+ * frame and every view is drawn at most {@code maxFramesPerSecond} times per
+ * second. There are no frames at all when nothing has changed.
+ * <br>
+ * The state of the views is compared with the state of their last frame in a
+ * fixed interval. This catches changes which do not request a frame on their
+ * own (e.g. changes from background threads).
+ * <br>
+ * The frames are drawn by a {@link Renderer} and the timing is done by a
+ * {@link Timer}. Both do not depend on SWT or OpenGL, so the scheduler can be
+ * used with a fake renderer and a manual clock. Frames can be requested from
+ * any thread, but the timer has to run all tasks on the same thread.
+ *
+ * @author nils
+ *
+ * @param <V>
+ *            the type of the views
+ */
+public final class FrameScheduler<V> {
+
+    /** All frames are postponed by this interval after a pause (in milliseconds) */
+    private static final int PAUSE_INTERVAL = 500;
+
+    /** Draws the frames of the views */
+    public interface Renderer<V> {
+
+        /**
+         * Draws a new frame of the view
+         */
+        void render(V view);
+
+        /**
+         * @return the state of the view which is shown in the frame (e.g. the
+         *         modification count of the model and the camera) or
+         *         {@code null}. It must be fast.
+         */
+        long[] getState(V view);
+
+        /**
+         * @return {@code true} if the view was disposed. The view will be
+         *         removed from the scheduler.
+         */
+        boolean isDisposed(V view);
+
+        /**
+         * Called after a disposed view was removed from the scheduler
+         */
+        void removed(V view);
+
+        /**
+         * @return {@code true} if all frames should be postponed, e.g. while
+         *         the user is typing. The pause should be reset by this
+         *         method.
+         */
+        boolean isPaused();
+    }
+
+    /** Runs the tasks of the scheduler */
+    public interface Timer {
+
+        /**
+         * @return the current time in nanoseconds (like
+         *         {@link System#nanoTime()})
+         */
+        long nanoTime();
+
+        /**
+         * Runs the task after a delay. This method can be called from any
+         * thread, but all tasks must run on the same thread.
+         *
+         * @param delay
+         *            the delay in milliseconds
+         * @param task
+         *            the task
+         */
+        void schedule(int delay, Runnable task);
+    }
+
+    private final Renderer<V> renderer;
+    private final Timer timer;
+    private final long minFrameInterval;
+    private final int watchInterval;
+
+    private final Map<V, ViewState> views = new ConcurrentHashMap<V, ViewState>();
+    private final AtomicBoolean tickScheduled = new AtomicBoolean(false);
+    private final AtomicBoolean started = new AtomicBoolean(false);
+    private long pausedUntil = 0L;
+
+    private final AtomicLong renderedCount = new AtomicLong();
+    private final AtomicLong skippedCount = new AtomicLong();
+
+    /**
+     * @param renderer
+     *            draws the frames
+     * @param timer
+     *            runs the tasks of the scheduler
+     * @param maxFramesPerSecond
+     *            the maximum frame rate of a single view
+     * @param watchInterval
+     *            the interval between two comparisons of the view states (in
+     *            milliseconds)
+     */
+    public FrameScheduler(Renderer<V> renderer, Timer timer, int maxFramesPerSecond, int watchInterval) {
+        this.renderer = renderer;
+        this.timer = timer;
+        this.minFrameInterval = TimeUnit.SECONDS.toNanos(1L) / Math.max(1, maxFramesPerSecond);
+        this.watchInterval = Math.max(1, watchInterval);
+    }
+
+    /**
+     * Starts the comparison of the view states. It has to be called once.
+     */
+    public void start() {
+        if (started.compareAndSet(false, true)) {
+            timer.schedule(watchInterval, this::watch);
+        }
+    }
+
+    /**
+     * Adds a view to the scheduler. The first frame is requested immediately.
+     */
+    public void register(V view) {
+        if (views.putIfAbsent(view, new ViewState(timer.nanoTime() - minFrameInterval)) == null) {
+            requestFrame(view);
+        }
+    }
+
+    /**
+     * Removes a view from the scheduler
+     */
+    public void unregister(V view) {
+        views.remove(view);
+    }
+
+    /**
+     * Requests a new frame for a view. The request is ignored if the view is
+     * not registered.
+     */
+    public void requestFrame(V view) {
+        final ViewState vs = views.get(view);
+        if (vs == null) {
+            return;
+        }
+        if (!vs.requested.compareAndSet(false, true)) {
+            // There will be a frame anyway
+            skippedCount.incrementAndGet();
+            return;
+        }
+        scheduleTick(getDelay(vs.lastFrame + minFrameInterval - timer.nanoTime()));
+    }
+
+    /**
+     * Requests a new frame for all views
+     */
+    public void requestFrames() {
+        for (V view : views.keySet()) {
+            requestFrame(view);
+        }
+    }
+
+    /**
+     * @return the number of frames which were drawn
+     */
+    public long getRenderedCount() {
+        return renderedCount.get();
+    }
+
+    /**
+     * @return the number of requests which were merged into another frame
+     */
+    public long getSkippedCount() {
+        return skippedCount.get();
+    }
+
+    private void scheduleTick(int delay) {
+        if (tickScheduled.compareAndSet(false, true)) {
+            timer.schedule(delay, this::tick);
+        }
+    }
+
+    /**
+     * Draws all views with a request whose frame rate is not exceeded
+     */
+    private void tick() {
+        tickScheduled.set(false);
+        final long now = timer.nanoTime();
+        checkPause(now);
+        if (pausedUntil - now > 0L) {
+            scheduleTick(getDelay(pausedUntil - now));
+            return;
+        }
+        long nextFrame = Long.MAX_VALUE;
+        for (Map.Entry<V, ViewState> entry : views.entrySet()) {
+            final V view = entry.getKey();
+            final ViewState vs = entry.getValue();
+            if (!vs.requested.get() || removeDisposed(view)) {
+                continue;
+            }
+            final long delay = vs.lastFrame + minFrameInterval - now;
+            if (delay > 0L) {
+                nextFrame = Math.min(nextFrame, delay);
+                continue;
+            }
+            // Requests during the rendering will lead to another frame
+            vs.requested.set(false);
+            vs.lastFrame = now;
+            vs.renderedState = renderer.getState(view);
+            renderer.render(view);
+            renderedCount.incrementAndGet();
+        }
+        if (nextFrame != Long.MAX_VALUE) {
+            scheduleTick(getDelay(nextFrame));
+        }
+    }
+
+    /**
+     * Requests a frame for every view whose state differs from the state of
+     * its last frame
+     */
+    private void watch() {
+        checkPause(timer.nanoTime());
+        for (Map.Entry<V, ViewState> entry : views.entrySet()) {
+            final V view = entry.getKey();
+            final ViewState vs = entry.getValue();
+            if (vs.requested.get() || removeDisposed(view)) {
+                continue;
+            }
+            if (!Arrays.equals(vs.renderedState, renderer.getState(view))) {
+                requestFrame(view);
+            }
+        }
+        timer.schedule(watchInterval, this::watch);
+    }
+
+    private void checkPause(long now) {
+        if (renderer.isPaused()) {
+            pausedUntil = now + TimeUnit.MILLISECONDS.toNanos(PAUSE_INTERVAL);
+        }
+    }
+
+    private boolean removeDisposed(V view) {
+        if (renderer.isDisposed(view)) {
+            views.remove(view);
+            renderer.removed(view);
+            return true;
+        }
+        return false;
+    }
+
+    private static int getDelay(long nanos) {
+        if (nanos <= 0L) {
+            return 0;
+        }
+        // Round up, so that the frame is not drawn too early
+        return (int) Math.min(Integer.MAX_VALUE, (nanos + 999999L) / 1000000L);
+    }
+
+    private static final class ViewState {
+        private final AtomicBoolean requested = new AtomicBoolean(false);
+        private volatile long lastFrame;
+        private volatile long[] renderedState = null;
+
+        private ViewState(long lastFrame) {
+            this.lastFrame = lastFrame;
+        }
+    }
+}
@@ -17,12 +17,19 @@ package org.nschmidt.ldparteditor.helpers.composite3d;
 
 import java.util.concurrent.atomic.AtomicBoolean;
 
+import org.eclipse.swt.SWT;
 import org.eclipse.swt.opengl.GLCanvas;
+import org.eclipse.swt.widgets.Display;
+import org.lwjgl.util.vector.Matrix4f;
 import org.nschmidt.ldparteditor.composites.Composite3D;
+import org.nschmidt.ldparteditor.data.DatFile;
+import org.nschmidt.ldparteditor.data.GL33RebuildScheduler;
 import org.nschmidt.ldparteditor.opengl.OpenGLRenderer;
+import org.nschmidt.ldparteditor.shells.editor3d.Editor3DWindow;
 
 /**
- * Manages the idle state of {@linkplain Composite3D}
+ * Manages the idle state of {@linkplain Composite3D}. The views are only drawn
+ * when something has changed (see {@link FrameScheduler}).
  *
  * @author nils
  *
@@ -30,19 +37,165 @@ import org.nschmidt.ldparteditor.opengl.OpenGLRenderer;
 public enum ViewIdleManager {
     INSTANCE;
 
-    public final static GLCanvas[] firstCanvas = new GLCanvas[1];
-    public final static OpenGLRenderer[] firstRender = new OpenGLRenderer[1];
+    /** The maximum frame rate of a single view */
+    private static final int MAX_FRAMES_PER_SECOND = 60;
+    /** The interval between two state checks in milliseconds */
+    private static final int WATCH_INTERVAL = 50;
 
-    public final static boolean[] running = new boolean[] { true };
     public final static AtomicBoolean[] pause = new AtomicBoolean[] { new AtomicBoolean(false) };
-    public final static AtomicBoolean[] renderLDrawStandard = new AtomicBoolean[] { new AtomicBoolean(false) };
+
+    private static FrameScheduler<Composite3D> scheduler = null;
+
+    /**
+     * Adds a {@linkplain Composite3D} to the frame scheduler. It has to be
+     * called from the UI thread.
+     */
+    public static void register(Composite3D c3d) {
+        getScheduler().register(c3d);
+    }
+
+    /**
+     * Removes a {@linkplain Composite3D} from the frame scheduler
+     */
+    public static void unregister(Composite3D c3d) {
+        final FrameScheduler<Composite3D> s = scheduler;
+        if (s != null) {
+            s.unregister(c3d);
+        }
+    }
 
     /**
      * Refreshes the {@linkplain Composite3D}
      */
     public static void refresh(GLCanvas canvas, OpenGLRenderer renderer) {
-        firstCanvas[0] = canvas;
-        firstRender[0] = renderer;
+        requestFrame(renderer.getC3D());
+    }
+
+    /**
+     * Requests a new frame for the {@linkplain Composite3D}. It can be called
+     * from any thread. The vertex data of the view is checked, too.
+     */
+    public static void requestFrame(Composite3D c3d) {
+        GL33RebuildScheduler.requestCheck();
+        final FrameScheduler<Composite3D> s = scheduler;
+        if (s != null) {
+            s.requestFrame(c3d);
+        }
+    }
+
+    /**
+     * Requests a new frame for all {@linkplain Composite3D}s. It can be called
+     * from any thread. The vertex data of the views is checked, too.
+     */
+    public static void requestFrames() {
+        GL33RebuildScheduler.requestCheck();
+        final FrameScheduler<Composite3D> s = scheduler;
+        if (s != null) {
+            s.requestFrames();
+        }
     }
 
+    /**
+     * @return the number of frames which were drawn
+     */
+    public static long getFramesRendered() {
+        final FrameScheduler<Composite3D> s = scheduler;
+        return s == null ? 0L : s.getRenderedCount();
+    }
+
+    /**
+     * @return the number of frame requests which were merged into another
+     *         frame
+     */
+    public static long getFramesSkipped() {
+        final FrameScheduler<Composite3D> s = scheduler;
+        return s == null ? 0L : s.getSkippedCount();
+    }
+
+    private static synchronized FrameScheduler<Composite3D> getScheduler() {
+        if (scheduler == null) {
+            final Display display = Display.getCurrent();
+            final FrameScheduler<Composite3D> s = new FrameScheduler<Composite3D>(new Composite3DRenderer(), new DisplayTimer(display), MAX_FRAMES_PER_SECOND, WATCH_INTERVAL);
+            // Buttons and menu items change the model or the view settings most of the time
+            display.addFilter(SWT.Selection, event -> s.requestFrames());
+            s.start();
+            scheduler = s;
+        }
+        return scheduler;
+    }
+
+    private static final class Composite3DRenderer implements FrameScheduler.Renderer<Composite3D> {
+
+        @Override
+        public void render(Composite3D c3d) {
+            c3d.getRenderer().drawScene();
+            // The frame can be caused by a change which was detected by the state of the view
+            GL33RebuildScheduler.requestCheck();
+        }
+
+        @Override
+        public long[] getState(Composite3D c3d) {
+            final DatFile df = c3d.getLockableDatFileReference();
+            final Matrix4f v = c3d.getViewport();
+            return new long[] {
+                    c3d.getRenderMode(),
+                    c3d.getLineMode(),
+                    df == null ? 0L : System.identityHashCode(df),
+                    df == null ? 0L : df.getVertexManager().getModificationCount(),
+                    df == null ? 0L : df.getDrawPerLine_NOCLONE().getModificationCount(),
+                    Float.floatToIntBits(c3d.getZoom()),
+                    (long) Float.floatToIntBits(v.m00) << 32 | Float.floatToIntBits(v.m01) & 0xFFFFFFFFL,
+                    (long) Float.floatToIntBits(v.m02) << 32 | Float.floatToIntBits(v.m10) & 0xFFFFFFFFL,
+                    (long) Float.floatToIntBits(v.m11) << 32 | Float.floatToIntBits(v.m12) & 0xFFFFFFFFL,
+                    (long) Float.floatToIntBits(v.m20) << 32 | Float.floatToIntBits(v.m21) & 0xFFFFFFFFL,
+                    (long) Float.floatToIntBits(v.m22) << 32 | Float.floatToIntBits(v.m30) & 0xFFFFFFFFL,
+                    (long) Float.floatToIntBits(v.m31) << 32 | Float.floatToIntBits(v.m32) & 0xFFFFFFFFL };
+        }
+
+        @Override
+        public boolean isDisposed(Composite3D c3d) {
+            return c3d.isDisposed() || c3d.getCanvas().isDisposed();
+        }
+
+        @Override
+        public void removed(Composite3D c3d) {
+            Editor3DWindow.canvasList.remove(c3d.getCanvas());
+            Editor3DWindow.renders.remove(c3d.getRenderer());
+        }
+
+        @Override
+        public boolean isPaused() {
+            return pause[0].getAndSet(false);
+        }
+    }
+
+    private static final class DisplayTimer implements FrameScheduler.Timer {
+
+        private final Display display;
+
+        private DisplayTimer(Display display) {
+            this.display = display;
+        }
+
+        @Override
+        public long nanoTime() {
+            return System.nanoTime();
+        }
+
+        @Override
+        public void schedule(int delay, Runnable task) {
+            if (display.isDisposed()) {
+                return;
+            }
+            if (display.getThread() == Thread.currentThread()) {
+                display.timerExec(delay, task);
+            } else {
+                display.asyncExec(() -> {
+                    if (!display.isDisposed()) {
+                        display.timerExec(delay, task);
+                    }
+                });
+            }
+        }
+    }
 }
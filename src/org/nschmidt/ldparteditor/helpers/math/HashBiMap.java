@@ -28,6 +28,8 @@ public class HashBiMap<K, V> implements Map<K, V> {
 
     final HashMap<K, V> keyToValue = new HashMap<K, V>();
     final HashMap<V, K> valueToKey = new HashMap<V, K>();
+    /** Counts all write operations */
+    private volatile long modificationCount = 0L;
 
     public HashBiMap() {
         super();
@@ -41,6 +43,7 @@ public class HashBiMap<K, V> implements Map<K, V> {
 
     @Override
     public void clear() {
+        modificationCount++;
         keyToValue.clear();
         valueToKey.clear();
     }
@@ -92,6 +95,7 @@ public class HashBiMap<K, V> implements Map<K, V> {
     }
 
     public V removeByKey(K key) {
+        modificationCount++;
         V value = keyToValue.get(key);
         valueToKey.remove(value);
         keyToValue.remove(key);
@@ -99,6 +103,7 @@ public class HashBiMap<K, V> implements Map<K, V> {
     }
 
     public K removeByValue(V value) {
+        modificationCount++;
         K key = valueToKey.get(value);
         keyToValue.remove(key);
         valueToKey.remove(value);
@@ -119,6 +124,7 @@ public class HashBiMap<K, V> implements Map<K, V> {
     public V put(K key, V value) {
         if (value == null)
             throw new AssertionError();
+        modificationCount++;
         valueToKey.remove(keyToValue.get(key));
         valueToKey.put(value, key);
         return keyToValue.put(key, value);
@@ -134,4 +140,12 @@ public class HashBiMap<K, V> implements Map<K, V> {
         return new HashBiMap<K, V>(keyToValue, valueToKey);
     }
 
+    /**
+     * @return a number which changes every time the content of the map was
+     *         modified
+     */
+    public long getModificationCount() {
+        return modificationCount;
+    }
+
 }
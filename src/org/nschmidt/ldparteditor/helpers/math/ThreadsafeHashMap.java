@@ -33,6 +33,8 @@ public class ThreadsafeHashMap<K, V> implements Map<K, V> {
     private final ReadWriteLock rwl = new ReentrantReadWriteLock();
     private final Lock rl = rwl.readLock();
     private final Lock wl = rwl.writeLock();
+    /** Counts all write operations (only changed while the write lock is held) */
+    private volatile long modificationCount = 0L;
 
     public ThreadsafeHashMap() {
         wl.lock();
@@ -61,6 +63,7 @@ public class ThreadsafeHashMap<K, V> implements Map<K, V> {
     @Override
     public void clear() {
         wl.lock();
+        modificationCount++;
         map.clear();
         wl.unlock();
     }
@@ -120,6 +123,7 @@ public class ThreadsafeHashMap<K, V> implements Map<K, V> {
         rl.unlock();
         if (entry == null) {
             wl.lock();
+            modificationCount++;
             map.put(key, value);
             entry = value;
             wl.unlock();
@@ -138,6 +142,7 @@ public class ThreadsafeHashMap<K, V> implements Map<K, V> {
     @Override
     public V put(K key, V value) {
         wl.lock();
+        modificationCount++;
         final V val = map.put(key, value);
         wl.unlock();
         return val;
@@ -146,6 +151,7 @@ public class ThreadsafeHashMap<K, V> implements Map<K, V> {
     @Override
     public void putAll(Map<? extends K, ? extends V> m) {
         wl.lock();
+        modificationCount++;
         map.putAll(m);
         wl.unlock();
     }
@@ -153,6 +159,7 @@ public class ThreadsafeHashMap<K, V> implements Map<K, V> {
     @Override
     public V remove(Object key) {
         wl.lock();
+        modificationCount++;
         final V val = map.remove(key);
         wl.unlock();
         return val;
@@ -173,4 +180,12 @@ public class ThreadsafeHashMap<K, V> implements Map<K, V> {
         rl.unlock();
         return rvalue;
     }
+
+    /**
+     * @return a number which changes every time the content of the map was
+     *         modified with one of the methods of this class
+     */
+    public long getModificationCount() {
+        return modificationCount;
+    }
 }
@@ -34,6 +34,8 @@ public class ThreadsafeTreeMap<K, V> implements Map<K, V> {
     private final ReadWriteLock rwl = new ReentrantReadWriteLock();
     private final Lock rl = rwl.readLock();
     private final Lock wl = rwl.writeLock();
+    /** Counts all write operations (only changed while the write lock is held) */
+    private volatile long modificationCount = 0L;
 
     public ThreadsafeTreeMap() {
         wl.lock();
@@ -50,6 +52,7 @@ public class ThreadsafeTreeMap<K, V> implements Map<K, V> {
     @Override
     public void clear() {
         wl.lock();
+        modificationCount++;
         map.clear();
         wl.unlock();
     }
@@ -124,6 +127,7 @@ public class ThreadsafeTreeMap<K, V> implements Map<K, V> {
     @Override
     public V put(K key, V value) {
         wl.lock();
+        modificationCount++;
         final V val = map.put(key, value);
         wl.unlock();
         return val;
@@ -132,6 +136,7 @@ public class ThreadsafeTreeMap<K, V> implements Map<K, V> {
     @Override
     public void putAll(Map<? extends K, ? extends V> m) {
         wl.lock();
+        modificationCount++;
         map.putAll(m);
         wl.unlock();
     }
@@ -139,6 +144,7 @@ public class ThreadsafeTreeMap<K, V> implements Map<K, V> {
     @Override
     public V remove(Object key) {
         wl.lock();
+        modificationCount++;
         final V val = map.remove(key);
         wl.unlock();
         return val;
@@ -173,4 +179,12 @@ public class ThreadsafeTreeMap<K, V> implements Map<K, V> {
         rl.unlock();
         return rvalue;
     }
+
+    /**
+     * @return a number which changes every time the content of the map was
+     *         modified with one of the methods of this class
+     */
+    public long getModificationCount() {
+        return modificationCount;
+    }
 }
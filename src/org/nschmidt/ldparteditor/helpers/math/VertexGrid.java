@@ -0,0 +1,185 @@
+/* MIT - License
+
+Copyright (c) 2012 - this year, Nils Schmidt
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE
+FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE. */
+package org.nschmidt.ldparteditor.helpers.math;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+
+import org.nschmidt.ldparteditor.data.Vertex;
+
+/**
+ * A uniform grid over vertices for fast radius queries. The cell size should
+ * be close to the radius of the typical query. The grid is only used to find
+ * candidates, the distance check itself is exact (it uses the
+ * {@link BigDecimal} coordinates of the vertices, like
+ * {@link Vector3d#distSquare(Vector3d, Vector3d)}).
+ * <br>
+ * This class is not thread safe.
+ *
+ * @author nils
+ *
+ */
+public class VertexGrid {
+
+    /** Enlarges the searched area to compensate the rounding errors of the cell index calculation */
+    private static final double CELL_MARGIN = 1.000001;
+    private static final long CELL_INDEX_MASK = 0x1FFFFFL;
+
+    private final double cellSize;
+    /** Cell key -> vertices in the cell. Distant cells can share the same key. */
+    private final HashMap<Long, ArrayList<Vertex>> cells = new HashMap<Long, ArrayList<Vertex>>();
+    private int size = 0;
+
+    /**
+     * @param cellSize
+     *            the edge length of a grid cell in LDU (values which are not
+     *            positive are replaced by 1 LDU)
+     */
+    public VertexGrid(BigDecimal cellSize) {
+        final double cs = cellSize.doubleValue();
+        this.cellSize = cs > 0.0 && !Double.isInfinite(cs) ? cs : 1.0;
+    }
+
+    /**
+     * @param cellSize
+     *            the edge length of a grid cell in LDU
+     * @param vertices
+     *            the initial content of the grid
+     */
+    public VertexGrid(BigDecimal cellSize, Collection<Vertex> vertices) {
+        this(cellSize);
+        for (Vertex v : vertices) {
+            add(v);
+        }
+    }
+
+    /**
+     * Adds a vertex to the grid. The grid can contain the same vertex more
+     * than once.
+     */
+    public void add(Vertex v) {
+        final long key = getKey(getCellIndex(v.X), getCellIndex(v.Y), getCellIndex(v.Z));
+        ArrayList<Vertex> cell = cells.get(key);
+        if (cell == null) {
+            cell = new ArrayList<Vertex>(4);
+            cells.put(key, cell);
+        }
+        cell.add(v);
+        size++;
+    }
+
+    /**
+     * Removes a vertex from the grid
+     *
+     * @return {@code true} if the grid contained the vertex
+     */
+    public boolean remove(Vertex v) {
+        final long key = getKey(getCellIndex(v.X), getCellIndex(v.Y), getCellIndex(v.Z));
+        final ArrayList<Vertex> cell = cells.get(key);
+        if (cell != null && cell.remove(v)) {
+            if (cell.isEmpty()) {
+                cells.remove(key);
+            }
+            size--;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return the number of vertices in the grid
+     */
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        cells.clear();
+        size = 0;
+    }
+
+    /**
+     * Searches all vertices which are closer to the given position than the
+     * radius. The position itself is part of the result if it is in the grid.
+     *
+     * @param v
+     *            the position
+     * @param radius
+     *            the radius in LDU
+     * @return the vertices whose squared distance to the position is less than
+     *         the squared radius (in no particular order)
+     */
+    public List<Vertex> getNeighbours(Vertex v, BigDecimal radius) {
+        final List<Vertex> result = new ArrayList<Vertex>();
+        if (radius.signum() <= 0 || size == 0) {
+            return result;
+        }
+        final BigDecimal radiusSquare = radius.multiply(radius);
+        final Vector3d position = new Vector3d(v);
+        final double r = radius.doubleValue() * CELL_MARGIN;
+        final double x = v.X.doubleValue();
+        final double y = v.Y.doubleValue();
+        final double z = v.Z.doubleValue();
+        final long minX = getCellIndex(x - r);
+        final long maxX = getCellIndex(x + r);
+        final long minY = getCellIndex(y - r);
+        final long maxY = getCellIndex(y + r);
+        final long minZ = getCellIndex(z - r);
+        final long maxZ = getCellIndex(z + r);
+        final double cellCount = (double) (maxX - minX + 1) * (maxY - minY + 1) * (maxZ - minZ + 1);
+        if (cellCount > cells.size() || maxX - minX > CELL_INDEX_MASK || maxY - minY > CELL_INDEX_MASK || maxZ - minZ > CELL_INDEX_MASK) {
+            // The radius is very large compared to the cell size (and the same cell key could be visited twice)
+            for (ArrayList<Vertex> cell : cells.values()) {
+                addNeighbours(cell, position, radiusSquare, result);
+            }
+            return result;
+        }
+        for (long ix = minX; ix <= maxX; ix++) {
+            for (long iy = minY; iy <= maxY; iy++) {
+                for (long iz = minZ; iz <= maxZ; iz++) {
+                    final ArrayList<Vertex> cell = cells.get(getKey(ix, iy, iz));
+                    if (cell != null) {
+                        addNeighbours(cell, position, radiusSquare, result);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private static void addNeighbours(ArrayList<Vertex> cell, Vector3d position, BigDecimal radiusSquare, List<Vertex> result) {
+        for (Vertex candidate : cell) {
+            if (Vector3d.distSquare(position, new Vector3d(candidate)).compareTo(radiusSquare) < 0) {
+                result.add(candidate);
+            }
+        }
+    }
+
+    private long getCellIndex(BigDecimal coordinate) {
+        return getCellIndex(coordinate.doubleValue());
+    }
+
+    private long getCellIndex(double coordinate) {
+        return (long) Math.floor(coordinate / cellSize);
+    }
+
+    private static long getKey(long ix, long iy, long iz) {
+        return ix & CELL_INDEX_MASK | (iy & CELL_INDEX_MASK) << 21 | (iz & CELL_INDEX_MASK) << 42;
+    }
+}
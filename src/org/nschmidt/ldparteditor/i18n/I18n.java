@@ -496,6 +496,9 @@ public final class I18n {
     public static final String E3D_MergeToNearestVertex = E3D.getString(getProperty());
     public static final String E3D_MergeVertex = E3D.getString(getProperty());
     public static final String E3D_MeshReduce = E3D.getString(getProperty());
+    public static final String E3D_Metrics = E3D.getString(getProperty());
+    public static final String E3D_MetricsInfo = E3D.getString(getProperty());
+    public static final String E3D_MetricsRefresh = E3D.getString(getProperty());
     public static final String E3D_ModeLine = E3D.getString(getProperty());
     public static final String E3D_ModeSubpart = E3D.getString(getProperty());
     public static final String E3D_ModeSurface = E3D.getString(getProperty());
@@ -32,12 +32,14 @@ import org.eclipse.swt.SWT;
 import org.eclipse.swt.widgets.MessageBox;
 import org.nschmidt.ldparteditor.data.DatFile;
 import org.nschmidt.ldparteditor.data.GData;
+import org.nschmidt.ldparteditor.data.SubfileCache;
 import org.nschmidt.ldparteditor.enums.MyLanguage;
 import org.nschmidt.ldparteditor.enums.View;
 import org.nschmidt.ldparteditor.helpers.compositetext.SubfileCompiler;
 import org.nschmidt.ldparteditor.i18n.I18n;
 import org.nschmidt.ldparteditor.opengl.OpenGLRenderer;
 import org.nschmidt.ldparteditor.shells.editor3d.Editor3DWindow;
+import org.nschmidt.ldparteditor.text.SyntaxFormatter;
 import org.nschmidt.ldparteditor.text.UTF8PrintWriter;
 import org.nschmidt.ldparteditor.workbench.WorkbenchManager;
 
@@ -108,6 +110,8 @@ public enum LDConfigUtils {
         if (path != null && View.loadLDConfig(path)) {
             View.overrideColour16();
             GData.CACHE_warningsAndErrors.clear();
+            SubfileCache.clear();
+            SyntaxFormatter.clearCache();
             WorkbenchManager.getUserSettingState().setLdConfigPath(path);
             Set<DatFile> dfs = new HashSet<DatFile>();
             for (OpenGLRenderer renderer : Editor3DWindow.renders) {
@@ -17,6 +17,7 @@ package org.nschmidt.ldparteditor.main;
 
 import static org.nschmidt.ldparteditor.win32openWith.FileActionResult.DELEGATED_TO_ANOTHER_INSTANCE;
 
+import org.nschmidt.ldparteditor.helpers.Metrics;
 import org.nschmidt.ldparteditor.logger.NLogger;
 import org.nschmidt.ldparteditor.splash.SplashScreen;
 import org.nschmidt.ldparteditor.win32openWith.TryToOpen;
@@ -51,6 +52,9 @@ public class LDPartEditor {
         // Show the SplashScreen
         new SplashScreen().run();
 
+        // Save the performance metrics of this session
+        Metrics.dump(Metrics.METRICS_LOG);
+
         // Flush the error stream to write the complete log file
         NLogger.flushErrorStream();
     }
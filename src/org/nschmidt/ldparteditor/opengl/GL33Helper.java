@@ -182,6 +182,27 @@ public class GL33Helper {
         GL15.glDeleteBuffers(VBO_general);
     }
 
+    /**
+     * Uploads the vertex data of the patch to the buffer which is bound to the
+     * target, if it contains a change. Nothing is uploaded if the vertex data
+     * has not changed since the last upload.
+     * <br>
+     * The whole buffer store is specified again (like the other buffers of
+     * the renderers), since {@code glBufferSubData()} created a memory leak.
+     * The changed ranges of the patch are not uploaded on their own until
+     * this leak is understood.
+     *
+     * @param target
+     *            the buffer target (e.g. {@code GL15.GL_ARRAY_BUFFER})
+     * @param patch
+     *            the changed vertex data
+     */
+    public static void uploadPatch(int target, VertexBufferPatch patch) {
+        if (patch.hasChanges()) {
+            GL15.glBufferData(target, patch.getData(), GL15.GL_STATIC_DRAW);
+        }
+    }
+
     public static void colourise(int offset, int times, float r, float g, float b,
             float a, float[] vertexData, int i) {
         for (int j = 0; j < times; j++) {
@@ -59,6 +59,7 @@ import org.nschmidt.ldparteditor.data.colour.GCType;
 import org.nschmidt.ldparteditor.enums.GL20Primitives;
 import org.nschmidt.ldparteditor.enums.IconSize;
 import org.nschmidt.ldparteditor.enums.View;
+import org.nschmidt.ldparteditor.enums.ViewText;
 import org.nschmidt.ldparteditor.enums.WorkingMode;
 import org.nschmidt.ldparteditor.helpers.Arc;
 import org.nschmidt.ldparteditor.helpers.Arrow;
@@ -105,6 +106,12 @@ public class OpenGLRenderer20 extends OpenGLRenderer {
 
     private static long hoverSettingsTime = System.currentTimeMillis();
 
+    /**
+     * Collects the triangles and quads of the model. It has to be flushed
+     * before any other OpenGL call (see {@link VertexBatch}).
+     */
+    public static final VertexBatch BATCH = new VertexBatch(OpenGLRenderer20::drawBatch);
+
     public FloatBuffer getRotationInverse() {
         return rotation_inv;
     }
@@ -1301,7 +1308,7 @@ public class OpenGLRenderer20 extends OpenGLRenderer {
                                     lock.lock();
                                     // Update renderedPoints here!
                                     renderedPoints[0] = r;
-                                    ViewIdleManager.renderLDrawStandard[0].set(true);
+                                    ViewIdleManager.requestFrames();
                                 } finally {
                                     lock.unlock();
                                 }
@@ -1862,32 +1869,32 @@ public class OpenGLRenderer20 extends OpenGLRenderer {
                     PGData3.beginDrawText();
                     switch (c3d.getPerspectiveIndex()) {
                     case FRONT:
-                        for (PGData3 tri : View.FRONT) {
+                        for (PGData3 tri : ViewText.FRONT) {
                             tri.drawText(viewport_width, viewport_height, viewport_origin_axis[0].z);
                         }
                         break;
                     case BACK:
-                        for (PGData3 tri : View.BACK) {
+                        for (PGData3 tri : ViewText.BACK) {
                             tri.drawText(viewport_width, viewport_height, viewport_origin_axis[0].z);
                         }
                         break;
                     case TOP:
-                        for (PGData3 tri : View.TOP) {
+                        for (PGData3 tri : ViewText.TOP) {
                             tri.drawText(viewport_width, viewport_height, viewport_origin_axis[0].z);
                         }
                         break;
                     case BOTTOM:
-                        for (PGData3 tri : View.BOTTOM) {
+                        for (PGData3 tri : ViewText.BOTTOM) {
                             tri.drawText(viewport_width, viewport_height, viewport_origin_axis[0].z);
                         }
                         break;
                     case LEFT:
-                        for (PGData3 tri : View.LEFT) {
+                        for (PGData3 tri : ViewText.LEFT) {
                             tri.drawText(viewport_width, viewport_height, viewport_origin_axis[0].z);
                         }
                         break;
                     case RIGHT:
-                        for (PGData3 tri : View.RIGHT) {
+                        for (PGData3 tri : ViewText.RIGHT) {
                             tri.drawText(viewport_width, viewport_height, viewport_origin_axis[0].z);
                         }
                         break;
@@ -2062,6 +2069,26 @@ public class OpenGLRenderer20 extends OpenGLRenderer {
         // NLogger.debug(getClass(), "Frametime: " + (System.currentTimeMillis() - start)); //$NON-NLS-1$
     }
 
+    private static void drawBatch(int mode, FloatBuffer data, int vertexCount, float[] lastColour, float[] lastNormal) {
+        // The vertex array is always enabled
+        GL11.glEnableClientState(GL11.GL_NORMAL_ARRAY);
+        GL11.glEnableClientState(GL11.GL_COLOR_ARRAY);
+        final int stride = VertexBatch.STRIDE * 4;
+        data.position(0);
+        GL11.glVertexPointer(3, stride, data);
+        data.position(VertexBatch.NORMAL_OFFSET);
+        GL11.glNormalPointer(stride, data);
+        data.position(VertexBatch.COLOUR_OFFSET);
+        GL11.glColorPointer(4, stride, data);
+        data.position(0);
+        GL11.glDrawArrays(mode, 0, vertexCount);
+        GL11.glDisableClientState(GL11.GL_COLOR_ARRAY);
+        GL11.glDisableClientState(GL11.GL_NORMAL_ARRAY);
+        // The current colour and normal are undefined after glDrawArrays
+        GL11.glColor4f(lastColour[0], lastColour[1], lastColour[2], lastColour[3]);
+        GL11.glNormal3f(lastNormal[0], lastNormal[1], lastNormal[2]);
+    }
+
     @Override
     public void dispose() {
         GL20.glUseProgram(0);
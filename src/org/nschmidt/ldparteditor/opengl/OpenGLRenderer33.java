@@ -42,6 +42,7 @@ import org.nschmidt.ldparteditor.data.Vertex;
 import org.nschmidt.ldparteditor.enums.GL33Primitives;
 import org.nschmidt.ldparteditor.enums.IconSize;
 import org.nschmidt.ldparteditor.enums.View;
+import org.nschmidt.ldparteditor.enums.ViewText;
 import org.nschmidt.ldparteditor.enums.WorkingMode;
 import org.nschmidt.ldparteditor.helpers.Arc;
 import org.nschmidt.ldparteditor.helpers.Arrow;
@@ -1081,32 +1082,32 @@ public class OpenGLRenderer33 extends OpenGLRenderer {
                     stack.glLoadIdentity();
                     switch (c3d.getPerspectiveIndex()) {
                     case FRONT:
-                        for (PGData3 tri : View.FRONT) {
+                        for (PGData3 tri : ViewText.FRONT) {
                             tri.drawTextGL33(viewport_width, viewport_height, viewport_origin_axis[0].z);
                         }
                         break;
                     case BACK:
-                        for (PGData3 tri : View.BACK) {
+                        for (PGData3 tri : ViewText.BACK) {
                             tri.drawTextGL33(viewport_width, viewport_height, viewport_origin_axis[0].z);
                         }
                         break;
                     case TOP:
-                        for (PGData3 tri : View.TOP) {
+                        for (PGData3 tri : ViewText.TOP) {
                             tri.drawTextGL33(viewport_width, viewport_height, viewport_origin_axis[0].z);
                         }
                         break;
                     case BOTTOM:
-                        for (PGData3 tri : View.BOTTOM) {
+                        for (PGData3 tri : ViewText.BOTTOM) {
                             tri.drawTextGL33(viewport_width, viewport_height, viewport_origin_axis[0].z);
                         }
                         break;
                     case LEFT:
-                        for (PGData3 tri : View.LEFT) {
+                        for (PGData3 tri : ViewText.LEFT) {
                             tri.drawTextGL33(viewport_width, viewport_height, viewport_origin_axis[0].z);
                         }
                         break;
                     case RIGHT:
-                        for (PGData3 tri : View.RIGHT) {
+                        for (PGData3 tri : ViewText.RIGHT) {
                             tri.drawTextGL33(viewport_width, viewport_height, viewport_origin_axis[0].z);
                         }
                         break;
@@ -0,0 +1,213 @@
+/* MIT - License
+
+Copyright (c) 2012 - this year, Nils Schmidt
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE
+FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE. */
+package org.nschmidt.ldparteditor.opengl;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+
+import org.lwjgl.opengl.GL11;
+import org.nschmidt.ldparteditor.helpers.Metrics;
+
+/**
+ * Collects the vertices of many primitives (with their normal and colour) and
+ * draws them with one call instead of one {@code glBegin} / {@code glEnd} block
+ * per primitive. The methods have the same meaning as their immediate mode
+ * counterparts. The primitives are drawn when the mode changes or when
+ * {@link #flush()} is called, so the batch has to be flushed before any other
+ * change of the OpenGL state (e.g. the matrix, the lighting or a texture).
+ * <br>
+ * Only modes with independent primitives (e.g. {@code GL_TRIANGLES} or
+ * {@code GL_LINES}) can be batched. Quads are split into two triangles, so
+ * that triangles and quads end up in the same batch. Every vertex has
+ * {@value #STRIDE} floats:
+ * the position (x, y, z), the normal (x, y, z) and the colour (r, g, b, a).
+ * The buffer is reused and grows when necessary.
+ * <br>
+ * This class does not use OpenGL. The batches are drawn by a {@link Drawer}.
+ *
+ * @author nils
+ *
+ */
+public final class VertexBatch {
+
+    /** The number of floats per vertex */
+    public static final int STRIDE = 10;
+    /** The offset of the normal in a vertex */
+    public static final int NORMAL_OFFSET = 3;
+    /** The offset of the colour in a vertex */
+    public static final int COLOUR_OFFSET = 6;
+
+    /** The initial capacity of the buffer (in vertices) */
+    private static final int INITIAL_CAPACITY = 4096;
+    /** The batch is drawn when it has more vertices (at the start of a primitive) */
+    static final int MAX_VERTICES = 65536;
+
+    private static final Metrics.Counter drawCounter = Metrics.counter("gl20.batch.draws"); //$NON-NLS-1$
+    private static final Metrics.Histogram vertexHistogram = Metrics.histogram("gl20.batch.vertices"); //$NON-NLS-1$
+
+    /** Draws a batch */
+    public interface Drawer {
+
+        /**
+         * Draws the vertices of a batch
+         *
+         * @param mode
+         *            the mode (e.g. {@code GL_TRIANGLES})
+         * @param data
+         *            the interleaved vertex data (from position {@code 0})
+         * @param vertexCount
+         *            the number of vertices
+         * @param lastColour
+         *            the current colour (r, g, b, a) after the batch
+         * @param lastNormal
+         *            the current normal (x, y, z) after the batch
+         */
+        void draw(int mode, FloatBuffer data, int vertexCount, float[] lastColour, float[] lastNormal);
+    }
+
+    private final Drawer drawer;
+    private FloatBuffer buffer = createBuffer(INITIAL_CAPACITY);
+    private int mode = -1;
+    private int vertexCount = 0;
+
+    private boolean quads = false;
+    /** The vertices of the current quad */
+    private final float[] quad = new float[4 * STRIDE];
+    private int quadVertexCount = 0;
+
+    private final float[] colour = new float[]{1f, 1f, 1f, 1f};
+    private final float[] normal = new float[]{0f, 0f, 1f};
+
+    /**
+     * @param drawer
+     *            draws the batches
+     */
+    public VertexBatch(Drawer drawer) {
+        this.drawer = drawer;
+    }
+
+    /**
+     * Starts new primitives. The batch is drawn if the mode is different
+     * from the mode of the batch.
+     *
+     * @param mode
+     *            the mode (e.g. {@code GL_TRIANGLES})
+     */
+    public void begin(int mode) {
+        quads = mode == GL11.GL_QUADS;
+        quadVertexCount = 0;
+        final int batchMode = quads ? GL11.GL_TRIANGLES : mode;
+        if (batchMode != this.mode || vertexCount >= MAX_VERTICES) {
+            flush();
+            this.mode = batchMode;
+        }
+    }
+
+    /**
+     * Ends the primitives. This does not draw the batch.
+     */
+    public void end() {
+        // The primitives are drawn with the next flush
+    }
+
+    public void colour(float r, float g, float b, float a) {
+        colour[0] = r;
+        colour[1] = g;
+        colour[2] = b;
+        colour[3] = a;
+    }
+
+    public void normal(float x, float y, float z) {
+        normal[0] = x;
+        normal[1] = y;
+        normal[2] = z;
+    }
+
+    /**
+     * Adds a vertex with the current normal and colour
+     */
+    public void vertex(float x, float y, float z) {
+        if (quads) {
+            final int offset = quadVertexCount * STRIDE;
+            quad[offset] = x;
+            quad[offset + 1] = y;
+            quad[offset + 2] = z;
+            System.arraycopy(normal, 0, quad, offset + NORMAL_OFFSET, 3);
+            System.arraycopy(colour, 0, quad, offset + COLOUR_OFFSET, 4);
+            quadVertexCount++;
+            if (quadVertexCount == 4) {
+                quadVertexCount = 0;
+                ensureCapacity(6);
+                buffer.put(quad, 0, 3 * STRIDE);
+                buffer.put(quad, 2 * STRIDE, 2 * STRIDE);
+                buffer.put(quad, 0, STRIDE);
+                vertexCount += 6;
+            }
+        } else {
+            ensureCapacity(1);
+            buffer.put(x).put(y).put(z);
+            buffer.put(normal);
+            buffer.put(colour);
+            vertexCount++;
+        }
+    }
+
+    /**
+     * Draws all collected primitives
+     */
+    public void flush() {
+        if (vertexCount == 0) {
+            return;
+        }
+        buffer.flip();
+        drawCounter.increment();
+        vertexHistogram.record(vertexCount);
+        drawer.draw(mode, buffer, vertexCount, colour, normal);
+        buffer.clear();
+        vertexCount = 0;
+    }
+
+    /**
+     * Discards all collected primitives
+     */
+    public void clear() {
+        buffer.clear();
+        vertexCount = 0;
+        quadVertexCount = 0;
+        mode = -1;
+    }
+
+    /**
+     * @return the number of vertices which were not drawn yet
+     */
+    public int getVertexCount() {
+        return vertexCount;
+    }
+
+    private void ensureCapacity(int vertices) {
+        if (buffer.remaining() < vertices * STRIDE) {
+            final FloatBuffer newBuffer = createBuffer(Math.max(buffer.capacity() / STRIDE * 2, vertexCount + vertices));
+            buffer.flip();
+            newBuffer.put(buffer);
+            buffer = newBuffer;
+        }
+    }
+
+    private static FloatBuffer createBuffer(int vertices) {
+        return ByteBuffer.allocateDirect(vertices * STRIDE * 4).order(ByteOrder.nativeOrder()).asFloatBuffer();
+    }
+}
@@ -0,0 +1,215 @@
+/* MIT - License
+
+Copyright (c) 2012 - this year, Nils Schmidt
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE
+FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE. */
+package org.nschmidt.ldparteditor.opengl;
+
+import java.util.Arrays;
+
+/**
+ * Describes which parts of a vertex buffer have changed after the vertex data
+ * was rebuilt. A patch only contains the ranges which differ from the
+ * previous data (e.g. the colours of a new selection). The whole buffer has
+ * changed if its size has changed or if most of its content is different.
+ * <br>
+ * This class does not use OpenGL. The upload is done by
+ * {@link GL33Helper#uploadPatch(int, VertexBufferPatch)}. It uploads the whole
+ * buffer if the patch contains a change, and nothing otherwise.
+ *
+ * @author nils
+ *
+ */
+public final class VertexBufferPatch {
+
+    /** Changed ranges which are closer than this number of floats are uploaded together */
+    static final int MERGE_DISTANCE = 256;
+    /** The whole buffer is uploaded if more than this fraction of its content has changed */
+    static final float MAX_PATCH_RATIO = .5f;
+
+    private static final int[] NO_RANGES = new int[0];
+
+    private final float[] data;
+    private final boolean fullUpload;
+    /** Start (inclusive) and end (exclusive) index of every changed range */
+    private final int[] ranges;
+
+    private VertexBufferPatch(float[] data, boolean fullUpload, int[] ranges) {
+        this.data = data;
+        this.fullUpload = fullUpload;
+        this.ranges = ranges;
+    }
+
+    /**
+     * Creates a patch which uploads the whole buffer
+     *
+     * @param data
+     *            the new vertex data
+     * @return the patch
+     */
+    public static VertexBufferPatch full(float[] data) {
+        return new VertexBufferPatch(data, true, NO_RANGES);
+    }
+
+    /**
+     * Creates a patch which updates a buffer with the old vertex data to the
+     * new vertex data
+     *
+     * @param oldData
+     *            the old vertex data (can be {@code null})
+     * @param newData
+     *            the new vertex data
+     * @return the patch
+     */
+    public static VertexBufferPatch create(float[] oldData, float[] newData) {
+        if (oldData == null || oldData.length != newData.length) {
+            return full(newData);
+        }
+        final int length = newData.length;
+        int[] ranges = new int[16];
+        int rangeCount = 0;
+        int changedSize = 0;
+        int i = 0;
+        while (i < length) {
+            if (oldData[i] == newData[i]) {
+                i++;
+                continue;
+            }
+            final int start = i;
+            int end = i + 1;
+            // The range ends when there are no changes within the merge distance
+            int j = end;
+            while (j < length && j - end < MERGE_DISTANCE) {
+                if (oldData[j] != newData[j]) {
+                    end = j + 1;
+                }
+                j++;
+            }
+            changedSize += end - start;
+            if (changedSize > length * MAX_PATCH_RATIO) {
+                return full(newData);
+            }
+            if (rangeCount * 2 == ranges.length) {
+                ranges = Arrays.copyOf(ranges, ranges.length * 2);
+            }
+            ranges[rangeCount * 2] = start;
+            ranges[rangeCount * 2 + 1] = end;
+            rangeCount++;
+            i = j;
+        }
+        return new VertexBufferPatch(newData, false, Arrays.copyOf(ranges, rangeCount * 2));
+    }
+
+    /**
+     * Combines this patch with a newer patch, if the buffer was not updated
+     * in between.
+     *
+     * @param newer
+     *            the patch which was created after this patch
+     * @return a patch which contains the changes of both patches
+     */
+    public VertexBufferPatch merge(VertexBufferPatch newer) {
+        if (fullUpload || newer.fullUpload || data.length != newer.data.length) {
+            return full(newer.data);
+        }
+        final int[] merged = new int[ranges.length + newer.ranges.length];
+        int count = 0;
+        int a = 0;
+        int b = 0;
+        while (a < ranges.length || b < newer.ranges.length) {
+            final int start;
+            final int end;
+            if (b >= newer.ranges.length || a < ranges.length && ranges[a] <= newer.ranges[b]) {
+                start = ranges[a];
+                end = ranges[a + 1];
+                a += 2;
+            } else {
+                start = newer.ranges[b];
+                end = newer.ranges[b + 1];
+                b += 2;
+            }
+            if (count > 0 && start <= merged[count - 1] + MERGE_DISTANCE) {
+                merged[count - 1] = Math.max(merged[count - 1], end);
+            } else {
+                merged[count] = start;
+                merged[count + 1] = end;
+                count += 2;
+            }
+        }
+        int changedSize = 0;
+        for (int i = 0; i < count; i += 2) {
+            changedSize += merged[i + 1] - merged[i];
+        }
+        if (changedSize > data.length * MAX_PATCH_RATIO) {
+            return full(newer.data);
+        }
+        return new VertexBufferPatch(newer.data, false, Arrays.copyOf(merged, count));
+    }
+
+    /**
+     * @return the new vertex data
+     */
+    public float[] getData() {
+        return data;
+    }
+
+    /**
+     * @return {@code true} if the whole buffer has to be uploaded
+     */
+    public boolean isFullUpload() {
+        return fullUpload;
+    }
+
+    /**
+     * @return {@code true} if the vertex data differs from the data of the
+     *         last upload
+     */
+    public boolean hasChanges() {
+        return fullUpload || ranges.length > 0;
+    }
+
+    /**
+     * @return the number of changed ranges
+     */
+    public int getRangeCount() {
+        return ranges.length / 2;
+    }
+
+    /**
+     * @return the first index of the changed range
+     */
+    public int getRangeStart(int range) {
+        return ranges[range * 2];
+    }
+
+    /**
+     * @return the index after the last index of the changed range
+     */
+    public int getRangeEnd(int range) {
+        return ranges[range * 2 + 1];
+    }
+
+    /**
+     * @return the number of floats which have changed
+     */
+    public int getChangedSize() {
+        if (fullUpload) {
+            return data.length;
+        }
+        int result = 0;
+        for (int i = 0; i < ranges.length; i += 2) {
+            result += ranges[i + 1] - ranges[i];
+        }
+        return result;
+    }
+}
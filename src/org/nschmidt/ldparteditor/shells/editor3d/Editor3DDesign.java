@@ -292,6 +292,7 @@ class Editor3DDesign extends ApplicationWindow {
     final MenuItem[] mntm_SetPaletteSize = new MenuItem[1];
 
     final MenuItem[] mntm_UploadLogs = new MenuItem[1];
+    final MenuItem[] mntm_Metrics = new MenuItem[1];
     final MenuItem[] mntm_AntiAliasing = new MenuItem[1];
     final MenuItem[] mntm_OpenGL33Engine = new MenuItem[1];
     final MenuItem[] mntm_VulkanEngine = new MenuItem[1];
@@ -2820,6 +2821,11 @@ class Editor3DDesign extends ApplicationWindow {
                     this.mntm_UploadLogs[0] = mntm_UploadErrorLog;
                     mntm_UploadErrorLog.setText(I18n.E3D_UploadErrorLogs);
                 }
+                {
+                    MenuItem mntm_Metrics = new MenuItem(mnu_Tools, SWT.PUSH);
+                    this.mntm_Metrics[0] = mntm_Metrics;
+                    mntm_Metrics.setText(I18n.E3D_Metrics);
+                }
                 @SuppressWarnings("unused")
                 final MenuItem mntmSeparator3 = new MenuItem(mnu_Tools, SWT.SEPARATOR);
                 {
@@ -107,6 +107,7 @@ import org.nschmidt.ldparteditor.data.GDataBFC;
 import org.nschmidt.ldparteditor.data.GDataCSG;
 import org.nschmidt.ldparteditor.data.GDataPNG;
 import org.nschmidt.ldparteditor.data.GraphicalDataTools;
+import org.nschmidt.ldparteditor.data.LibraryHeaderIndex;
 import org.nschmidt.ldparteditor.data.LibraryManager;
 import org.nschmidt.ldparteditor.data.Matrix;
 import org.nschmidt.ldparteditor.data.ParsingResult;
@@ -114,6 +115,7 @@ import org.nschmidt.ldparteditor.data.Primitive;
 import org.nschmidt.ldparteditor.data.ProtractorHelper;
 import org.nschmidt.ldparteditor.data.ReferenceParser;
 import org.nschmidt.ldparteditor.data.RingsAndCones;
+import org.nschmidt.ldparteditor.data.SubfileCache;
 import org.nschmidt.ldparteditor.data.Vertex;
 import org.nschmidt.ldparteditor.data.VertexManager;
 import org.nschmidt.ldparteditor.dialogs.colour.ColourDialog;
@@ -125,6 +127,7 @@ import org.nschmidt.ldparteditor.dialogs.isecalc.IsecalcDialog;
 import org.nschmidt.ldparteditor.dialogs.lines2pattern.Lines2PatternDialog;
 import org.nschmidt.ldparteditor.dialogs.logupload.LogUploadDialog;
 import org.nschmidt.ldparteditor.dialogs.meshreducer.MeshReducerDialog;
+import org.nschmidt.ldparteditor.dialogs.metrics.MetricsDialog;
 import org.nschmidt.ldparteditor.dialogs.newproject.NewProjectDialog;
 import org.nschmidt.ldparteditor.dialogs.options.OptionsDialog;
 import org.nschmidt.ldparteditor.dialogs.partreview.PartReviewDialog;
@@ -164,6 +167,7 @@ import org.nschmidt.ldparteditor.enums.View;
 import org.nschmidt.ldparteditor.enums.WorkingMode;
 import org.nschmidt.ldparteditor.helpers.Cocoa;
 import org.nschmidt.ldparteditor.helpers.FileHelper;
+import org.nschmidt.ldparteditor.helpers.LibraryFileIndex;
 import org.nschmidt.ldparteditor.helpers.Manipulator;
 import org.nschmidt.ldparteditor.helpers.ShellHelper;
 import org.nschmidt.ldparteditor.helpers.SphereGL20;
@@ -186,7 +190,6 @@ import org.nschmidt.ldparteditor.helpers.composite3d.TJunctionSettings;
 import org.nschmidt.ldparteditor.helpers.composite3d.TreeData;
 import org.nschmidt.ldparteditor.helpers.composite3d.Txt2DatSettings;
 import org.nschmidt.ldparteditor.helpers.composite3d.UnificatorSettings;
-import org.nschmidt.ldparteditor.helpers.composite3d.ViewIdleManager;
 import org.nschmidt.ldparteditor.helpers.composite3d.YTruderSettings;
 import org.nschmidt.ldparteditor.helpers.compositetext.ProjectActions;
 import org.nschmidt.ldparteditor.helpers.compositetext.SubfileCompiler;
@@ -304,56 +307,6 @@ public class Editor3DWindow extends Editor3DDesign {
      */
     public Editor3DWindow() {
         super();
-        final int[] i = new int[1];
-        final int[] j = new int[1];
-        final GLCanvas[] first1 = ViewIdleManager.firstCanvas;
-        final OpenGLRenderer[] first2 = ViewIdleManager.firstRender;
-        final int[] intervall = new int[] { 10 };
-        Display.getCurrent().asyncExec(new Runnable() {
-            @Override
-            public void run() {
-                if (ViewIdleManager.pause[0].get()) {
-                    ViewIdleManager.pause[0].set(false);
-                    intervall[0] = 500;
-                } else {
-                    final int cs = canvasList.size();
-                    if (i[0] < cs && cs > 0) {
-                        GLCanvas canvas;
-                        if (!canvasList.get(i[0]).equals(first1[0])) {
-                            canvas = first1[0];
-                            if (canvas != null && !canvas.isDisposed()) {
-                                first2[0].drawScene();
-                                first1[0] = null;
-                                first2[0] = null;
-                            }
-                        }
-                        canvas = canvasList.get(i[0]);
-                        if (!canvas.isDisposed()) {
-                            boolean stdMode = ViewIdleManager.renderLDrawStandard[0].get();
-                            // FIXME Needs workaround since SWT upgrade to 4.5!
-                            if (renders.get(i[0]).getC3D().getRenderMode() != 5 || cs == 1 || stdMode) {
-                                renders.get(i[0]).drawScene();
-                                if (stdMode) {
-                                    j[0]++;
-                                }
-                            }
-                        } else {
-                            canvasList.remove(i[0]);
-                            renders.remove(i[0]);
-                        }
-                        i[0]++;
-                    } else {
-                        i[0] = 0;
-                        if (j[0] > cs) {
-                            j[0] = 0;
-                            ViewIdleManager.renderLDrawStandard[0].set(false);
-                        }
-                    }
-                }
-                Display.getCurrent().timerExec(intervall[0], this);
-                intervall[0] = 10;
-            }
-        });
     }
 
     /**
@@ -554,6 +507,8 @@ public class Editor3DWindow extends Editor3DDesign {
         WidgetUtil(btn_Sync[0]).addSelectionListener(e -> {
 
             resetSearch();
+            LibraryFileIndex.refresh();
+            LibraryHeaderIndex.resetStatistics();
             int[][] stats = new int[15][3];
             stats[0] = LibraryManager.syncProjectElements(treeItem_Project[0]);
             stats[5] = LibraryManager.syncUnofficialParts(treeItem_UnofficialParts[0]);
@@ -566,6 +521,7 @@ public class Editor3DWindow extends Editor3DDesign {
             stats[12] = LibraryManager.syncOfficialPrimitives(treeItem_OfficialPrimitives[0]);
             stats[13] = LibraryManager.syncOfficialHiResPrimitives(treeItem_OfficialPrimitives48[0]);
             stats[14] = LibraryManager.syncOfficialLowResPrimitives(treeItem_OfficialPrimitives8[0]);
+            NLogger.debug(getClass(), "Library sync: {0} headers read, {1} reused", LibraryHeaderIndex.getReadCount(), LibraryHeaderIndex.getReuseCount()); //$NON-NLS-1$
 
             int additions = 0;
             int deletions = 0;
@@ -4377,7 +4333,6 @@ public class Editor3DWindow extends Editor3DDesign {
                 winState.setPrimitiveZoomExponent(cmp_Primitives[0].getZoom_exponent());
                 winState.setPrimitiveViewport(cmp_Primitives[0].getViewport2());
 
-                WorkbenchManager.getPrimitiveCache().setPrimitiveCache(CompositePrimitive.getCache());
                 WorkbenchManager.getPrimitiveCache().setPrimitiveFileCache(CompositePrimitive.getFileCache());
 
                 WorkbenchManager.getUserSettingState().setRecentItems(getRecentItems());
@@ -4660,6 +4615,11 @@ public class Editor3DWindow extends Editor3DDesign {
             regainFocus();
         });
 
+        WidgetUtil(mntm_Metrics[0]).addSelectionListener(e -> {
+            new MetricsDialog(getShell()).open();
+            regainFocus();
+        });
+
         WidgetUtil(mntm_UploadLogs[0]).addSelectionListener(e -> {
 
             String source = ""; //$NON-NLS-1$
@@ -5956,7 +5916,6 @@ public class Editor3DWindow extends Editor3DDesign {
         winState.setPrimitiveZoomExponent(cmp_Primitives[0].getZoom_exponent());
         winState.setPrimitiveViewport(cmp_Primitives[0].getViewport2());
 
-        WorkbenchManager.getPrimitiveCache().setPrimitiveCache(CompositePrimitive.getCache());
         WorkbenchManager.getPrimitiveCache().setPrimitiveFileCache(CompositePrimitive.getFileCache());
 
         WorkbenchManager.getUserSettingState().setRecentItems(getRecentItems());
@@ -6834,8 +6793,7 @@ public class Editor3DWindow extends Editor3DDesign {
         deadFiles.removeAll(openFiles);
         if (!deadFiles.isEmpty()) {
             GData.CACHE_viewByProjection.clear();
-            GData.parsedLines.clear();
-            GData.CACHE_parsedFilesSource.clear();
+            SubfileCache.clear();
         }
         for (DatFile datFile : deadFiles) {
             datFile.disposeData();
@@ -47,7 +47,6 @@ import org.nschmidt.ldparteditor.composites.ToolItemDrawMode;
 import org.nschmidt.ldparteditor.composites.ToolItemState;
 import org.nschmidt.ldparteditor.composites.primitive.CompositePrimitive;
 import org.nschmidt.ldparteditor.data.DatFile;
-import org.nschmidt.ldparteditor.data.PGData;
 import org.nschmidt.ldparteditor.data.PGTimestamp;
 import org.nschmidt.ldparteditor.dialogs.startup.StartupDialog;
 import org.nschmidt.ldparteditor.enums.View;
@@ -237,10 +236,6 @@ public class SplashScreen extends ApplicationWindow {
                 if (WorkbenchManager.getPrimitiveCache() == null) {
                     WorkbenchManager.setPrimitiveCache(new PrimitiveCache());
                 }
-                HashMap<String, PGData> pcache = WorkbenchManager.getPrimitiveCache().getPrimitiveCache();
-                if (pcache != null) {
-                    CompositePrimitive.setCache(pcache);
-                }
                 HashMap<PGTimestamp, ArrayList<String>> pfcache = WorkbenchManager.getPrimitiveCache().getPrimitiveFileCache();
                 if (pfcache != null) {
                     CompositePrimitive.setFileCache(pfcache);
@@ -45,12 +45,15 @@ import org.nschmidt.ldparteditor.data.GDataPNG;
 import org.nschmidt.ldparteditor.data.Matrix;
 import org.nschmidt.ldparteditor.data.ParsingResult;
 import org.nschmidt.ldparteditor.data.ResultType;
+import org.nschmidt.ldparteditor.data.SubfileCache;
 import org.nschmidt.ldparteditor.data.Vertex;
 import org.nschmidt.ldparteditor.data.colour.GCDithered;
 import org.nschmidt.ldparteditor.data.colour.GCType;
 import org.nschmidt.ldparteditor.enums.MyLanguage;
 import org.nschmidt.ldparteditor.enums.Threshold;
 import org.nschmidt.ldparteditor.enums.View;
+import org.nschmidt.ldparteditor.helpers.LibraryFileIndex;
+import org.nschmidt.ldparteditor.helpers.Metrics;
 import org.nschmidt.ldparteditor.helpers.math.MathHelper;
 import org.nschmidt.ldparteditor.helpers.math.Vector3d;
 import org.nschmidt.ldparteditor.i18n.I18n;
@@ -85,12 +88,48 @@ public enum DatParser {
     private static final Vector3d vertexC2 = new Vector3d();
     private static final Vector3d vertexD2 = new Vector3d();
 
+    /** The time for a line of a file (including its subfiles) */
+    private static final Metrics.Timer LINE_TIMER = Metrics.timer("parser.line"); //$NON-NLS-1$
+    /** The number of lines from all files and subfiles */
+    private static final Metrics.Counter LINE_COUNTER = Metrics.counter("parser.lines"); //$NON-NLS-1$
+
     public static ArrayList<ParsingResult> parseLine(String line, int lineNumber, int depth, float r, float g, float b, float a, GData1 parent, Matrix4f productMatrix, Matrix accurateProductMatrix,
             DatFile datFile, boolean errorCheckOnly, Set<String> alreadyParsed, boolean checkForFlatScaling) {
+        return parseLine(line, TokenizedLine.of(line), lineNumber, depth, r, g, b, a, parent, productMatrix, accurateProductMatrix, datFile, errorCheckOnly, alreadyParsed, checkForFlatScaling);
+    }
+
+    /**
+     * Parses a line which was already tokenized (see
+     * {@link TokenizedLine#tokenize(String[])}). The result is the same as the
+     * result of
+     * {@link #parseLine(String, int, int, float, float, float, float, GData1, Matrix4f, Matrix, DatFile, boolean, Set, boolean)}.
+     *
+     * @param line
+     *            the line
+     * @param tokens
+     *            the segments and coordinates of the line
+     */
+    public static ArrayList<ParsingResult> parseLine(String line, TokenizedLine tokens, int lineNumber, int depth, float r, float g, float b, float a, GData1 parent, Matrix4f productMatrix, Matrix accurateProductMatrix,
+            DatFile datFile, boolean errorCheckOnly, Set<String> alreadyParsed, boolean checkForFlatScaling) {
+        LINE_COUNTER.increment();
+        if (depth > 0) {
+            // The time of a subfile line is part of the time of its reference
+            return parseLineType(line, tokens, lineNumber, depth, r, g, b, a, parent, productMatrix, accurateProductMatrix, datFile, errorCheckOnly, alreadyParsed, checkForFlatScaling);
+        }
+        final long start = LINE_TIMER.start();
+        try {
+            return parseLineType(line, tokens, lineNumber, depth, r, g, b, a, parent, productMatrix, accurateProductMatrix, datFile, errorCheckOnly, alreadyParsed, checkForFlatScaling);
+        } finally {
+            LINE_TIMER.stop(start);
+        }
+    }
+
+    private static ArrayList<ParsingResult> parseLineType(String line, TokenizedLine tokens, int lineNumber, int depth, float r, float g, float b, float a, GData1 parent, Matrix4f productMatrix, Matrix accurateProductMatrix,
+            DatFile datFile, boolean errorCheckOnly, Set<String> alreadyParsed, boolean checkForFlatScaling) {
         ArrayList<ParsingResult> result = new ArrayList<ParsingResult>();
         // Get the linetype
         int linetype = 0;
-        final String[] data_segments = WHITESPACE.split(line.trim());
+        final String[] data_segments = tokens.getSegments();
 
         char c;
         if (data_segments.length < 1 || data_segments[0].length() >  1 || !Character.isDigit(c = data_segments[0].charAt(0))) {
@@ -104,19 +143,19 @@ public enum DatParser {
             result.addAll(parse_Comment(line, lineNumber, data_segments, depth, r, g, b, a, parent, productMatrix, datFile, errorCheckOnly, alreadyParsed));
             break;
         case 1:
-            result.addAll(parse_Reference(data_segments, depth, r, g, b, a, parent, productMatrix, accurateProductMatrix, datFile, errorCheckOnly, alreadyParsed, checkForFlatScaling, lineNumber));
+            result.addAll(parse_Reference(tokens, depth, r, g, b, a, parent, productMatrix, accurateProductMatrix, datFile, errorCheckOnly, alreadyParsed, checkForFlatScaling, lineNumber));
             break;
         case 2:
-            result.addAll(parse_Line(data_segments, r, g, b, a, parent, datFile, errorCheckOnly));
+            result.addAll(parse_Line(tokens, r, g, b, a, parent, datFile, errorCheckOnly));
             break;
         case 3:
-            result.addAll(parse_Triangle(data_segments, r, g, b, a, parent, datFile, errorCheckOnly, depth));
+            result.addAll(parse_Triangle(tokens, r, g, b, a, parent, datFile, errorCheckOnly, depth));
             break;
         case 4:
-            result.addAll(parse_Quad(data_segments, r, g, b, a, parent, datFile, errorCheckOnly, depth));
+            result.addAll(parse_Quad(tokens, r, g, b, a, parent, datFile, errorCheckOnly, depth));
             break;
         case 5:
-            result.addAll(parse_Condline(data_segments, r, g, b, a, parent, datFile, errorCheckOnly, depth));
+            result.addAll(parse_Condline(tokens, r, g, b, a, parent, datFile, errorCheckOnly, depth));
             break;
         default:
             // Mark unknown linetypes as error
@@ -537,9 +576,10 @@ public enum DatParser {
      * @param isCCW
      * @return an empty list if there was no error
      */
-    private static ArrayList<ParsingResult> parse_Reference(String[] data_segments, int depth, float r, float g, float b, float a, GData1 parent, Matrix4f productMatrix, Matrix accurateProductMatrix,
+    private static ArrayList<ParsingResult> parse_Reference(TokenizedLine tokens, int depth, float r, float g, float b, float a, GData1 parent, Matrix4f productMatrix, Matrix accurateProductMatrix,
             DatFile datFile, boolean errorCheckOnly, Set<String> alreadyParsed, boolean checkForFlatScaling, int lineNumber) {
         ArrayList<ParsingResult> result = new ArrayList<ParsingResult>();
+        final String[] data_segments = tokens.getSegments();
         boolean parseError = false;
         boolean hasDitheredColour = false;
         // [ERROR] Check less argument count
@@ -551,7 +591,8 @@ public enum DatParser {
             result.add(new ParsingResult(formatter.format(messageArguments), "[E99] " + I18n.DATPARSER_SyntaxError, ResultType.ERROR)); //$NON-NLS-1$
         } else {
             // [ERROR] Check colour
-            GColour colour = validateColour(data_segments[1], r, g, b, a);
+            final Integer colourNumber = tokens.getColourNumber();
+            GColour colour = colourNumber != null ? validateColour(colourNumber, r, g, b, a) : validateColour(data_segments[1], r, g, b, a);
             if (colour == null) {
                 result.add(new ParsingResult(I18n.DATPARSER_InvalidColour, "[E99] " + I18n.DATPARSER_SyntaxError, ResultType.ERROR)); //$NON-NLS-1$
                 return result;
@@ -579,32 +620,32 @@ public enum DatParser {
             while (true) {
                 try {
                     // Offset
-                    M30 = new BigDecimal(data_segments[2]);
+                    M30 = tokens.getExactNumber(2);
                     tMatrix.m30 = M30.floatValue() * 1000f;
-                    M31 = new BigDecimal(data_segments[3]);
+                    M31 = tokens.getExactNumber(3);
                     tMatrix.m31 = M31.floatValue() * 1000f;
-                    M32 = new BigDecimal(data_segments[4]);
+                    M32 = tokens.getExactNumber(4);
                     tMatrix.m32 = M32.floatValue() * 1000f;
                     // First row
-                    M00 = new BigDecimal(data_segments[5]);
+                    M00 = tokens.getExactNumber(5);
                     tMatrix.m00 = M00.floatValue();
-                    M10 = new BigDecimal(data_segments[6]);
+                    M10 = tokens.getExactNumber(6);
                     tMatrix.m10 = M10.floatValue();
-                    M20 = new BigDecimal(data_segments[7]);
+                    M20 = tokens.getExactNumber(7);
                     tMatrix.m20 = M20.floatValue();
                     // Second row
-                    M01 = new BigDecimal(data_segments[8]);
+                    M01 = tokens.getExactNumber(8);
                     tMatrix.m01 = M01.floatValue();
-                    M11 = new BigDecimal(data_segments[9]);
+                    M11 = tokens.getExactNumber(9);
                     tMatrix.m11 = M11.floatValue();
-                    M21 = new BigDecimal(data_segments[10]);
+                    M21 = tokens.getExactNumber(10);
                     tMatrix.m21 = M21.floatValue();
                     // Third row
-                    M02 = new BigDecimal(data_segments[11]);
+                    M02 = tokens.getExactNumber(11);
                     tMatrix.m02 = M02.floatValue();
-                    M12 = new BigDecimal(data_segments[12]);
+                    M12 = tokens.getExactNumber(12);
                     tMatrix.m12 = M12.floatValue();
-                    M22 = new BigDecimal(data_segments[13]);
+                    M22 = tokens.getExactNumber(13);
                     tMatrix.m22 = M22.floatValue();
                 } catch (NumberFormatException nfe) {
                     M00 = null; M01 = null; M02 = null; M10 = null;
@@ -663,22 +704,11 @@ public enum DatParser {
 
             String[] middle = new String[]{"", File.separator + "PARTS", File.separator + "parts", File.separator + "P", File.separator + "p"}; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
             String[] suffix = new String[]{File.separator + shortFilename, File.separator + shortFilename2, File.separator + shortFilename3};
+            fileExists = false;
             for (int a1 = 0; a1 < prefix.length; a1++) {
                 readOnly = a1 == readyOnlyAt;
-                String s1 = prefix[a1];
-                for (int a2 = 0; a2 < middle.length; a2++) {
-                    String s2 = middle[a2];
-                    for (int a3 = 0; a3 < suffix.length; a3++) {
-                        String s3 = suffix[a3];
-                        File f = new File(s1 + s2 + s3);
-                        fileExists = f.exists() && f.isFile();
-                        if (fileExists) {
-                            fileToOpen = f;
-                            break;
-                        }
-                    }
-                    if (fileExists) break;
-                }
+                fileToOpen = LibraryFileIndex.findFile(prefix[a1], middle, suffix);
+                fileExists = fileToOpen != null;
                 if (fileExists) break;
             }
 
@@ -691,28 +721,24 @@ public enum DatParser {
 
             // MARK Virtual file check for project files...
             boolean isVirtual = false;
-            for (DatFile df : Project.getUnsavedFiles()) {
-                String fn = df.getNewName();
-                for (int a1 = 0; a1 < prefix.length; a1++) {
-                    String s1 = prefix[a1];
-                    for (int a2 = 0; a2 < middle.length; a2++) {
-                        String s2 = middle[a2];
-                        for (int a3 = 0; a3 < suffix.length; a3++) {
-                            String s3 = suffix[a3];
-                            if (fn.equals(s1 + s2 + s3)) {
-                                lines = new ArrayList<String>(4096);
-                                lines.addAll(Arrays.asList(df.getText().split(StringHelper.getLineDelimiter())));
-                                absoluteFilename = fn;
-                                isVirtual = true;
-                                readOnly = false;
-                                break;
-                            }
+            final Set<DatFile> unsavedFiles = Project.getUnsavedFiles();
+            if (!unsavedFiles.isEmpty()) {
+                final Set<String> candidates = LibraryFileIndex.getCandidates(prefix, middle, suffix);
+                for (DatFile df : unsavedFiles) {
+                    String fn = df.getNewName();
+                    if (candidates.contains(fn)) {
+                        lines = SubfileCache.getVirtualLines(fn);
+                        if (lines == null) {
+                            lines = new ArrayList<String>(4096);
+                            lines.addAll(Arrays.asList(df.getText().split(StringHelper.getLineDelimiter())));
+                            SubfileCache.putVirtualLines(fn, lines);
                         }
-                        if (isVirtual) break;
+                        absoluteFilename = fn;
+                        isVirtual = true;
+                        readOnly = false;
+                        break;
                     }
-                    if (isVirtual) break;
                 }
-                if (isVirtual) break;
             }
 
             if (isVirtual) {
@@ -752,32 +778,38 @@ public enum DatParser {
                 result.add(new ParsingResult(I18n.DATPARSER_FileNotFound, "[E01] " + I18n.DATPARSER_DataError, ResultType.ERROR)); //$NON-NLS-1$
             } else {
                 absoluteFilename = fileToOpen.getAbsolutePath();
-                UTF8BufferedReader reader = null;
-                String line = null;
-                lines = new ArrayList<String>(4096);
-                try {
-                    reader = new UTF8BufferedReader(absoluteFilename);
-                    while (true) {
-                        line = reader.readLine();
-                        if (line == null) {
-                            break;
-                        }
-                        lines.add(line);
-                    }
-                } catch (FileNotFoundException e1) {
-                    // TODO Auto-generated catch block
-                    e1.printStackTrace();
-                } catch (LDParsingException e1) {
-                    // TODO Auto-generated catch block
-                    e1.printStackTrace();
-                } catch (UnsupportedEncodingException e1) {
-                    // TODO Auto-generated catch block
-                    e1.printStackTrace();
-                } finally {
+                lines = SubfileCache.getLines(absoluteFilename);
+                if (lines == null) {
+                    final long lastModified = fileToOpen.lastModified();
+                    final long length = fileToOpen.length();
+                    UTF8BufferedReader reader = null;
+                    String line = null;
+                    lines = new ArrayList<String>(4096);
                     try {
-                        if (reader != null)
-                            reader.close();
+                        reader = new UTF8BufferedReader(absoluteFilename);
+                        while (true) {
+                            line = reader.readLine();
+                            if (line == null) {
+                                break;
+                            }
+                            lines.add(line);
+                        }
+                        SubfileCache.putLines(absoluteFilename, lines, lastModified, length);
+                    } catch (FileNotFoundException e1) {
+                        // TODO Auto-generated catch block
+                        e1.printStackTrace();
                     } catch (LDParsingException e1) {
+                        // TODO Auto-generated catch block
+                        e1.printStackTrace();
+                    } catch (UnsupportedEncodingException e1) {
+                        // TODO Auto-generated catch block
+                        e1.printStackTrace();
+                    } finally {
+                        try {
+                            if (reader != null)
+                                reader.close();
+                        } catch (LDParsingException e1) {
+                        }
                     }
                 }
 
@@ -855,8 +887,9 @@ public enum DatParser {
      * @param errorCheckOnly
      * @return an empty list if there was no error
      */
-    private static ArrayList<ParsingResult> parse_Line(String[] data_segments, float r, float g, float b, float a, GData1 parent, DatFile datFile, boolean errorCheckOnly) {
+    private static ArrayList<ParsingResult> parse_Line(TokenizedLine tokens, float r, float g, float b, float a, GData1 parent, DatFile datFile, boolean errorCheckOnly) {
         ArrayList<ParsingResult> result = new ArrayList<ParsingResult>();
+        final String[] data_segments = tokens.getSegments();
         boolean parseError = false;
         // [ERROR] Check argument count
         if (data_segments.length != 8) {
@@ -876,13 +909,13 @@ public enum DatParser {
             while (true) {
                 try {
                     // Start vertex
-                    start.setX(new BigDecimal(data_segments[2], Threshold.mc));
-                    start.setY(new BigDecimal(data_segments[3], Threshold.mc));
-                    start.setZ(new BigDecimal(data_segments[4], Threshold.mc));
+                    start.setX(tokens.getNumber(2));
+                    start.setY(tokens.getNumber(3));
+                    start.setZ(tokens.getNumber(4));
                     // End vertex
-                    end.setX(new BigDecimal(data_segments[5], Threshold.mc));
-                    end.setY(new BigDecimal(data_segments[6], Threshold.mc));
-                    end.setZ(new BigDecimal(data_segments[7], Threshold.mc));
+                    end.setX(tokens.getNumber(5));
+                    end.setY(tokens.getNumber(6));
+                    end.setZ(tokens.getNumber(7));
                 } catch (NumberFormatException nfe) {
                     result.add(new ParsingResult(I18n.DATPARSER_InvalidNumberFormat, "[E99] " + I18n.DATPARSER_SyntaxError, ResultType.ERROR)); //$NON-NLS-1$
                     break;
@@ -922,8 +955,9 @@ public enum DatParser {
      * @param isCCW
      * @return an empty list if there was no error
      */
-    private static ArrayList<ParsingResult> parse_Triangle(String[] data_segments, float r, float g, float b, float a, GData1 parent, DatFile datFile, boolean errorCheckOnly, int depth) {
+    private static ArrayList<ParsingResult> parse_Triangle(TokenizedLine tokens, float r, float g, float b, float a, GData1 parent, DatFile datFile, boolean errorCheckOnly, int depth) {
         ArrayList<ParsingResult> result = new ArrayList<ParsingResult>();
+        final String[] data_segments = tokens.getSegments();
         // [ERROR] Check argument count
         if (data_segments.length != 11) {
             Object[] messageArguments = {data_segments.length, 11};
@@ -942,17 +976,17 @@ public enum DatParser {
             while (true) {
                 try {
                     // 1st vertex
-                    vertexA.setX(new BigDecimal(data_segments[2], Threshold.mc));
-                    vertexA.setY(new BigDecimal(data_segments[3], Threshold.mc));
-                    vertexA.setZ(new BigDecimal(data_segments[4], Threshold.mc));
+                    vertexA.setX(tokens.getNumber(2));
+                    vertexA.setY(tokens.getNumber(3));
+                    vertexA.setZ(tokens.getNumber(4));
                     // 2nd vertex
-                    vertexB.setX(new BigDecimal(data_segments[5], Threshold.mc));
-                    vertexB.setY(new BigDecimal(data_segments[6], Threshold.mc));
-                    vertexB.setZ(new BigDecimal(data_segments[7], Threshold.mc));
+                    vertexB.setX(tokens.getNumber(5));
+                    vertexB.setY(tokens.getNumber(6));
+                    vertexB.setZ(tokens.getNumber(7));
                     // 3rd vertex
-                    vertexC.setX(new BigDecimal(data_segments[8], Threshold.mc));
-                    vertexC.setY(new BigDecimal(data_segments[9], Threshold.mc));
-                    vertexC.setZ(new BigDecimal(data_segments[10], Threshold.mc));
+                    vertexC.setX(tokens.getNumber(8));
+                    vertexC.setY(tokens.getNumber(9));
+                    vertexC.setZ(tokens.getNumber(10));
                 } catch (NumberFormatException nfe) {
                     result.add(new ParsingResult(I18n.DATPARSER_InvalidNumberFormat, "[E99] " + I18n.DATPARSER_SyntaxError, ResultType.ERROR)); //$NON-NLS-1$
                     break;
@@ -1024,8 +1058,9 @@ public enum DatParser {
      * @param isCCW
      * @return an empty list if there was no error
      */
-    private static ArrayList<ParsingResult> parse_Quad(String[] data_segments, float r, float g, float b, float a, GData1 parent, DatFile datFile, boolean errorCheckOnly, int depth) {
+    private static ArrayList<ParsingResult> parse_Quad(TokenizedLine tokens, float r, float g, float b, float a, GData1 parent, DatFile datFile, boolean errorCheckOnly, int depth) {
         ArrayList<ParsingResult> result = new ArrayList<ParsingResult>();
+        final String[] data_segments = tokens.getSegments();
         // [ERROR] Check argument count
         if (data_segments.length != 14) {
             Object[] messageArguments = {data_segments.length, 14};
@@ -1045,21 +1080,21 @@ public enum DatParser {
             while (true) {
                 try {
                     // 1st vertex
-                    vertexA.setX(new BigDecimal(data_segments[2], Threshold.mc));
-                    vertexA.setY(new BigDecimal(data_segments[3], Threshold.mc));
-                    vertexA.setZ(new BigDecimal(data_segments[4], Threshold.mc));
+                    vertexA.setX(tokens.getNumber(2));
+                    vertexA.setY(tokens.getNumber(3));
+                    vertexA.setZ(tokens.getNumber(4));
                     // 2nd vertex
-                    vertexB.setX(new BigDecimal(data_segments[5], Threshold.mc));
-                    vertexB.setY(new BigDecimal(data_segments[6], Threshold.mc));
-                    vertexB.setZ(new BigDecimal(data_segments[7], Threshold.mc));
+                    vertexB.setX(tokens.getNumber(5));
+                    vertexB.setY(tokens.getNumber(6));
+                    vertexB.setZ(tokens.getNumber(7));
                     // 3rd vertex
-                    vertexC.setX(new BigDecimal(data_segments[8], Threshold.mc));
-                    vertexC.setY(new BigDecimal(data_segments[9], Threshold.mc));
-                    vertexC.setZ(new BigDecimal(data_segments[10], Threshold.mc));
+                    vertexC.setX(tokens.getNumber(8));
+                    vertexC.setY(tokens.getNumber(9));
+                    vertexC.setZ(tokens.getNumber(10));
                     // 4th vertex
-                    vertexD.setX(new BigDecimal(data_segments[11], Threshold.mc));
-                    vertexD.setY(new BigDecimal(data_segments[12], Threshold.mc));
-                    vertexD.setZ(new BigDecimal(data_segments[13], Threshold.mc));
+                    vertexD.setX(tokens.getNumber(11));
+                    vertexD.setY(tokens.getNumber(12));
+                    vertexD.setZ(tokens.getNumber(13));
                 } catch (NumberFormatException nfe) {
                     result.add(new ParsingResult(I18n.DATPARSER_InvalidNumberFormat, "[E99] " + I18n.DATPARSER_SyntaxError, ResultType.ERROR)); //$NON-NLS-1$
                     break;
@@ -1228,8 +1263,9 @@ public enum DatParser {
      * @param isCCW
      * @return an empty list if there was no error
      */
-    private static ArrayList<ParsingResult> parse_Condline(String[] data_segments, float r, float g, float b, float a, GData1 parent, DatFile datFile, boolean errorCheckOnly, int depth) {
+    private static ArrayList<ParsingResult> parse_Condline(TokenizedLine tokens, float r, float g, float b, float a, GData1 parent, DatFile datFile, boolean errorCheckOnly, int depth) {
         ArrayList<ParsingResult> result = new ArrayList<ParsingResult>();
+        final String[] data_segments = tokens.getSegments();
         // [ERROR] Check argument count
         if (data_segments.length != 14) {
             Object[] messageArguments = {data_segments.length, 14};
@@ -1248,21 +1284,21 @@ public enum DatParser {
             while (true) {
                 try {
                     // start vertex
-                    start.setX(new BigDecimal(data_segments[2], Threshold.mc));
-                    start.setY(new BigDecimal(data_segments[3], Threshold.mc));
-                    start.setZ(new BigDecimal(data_segments[4], Threshold.mc));
+                    start.setX(tokens.getNumber(2));
+                    start.setY(tokens.getNumber(3));
+                    start.setZ(tokens.getNumber(4));
                     // end vertex
-                    end.setX(new BigDecimal(data_segments[5], Threshold.mc));
-                    end.setY(new BigDecimal(data_segments[6], Threshold.mc));
-                    end.setZ(new BigDecimal(data_segments[7], Threshold.mc));
+                    end.setX(tokens.getNumber(5));
+                    end.setY(tokens.getNumber(6));
+                    end.setZ(tokens.getNumber(7));
                     // control vertex I
-                    controlI.setX(new BigDecimal(data_segments[8], Threshold.mc));
-                    controlI.setY(new BigDecimal(data_segments[9], Threshold.mc));
-                    controlI.setZ(new BigDecimal(data_segments[10], Threshold.mc));
+                    controlI.setX(tokens.getNumber(8));
+                    controlI.setY(tokens.getNumber(9));
+                    controlI.setZ(tokens.getNumber(10));
                     // control vertex II
-                    controlII.setX(new BigDecimal(data_segments[11], Threshold.mc));
-                    controlII.setY(new BigDecimal(data_segments[12], Threshold.mc));
-                    controlII.setZ(new BigDecimal(data_segments[13], Threshold.mc));
+                    controlII.setX(tokens.getNumber(11));
+                    controlII.setY(tokens.getNumber(12));
+                    controlII.setZ(tokens.getNumber(13));
                 } catch (NumberFormatException nfe) {
                     result.add(new ParsingResult(I18n.DATPARSER_InvalidNumberFormat, "[E99] " + I18n.DATPARSER_SyntaxError, ResultType.ERROR)); //$NON-NLS-1$
                     break;
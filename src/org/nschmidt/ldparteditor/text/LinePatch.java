@@ -0,0 +1,148 @@
+/* MIT - License
+
+Copyright (c) 2012 - this year, Nils Schmidt
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE
+FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE. */
+package org.nschmidt.ldparteditor.text;
+
+import java.util.function.IntFunction;
+
+/**
+ * The difference between two versions of a text as a single block of lines.
+ * The lines before and after the block are equal in both versions, so only
+ * the block has to be replaced. The replacement is applied to a text widget
+ * with one {@code replaceTextRange(...)} call and its size depends on the
+ * changed lines, not on the size of the text.
+ *
+ * @author nils
+ *
+ */
+public final class LinePatch {
+
+    private final int start;
+    private final int end;
+    private final String text;
+
+    private LinePatch(int start, int end, String text) {
+        this.start = start;
+        this.end = end;
+        this.text = text;
+    }
+
+    /**
+     * Compares the old lines with the new lines (from the top and from the
+     * bottom)
+     *
+     * @param oldLines
+     *            returns the old line with the given index
+     * @param oldLineCount
+     *            the number of old lines (at least one)
+     * @param oldLength
+     *            the length of the old text
+     * @param offsetAtLine
+     *            returns the offset of the old line with the given index
+     * @param newLines
+     *            the new lines (at least one)
+     * @param delimiter
+     *            the line delimiter of the text
+     * @return the patch or {@code null} if the texts are equal
+     */
+    public static LinePatch create(IntFunction<String> oldLines, int oldLineCount, int oldLength, IntFunction<Integer> offsetAtLine, String[] newLines, String delimiter) {
+        return create(oldLines, oldLineCount, oldLength, offsetAtLine, 0, 0, newLines, delimiter);
+    }
+
+    /**
+     * Compares the old lines with the new lines when the unchanged lines at
+     * the top and at the bottom are already known. Only the lines between
+     * them are compared, so the cost depends on the size of the change.
+     *
+     * @param oldLines
+     *            returns the old line with the given index
+     * @param oldLineCount
+     *            the number of old lines (at least one)
+     * @param oldLength
+     *            the length of the old text
+     * @param offsetAtLine
+     *            returns the offset of the old line with the given index
+     * @param prefix
+     *            the number of unchanged lines at the top
+     * @param suffix
+     *            the number of unchanged lines at the bottom
+     * @param changedLines
+     *            the new lines between the unchanged lines (the new text has
+     *            at least one line)
+     * @param delimiter
+     *            the line delimiter of the text
+     * @return the patch or {@code null} if the texts are equal
+     */
+    public static LinePatch create(IntFunction<String> oldLines, int oldLineCount, int oldLength, IntFunction<Integer> offsetAtLine, int prefix, int suffix, String[] changedLines, String delimiter) {
+        final int oldEnd = oldLineCount - suffix;
+        int first = 0;
+        int last = changedLines.length;
+        while (first < last && prefix + first < oldEnd && changedLines[first].equals(oldLines.apply(prefix + first))) {
+            first++;
+        }
+        while (first < last && prefix + first < oldEnd - (changedLines.length - last) && changedLines[last - 1].equals(oldLines.apply(oldEnd - (changedLines.length - last) - 1))) {
+            last--;
+        }
+        prefix += first;
+        suffix += changedLines.length - last;
+        if (first == last && prefix + suffix == oldLineCount) {
+            return null;
+        }
+        final StringBuilder sb = new StringBuilder();
+        if (suffix > 0) {
+            // Replace whole lines (including their delimiters)
+            for (int i = first; i < last; i++) {
+                sb.append(changedLines[i]);
+                sb.append(delimiter);
+            }
+            return new LinePatch(offsetAtLine.apply(prefix), offsetAtLine.apply(oldLineCount - suffix), sb.toString());
+        }
+        if (prefix == 0) {
+            // Nothing is equal
+            for (int i = first; i < last; i++) {
+                if (i > first) sb.append(delimiter);
+                sb.append(changedLines[i]);
+            }
+            return new LinePatch(0, oldLength, sb.toString());
+        }
+        // Replace everything after the end of the last equal line
+        for (int i = first; i < last; i++) {
+            sb.append(delimiter);
+            sb.append(changedLines[i]);
+        }
+        return new LinePatch(offsetAtLine.apply(prefix - 1) + oldLines.apply(prefix - 1).length(), oldLength, sb.toString());
+    }
+
+    /**
+     * @return the offset of the first replaced character
+     */
+    public int getStart() {
+        return start;
+    }
+
+    /**
+     * @return the number of replaced characters
+     */
+    public int getLength() {
+        return end - start;
+    }
+
+    /**
+     * @return the replacement
+     */
+    public String getText() {
+        return text;
+    }
+}
@@ -18,7 +18,13 @@ package org.nschmidt.ldparteditor.text;
 import java.io.File;
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.custom.LineStyleEvent;
@@ -32,6 +38,7 @@ import org.nschmidt.ldparteditor.enums.Colour;
 import org.nschmidt.ldparteditor.enums.DatKeyword;
 import org.nschmidt.ldparteditor.enums.Threshold;
 import org.nschmidt.ldparteditor.enums.View;
+import org.nschmidt.ldparteditor.helpers.LibraryFileIndex;
 import org.nschmidt.ldparteditor.helpers.math.MathHelper;
 import org.nschmidt.ldparteditor.helpers.math.Vector3d;
 import org.nschmidt.ldparteditor.project.Project;
@@ -62,12 +69,54 @@ public class SyntaxFormatter {
     private final Vector3d controlI = new Vector3d();
     private final Vector3d controlII = new Vector3d();
 
+    /** The maximum number of cached line styles (for each formatter) */
+    private static final int MAX_CACHE_SIZE = 4096;
+    /** Changes when the style of every line has to be recalculated */
+    private static final AtomicLong cacheGeneration = new AtomicLong();
+    private static final AtomicLong cacheHits = new AtomicLong();
+    private static final AtomicLong cacheMisses = new AtomicLong();
+
+    /** Line text and editor state -> styles with offsets relative to the line start */
+    private final LinkedHashMap<LineStyleKey, StyleRange[]> styleCache = new LinkedHashMap<LineStyleKey, StyleRange[]>(256, .75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<LineStyleKey, StyleRange[]> eldest) {
+            return size() > MAX_CACHE_SIZE;
+        }
+    };
+    /** The state which was used to calculate the cached styles */
+    private final Object[] cacheState = new Object[5];
+
     public SyntaxFormatter(StyledText compositeText) {
         this.compositeText = compositeText;
     }
 
     /**
-     * Formats the updated line
+     * Drops the cached styles of all formatters (e.g. when the colour
+     * configuration was reloaded)
+     */
+    public static void clearCache() {
+        cacheGeneration.incrementAndGet();
+    }
+
+    /**
+     * @return the number of lines whose style was taken from the cache
+     */
+    public static long getCacheHitCount() {
+        return cacheHits.get();
+    }
+
+    /**
+     * @return the number of lines whose style had to be calculated
+     */
+    public static long getCacheMissCount() {
+        return cacheMisses.get();
+    }
+
+    /**
+     * Formats the updated line. The style of a line is cached, because a
+     * repaint of the text editor requests the style of every visible line.
      *
      * @param e
      *            the triggered line style event data
@@ -83,6 +132,59 @@ public class SyntaxFormatter {
             float replaceEpsilon, boolean replaceVertex, boolean isSelected, boolean isDuplicate, boolean isVisible,
             DatFile df) {
 
+        validateCache();
+        final LineStyleKey key = new LineStyleKey(e.lineText, VX, VY, VZ, replaceEpsilon, replaceVertex, isSelected, isDuplicate, isVisible, df);
+        final StyleRange[] cachedStyles = styleCache.get(key);
+        if (cachedStyles != null) {
+            cacheHits.incrementAndGet();
+            e.styles = moveStyles(cachedStyles, e.lineOffset);
+            return;
+        }
+        cacheMisses.incrementAndGet();
+        formatWithoutCache(e, VX, VY, VZ, replaceEpsilon, replaceVertex, isSelected, isDuplicate, isVisible, df);
+        if (e.styles != null) {
+            styleCache.put(key, moveStyles(e.styles, -e.lineOffset));
+        }
+    }
+
+    /**
+     * Clears the cache if the library folders, the unsaved files or the file
+     * system have changed (the style of a reference depends on them)
+     */
+    private void validateCache() {
+        long unsavedFilesHash = 0L;
+        for (DatFile df : Project.getUnsavedFiles()) {
+            unsavedFilesHash += df.getNewName().hashCode();
+        }
+        final Object[] state = new Object[]{
+                cacheGeneration.get() * 31L + LibraryFileIndex.getModificationCount(),
+                unsavedFilesHash * 31L + Project.getUnsavedFiles().size(),
+                Project.getProjectPath(),
+                WorkbenchManager.getUserSettingState().getUnofficialFolderPath(),
+                WorkbenchManager.getUserSettingState().getLdrawFolderPath()};
+        if (!Arrays.equals(state, cacheState)) {
+            styleCache.clear();
+            System.arraycopy(state, 0, cacheState, 0, state.length);
+        }
+    }
+
+    /**
+     * @return a copy of the styles, moved by the given offset
+     */
+    private static StyleRange[] moveStyles(StyleRange[] styles, int offset) {
+        final StyleRange[] result = new StyleRange[styles.length];
+        for (int i = 0; i < styles.length; i++) {
+            result[i] = (StyleRange) styles[i].clone();
+            result[i].start += offset;
+        }
+        return result;
+    }
+
+    private void formatWithoutCache(LineStyleEvent e,
+            BigDecimal VX, BigDecimal VY, BigDecimal VZ,
+            float replaceEpsilon, boolean replaceVertex, boolean isSelected, boolean isDuplicate, boolean isVisible,
+            DatFile df) {
+
         ArrayList<StyleRange> styles = new ArrayList<StyleRange>();
 
         if (isDuplicate) {
@@ -665,38 +767,16 @@ public class SyntaxFormatter {
             String[] middle = new String[]{File.separator + "PARTS", File.separator + "parts", File.separator + "P", File.separator + "p"}; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
             String[] suffix = new String[]{File.separator + shortFilename, File.separator + shortFilename2, File.separator + shortFilename3};
             for (int a1 = 0; a1 < prefix.length; a1++) {
-                String s1 = prefix[a1];
-                for (int a2 = 0; a2 < middle.length; a2++) {
-                    String s2 = middle[a2];
-                    for (int a3 = 0; a3 < suffix.length; a3++) {
-                        String s3 = suffix[a3];
-                        File f = new File(s1 + s2 + s3);
-                        fileExists = f.exists() && f.isFile();
-                        if (fileExists) break;
-                    }
-                    if (fileExists) break;
-                }
+                fileExists = LibraryFileIndex.findFile(prefix[a1], middle, suffix) != null;
                 if (fileExists) break;
             }
-            if (!fileExists) {
+            if (!fileExists && !Project.getUnsavedFiles().isEmpty()) {
+                final Set<String> candidates = LibraryFileIndex.getCandidates(prefix, middle, suffix);
                 for (DatFile df : Project.getUnsavedFiles()) {
-                    String fn = df.getNewName();
-                    for (int a1 = 0; a1 < prefix.length; a1++) {
-                        String s1 = prefix[a1];
-                        for (int a2 = 0; a2 < middle.length; a2++) {
-                            String s2 = middle[a2];
-                            for (int a3 = 0; a3 < suffix.length; a3++) {
-                                String s3 = suffix[a3];
-                                if (fn.equals(s1 + s2 + s3)) {
-                                    fileExists = true;
-                                    break;
-                                }
-                            }
-                            if (fileExists) break;
-                        }
-                        if (fileExists) break;
+                    if (candidates.contains(df.getNewName())) {
+                        fileExists = true;
+                        break;
                     }
-                    if (fileExists) break;
                 }
             }
             // [WARNING] Check spaces in dat file name
@@ -1508,4 +1588,50 @@ public class SyntaxFormatter {
             }
         }
     }
+
+    /**
+     * The line text and all editor states which have an influence on the
+     * style of a line
+     */
+    private static final class LineStyleKey {
+
+        private final String lineText;
+        private final BigDecimal VX;
+        private final BigDecimal VY;
+        private final BigDecimal VZ;
+        private final float replaceEpsilon;
+        private final int flags;
+        private final DatFile df;
+        private final int hash;
+
+        LineStyleKey(String lineText, BigDecimal VX, BigDecimal VY, BigDecimal VZ, float replaceEpsilon,
+                boolean replaceVertex, boolean isSelected, boolean isDuplicate, boolean isVisible, DatFile df) {
+            this.lineText = lineText;
+            this.VX = VX;
+            this.VY = VY;
+            this.VZ = VZ;
+            this.replaceEpsilon = replaceEpsilon;
+            this.flags = (replaceVertex ? 1 : 0) | (isSelected ? 2 : 0) | (isDuplicate ? 4 : 0) | (isVisible ? 8 : 0);
+            this.df = df;
+            this.hash = lineText.hashCode() * 31 + flags;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj)
+                return true;
+            if (!(obj instanceof LineStyleKey))
+                return false;
+            final LineStyleKey other = (LineStyleKey) obj;
+            return hash == other.hash && flags == other.flags && df == other.df
+                    && Float.compare(replaceEpsilon, other.replaceEpsilon) == 0
+                    && lineText.equals(other.lineText)
+                    && Objects.equals(VX, other.VX) && Objects.equals(VY, other.VY) && Objects.equals(VZ, other.VZ);
+        }
+    }
 }
@@ -46,6 +46,7 @@ import org.nschmidt.ldparteditor.data.Vertex;
 import org.nschmidt.ldparteditor.data.colour.GCDithered;
 import org.nschmidt.ldparteditor.enums.Threshold;
 import org.nschmidt.ldparteditor.enums.View;
+import org.nschmidt.ldparteditor.helpers.LibraryFileIndex;
 import org.nschmidt.ldparteditor.project.Project;
 import org.nschmidt.ldparteditor.workbench.WorkbenchManager;
 
@@ -486,21 +487,10 @@ public enum TexMapParser {
 
             String[] middle = new String[]{"", File.separator + "PARTS", File.separator + "parts", File.separator + "P", File.separator + "p"}; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
             String[] suffix = new String[]{File.separator + shortFilename, File.separator + shortFilename2, File.separator + shortFilename3};
+            fileExists = false;
             for (int a1 = 0; a1 < prefix.length; a1++) {
-                String s1 = prefix[a1];
-                for (int a2 = 0; a2 < middle.length; a2++) {
-                    String s2 = middle[a2];
-                    for (int a3 = 0; a3 < suffix.length; a3++) {
-                        String s3 = suffix[a3];
-                        File f = new File(s1 + s2 + s3);
-                        fileExists = f.exists() && f.isFile();
-                        if (fileExists) {
-                            fileToOpen = f;
-                            break;
-                        }
-                    }
-                    if (fileExists) break;
-                }
+                fileToOpen = LibraryFileIndex.findFile(prefix[a1], middle, suffix);
+                fileExists = fileToOpen != null;
                 if (fileExists) break;
             }
 
@@ -508,27 +498,19 @@ public enum TexMapParser {
             String absoluteFilename = null;
             // MARK Virtual file check for project files...
             boolean isVirtual = false;
-            for (DatFile df : Project.getUnsavedFiles()) {
-                String fn = df.getNewName();
-                for (int a1 = 0; a1 < prefix.length; a1++) {
-                    String s1 = prefix[a1];
-                    for (int a2 = 0; a2 < middle.length; a2++) {
-                        String s2 = middle[a2];
-                        for (int a3 = 0; a3 < suffix.length; a3++) {
-                            String s3 = suffix[a3];
-                            if (fn.equals(s1 + s2 + s3)) {
-                                lines = new ArrayList<String>(4096);
-                                lines.addAll(Arrays.asList(df.getText().split(StringHelper.getLineDelimiter())));
-                                absoluteFilename = fn;
-                                isVirtual = true;
-                                break;
-                            }
-                        }
-                        if (isVirtual) break;
+            final Set<DatFile> unsavedFiles = Project.getUnsavedFiles();
+            if (!unsavedFiles.isEmpty()) {
+                final Set<String> candidates = LibraryFileIndex.getCandidates(prefix, middle, suffix);
+                for (DatFile df : unsavedFiles) {
+                    String fn = df.getNewName();
+                    if (candidates.contains(fn)) {
+                        lines = new ArrayList<String>(4096);
+                        lines.addAll(Arrays.asList(df.getText().split(StringHelper.getLineDelimiter())));
+                        absoluteFilename = fn;
+                        isVirtual = true;
+                        break;
                     }
-                    if (isVirtual) break;
                 }
-                if (isVirtual) break;
             }
             if (isVirtual) {
                 Matrix4f destMatrix = new Matrix4f();
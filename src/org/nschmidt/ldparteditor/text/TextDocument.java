@@ -0,0 +1,312 @@
+/* MIT - License
+
+Copyright (c) 2012 - this year, Nils Schmidt
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE
+FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE. */
+package org.nschmidt.ldparteditor.text;
+
+import java.util.Arrays;
+
+/**
+ * The text of a file as a piece table. The text is split into pieces which
+ * point either into the base text (the text of the last
+ * {@link #setText(String)}) or into a buffer with the inserted text. An edit
+ * only changes the pieces around the edited position, so its cost does not
+ * depend on the length of the text. The text as a {@link String} is only
+ * built when it is requested (and cached until the next edit).
+ * <br>
+ * This class is not thread safe.
+ *
+ * @author nils
+ *
+ */
+public final class TextDocument {
+
+    /** The pieces are merged into a new base text when there are more pieces */
+    private static final int MAX_PIECE_COUNT = 1024;
+    /** The minimum size of the insertion buffer before the pieces are merged */
+    private static final int MIN_COMPACT_SIZE = 65536;
+
+    private String base = ""; //$NON-NLS-1$
+    private final StringBuilder added = new StringBuilder();
+
+    /** {@code true} if the piece points into the insertion buffer */
+    private boolean[] pieceAdded = new boolean[16];
+    private int[] pieceStart = new int[16];
+    private int[] pieceLength = new int[16];
+    private int pieceCount = 0;
+    private int length = 0;
+
+    private String cachedText = ""; //$NON-NLS-1$
+
+    /** The last text which was compared with the base text */
+    private String comparedText = null;
+    private boolean baseEqualsComparedText = false;
+
+    public TextDocument() {
+    }
+
+    public TextDocument(String text) {
+        setText(text);
+    }
+
+    /**
+     * Replaces the whole content of the document
+     *
+     * @param text
+     *            the new text
+     */
+    public void setText(String text) {
+        if (text != cachedText) {
+            reset(text);
+        }
+    }
+
+    private void reset(String text) {
+        base = text;
+        added.setLength(0);
+        pieceCount = 0;
+        length = text.length();
+        if (length > 0) {
+            pieceAdded[0] = false;
+            pieceStart[0] = 0;
+            pieceLength[0] = length;
+            pieceCount = 1;
+        }
+        cachedText = text;
+        comparedText = null;
+    }
+
+    /**
+     * Replaces a part of the text (like
+     * {@link org.eclipse.swt.custom.StyledText#replaceTextRange(int, int, String)}).
+     *
+     * @param start
+     *            the offset of the replaced text
+     * @param replacedLength
+     *            the length of the replaced text
+     * @param insertedText
+     *            the new text
+     * @throws IndexOutOfBoundsException
+     *             if the range is not within the document
+     */
+    public void replace(int start, int replacedLength, String insertedText) {
+        if (start < 0 || replacedLength < 0 || start + replacedLength > length) {
+            throw new IndexOutOfBoundsException("Invalid range " + start + " + " + replacedLength + " for length " + length); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        }
+        if (replacedLength == 0 && insertedText.isEmpty()) {
+            return;
+        }
+        cachedText = null;
+        if (replacedLength > 0) {
+            delete(start, replacedLength);
+        }
+        if (!insertedText.isEmpty()) {
+            insert(start, insertedText);
+        }
+        if (pieceCount > MAX_PIECE_COUNT || added.length() > Math.max(MIN_COMPACT_SIZE, base.length())) {
+            reset(toString());
+        }
+    }
+
+    /**
+     * @return the length of the text
+     */
+    public int length() {
+        return length;
+    }
+
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("Invalid index " + index + " for length " + length); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+        if (cachedText != null) {
+            return cachedText.charAt(index);
+        }
+        int offset = 0;
+        for (int i = 0; i < pieceCount; i++) {
+            if (index < offset + pieceLength[i]) {
+                final int pos = pieceStart[i] + index - offset;
+                return pieceAdded[i] ? added.charAt(pos) : base.charAt(pos);
+            }
+            offset += pieceLength[i];
+        }
+        throw new IndexOutOfBoundsException();
+    }
+
+    /**
+     * Compares the text with another text without building the text of the
+     * document. When the other text is the text of the last
+     * {@link #setText(String)}, only the edited parts are compared.
+     *
+     * @param text
+     *            the other text
+     * @return {@code true} if both texts are equal
+     */
+    public boolean contentEquals(String text) {
+        if (text == null || text.length() != length) {
+            return false;
+        }
+        if (cachedText != null) {
+            return cachedText.equals(text);
+        }
+        if (text != comparedText) {
+            // This is only done once for each new text (e.g. after saving)
+            comparedText = text;
+            baseEqualsComparedText = base.equals(text);
+        }
+        int offset = 0;
+        for (int i = 0; i < pieceCount; i++) {
+            final int start = pieceStart[i];
+            final int len = pieceLength[i];
+            if (pieceAdded[i]) {
+                for (int j = 0; j < len; j++) {
+                    if (added.charAt(start + j) != text.charAt(offset + j)) {
+                        return false;
+                    }
+                }
+            } else if (!(baseEqualsComparedText && start == offset) && !base.regionMatches(start, text, offset, len)) {
+                return false;
+            }
+            offset += len;
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        if (cachedText == null) {
+            final StringBuilder sb = new StringBuilder(length);
+            for (int i = 0; i < pieceCount; i++) {
+                final int start = pieceStart[i];
+                if (pieceAdded[i]) {
+                    sb.append(added, start, start + pieceLength[i]);
+                } else {
+                    sb.append(base, start, start + pieceLength[i]);
+                }
+            }
+            cachedText = sb.toString();
+        }
+        return cachedText;
+    }
+
+    private void insert(int offset, String text) {
+        final int addedStart = added.length();
+        added.append(text);
+        final int textLength = text.length();
+        length += textLength;
+        int pos = 0;
+        int i = 0;
+        while (i < pieceCount && pos + pieceLength[i] < offset) {
+            pos += pieceLength[i];
+            i++;
+        }
+        if (offset == pos) {
+            // Only at the beginning of the text
+            insertPiece(i, true, addedStart, textLength);
+        } else if (pos + pieceLength[i] == offset) {
+            // Typing at the end of the last insertion only enlarges its piece
+            if (pieceAdded[i] && pieceStart[i] + pieceLength[i] == addedStart) {
+                pieceLength[i] += textLength;
+                return;
+            }
+            insertPiece(i + 1, true, addedStart, textLength);
+        } else {
+            // Split the piece
+            final int head = offset - pos;
+            insertPiece(i + 1, pieceAdded[i], pieceStart[i] + head, pieceLength[i] - head);
+            pieceLength[i] = head;
+            insertPiece(i + 1, true, addedStart, textLength);
+        }
+    }
+
+    private void delete(int offset, int count) {
+        length -= count;
+        int pos = 0;
+        int i = 0;
+        while (i < pieceCount && pos + pieceLength[i] <= offset) {
+            pos += pieceLength[i];
+            i++;
+        }
+        final int end = offset + count;
+        if (offset > pos && end < pos + pieceLength[i]) {
+            // The deleted range is inside a single piece
+            final int head = offset - pos;
+            insertPiece(i + 1, pieceAdded[i], pieceStart[i] + end - pos, pieceLength[i] - end + pos);
+            pieceLength[i] = head;
+            return;
+        }
+        if (offset > pos) {
+            // Keep the beginning of the first piece
+            final int head = offset - pos;
+            pos += pieceLength[i];
+            pieceLength[i] = head;
+            i++;
+        }
+        final int first = i;
+        while (i < pieceCount && pos + pieceLength[i] <= end) {
+            pos += pieceLength[i];
+            i++;
+        }
+        if (i < pieceCount && pos < end) {
+            // Keep the end of the last piece
+            final int cut = end - pos;
+            pieceStart[i] += cut;
+            pieceLength[i] -= cut;
+        }
+        removePieces(first, i);
+        mergePieces(first - 1);
+    }
+
+    /**
+     * Merges the piece with the next piece if both pieces are adjacent in the
+     * same buffer (e.g. after an insertion was deleted again)
+     */
+    private void mergePieces(int i) {
+        if (i >= 0 && i + 1 < pieceCount && pieceAdded[i] == pieceAdded[i + 1] && pieceStart[i] + pieceLength[i] == pieceStart[i + 1]) {
+            pieceLength[i] += pieceLength[i + 1];
+            removePieces(i + 1, i + 2);
+        }
+    }
+
+    private void insertPiece(int index, boolean isAdded, int start, int len) {
+        if (pieceCount == pieceStart.length) {
+            final int newSize = pieceCount * 2;
+            pieceAdded = Arrays.copyOf(pieceAdded, newSize);
+            pieceStart = Arrays.copyOf(pieceStart, newSize);
+            pieceLength = Arrays.copyOf(pieceLength, newSize);
+        }
+        final int moved = pieceCount - index;
+        System.arraycopy(pieceAdded, index, pieceAdded, index + 1, moved);
+        System.arraycopy(pieceStart, index, pieceStart, index + 1, moved);
+        System.arraycopy(pieceLength, index, pieceLength, index + 1, moved);
+        pieceAdded[index] = isAdded;
+        pieceStart[index] = start;
+        pieceLength[index] = len;
+        pieceCount++;
+    }
+
+    /**
+     * Removes the pieces from {@code from} (inclusive) to {@code to}
+     * (exclusive)
+     */
+    private void removePieces(int from, int to) {
+        final int moved = pieceCount - to;
+        if (to > from) {
+            System.arraycopy(pieceAdded, to, pieceAdded, from, moved);
+            System.arraycopy(pieceStart, to, pieceStart, from, moved);
+            System.arraycopy(pieceLength, to, pieceLength, from, moved);
+            pieceCount -= to - from;
+        }
+    }
+}
@@ -29,18 +29,18 @@ import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.regex.Pattern;
 
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jface.dialogs.ProgressMonitorDialog;
 import org.eclipse.jface.operation.IRunnableWithProgress;
-import org.nschmidt.delaunay.Pnt;
-import org.nschmidt.delaunay.Triangle;
-import org.nschmidt.delaunay.Triangulation;
+import org.nschmidt.delaunay.ConstrainedTriangulation;
 import org.nschmidt.ldparteditor.data.DatFile;
 import org.nschmidt.ldparteditor.data.GData;
 import org.nschmidt.ldparteditor.data.GData0;
@@ -83,6 +83,11 @@ import org.nschmidt.ldparteditor.shells.editor3d.Editor3DWindow;
 
 public class TextTriangulator {
 
+    /** The background of the text */
+    private static final float[] BACKGROUND_COLOUR = new float[] { 0.95f, 0.95f, 0.90f };
+
+    private static ExecutorService executor = null;
+
     public static Set<GData> triangulateText(Font font, final float r, final float g, final float b, final String text, final double flatness, final double interpolateFlatness, final GData1 parent, final DatFile datFile, int fontHeight,
             final double deltaAngle) {
         final GlyphVector vector = font.createGlyphVector(new FontRenderContext(null, false, false), text);
@@ -99,11 +104,7 @@ public class TextTriangulator {
                 maxHeight = height;
         }
 
-        final Lock lock = new ReentrantLock();
-        final Lock lock2 = new ReentrantLock();
         final double scale = fontHeight / maxHeight;
-        final Thread[] threads = new Thread[vector.getNumGlyphs()];
-        final AtomicInteger counter = new AtomicInteger(vector.getNumGlyphs());
 
         try
         {
@@ -112,46 +113,38 @@ public class TextTriangulator {
                 @Override
                 public void run(final IProgressMonitor monitor) throws InvocationTargetException, InterruptedException
                 {
+                    final List<Future<?>> futures = new ArrayList<Future<?>>();
                     try
                     {
                         monitor.beginTask(I18n.TXT2DAT_Triangulate, IProgressMonitor.UNKNOWN);
+                        // The glyphs are triangulated in parallel on a shared pool
+                        final ExecutorService pool = getExecutor();
                         for (int j = 0; j < vector.getNumGlyphs(); j++) {
-                            final int[] i = new int[1];
-                            i[0] = j;
-                            threads[j] = new Thread(new Runnable() {
-                                @Override
-                                public void run() {
-                                    Shape characterShape = vector.getGlyphOutline(i[0]);
-                                    NLogger.debug(TextTriangulator.class, "Triangulating {0}", text.charAt(i[0])); //$NON-NLS-1$
-                                    Set<GData> characterTriangleSet = triangulateShape(monitor, characterShape, flatness, interpolateFlatness, parent, datFile, scale, deltaAngle, counter, lock, lock2, r, g, b);
-                                    if (characterTriangleSet.isEmpty()) {
-                                        counter.decrementAndGet();
-                                    }
-
-                                    NLogger.debug(TextTriangulator.class, "Triangulating [Done] {0}", text.charAt(i[0])); //$NON-NLS-1$
-
-                                    synchronized (finalTriangleSet) {
-                                        finalTriangleSet.addAll(characterTriangleSet);
-                                    }
+                            final int i = j;
+                            futures.add(pool.submit(() -> {
+                                if (monitor.isCanceled()) {
+                                    return;
                                 }
-                            });
-                            threads[j].start();
+                                Shape characterShape = vector.getGlyphOutline(i);
+                                NLogger.debug(TextTriangulator.class, "Triangulating {0}", text.charAt(i)); //$NON-NLS-1$
+                                Set<GData> characterTriangleSet = triangulateShape(monitor, characterShape, flatness, interpolateFlatness, parent, datFile, scale, deltaAngle, r, g, b);
+                                NLogger.debug(TextTriangulator.class, "Triangulating [Done] {0}", text.charAt(i)); //$NON-NLS-1$
+                                finalTriangleSet.addAll(characterTriangleSet);
+                            }));
                         }
-                        boolean isRunning = true;
-                        while (isRunning) {
+                        for (Future<?> future : futures) {
                             try {
-                                Thread.sleep(100);
-                            } catch (InterruptedException e) {
-                            }
-                            isRunning = false;
-                            for (Thread thread : threads) {
-                                if (thread.isAlive())
-                                    isRunning = true;
+                                future.get();
+                            } catch (ExecutionException ee) {
+                                NLogger.error(TextTriangulator.class, ee.getCause());
                             }
                         }
                     }
                     finally
                     {
+                        for (Future<?> future : futures) {
+                            future.cancel(false);
+                        }
                         monitor.done();
                     }
                 }
@@ -170,235 +163,38 @@ public class TextTriangulator {
         return finalTriangleSet;
     }
 
-    private static Set<GData> triangulateShape(IProgressMonitor monitor, Shape shape, double flatness, double interpolateFlatness, GData1 parent, DatFile datFile, double scale, double deltaAngle, AtomicInteger counter,
-            Lock lock, Lock lock2, float r, float g, float b) {
-        lock2.lock();
-        PathIterator shapePathIterator = shape.getPathIterator(null, flatness);
-
-        /*
-         * Add all points of the shape to the triangulation
-         */
-        double x = 0, y = 0, px, py;
-
-        double minX = Double.MAX_VALUE;
-        double minY = Double.MAX_VALUE;
-
-        double maxX = -Double.MAX_VALUE;
-        double maxY = -Double.MAX_VALUE;
-
-        ArrayList<Pnt> places = new ArrayList<Pnt>();
-
-        while (!shapePathIterator.isDone() && !monitor.isCanceled()) {
-            px = x;
-            py = y;
-
-            double[] args = new double[6];
-
-            switch (shapePathIterator.currentSegment(args)) {
-            case PathIterator.SEG_MOVETO:
-                x = args[0];
-                y = args[1];
-                break;
-            case PathIterator.SEG_LINETO:
-                x = args[0];
-                y = args[1];
-
-                if (px == x && py == y)
-                    break;
-
-                Pnt p1 = new Pnt(px, py);
-                Pnt p2 = new Pnt(x, y);
-
-                // triangulation.delaunayPlace(p1);
-                places.add(p1);
-                if (px > maxX)
-                    maxX = px;
-                if (py > maxY)
-                    maxY = py;
-                if (px < minX)
-                    minX = px;
-                if (py < minY)
-                    minY = py;
-
-                Pnt lengthVector = new Pnt(x - px, y - py);
-
-                // sqrt( x^2 + y^2 )
-                double length = Math.sqrt(lengthVector.coord(0) * lengthVector.coord(0) + lengthVector.coord(1) * lengthVector.coord(1));
-
-                double num = length / interpolateFlatness;
-                double nx = lengthVector.coord(0) / num;
-                double ny = lengthVector.coord(1) / num;
-
-                if (num > 1) {
-                    double start = (num - Math.floor(num)) / 2.0;
-
-                    double cx = p1.coord(0);
-                    double cy = p1.coord(1);
-                    double ll = length;
-                    ll = ll - start;
-                    while (ll > interpolateFlatness) {
-                        // triangulation.delaunayPlace(new Pnt(cx,cy));
-                        places.add(new Pnt(cx, cy));
-                        if (cx > maxX)
-                            maxX = cx;
-                        if (cy > maxY)
-                            maxY = cy;
-                        if (cx < minX)
-                            minX = cx;
-                        if (cy < minY)
-                            minY = cy;
-
-                        cx = cx + nx;
-                        cy = cy + ny;
-
-                        ll = ll - interpolateFlatness;
-                    }
-                }
-
-                // triangulation.delaunayPlace(p2);
-                places.add(p2);
-                if (x > maxX)
-                    maxX = x;
-                if (y > maxY)
-                    maxY = y;
-                if (x < minX)
-                    minX = x;
-                if (y < minY)
-                    minY = y;
-                break;
-            case PathIterator.SEG_QUADTO:
-                break;
-            case PathIterator.SEG_CUBICTO:
-                break;
-            case PathIterator.SEG_CLOSE:
-                break;
-            default:
-                break;
-            }
-
-            shapePathIterator.next();
+    private static synchronized ExecutorService getExecutor() {
+        if (executor == null) {
+            executor = Executors.newFixedThreadPool(Math.max(1, View.NUM_CORES), r -> {
+                final Thread t = new Thread(r, "TextTriangulator"); //$NON-NLS-1$
+                t.setDaemon(true);
+                return t;
+            });
         }
+        return executor;
+    }
 
-        /*
-         * Build the triangle which encompasses the shape (-0.5,+1) - (+0.5,+1)
-         * - (0,-1)
-         */
-        double TRISIZE = 100000d;
-        Triangle tri = new Triangle(new Pnt(-TRISIZE / 2.0, TRISIZE), new Pnt(+TRISIZE / 2.0, TRISIZE), new Pnt(0, -TRISIZE));
+    private static Set<GData> triangulateShape(IProgressMonitor monitor, Shape shape, double flatness, double interpolateFlatness, GData1 parent, DatFile datFile, double scale, double deltaAngle,
+            float r, float g, float b) {
 
         // now add all triangles which are in the shape to the set
         Set<GData> finalTriangleSet = new HashSet<GData>();
 
-        if (!places.isEmpty()) {
-
-            GData anchor = new GData0(null, View.DUMMY_REFERENCE);
-
-            // initialize the triangulation with this triangle
-            Triangulation triangulation = new Triangulation(tri);
-
-            triangulation.delaunayPlace(new Pnt(minX - 0.0, minY - 0.0));
-            triangulation.delaunayPlace(new Pnt(maxX + 0.0, minY - 0.0));
-            triangulation.delaunayPlace(new Pnt(maxX + 0.0, maxY + 0.0));
-            triangulation.delaunayPlace(new Pnt(minX - 0.0, maxY + 0.0));
-
-            for (Pnt place : places) {
-                triangulation.delaunayPlace(place);
-                if (triangulation.size() > 4000 || monitor.isCanceled()) break;
-            }
-
-            for (Triangle triangle : triangulation) {
-
-                if (monitor.isCanceled()) break;
-
-                Pnt point1 = triangle.get(0);
-                Pnt point2 = triangle.get(1);
-                Pnt point3 = triangle.get(2);
-
-                double midX = point1.coord(0);
-                double midY = point1.coord(1);
-                midX = midX + point2.coord(0);
-                midY = midY + point2.coord(1);
-                midX = midX + point3.coord(0);
-                midY = midY + point3.coord(1);
-
-                midX /= 3.0;
-                midY /= 3.0;
-
-                if (shape.contains(midX, midY)) {
-                    double[] vec1 = new double[] { point3.coord(0) - point1.coord(0), point3.coord(1) - point1.coord(1) };
-                    double[] vec2 = new double[] { point3.coord(0) - point2.coord(0), point3.coord(1) - point2.coord(1) };
-                    double wind = vec1[0] * vec2[1] - vec1[1] * vec2[0];
-                    if (wind < 0) {
-                        GData3 gdt = new GData3(-1, r, g, b, 1f, (float) (point1.coord(0) * scale), (float) (point1.coord(1) * scale), 0f, (float) (point2.coord(0) * scale),
-                                (float) (point2.coord(1) * scale), 0f, (float) (point3.coord(0) * scale), (float) (point3.coord(1) * scale), 0f, parent, datFile, true);
-                        anchor.setNext(gdt);
-                        anchor = gdt;
-                        finalTriangleSet.add(gdt);
-                    } else {
-                        GData3 gdt = new GData3(-1, r, g, b, 1f, (float) (point1.coord(0) * scale), (float) (point1.coord(1) * scale), 0f, (float) (point3.coord(0) * scale),
-                                (float) (point3.coord(1) * scale), 0f, (float) (point2.coord(0) * scale), (float) (point2.coord(1) * scale), 0f, parent, datFile, true);
-                        anchor.setNext(gdt);
-                        anchor = gdt;
-                        finalTriangleSet.add(gdt);
-                    }
-                } else if (!(point1.coord(0) == tri.get(0).coord(0) && point1.coord(1) == tri.get(0).coord(1)
-
-                        ||
-
-                        point2.coord(0) == tri.get(0).coord(0) && point2.coord(1) == tri.get(0).coord(1)
-
-                        ||
-
-                        point3.coord(0) == tri.get(0).coord(0) && point3.coord(1) == tri.get(0).coord(1)
-
-                        ||
-
-                        point1.coord(0) == tri.get(1).coord(0) && point1.coord(1) == tri.get(1).coord(1)
-
-                        ||
-
-                        point2.coord(0) == tri.get(1).coord(0) && point2.coord(1) == tri.get(1).coord(1)
-
-                        ||
-
-                        point3.coord(0) == tri.get(1).coord(0) && point3.coord(1) == tri.get(1).coord(1)
-
-                        ||
-
-                        point1.coord(0) == tri.get(2).coord(0) && point1.coord(1) == tri.get(2).coord(1)
-
-                        ||
-
-                        point2.coord(0) == tri.get(2).coord(0) && point2.coord(1) == tri.get(2).coord(1)
-
-                        ||
-
-                        point3.coord(0) == tri.get(2).coord(0) && point3.coord(1) == tri.get(2).coord(1)
-
-                        )) {
-                    double[] vec1 = new double[] { point3.coord(0) - point1.coord(0), point3.coord(1) - point1.coord(1) };
-                    double[] vec2 = new double[] { point3.coord(0) - point2.coord(0), point3.coord(1) - point2.coord(1) };
-                    double wind = vec1[0] * vec2[1] - vec1[1] * vec2[0];
-                    if (wind < 0) {
-                        GData3 gdt = new GData3(-1, 0.95f, 0.95f, 0.90f, 1f, (float) (point1.coord(0) * scale), (float) (point1.coord(1) * scale), 0f, (float) (point2.coord(0) * scale),
-                                (float) (point2.coord(1) * scale), 0f, (float) (point3.coord(0) * scale), (float) (point3.coord(1) * scale), 0f, parent, datFile, true);
-                        anchor.setNext(gdt);
-                        anchor = gdt;
-                        finalTriangleSet.add(gdt);
-                    } else {
-                        GData3 gdt = new GData3(-1, 0.95f, 0.95f, 0.90f, 1f, (float) (point1.coord(0) * scale), (float) (point1.coord(1) * scale), 0f, (float) (point3.coord(0) * scale),
-                                (float) (point3.coord(1) * scale), 0f, (float) (point2.coord(0) * scale), (float) (point2.coord(1) * scale), 0f, parent, datFile, true);
-                        anchor.setNext(gdt);
-                        anchor = gdt;
-                        finalTriangleSet.add(gdt);
-                    }
-
-                }
+        if (monitor.isCanceled()) {
+            return finalTriangleSet;
+        }
 
-            }
-            lock2.unlock();
-        } else {
-            lock2.unlock();
+        GData anchor = new GData0(null, View.DUMMY_REFERENCE);
+
+        for (double[] triangle : triangulateOutline(shape, flatness, interpolateFlatness)) {
+            final boolean inside = triangle[6] > 0.0;
+            final GData3 gdt = new GData3(-1, inside ? r : BACKGROUND_COLOUR[0], inside ? g : BACKGROUND_COLOUR[1], inside ? b : BACKGROUND_COLOUR[2], 1f,
+                    (float) (triangle[0] * scale), (float) (triangle[1] * scale), 0f,
+                    (float) (triangle[2] * scale), (float) (triangle[3] * scale), 0f,
+                    (float) (triangle[4] * scale), (float) (triangle[5] * scale), 0f, parent, datFile, true);
+            anchor.setNext(gdt);
+            anchor = gdt;
+            finalTriangleSet.add(gdt);
         }
 
         return finalTriangleSet;
@@ -478,11 +274,35 @@ public class TextTriangulator {
     }
 
     private static Set<PGData3> triangulateGLShape(Shape shape, double flatness, double interpolateFlatness, double scale, double deltaAngle) {
-        PathIterator shapePathIterator = shape.getPathIterator(null, flatness);
-        /*
-         * Add all points of the shape to the triangulation
-         */
-        double x = 0, y = 0, px, py;
+        Set<PGData3> finalTriangleSet = new HashSet<PGData3>();
+        for (double[] triangle : triangulateOutline(shape, flatness, interpolateFlatness)) {
+            if (triangle[6] > 0.0) {
+                finalTriangleSet.add(new PGData3(
+                        (float) (triangle[0] * scale), (float) (triangle[1] * scale), 0f,
+                        (float) (triangle[2] * scale), (float) (triangle[3] * scale), 0f,
+                        (float) (triangle[4] * scale), (float) (triangle[5] * scale), 0f));
+            }
+        }
+        return finalTriangleSet;
+    }
+
+    /**
+     * Triangulates the outline of a glyph and the rectangle around it. The
+     * outline is subdivided into segments of the length
+     * {@code interpolateFlatness}. The segments are edges of the
+     * triangulation, so the holes of the glyph need no special treatment.
+     *
+     * @return the clockwise triangles (x1, y1, x2, y2, x3, y3, inside) where
+     *         inside is {@code 1.0} for the triangles of the glyph and
+     *         {@code 0.0} for the background
+     */
+    static List<double[]> triangulateOutline(Shape shape, double flatness, double interpolateFlatness) {
+        final List<double[]> result = new ArrayList<double[]>();
+        final PathIterator shapePathIterator = shape.getPathIterator(null, flatness);
+        final boolean evenOdd = shapePathIterator.getWindingRule() == PathIterator.WIND_EVEN_ODD;
+        final ConstrainedTriangulation triangulation = new ConstrainedTriangulation();
+
+        double x = 0, y = 0, startX = 0, startY = 0;
 
         double minX = Double.MAX_VALUE;
         double minY = Double.MAX_VALUE;
@@ -490,148 +310,115 @@ public class TextTriangulator {
         double maxX = -Double.MAX_VALUE;
         double maxY = -Double.MAX_VALUE;
 
-        ArrayList<Pnt> places = new ArrayList<Pnt>();
+        final double[] args = new double[6];
 
         while (!shapePathIterator.isDone()) {
-            px = x;
-            py = y;
-
-            double[] args = new double[6];
+            final double px = x;
+            final double py = y;
 
             switch (shapePathIterator.currentSegment(args)) {
             case PathIterator.SEG_MOVETO:
                 x = args[0];
                 y = args[1];
+                startX = x;
+                startY = y;
                 break;
             case PathIterator.SEG_LINETO:
                 x = args[0];
                 y = args[1];
-
-                if (px == x && py == y)
-                    break;
-
-                Pnt p1 = new Pnt(px, py);
-                Pnt p2 = new Pnt(x, y);
-
-                places.add(p1);
-                if (px > maxX)
-                    maxX = px;
-                if (py > maxY)
-                    maxY = py;
-                if (px < minX)
-                    minX = px;
-                if (py < minY)
-                    minY = py;
-
-                Pnt lengthVector = new Pnt(x - px, y - py);
-
-                // sqrt( x^2 + y^2 )
-                double length = Math.sqrt(lengthVector.coord(0) * lengthVector.coord(0) + lengthVector.coord(1) * lengthVector.coord(1));
-
-                double num = length / interpolateFlatness;
-                double nx = lengthVector.coord(0) / num;
-                double ny = lengthVector.coord(1) / num;
-
-                if (num > 1) {
-                    double start = (num - Math.floor(num)) / 2.0;
-
-                    double cx = p1.coord(0);
-                    double cy = p1.coord(1);
-                    double ll = length;
-                    ll = ll - start;
-                    while (ll > interpolateFlatness) {
-                        places.add(new Pnt(cx, cy));
-                        if (cx > maxX)
-                            maxX = cx;
-                        if (cy > maxY)
-                            maxY = cy;
-                        if (cx < minX)
-                            minX = cx;
-                        if (cy < minY)
-                            minY = cy;
-
-                        cx = cx + nx;
-                        cy = cy + ny;
-
-                        ll = ll - interpolateFlatness;
-                    }
-                }
-                places.add(p2);
-                if (x > maxX)
-                    maxX = x;
-                if (y > maxY)
-                    maxY = y;
-                if (x < minX)
-                    minX = x;
-                if (y < minY)
-                    minY = y;
-                break;
-            case PathIterator.SEG_QUADTO:
-                break;
-            case PathIterator.SEG_CUBICTO:
+                addSegment(triangulation, px, py, x, y, interpolateFlatness);
                 break;
             case PathIterator.SEG_CLOSE:
+                x = startX;
+                y = startY;
+                addSegment(triangulation, px, py, x, y, interpolateFlatness);
                 break;
             default:
                 break;
             }
 
+            if (x > maxX)
+                maxX = x;
+            if (y > maxY)
+                maxY = y;
+            if (x < minX)
+                minX = x;
+            if (y < minY)
+                minY = y;
+
             shapePathIterator.next();
         }
 
-        /*
-         * Build the triangle which encompasses the shape (-0.5,+1) - (+0.5,+1)
-         * - (0,-1)
-         */
-        double TRISIZE = 100000d;
-        Triangle tri = new Triangle(new Pnt(-TRISIZE / 2.0, TRISIZE), new Pnt(+TRISIZE / 2.0, TRISIZE), new Pnt(0, -TRISIZE));
+        if (minX >= maxX || minY >= maxY) {
+            return result;
+        }
+
+        // The rectangle around the glyph (its winding number is zero)
+        final int p1 = triangulation.addPoint(minX, minY);
+        final int p2 = triangulation.addPoint(maxX, minY);
+        final int p3 = triangulation.addPoint(maxX, maxY);
+        final int p4 = triangulation.addPoint(minX, maxY);
+        triangulation.addSegment(p1, p2, 0);
+        triangulation.addSegment(p2, p3, 0);
+        triangulation.addSegment(p3, p4, 0);
+        triangulation.addSegment(p4, p1, 0);
+
+        final boolean complete = triangulation.triangulate();
+        final int[] triangles = triangulation.getTriangles();
+        final int[] windings = triangulation.getWindings();
+        for (int i = 0; i < windings.length; i++) {
+            final double x1 = triangulation.getX(triangles[i * 3]);
+            final double y1 = triangulation.getY(triangles[i * 3]);
+            final double x2 = triangulation.getX(triangles[i * 3 + 1]);
+            final double y2 = triangulation.getY(triangles[i * 3 + 1]);
+            final double x3 = triangulation.getX(triangles[i * 3 + 2]);
+            final double y3 = triangulation.getY(triangles[i * 3 + 2]);
+            final boolean inside;
+            if (complete) {
+                inside = evenOdd ? (windings[i] & 1) != 0 : windings[i] != 0;
+            } else {
+                // The outline could not be inserted completely
+                inside = shape.contains((x1 + x2 + x3) / 3.0, (y1 + y2 + y3) / 3.0);
+            }
+            // The triangulation is counter-clockwise
+            result.add(new double[] { x1, y1, x3, y3, x2, y2, inside ? 1.0 : 0.0 });
+        }
+        return result;
+    }
 
-        // now add all triangles which are in the shape to the set
-        Set<PGData3> finalTriangleSet = new HashSet<PGData3>();
+    /**
+     * Adds a line of the outline (and the points between its start and end
+     * point) to the triangulation
+     */
+    private static void addSegment(ConstrainedTriangulation triangulation, double px, double py, double x, double y, double interpolateFlatness) {
+        if (px == x && py == y)
+            return;
 
-        if (!places.isEmpty()) {
+        int previous = triangulation.addPoint(px, py);
 
-            // initialize the triangulation with this triangle
-            Triangulation triangulation = new Triangulation(tri);
+        // sqrt( x^2 + y^2 )
+        final double length = Math.sqrt((x - px) * (x - px) + (y - py) * (y - py));
 
-            triangulation.delaunayPlace(new Pnt(minX - 0.0, minY - 0.0));
-            triangulation.delaunayPlace(new Pnt(maxX + 0.0, minY - 0.0));
-            triangulation.delaunayPlace(new Pnt(maxX + 0.0, maxY + 0.0));
-            triangulation.delaunayPlace(new Pnt(minX - 0.0, maxY + 0.0));
+        final double num = length / interpolateFlatness;
+        final double nx = (x - px) / num;
+        final double ny = (y - py) / num;
 
-            for (Pnt place : places) {
-                triangulation.delaunayPlace(place);
-                if (triangulation.size() > 4000) break;
-            }
+        if (num > 1) {
+            double cx = px + nx;
+            double cy = py + ny;
+            double ll = length - interpolateFlatness - (num - Math.floor(num)) / 2.0;
+            while (ll > interpolateFlatness) {
+                final int current = triangulation.addPoint(cx, cy);
+                triangulation.addSegment(previous, current, 1);
+                previous = current;
 
-            for (Triangle triangle : triangulation) {
-                Pnt point1 = triangle.get(0);
-                Pnt point2 = triangle.get(1);
-                Pnt point3 = triangle.get(2);
-                double midX = point1.coord(0);
-                double midY = point1.coord(1);
-                midX = midX + point2.coord(0);
-                midY = midY + point2.coord(1);
-                midX = midX + point3.coord(0);
-                midY = midY + point3.coord(1);
-                midX /= 3.0;
-                midY /= 3.0;
-                if (shape.contains(midX, midY)) {
-                    double[] vec1 = new double[] { point3.coord(0) - point1.coord(0), point3.coord(1) - point1.coord(1) };
-                    double[] vec2 = new double[] { point3.coord(0) - point2.coord(0), point3.coord(1) - point2.coord(1) };
-                    double wind = vec1[0] * vec2[1] - vec1[1] * vec2[0];
-                    if (wind < 0) {
-                        PGData3 gdt = new PGData3((float) (point1.coord(0) * scale), (float) (point1.coord(1) * scale), 0f, (float) (point2.coord(0) * scale),
-                                (float) (point2.coord(1) * scale), 0f, (float) (point3.coord(0) * scale), (float) (point3.coord(1) * scale), 0f);
-                        finalTriangleSet.add(gdt);
-                    } else {
-                        PGData3 gdt = new PGData3((float) (point1.coord(0) * scale), (float) (point1.coord(1) * scale), 0f, (float) (point3.coord(0) * scale),
-                                (float) (point3.coord(1) * scale), 0f, (float) (point2.coord(0) * scale), (float) (point2.coord(1) * scale), 0f);
-                        finalTriangleSet.add(gdt);
-                    }
-                }
+                cx = cx + nx;
+                cy = cy + ny;
+
+                ll = ll - interpolateFlatness;
             }
         }
-        return finalTriangleSet;
+
+        triangulation.addSegment(previous, triangulation.addPoint(x, y), 1);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,253 @@
+/* MIT - License
+
+Copyright (c) 2012 - this year, Nils Schmidt
+
+Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE
+FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE. */
+package org.nschmidt.ldparteditor.text;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
+
+import org.nschmidt.ldparteditor.enums.Threshold;
+import org.nschmidt.ldparteditor.helpers.Metrics;
+import org.nschmidt.ldparteditor.logger.NLogger;
+
+/**
+ * The segments of a LDraw line and the coordinates of a line, triangle, quad
+ * or optional line. The coordinates are parsed in advance, because
+ * {@code new BigDecimal(...)} is the most expensive part of these lines. The
+ * same applies to the colour, the offset and the matrix of a reference.
+ * <br>
+ * The records of a whole file are created in parallel (see
+ * {@link #tokenize(String[])}). They do not depend on the other lines and
+ * they are immutable, so the {@link DatParser} can use them in the order of
+ * the lines afterwards.
+ *
+ * @author nils
+ *
+ */
+public final class TokenizedLine {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+"); //$NON-NLS-1$
+    /** Files with less lines are tokenized on the calling thread */
+    private static final int MIN_CHUNK_SIZE = 1024;
+    private static final int THREAD_COUNT = Math.max(1, Runtime.getRuntime().availableProcessors());
+    /**
+     * The numbers are only parsed in advance if the chunks run in parallel.
+     * On a single processor this is not faster than parsing them in the
+     * {@link DatParser}, but the numbers of all lines are kept until then.
+     */
+    private static final boolean PARSE_IN_ADVANCE = THREAD_COUNT > 1;
+
+    /** The time to tokenize all lines of a file */
+    private static final Metrics.Timer TOKENIZE_TIMER = Metrics.timer("parser.tokenize"); //$NON-NLS-1$
+
+    private static final ExecutorService pool = Executors.newFixedThreadPool(THREAD_COUNT, r -> {
+        final Thread t = new Thread(r, "TokenizedLine"); //$NON-NLS-1$
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final String[] segments;
+    /** The parsed segments or {@code null} */
+    private final BigDecimal[] numbers;
+    /** The context of the parsed segments ({@code null} if they are not rounded) */
+    private final MathContext mc;
+    /** The parsed colour of a reference or {@code null} */
+    private final Integer colourNumber;
+
+    private TokenizedLine(String[] segments, BigDecimal[] numbers, MathContext mc) {
+        this(segments, numbers, mc, null);
+    }
+
+    private TokenizedLine(String[] segments, BigDecimal[] numbers, MathContext mc, Integer colourNumber) {
+        this.segments = segments;
+        this.numbers = numbers;
+        this.mc = mc;
+        this.colourNumber = colourNumber;
+    }
+
+    /**
+     * Splits the line without parsing its coordinates
+     */
+    public static TokenizedLine of(String line) {
+        return new TokenizedLine(WHITESPACE.split(line.trim()), null, Threshold.mc);
+    }
+
+    /**
+     * Splits the lines and parses their coordinates in parallel chunks
+     *
+     * @param lines
+     *            the lines of a file
+     * @return the records in the order of the lines
+     */
+    public static TokenizedLine[] tokenize(String[] lines) {
+        final long start = TOKENIZE_TIMER.start();
+        final TokenizedLine[] result = new TokenizedLine[lines.length];
+        final MathContext mc = Threshold.mc;
+        final int chunkSize = Math.max(MIN_CHUNK_SIZE, lines.length / (THREAD_COUNT * 4) + 1);
+        final List<Callable<Void>> tasks = new ArrayList<>();
+        for (int i = 0; i < lines.length; i += chunkSize) {
+            final int from = i;
+            final int to = Math.min(lines.length, i + chunkSize);
+            tasks.add(() -> {
+                for (int j = from; j < to; j++) {
+                    result[j] = PARSE_IN_ADVANCE ? parse(lines[j], mc) : of(lines[j]);
+                }
+                return null;
+            });
+        }
+        try {
+            if (tasks.size() == 1) {
+                tasks.get(0).call();
+            } else {
+                for (Future<Void> future : pool.invokeAll(tasks)) {
+                    future.get();
+                }
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException ee) {
+            NLogger.error(TokenizedLine.class, ee.getCause());
+        } catch (Exception e) {
+            NLogger.error(TokenizedLine.class, e);
+        }
+        // Lines from an interrupted or failed chunk are split on demand
+        for (int i = 0; i < result.length; i++) {
+            if (result[i] == null) {
+                result[i] = of(lines[i]);
+            }
+        }
+        TOKENIZE_TIMER.stop(start);
+        return result;
+    }
+
+    private static TokenizedLine parse(String line, MathContext mc) {
+        final String[] segments = WHITESPACE.split(line.trim());
+        final int count;
+        switch (segments[0]) {
+        case "1": //$NON-NLS-1$
+            return parseReference(segments);
+        case "2": //$NON-NLS-1$
+            count = 8;
+            break;
+        case "3": //$NON-NLS-1$
+            count = 11;
+            break;
+        case "4": //$NON-NLS-1$
+        case "5": //$NON-NLS-1$
+            count = 14;
+            break;
+        default:
+            return new TokenizedLine(segments, null, mc);
+        }
+        if (segments.length != count) {
+            // The parser reports the wrong argument count
+            return new TokenizedLine(segments, null, mc);
+        }
+        final BigDecimal[] numbers = new BigDecimal[count];
+        for (int i = 2; i < count; i++) {
+            try {
+                numbers[i] = new BigDecimal(segments[i], mc);
+            } catch (NumberFormatException nfe) {
+                // The parser reports the invalid number
+            }
+        }
+        return new TokenizedLine(segments, numbers, mc);
+    }
+
+    /**
+     * Parses the colour, the offset and the matrix of a reference. The
+     * {@link DatParser} does not round these numbers.
+     */
+    private static TokenizedLine parseReference(String[] segments) {
+        if (segments.length < 15) {
+            // The parser reports the wrong argument count
+            return new TokenizedLine(segments, null, null);
+        }
+        Integer colourNumber = null;
+        try {
+            colourNumber = Integer.parseInt(segments[1]);
+        } catch (NumberFormatException nfe) {
+            // A direct colour or an invalid colour
+        }
+        final BigDecimal[] numbers = new BigDecimal[14];
+        for (int i = 2; i < 14; i++) {
+            try {
+                numbers[i] = new BigDecimal(segments[i]);
+            } catch (NumberFormatException nfe) {
+                // The parser reports the invalid number
+            }
+        }
+        return new TokenizedLine(segments, numbers, null, colourNumber);
+    }
+
+    /**
+     * @return the segments of the line (separated by whitespace)
+     */
+    public String[] getSegments() {
+        return segments;
+    }
+
+    /**
+     * Returns a coordinate of the line. It is the same as
+     * {@code new BigDecimal(getSegments()[index], Threshold.mc)}.
+     *
+     * @param index
+     *            the index of the segment
+     * @return the parsed segment
+     * @throws NumberFormatException
+     *             if the segment is not a valid number
+     */
+    public BigDecimal getNumber(int index) {
+        final BigDecimal result;
+        if (numbers != null && mc != null && (result = numbers[index]) != null && mc.equals(Threshold.mc)) {
+            return result;
+        }
+        return new BigDecimal(segments[index], Threshold.mc);
+    }
+
+    /**
+     * Returns a number of a reference. It is the same as
+     * {@code new BigDecimal(getSegments()[index])} (without rounding).
+     *
+     * @param index
+     *            the index of the segment
+     * @return the parsed segment
+     * @throws NumberFormatException
+     *             if the segment is not a valid number
+     */
+    public BigDecimal getExactNumber(int index) {
+        final BigDecimal result;
+        if (numbers != null && mc == null && (result = numbers[index]) != null) {
+            return result;
+        }
+        return new BigDecimal(segments[index]);
+    }
+
+    /**
+     * @return the colour number of a reference or {@code null} if it is not a
+     *         decimal number (e.g. a direct colour)
+     */
+    public Integer getColourNumber() {
+        return colourNumber;
+    }
+}
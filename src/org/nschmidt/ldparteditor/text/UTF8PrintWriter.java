@@ -19,6 +19,8 @@ import java.io.FileNotFoundException;
 import java.io.PrintWriter;
 import java.io.UnsupportedEncodingException;
 
+import org.nschmidt.ldparteditor.helpers.LibraryFileIndex;
+
 /**
  * This is the standard {@code PrintWriter} for writing LDraw files
  *
@@ -40,6 +42,7 @@ public class UTF8PrintWriter implements AutoCloseable {
      */
     public UTF8PrintWriter(String fileName) throws FileNotFoundException, UnsupportedEncodingException {
         myWriter = new PrintWriter(fileName, "UTF-8"); //$NON-NLS-1$
+        LibraryFileIndex.invalidate(fileName);
     }
 
     /**
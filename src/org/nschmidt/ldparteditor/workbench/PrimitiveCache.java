@@ -15,33 +15,317 @@ FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TOR
 ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE. */
 package org.nschmidt.ldparteditor.workbench;
 
-import java.io.Serializable;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.HashMap;
+import java.util.Map;
 
-import org.nschmidt.ldparteditor.data.PGData;
 import org.nschmidt.ldparteditor.data.PGTimestamp;
+import org.nschmidt.ldparteditor.logger.NLogger;
 
 /**
- * This class represents the primitive cache
+ * This class represents the primitive cache. It stores the lines of the
+ * primitive files in a binary file, which is separated from the workbench
+ * configuration. The file is memory mapped and only the hash codes of the
+ * paths are read at startup. The lines of a file are read when they are requested and
+ * only if the file was not modified since the cache was written.
+ * <br>
+ * A mapped file can not be replaced on every platform. Therefore every save
+ * writes a new generation of the cache file ({@code <path>.<generation>}) and
+ * the small file at the cache path only points to the current generation.
+ * Older generations are deleted as soon as they are not mapped anymore.
+ * <br>
+ * File format of a generation (version 2, big endian):
+ * <ul>
+ * <li>magic number and version</li>
+ * <li>string table: count, end offset of every string, UTF-8 data</li>
+ * <li>file records: count, then path (string index), hash code of the path,
+ * last modified, first line and line count of every file</li>
+ * <li>line table: count, string index of every line</li>
+ * </ul>
  *
  * @author nils
  *
  */
-public class PrimitiveCache implements Serializable {
-    // TODO New values, which were not included in the state before, have to be initialized! (@ WorkbenchManager.loadWorkbench())
-    /** V1.00 */
-    private static final long serialVersionUID = 1L;
+public class PrimitiveCache {
 
-    private HashMap<String, PGData> primitiveCache = new HashMap<String, PGData>();
+    private static final int MAGIC = 0x4C445043;
+    private static final int VERSION = 2;
+    private static final int RECORD_SIZE = 24;
+    /** The magic number of the file which points to the current generation */
+    private static final int POINTER_MAGIC = 0x4C445047;
+
+    /** The mapped cache file (can be {@code null}) */
+    private ByteBuffer buffer = null;
+    /** The newest generation of the cache file */
+    private long generation = 0L;
+    private int stringOffsetsPosition;
+    private int stringDataPosition;
+    private int recordsPosition;
+    private int recordCount = 0;
+    private int lineCount;
+    private int linesPosition;
+
+    /**
+     * Open addressing table (hash code of the path -> record index, -1 is an
+     * empty slot). The paths are only decoded when they are looked up.
+     */
+    private int[] recordTable = new int[0];
+    /** Records which were read since the last {@link #discardUnusedEntries()} */
+    private final BitSet usedRecords = new BitSet();
+    /** Records which will not be written again */
+    private final BitSet discardedRecords = new BitSet();
+
+    /** Lines of new or modified primitive files */
     private HashMap<PGTimestamp, ArrayList<String>> primitiveFileCache = new HashMap<PGTimestamp, ArrayList<String>>();
 
-    public HashMap<String, PGData> getPrimitiveCache() {
-        return primitiveCache;
+    public PrimitiveCache() {
+    }
+
+    /**
+     * Maps the current generation of a cache file. The cache is empty if the
+     * file does not exist or is not valid.
+     *
+     * @param path
+     *            the path of the cache file
+     * @return the primitive cache
+     */
+    public static PrimitiveCache load(String path) {
+        final PrimitiveCache result = new PrimitiveCache();
+        final File pointer = new File(path);
+        if (!pointer.exists()) {
+            return result;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(pointer)))) {
+            if (in.readInt() != POINTER_MAGIC) {
+                // The cache file of an older version is replaced on the next save
+                return result;
+            }
+            result.generation = in.readLong();
+        } catch (IOException | SecurityException e) {
+            NLogger.error(PrimitiveCache.class, e);
+            return result;
+        }
+        deleteOldGenerations(path, result.generation);
+        final File file = getGenerationFile(path, result.generation);
+        if (!file.exists()) {
+            return result;
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel channel = raf.getChannel()) { //$NON-NLS-1$
+            // The mapping stays valid after the channel was closed
+            result.readIndex(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (IOException | RuntimeException e) {
+            NLogger.error(PrimitiveCache.class, e);
+            result.clearIndex();
+        }
+        return result;
+    }
+
+    private static File getGenerationFile(String path, long generation) {
+        return new File(path + "." + generation); //$NON-NLS-1$
+    }
+
+    /**
+     * Deletes the generations of the cache file which were replaced while
+     * they were still mapped
+     */
+    private static void deleteOldGenerations(String path, long currentGeneration) {
+        final File pointer = new File(path).getAbsoluteFile();
+        final String prefix = pointer.getName() + "."; //$NON-NLS-1$
+        final File[] files = pointer.getParentFile() == null ? null : pointer.getParentFile().listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            final String name = file.getName();
+            if (!name.startsWith(prefix)) {
+                continue;
+            }
+            try {
+                if (Long.parseLong(name.substring(prefix.length())) != currentGeneration) {
+                    // This can fail if another instance still maps the file
+                    file.delete();
+                }
+            } catch (NumberFormatException nfe) {
+                // Not a generation of the cache file (e.g. a temporary file)
+            }
+        }
+    }
+
+    private void readIndex(ByteBuffer b) {
+        if (b.getInt(0) != MAGIC || b.getInt(4) != VERSION) {
+            return;
+        }
+        final int stringCount = b.getInt(8);
+        stringOffsetsPosition = 12;
+        stringDataPosition = stringOffsetsPosition + 4 * stringCount;
+        final int position = stringDataPosition + (stringCount > 0 ? b.getInt(stringOffsetsPosition + 4 * (stringCount - 1)) : 0);
+        final int count = b.getInt(position);
+        final int lines = b.getInt(position + 4 + RECORD_SIZE * count);
+        if (position + 8 + (long) RECORD_SIZE * count + 4L * lines != b.limit()) {
+            throw new IllegalStateException("The primitive cache file is corrupted."); //$NON-NLS-1$
+        }
+        buffer = b;
+        recordsPosition = position + 4;
+        recordCount = count;
+        lineCount = lines;
+        linesPosition = recordsPosition + RECORD_SIZE * count + 4;
+        // Only the hash codes are read here, the paths and the other fields
+        // of a record are read when the record is looked up
+        int capacity = 16;
+        while (capacity < 2 * count) {
+            capacity <<= 1;
+        }
+        recordTable = new int[capacity];
+        Arrays.fill(recordTable, -1);
+        final int mask = capacity - 1;
+        for (int i = 0; i < count; i++) {
+            int slot = spread(b.getInt(recordsPosition + RECORD_SIZE * i + 4)) & mask;
+            while (recordTable[slot] != -1) {
+                slot = slot + 1 & mask;
+            }
+            recordTable[slot] = i;
+        }
+    }
+
+    private void clearIndex() {
+        buffer = null;
+        recordCount = 0;
+        recordTable = new int[0];
+    }
+
+    private static int spread(int hash) {
+        return hash ^ hash >>> 16;
+    }
+
+    /**
+     * @return the index of the record for the path or {@code -1} if the path
+     *         is not in the cache file
+     */
+    private int findRecord(String path) {
+        if (recordCount == 0) {
+            return -1;
+        }
+        final int hash = path.hashCode();
+        final int mask = recordTable.length - 1;
+        byte[] bytes = null;
+        for (int slot = spread(hash) & mask; recordTable[slot] != -1; slot = slot + 1 & mask) {
+            final int record = recordTable[slot];
+            final int position = recordsPosition + RECORD_SIZE * record;
+            if (buffer.getInt(position + 4) == hash) {
+                if (bytes == null) {
+                    bytes = path.getBytes(StandardCharsets.UTF_8);
+                }
+                if (stringEquals(buffer.getInt(position), bytes)) {
+                    return record;
+                }
+            }
+        }
+        return -1;
     }
 
-    public void setPrimitiveCache(HashMap<String, PGData> primitiveCache) {
-        this.primitiveCache = primitiveCache;
+    private boolean stringEquals(int index, byte[] bytes) {
+        final int start = index == 0 ? 0 : buffer.getInt(stringOffsetsPosition + 4 * (index - 1));
+        final int end = buffer.getInt(stringOffsetsPosition + 4 * index);
+        if (end - start != bytes.length) {
+            return false;
+        }
+        final int offset = stringDataPosition + start;
+        for (int i = 0; i < bytes.length; i++) {
+            if (buffer.get(offset + i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String getString(int index) {
+        final int start = index == 0 ? 0 : buffer.getInt(stringOffsetsPosition + 4 * (index - 1));
+        final int end = buffer.getInt(stringOffsetsPosition + 4 * index);
+        final byte[] bytes = new byte[end - start];
+        final ByteBuffer b = buffer.duplicate();
+        b.position(stringDataPosition + start);
+        b.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads the lines of a primitive file from the cache file
+     *
+     * @param path
+     *            the absolute path of the primitive file
+     * @param lastModified
+     *            the last modification time of the primitive file
+     * @return the lines or {@code null} if the file is not cached or was
+     *         modified
+     */
+    public synchronized ArrayList<String> getLines(String path, long lastModified) {
+        final int record;
+        try {
+            record = findRecord(path);
+        } catch (RuntimeException re) {
+            NLogger.error(getClass(), re);
+            return null;
+        }
+        if (record == -1 || discardedRecords.get(record) || getLastModified(record) != lastModified) {
+            return null;
+        }
+        return readLines(record);
+    }
+
+    private long getLastModified(int record) {
+        return buffer.getLong(recordsPosition + RECORD_SIZE * record + 8);
+    }
+
+    private ArrayList<String> readLines(int record) {
+        try {
+            final int recordPosition = recordsPosition + RECORD_SIZE * record;
+            final int firstLine = buffer.getInt(recordPosition + 16);
+            final int count = buffer.getInt(recordPosition + 20);
+            if (firstLine < 0 || count < 0 || firstLine + (long) count > lineCount) {
+                throw new IllegalStateException("The primitive cache file is corrupted."); //$NON-NLS-1$
+            }
+            final ArrayList<String> result = new ArrayList<String>(count);
+            int position = linesPosition + 4 * firstLine;
+            for (int i = 0; i < count; i++) {
+                result.add(getString(buffer.getInt(position)));
+                position += 4;
+            }
+            usedRecords.set(record);
+            return result;
+        } catch (RuntimeException re) {
+            NLogger.error(getClass(), re);
+            discardedRecords.set(record);
+            return null;
+        }
+    }
+
+    /**
+     * Marks all entries of the cache file which were not read since the last
+     * call of this method as obsolete
+     */
+    public synchronized void discardUnusedEntries() {
+        for (int i = 0; i < recordCount; i++) {
+            if (!usedRecords.get(i)) {
+                discardedRecords.set(i);
+            }
+        }
+        usedRecords.clear();
     }
 
     public HashMap<PGTimestamp, ArrayList<String>> getPrimitiveFileCache() {
@@ -51,4 +335,128 @@ public class PrimitiveCache implements Serializable {
     public void setPrimitiveFileCache(HashMap<PGTimestamp, ArrayList<String>> primitiveFileCache) {
         this.primitiveFileCache = primitiveFileCache;
     }
+
+    /**
+     * Writes a new generation of the cache file. It contains the entries of
+     * the primitive file cache and all valid entries of the previous cache
+     * file. The mapped generation is not modified.
+     *
+     * @param path
+     *            the path of the cache file
+     * @throws IOException
+     *             if the new generation could not be written or could not
+     *             replace the current generation
+     */
+    public synchronized void save(String path) throws IOException {
+        final HashMap<String, Integer> stringIndices = new HashMap<String, Integer>();
+        final ArrayList<String> strings = new ArrayList<String>();
+        final ArrayList<int[]> newRecords = new ArrayList<int[]>();
+        final ArrayList<Long> newLastModified = new ArrayList<Long>();
+        int lineCount = 0;
+        final HashMap<String, ArrayList<String>> newFiles = new HashMap<String, ArrayList<String>>();
+        final HashMap<String, Long> newFileTimestamps = new HashMap<String, Long>();
+        if (primitiveFileCache != null) {
+            for (Map.Entry<PGTimestamp, ArrayList<String>> entry : primitiveFileCache.entrySet()) {
+                newFiles.put(entry.getKey().getPath(), entry.getValue());
+                newFileTimestamps.put(entry.getKey().getPath(), entry.getKey().getLastModified());
+            }
+        }
+        for (int record = 0; record < recordCount; record++) {
+            if (discardedRecords.get(record)) {
+                continue;
+            }
+            final String filePath;
+            final long lastModified;
+            try {
+                filePath = getString(buffer.getInt(recordsPosition + RECORD_SIZE * record));
+                lastModified = getLastModified(record);
+            } catch (RuntimeException re) {
+                NLogger.error(getClass(), re);
+                discardedRecords.set(record);
+                continue;
+            }
+            if (!newFiles.containsKey(filePath)) {
+                final ArrayList<String> lines = readLines(record);
+                if (lines != null) {
+                    newFiles.put(filePath, lines);
+                    newFileTimestamps.put(filePath, lastModified);
+                }
+            }
+        }
+        final ArrayList<Integer> lineIndices = new ArrayList<Integer>();
+        for (Map.Entry<String, ArrayList<String>> entry : newFiles.entrySet()) {
+            final ArrayList<String> lines = entry.getValue();
+            newRecords.add(new int[]{getStringIndex(entry.getKey(), stringIndices, strings), lineCount, lines.size()});
+            newLastModified.add(newFileTimestamps.get(entry.getKey()));
+            for (String line : lines) {
+                lineIndices.add(getStringIndex(line, stringIndices, strings));
+            }
+            lineCount += lines.size();
+        }
+
+        final long previousGeneration = generation;
+        final long newGeneration = previousGeneration + 1L;
+        final File pointer = new File(path);
+        final File data = getGenerationFile(path, newGeneration);
+        final File tmp = new File(path + ".tmp"); //$NON-NLS-1$
+        try {
+            writeData(data, strings, newRecords, newLastModified, lineIndices);
+            try (DataOutputStream out = new DataOutputStream(new FileOutputStream(tmp))) {
+                out.writeInt(POINTER_MAGIC);
+                out.writeLong(newGeneration);
+            }
+            // Only the small pointer file is replaced, never the mapped file
+            Files.move(tmp.toPath(), pointer.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | SecurityException e) {
+            tmp.delete();
+            data.delete();
+            throw e;
+        }
+        generation = newGeneration;
+        // The previous generation can only be deleted if it is not mapped
+        // (otherwise it is deleted on the next start)
+        getGenerationFile(path, previousGeneration).delete();
+    }
+
+    private static void writeData(File file, ArrayList<String> strings, ArrayList<int[]> newRecords, ArrayList<Long> newLastModified, ArrayList<Integer> lineIndices) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(strings.size());
+            final ArrayList<byte[]> encoded = new ArrayList<byte[]>(strings.size());
+            int end = 0;
+            for (String s : strings) {
+                final byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+                encoded.add(bytes);
+                end += bytes.length;
+                out.writeInt(end);
+            }
+            for (byte[] bytes : encoded) {
+                out.write(bytes);
+            }
+            out.writeInt(newRecords.size());
+            for (int i = 0; i < newRecords.size(); i++) {
+                final int[] record = newRecords.get(i);
+                out.writeInt(record[0]);
+                out.writeInt(strings.get(record[0]).hashCode());
+                out.writeLong(newLastModified.get(i));
+                out.writeInt(record[1]);
+                out.writeInt(record[2]);
+            }
+            out.writeInt(lineIndices.size());
+            for (Integer index : lineIndices) {
+                out.writeInt(index);
+            }
+        }
+    }
+
+    private static int getStringIndex(String s, HashMap<String, Integer> stringIndices, ArrayList<String> strings) {
+        Integer index = stringIndices.get(s);
+        if (index == null) {
+            index = strings.size();
+            stringIndices.put(s, index);
+            strings.add(s);
+        }
+        return index;
+    }
 }
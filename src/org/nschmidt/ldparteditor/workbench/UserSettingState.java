@@ -31,6 +31,7 @@ import org.nschmidt.ldparteditor.enums.TextTask;
 import org.nschmidt.ldparteditor.enums.View;
 import org.nschmidt.ldparteditor.logger.NLogger;
 import org.nschmidt.ldparteditor.state.KeyStateManager;
+import org.nschmidt.ldparteditor.text.SyntaxFormatter;
 
 /**
  * This class represents the permanent state of the application setting with
@@ -413,6 +414,9 @@ public class UserSettingState implements Serializable {
     private double coplanarity_angle_warning = 1d;
     private double coplanarity_angle_error = 3d;
 
+    /** The memory budget for the undo/redo history of a file in megabytes (0 = default). */
+    private int undoMemoryBudget = 0;
+
     public UserSettingState() {
         this.getUserPalette().add(new GColour(0, 0.02f, 0.075f, 0.114f, 1f));
 
@@ -1342,6 +1346,9 @@ public class UserSettingState implements Serializable {
         if (text_foreground_hidden_r != null) {
             Colour.text_foreground_hidden[0] = SWTResourceManager.getColor(text_foreground_hidden_r[0], text_foreground_hidden_g[0], text_foreground_hidden_b[0]);
         }
+
+        // The cached line styles of the text editors contain the old colours
+        SyntaxFormatter.clearCache();
     }
 
     public boolean isAllowInvalidShapes() {
@@ -1477,4 +1484,12 @@ public class UserSettingState implements Serializable {
     public void setCoplanarity_angle_error(double coplanarity_angle_error) {
         this.coplanarity_angle_error = coplanarity_angle_error;
     }
+
+    public int getUndoMemoryBudget() {
+        return undoMemoryBudget > 0 ? undoMemoryBudget : 64;
+    }
+
+    public void setUndoMemoryBudget(int undoMemoryBudget) {
+        this.undoMemoryBudget = undoMemoryBudget;
+    }
 }
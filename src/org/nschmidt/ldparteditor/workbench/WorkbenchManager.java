@@ -27,6 +27,7 @@ import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
 
 import org.eclipse.swt.graphics.Rectangle;
+import org.nschmidt.ldparteditor.data.LibraryHeaderIndex;
 import org.nschmidt.ldparteditor.enums.Colour;
 import org.nschmidt.ldparteditor.enums.Threshold;
 import org.nschmidt.ldparteditor.helpers.Manipulator;
@@ -45,6 +46,8 @@ public enum WorkbenchManager {
     INSTANCE;
 
     public static final String CONFIG_GZ = AppData.getPath() + "config.gz"; //$NON-NLS-1$
+    /** The primitive cache is stored separately, because it is read lazily */
+    public static final String PRIMITIVE_CACHE_BIN = AppData.getPath() + "primitive_cache.bin"; //$NON-NLS-1$
 
     /** The window state of the 3D editor */
     private static Editor3DWindowState editor3DWindowState;
@@ -94,12 +97,9 @@ public enum WorkbenchManager {
                 }
                 Manipulator.setSnap(WorkbenchManager.userSettingState.getMedium_move_snap(), WorkbenchManager.userSettingState.getMedium_rotate_snap(),
                         WorkbenchManager.userSettingState.getMedium_scale_snap());
-                try {
-                    WorkbenchManager.primitiveCache = (PrimitiveCache) configFileStream.readObject();
-                } catch (Exception e) {
-                    NLogger.error(WorkbenchManager.class, e);
-                }
                 configFileStream.close();
+                // Only the index of the primitive cache is read here
+                WorkbenchManager.primitiveCache = PrimitiveCache.load(PRIMITIVE_CACHE_BIN);
             }
         } catch (FileNotFoundException e) {
             NLogger.error(WorkbenchManager.class, e);
@@ -174,12 +174,11 @@ public enum WorkbenchManager {
                 WorkbenchManager.userSettingState.saveColours();
             }
             configFileStream.writeObject(WorkbenchManager.userSettingState);
-            try {
-                configFileStream.writeObject(WorkbenchManager.primitiveCache);
-            } catch (Exception e) {
-                NLogger.error(WorkbenchManager.class, e);
-            }
             configFileStream.close();
+            LibraryHeaderIndex.save();
+            if (WorkbenchManager.primitiveCache != null) {
+                WorkbenchManager.primitiveCache.save(PRIMITIVE_CACHE_BIN);
+            }
         } catch (SecurityException se) {
             NLogger.error(WorkbenchManager.class, se);
             return false;